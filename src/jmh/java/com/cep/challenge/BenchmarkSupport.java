@@ -0,0 +1,40 @@
+package com.cep.challenge;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+/**
+ * Utilitários comuns aos benchmarks JMH ({@code src/jmh/java}).
+ */
+public final class BenchmarkSupport {
+
+    /** Semente fixa: os mesmos CEPs em toda execução. */
+    public static final long SEED = 42L;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Sem o Spring o Logback registra em DEBUG no console; os logs por consulta
+     * do serviço (nível INFO) passariam a dominar a medição.
+     */
+    public static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    /**
+     * {@code count} CEPs aleatórios de 8 dígitos; {@code formatted} usa o formato "01001-000".
+     */
+    public static String[] randomCeps(int count, boolean formatted) {
+        Random random = new Random(SEED);
+        String[] ceps = new String[count];
+        for (int i = 0; i < count; i++) {
+            String digits = String.format("%08d", random.nextInt(100_000_000));
+            ceps[i] = formatted ? digits.substring(0, 5) + "-" + digits.substring(5) : digits;
+        }
+        return ceps;
+    }
+}
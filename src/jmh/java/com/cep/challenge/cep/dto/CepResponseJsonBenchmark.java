@@ -0,0 +1,64 @@
+package com.cep.challenge.cep.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização do {@link CepResponse} com um {@link ObjectMapper} configurado
+ * como o do Spring (propriedades desconhecidas ignoradas).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CepResponseJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private CepResponse response;
+    private byte[] json;
+    private byte[] upstreamJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        response = new CepResponse("01001-000", "Praça da Sé", "Sé", "São Paulo", "SP");
+        json = objectMapper.writeValueAsBytes(response);
+        // formato típico da API externa: campos que o CepResponse não mapeia
+        upstreamJson = """
+                {"cep": "01001-000", "logradouro": "Praça da Sé", "complemento": "lado ímpar",
+                 "unidade": "", "bairro": "Sé", "localidade": "São Paulo", "uf": "SP",
+                 "estado": "São Paulo", "regiao": "Sudeste", "ibge": "3550308", "gia": "1004",
+                 "ddd": "11", "siafi": "7107"}
+                """.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public CepResponse deserialize() throws Exception {
+        return objectMapper.readValue(json, CepResponse.class);
+    }
+
+    @Benchmark
+    public CepResponse deserializeUpstream() throws Exception {
+        return objectMapper.readValue(upstreamJson, CepResponse.class);
+    }
+}
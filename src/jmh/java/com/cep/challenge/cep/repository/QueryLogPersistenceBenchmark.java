@@ -0,0 +1,101 @@
+package com.cep.challenge.cep.repository;
+
+import com.cep.challenge.BenchmarkSupport;
+import com.cep.challenge.ChallengeApplication;
+import com.cep.challenge.cep.domain.QueryLog;
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.config.AppProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação de {@link QueryLog} no H2 em memória (perfil {@code test}), por
+ * log: {@code save} um a um, {@code saveAll} via JPA e o {@code batchUpdate}
+ * JDBC usado pelo {@link WriteBehindQueryLogWriter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryLogPersistenceBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+    private QueryLogRepository queryLogRepository;
+    private WriteBehindQueryLogWriter jdbcWriter;
+    private String[] ceps;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test", "--logging.level.root=WARN");
+        queryLogRepository = context.getBean(QueryLogRepository.class);
+        jdbcWriter = new WriteBehindQueryLogWriter(context.getBean(JdbcTemplate.class),
+                context.getBean(AppProperties.class).getQueryLog());
+        ceps = BenchmarkSupport.randomCeps(BATCH_SIZE, false);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        queryLogRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        jdbcWriter.destroy();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void saveOneByOne() {
+        for (QueryLog entry : newBatch()) {
+            queryLogRepository.save(entry);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void saveAll() {
+        queryLogRepository.saveAll(newBatch());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void jdbcBatchUpdate() {
+        jdbcWriter.insertBatch(newBatch());
+    }
+
+    private List<QueryLog> newBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<QueryLog> batch = new ArrayList<>(BATCH_SIZE);
+        for (String cep : ceps) {
+            batch.add(new QueryLog(null, cep, now, 12L, true, false, QuerySource.UPSTREAM));
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,130 @@
+package com.cep.challenge.cep.service;
+
+import com.cep.challenge.BenchmarkSupport;
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.cache.PersistentCepCache;
+import com.cep.challenge.cep.client.CepClient;
+import com.cep.challenge.cep.domain.QueryLog;
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.metrics.CepMetrics;
+import com.cep.challenge.cep.offline.OfflineCepSource;
+import com.cep.challenge.cep.prefetch.CepPrefetcher;
+import com.cep.challenge.cep.repository.QueryLogWriter;
+import com.cep.challenge.cep.repository.ReactiveQueryLogWriter;
+import com.cep.challenge.cep.stats.CepStats;
+import com.cep.challenge.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do {@link CepService} sem rede: a API externa é um {@link CepClient}
+ * em memória e o log vai para um writer que só conta. Mede o que o serviço
+ * acrescenta em cada caminho (cache, SingleFlight, montagem do log).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CepServiceBenchmark {
+
+    private static final int KEYS = 1024;
+
+    /** {@code true}: CEPs sempre em cache; {@code false}: cache desligado, toda consulta vai ao cliente. */
+    @Param({"true", "false"})
+    public boolean cacheHit;
+
+    private CepService cepService;
+    private String[] ceps;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+
+        AppProperties props = new AppProperties();
+        props.getCache().setEnabled(cacheHit);
+        props.getPersistentCache().setEnabled(false);
+        QueryLogWriter countingWriter = new CountingQueryLogWriter();
+        CepCache cepCache = new CepCache(props);
+        OfflineCepSource offlineCepSource = new OfflineCepSource(props, new ObjectMapper(), null, null);
+        CepClient cepClient = new StubCepClient();
+        cepService = new CepService(cepClient, countingWriter,
+                new ReactiveQueryLogWriter(countingWriter, Schedulers.immediate()), cepCache, offlineCepSource, props,
+                new CepMetrics(new SimpleMeterRegistry()), new CepStats(props),
+                new PersistentCepCache(null, null, props, null), new CepPrefetcher(cepCache, cepClient, props));
+
+        ceps = BenchmarkSupport.randomCeps(KEYS, false);
+        for (String cep : ceps) {
+            cepService.getCep(cep);
+        }
+    }
+
+    @Benchmark
+    public CepResponse getCep() {
+        return cepService.getCep(nextCep());
+    }
+
+    @Benchmark
+    public CepResponse getCepReactive() {
+        return cepService.getCepReactive(nextCep()).block();
+    }
+
+    private String nextCep() {
+        String cep = ceps[next];
+        next = (next + 1) & (KEYS - 1);
+        return cep;
+    }
+
+    /**
+     * Responde na hora, sem WebClient em uso: isola o custo do serviço do custo de rede.
+     */
+    static final class StubCepClient extends CepClient {
+
+        StubCepClient() {
+            super(WebClient.create());
+        }
+
+        @Override
+        public CepResponse findByCep(String cep) {
+            return response(cep);
+        }
+
+        @Override
+        public Mono<CepResponse> fetch(String cep) {
+            return Mono.fromSupplier(() -> response(cep));
+        }
+
+        private static CepResponse response(String cep) {
+            return new CepResponse(cep, "Praça da Sé", "Sé", "São Paulo", "SP");
+        }
+    }
+
+    static final class CountingQueryLogWriter implements QueryLogWriter {
+
+        private long written;
+
+        @Override
+        public void write(QueryLog entry) {
+            written++;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.cep.challenge.cep.util;
+
+import com.cep.challenge.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalização e validação de CEP: {@link CepKeys#parse(CharSequence)} (sem
+ * alocação) comparado à normalização por {@code StringBuilder} que o cache
+ * usava antes das chaves numéricas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CepKeysBenchmark {
+
+    private static final int KEYS = 1024;
+
+    @Param({"digits", "formatted", "invalid"})
+    public String input;
+
+    private String[] ceps;
+    private int[] keys;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ceps = switch (input) {
+            case "formatted" -> BenchmarkSupport.randomCeps(KEYS, true);
+            case "invalid" -> invalidCeps();
+            default -> BenchmarkSupport.randomCeps(KEYS, false);
+        };
+        keys = new int[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = Math.max(CepKeys.parse(ceps[i]), 0);
+        }
+    }
+
+    @Benchmark
+    public int parse() {
+        return CepKeys.parse(ceps[advance()]);
+    }
+
+    @Benchmark
+    public String normalize() {
+        return normalize(ceps[advance()]);
+    }
+
+    @Benchmark
+    public String format() {
+        return CepKeys.format(keys[advance()]);
+    }
+
+    private int advance() {
+        int index = next;
+        next = (next + 1) & (KEYS - 1);
+        return index;
+    }
+
+    private static String normalize(String cep) {
+        StringBuilder digits = new StringBuilder(8);
+        for (int i = 0; i < cep.length(); i++) {
+            char c = cep.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.length() == 8 ? digits.toString() : cep;
+    }
+
+    private static String[] invalidCeps() {
+        String[] valid = BenchmarkSupport.randomCeps(KEYS, false);
+        String[] invalid = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            invalid[i] = valid[i].substring(0, 7) + "x";
+        }
+        return invalid;
+    }
+}
@@ -0,0 +1,96 @@
+package com.cep.challenge.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Executa um {@link LoadPlan} em malha aberta: cada requisição sai no seu
+ * instante planejado, assíncrona, esteja o serviço respondendo ou não. A latência é contada a partir do instante planejado, e não do envio,
+ * para que um serviço lento não esconda a fila que ele mesmo criou
+ * (coordinated omission).
+ * <p>
+ * As primeiras {@code warmupRequests} requisições aquecem o JIT, o cache e as
+ * conexões e ficam fora do relatório. {@code maxInFlight} limita quantas
+ * podem estar pendentes ao mesmo tempo; acima disso o envio espera, e essa
+ * espera entra na latência.
+ */
+final class LoadDriver {
+
+    private final HttpClient client;
+    private final String urlTemplate;
+    private final int warmupRequests;
+    private final int maxInFlight;
+    private final Duration timeout;
+
+    /**
+     * @param urlTemplate URL com {@code {cep}}, ex. {@code http://localhost:8080/api/ceps/{cep}}
+     */
+    LoadDriver(String urlTemplate, int warmupRequests, int maxInFlight, Duration timeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.urlTemplate = urlTemplate;
+        this.warmupRequests = warmupRequests;
+        this.maxInFlight = maxInFlight;
+        this.timeout = timeout;
+    }
+
+    LoadReport run(LoadPlan plan) throws InterruptedException {
+        Histogram latencyMicros = new ConcurrentHistogram(3);
+        AtomicLongArray statuses = new AtomicLongArray(6);
+        AtomicLong errors = new AtomicLong();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        int warmup = Math.min(warmupRequests, plan.size());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < plan.size(); i++) {
+            long intended = start + plan.offsets()[i];
+            parkUntil(intended);
+            inFlight.acquire();
+            boolean measured = i >= warmup;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(urlTemplate.replace("{cep}", plan.ceps()[i])))
+                    .timeout(timeout)
+                    .GET()
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (measured) {
+                    if (error != null) {
+                        errors.incrementAndGet();
+                    } else {
+                        latencyMicros.recordValue((System.nanoTime() - intended) / 1_000);
+                        statuses.incrementAndGet(Math.min(response.statusCode() / 100, 5));
+                    }
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(maxInFlight);
+        long end = System.nanoTime();
+
+        long measuredStart = warmup < plan.size() ? start + plan.offsets()[warmup] : end;
+        long[] byClass = new long[statuses.length()];
+        for (int i = 0; i < byClass.length; i++) {
+            byClass[i] = statuses.get(i);
+        }
+        return new LoadReport(plan.description(), plan.size() - warmup, end - measuredStart, byClass,
+                errors.get(), latencyMicros);
+    }
+
+    private static void parkUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
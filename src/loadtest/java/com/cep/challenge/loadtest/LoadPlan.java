@@ -0,0 +1,182 @@
+package com.cep.challenge.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A carga inteira decidida antes de começar: qual CEP cada requisição pede e
+ * em que instante (a partir do início) ela deve sair. Com a mesma semente o
+ * plano é o mesmo em toda execução.
+ *
+ * @param offsets instante planejado de cada requisição, em nanos desde o início
+ */
+record LoadPlan(String description, String[] ceps, long[] offsets) {
+
+    /** CEP da chave 0; as demais são consecutivas a partir dele. */
+    private static final int FIRST_CEP = 1_000_000;
+
+    static LoadPlan from(LoadTestOptions options) throws IOException {
+        String workload = options.string("workload", "zipf");
+        int requests = options.integer("requests", 20_000);
+        double rate = options.decimal("rate", 1_000);
+        int keys = options.integer("keys", 100_000);
+        SplittableRandom random = new SplittableRandom(options.integer("seed", 42));
+
+        return switch (workload) {
+            case "uniform" -> new LoadPlan("uniforme sobre %d CEPs, %.0f req/s".formatted(keys, rate),
+                    uniform(requests, keys, random), constantRate(requests, rate));
+            case "zipf" -> {
+                double exponent = options.decimal("zipf-exponent", 1.0);
+                yield new LoadPlan("zipf (s=%.2f) sobre %d CEPs, %.0f req/s".formatted(exponent, keys, rate),
+                        zipf(requests, keys, exponent, random), constantRate(requests, rate));
+            }
+            case "burst" -> {
+                double exponent = options.decimal("zipf-exponent", 1.0);
+                double factor = options.decimal("burst-factor", 10);
+                Duration every = options.duration("burst-every", Duration.ofSeconds(10));
+                Duration length = options.duration("burst-length", Duration.ofSeconds(1));
+                yield new LoadPlan("zipf (s=%.2f) sobre %d CEPs, %.0f req/s com picos de %.0fx por %s a cada %s"
+                        .formatted(exponent, keys, rate, factor, length, every),
+                        zipf(requests, keys, exponent, random), bursts(requests, rate, factor, every, length));
+            }
+            case "replay" -> replay(options, rate);
+            default -> throw new IllegalArgumentException(
+                    "workload inválido: " + workload + " (uniform, zipf, burst ou replay)");
+        };
+    }
+
+    int size() {
+        return ceps.length;
+    }
+
+    Duration duration() {
+        return Duration.ofNanos(offsets.length == 0 ? 0 : offsets[offsets.length - 1]);
+    }
+
+    private static String[] uniform(int requests, int keys, SplittableRandom random) {
+        String[] ceps = new String[requests];
+        for (int i = 0; i < requests; i++) {
+            ceps[i] = cep(random.nextInt(keys));
+        }
+        return ceps;
+    }
+
+    /**
+     * Chave de posição {@code k} (0 = mais popular) com probabilidade
+     * proporcional a {@code 1 / (k + 1)^s}, por busca binária na distribuição acumulada.
+     */
+    private static String[] zipf(int requests, int keys, double exponent, SplittableRandom random) {
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int k = 0; k < keys; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        String[] ceps = new String[requests];
+        for (int i = 0; i < requests; i++) {
+            int k = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            ceps[i] = cep(Math.min(k < 0 ? -k - 1 : k, keys - 1));
+        }
+        return ceps;
+    }
+
+    private static long[] constantRate(int requests, double rate) {
+        long[] offsets = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            offsets[i] = (long) (i * 1e9 / rate);
+        }
+        return offsets;
+    }
+
+    /**
+     * {@code rate} fora dos picos e {@code rate * factor} nos primeiros
+     * {@code length} de cada período {@code every}.
+     */
+    private static long[] bursts(int requests, double rate, double factor, Duration every, Duration length) {
+        long[] offsets = new long[requests];
+        long period = every.toNanos();
+        long burst = length.toNanos();
+        double t = 0;
+        for (int i = 0; i < requests; i++) {
+            offsets[i] = (long) t;
+            t += 1e9 / ((long) t % period < burst ? rate * factor : rate);
+        }
+        return offsets;
+    }
+
+    /**
+     * Uma requisição por linha de {@code replay-file}: o CEP puro ou um objeto
+     * JSON com o campo {@code cep} (como as linhas de
+     * {@code /api/query-logs/export}); linhas sem CEP são ignoradas. Com
+     * {@code replay-timing} e {@code queryTime} nas linhas, os intervalos
+     * originais são mantidos (divididos por {@code replay-speed}); senão as
+     * requisições saem a {@code rate}.
+     */
+    private static LoadPlan replay(LoadTestOptions options, double rate) throws IOException {
+        Path file = Path.of(options.string("replay-file", "requests.jsonl"));
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> ceps = new ArrayList<>();
+        List<LocalDateTime> times = new ArrayList<>();
+        int skipped = 0;
+        for (String line : Files.readAllLines(file)) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("{")) {
+                JsonNode node = mapper.readTree(line);
+                if (!node.hasNonNull("cep")) {
+                    skipped++;
+                    continue;
+                }
+                ceps.add(node.get("cep").asText());
+                times.add(node.hasNonNull("queryTime") ? LocalDateTime.parse(node.get("queryTime").asText()) : null);
+            } else {
+                ceps.add(line);
+                times.add(null);
+            }
+        }
+        if (ceps.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum CEP em " + file + " (" + skipped + " linhas sem o campo cep)");
+        }
+
+        int requests = Math.min(options.integer("requests", ceps.size()), ceps.size());
+        boolean timing = options.flag("replay-timing") && !times.contains(null);
+        String[] planned = new String[requests];
+        long[] offsets;
+        if (timing) {
+            // o export não vem ordenado por horário
+            Integer[] order = new Integer[ceps.size()];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.comparing(times::get));
+            double speed = options.decimal("replay-speed", 1);
+            LocalDateTime first = times.get(order[0]);
+            offsets = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                planned[i] = ceps.get(order[i]);
+                offsets[i] = (long) (Duration.between(first, times.get(order[i])).toNanos() / speed);
+            }
+        } else {
+            ceps.subList(0, requests).toArray(planned);
+            offsets = constantRate(requests, rate);
+        }
+        String pacing = timing ? "intervalos originais" : "%.0f req/s".formatted(rate);
+        return new LoadPlan("replay de %s (%d linhas, %d ignoradas), %s".formatted(file, ceps.size(), skipped, pacing),
+                planned, offsets);
+    }
+
+    private static String cep(int key) {
+        return String.format("%08d", FIRST_CEP + key);
+    }
+}
@@ -0,0 +1,78 @@
+package com.cep.challenge.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resultado de uma execução, sem as requisições de aquecimento.
+ *
+ * @param statusClasses respostas por classe de status ({@code [2]} = 2xx ...)
+ * @param errors        requisições sem resposta (timeout, conexão recusada)
+ * @param latencyMicros latência desde o instante planejado, em microssegundos
+ */
+record LoadReport(String description, long requests, long elapsedNanos, long[] statusClasses, long errors,
+                  Histogram latencyMicros) {
+
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+
+    double throughput() {
+        return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+    }
+
+    double percentileMillis(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    void print(PrintStream out) {
+        out.println();
+        out.println("📊 Carga: " + description);
+        out.printf(Locale.ROOT, "   %d requisições em %.1f s: %.1f req/s%n", requests, elapsedNanos / 1e9, throughput());
+        out.printf(Locale.ROOT, "   status 2xx %d | 3xx %d | 4xx %d | 5xx %d | sem resposta %d%n",
+                statusClasses[2], statusClasses[3], statusClasses[4], statusClasses[5], errors);
+        StringBuilder latency = new StringBuilder("   latência (ms)");
+        for (double percentile : PERCENTILES) {
+            latency.append(String.format(Locale.ROOT, " | p%s %.2f", label(percentile), percentileMillis(percentile)));
+        }
+        latency.append(String.format(Locale.ROOT, " | max %.2f", latencyMicros.getMaxValue() / 1000.0));
+        out.println(latency);
+    }
+
+    void write(Path file, Map<String, Object> extra) throws IOException {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            latency.put("p" + label(percentile), percentileMillis(percentile));
+        }
+        latency.put("max", latencyMicros.getMaxValue() / 1000.0);
+        latency.put("mean", latencyMicros.getMean() / 1000.0);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("workload", description);
+        result.put("requests", requests);
+        result.put("durationSeconds", elapsedNanos / 1e9);
+        result.put("throughputPerSecond", throughput());
+        result.put("status", Map.of("2xx", statusClasses[2], "3xx", statusClasses[3],
+                "4xx", statusClasses[4], "5xx", statusClasses[5]));
+        result.put("errors", errors);
+        result.put("latencyMs", latency);
+        result.putAll(extra);
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), result);
+    }
+
+    /** 99.9 -> "999", 50 -> "50" */
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile).replace(".", "");
+    }
+}
@@ -0,0 +1,102 @@
+package com.cep.challenge.loadtest;
+
+import com.cep.challenge.ChallengeApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Teste de carga reproduzível sem Docker: sobe uma API externa falsa
+ * ({@link UpstreamStub}), a aplicação apontando para ela (perfil
+ * {@code local}, H2 em memória) e dispara um {@link LoadPlan} com o
+ * {@link LoadDriver}. Com {@code --target=http://host:porta} só a carga é
+ * gerada, contra uma instância já em execução.
+ * <p>
+ * {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--workload=zipf --rate=2000"}
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions(args);
+        LoadPlan plan = LoadPlan.from(options);
+
+        UpstreamStub stub = null;
+        ConfigurableApplicationContext app = null;
+        try {
+            String target = options.string("target", null);
+            if (target == null) {
+                stub = new UpstreamStub(
+                        options.duration("stub-latency", Duration.ofMillis(20)),
+                        options.decimal("stub-latency-sigma", 0.5),
+                        options.decimal("stub-error-rate", 0),
+                        options.decimal("stub-not-found-rate", 0));
+                app = startApp(stub, options);
+                target = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            }
+
+            LoadDriver driver = new LoadDriver(target + options.string("path", "/api/ceps/{cep}"),
+                    options.integer("warmup-requests", 1_000),
+                    options.integer("max-in-flight", 10_000),
+                    options.duration("timeout", Duration.ofSeconds(10)));
+            System.out.printf("🚀 %d requisições em ~%d s contra %s: %s%n",
+                    plan.size(), plan.duration().toSeconds(), target, plan.description());
+            LoadReport report = driver.run(plan);
+
+            report.print(System.out);
+            Map<String, Object> extra = new LinkedHashMap<>();
+            if (stub != null) {
+                System.out.println("   chamadas à API externa: " + stub.calls());
+                extra.put("upstreamCalls", stub.calls());
+            }
+            Path resultFile = Path.of(options.string("result-file", "target/loadtest-result.json"));
+            report.write(resultFile, extra);
+            System.out.println("   resultado em " + resultFile);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    /**
+     * Opções {@code --app.*}, {@code --spring.*} etc. passadas ao
+     * {@link LoadTest} têm precedência sobre as daqui, ex.
+     * {@code --spring.profiles.active=local,virtual-threads}.
+     */
+    private static ConfigurableApplicationContext startApp(UpstreamStub stub, LoadTestOptions options) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.profiles.active", "local");
+        properties.put("server.port", "0");
+        properties.put("app.cep.upstreams[0].name", "stub");
+        properties.put("app.cep.upstreams[0].base-url", stub.baseUrl());
+        properties.put("app.cep.upstreams[0].uri-template", "/ws/{cep}/json");
+        properties.put("app.cep.warm-up.enabled", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.jpa.show-sql", "false");
+        // os logs por consulta (e as stack traces dos 5xx, já contados no
+        // relatório) dominariam a medição
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.cep", "OFF");
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("logging.level.org.apache.catalina.core.ContainerBase", "OFF");
+        for (String arg : options.appArgs()) {
+            int eq = arg.indexOf('=');
+            properties.put(arg.substring(2, eq < 0 ? arg.length() : eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return SpringApplication.run(ChallengeApplication.class, args);
+    }
+}
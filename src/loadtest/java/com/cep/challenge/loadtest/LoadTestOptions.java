@@ -0,0 +1,68 @@
+package com.cep.challenge.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opções do {@link LoadTest} no formato {@code --nome=valor}. As que começam
+ * com {@code --app.}, {@code --spring.}, {@code --server.} ou
+ * {@code --logging.} são repassadas à aplicação embarcada.
+ */
+final class LoadTestOptions {
+
+    private static final List<String> APP_PREFIXES = List.of("app.", "spring.", "server.", "logging.", "management.");
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+    private final List<String> appArgs = new ArrayList<>();
+
+    LoadTestOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Opção inválida: " + arg + " (use --nome=valor)");
+            }
+            String option = arg.substring(2);
+            if (APP_PREFIXES.stream().anyMatch(option::startsWith)) {
+                appArgs.add(arg);
+                continue;
+            }
+            int eq = option.indexOf('=');
+            values.put(eq < 0 ? option : option.substring(0, eq), eq < 0 ? "true" : option.substring(eq + 1));
+        }
+    }
+
+    List<String> appArgs() {
+        return appArgs;
+    }
+
+    String string(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int integer(String name, int defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    double decimal(String name, double defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    boolean flag(String name) {
+        return Boolean.parseBoolean(values.get(name));
+    }
+
+    Duration duration(String name, Duration defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : DurationStyle.detectAndParse(value);
+    }
+
+    boolean has(String name) {
+        return values.containsKey(name);
+    }
+}
@@ -0,0 +1,108 @@
+package com.cep.challenge.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * API externa falsa no formato do ViaCEP ({@code /ws/{cep}/json}), no lugar do
+ * Mockoon/WireMock do docker-compose.
+ * <p>
+ * Cada resposta demora uma latência log-normal com mediana {@code latency} e
+ * desvio {@code sigma} (0 = fixa). Uma fração {@code errorRate} das chamadas
+ * responde 500; uma fração {@code notFoundRate} dos CEPs responde sempre 404,
+ * escolhida pelo próprio CEP para que o cache negativo se comporte como com
+ * dados reais.
+ */
+final class UpstreamStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final long latencyMicros;
+    private final double sigma;
+    private final double errorRate;
+    private final double notFoundRate;
+    private final AtomicLong calls = new AtomicLong();
+    private final ScheduledExecutorService responder = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "upstream-stub");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    UpstreamStub(Duration latency, double sigma, double errorRate, double notFoundRate) throws IOException {
+        this.latencyMicros = latency.toNanos() / 1_000;
+        this.sigma = sigma;
+        this.errorRate = errorRate;
+        this.notFoundRate = notFoundRate;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.server.createContext("/ws/", this::handle);
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    long calls() {
+        return calls.get();
+    }
+
+    /**
+     * Roda na thread do servidor só para agendar a resposta: a latência não
+     * ocupa thread nenhuma, então a API falsa não vira o gargalo da medição.
+     */
+    private void handle(HttpExchange exchange) {
+        calls.incrementAndGet();
+        // /ws/{cep}/json
+        String path = exchange.getRequestURI().getPath();
+        String cep = path.substring(4, path.length() - "/json".length());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMicros = Math.round(latencyMicros * Math.exp(sigma * random.nextGaussian()));
+        boolean error = random.nextDouble() < errorRate;
+
+        responder.schedule(() -> {
+            try {
+                if (error) {
+                    respond(exchange, 500, "{\"erro\":\"falha simulada\"}");
+                } else if (notFound(cep)) {
+                    respond(exchange, 404, "{\"erro\":true}");
+                } else {
+                    respond(exchange, 200, """
+                            {"cep":"%s","logradouro":"Rua Exemplo","bairro":"Bairro %s","localidade":"Cidade Exemplo","uf":"SP"}"""
+                            .formatted(cep, cep.substring(0, 3)));
+                }
+            } catch (IOException e) {
+                exchange.close();
+            }
+        }, delayMicros, TimeUnit.MICROSECONDS);
+    }
+
+    private boolean notFound(String cep) {
+        return Math.floorMod(cep.hashCode() * 0x9E3779B9, 10_000) < notFoundRate * 10_000;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        responder.shutdownNow();
+    }
+}
@@ -0,0 +1,19 @@
+package com.cep.challenge.cep.cache;
+
+import com.cep.challenge.cep.dto.CepResponse;
+
+/**
+ * Entrada do cache de CEPs. Uma entrada sem {@code response} representa um
+ * resultado negativo (CEP não encontrado ou inválido).
+ *
+ * @param freshUntilNanos instante (no relógio do cache) a partir do qual a
+ *                        resposta passa a ser stale; ver {@link CepCache#isStale(CachedCep)}
+ */
+public record CachedCep(CepResponse response, long freshUntilNanos) {
+
+    static final CachedCep NOT_FOUND = new CachedCep(null, Long.MAX_VALUE);
+
+    public boolean isNegative() {
+        return response == null;
+    }
+}
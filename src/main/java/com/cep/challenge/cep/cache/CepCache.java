@@ -0,0 +1,257 @@
+package com.cep.challenge.cep.cache;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.cep.util.SortedIntSet;
+import com.cep.challenge.config.AppProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Interner;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cache em memória na frente do {@code CepClient}.
+ * <p>
+ * Usa Caffeine (despejo W-TinyLFU limitado por {@code max-size}) com TTL por
+ * entrada: respostas encontradas vivem {@code ttl}, resultados negativos vivem
+ * {@code negative-ttl}. Respostas encontradas ficam ainda {@code stale-ttl}
+ * além do {@code ttl}: {@link #get(int)} não as retorna, mas
+ * {@link #getAllowStale(int)} sim, para serem servidas enquanto são
+ * atualizadas ou enquanto a API externa está indisponível.
+ * <p>
+ * A chave é a de {@link CepKeys} ({@code int}, um CEP inválido nunca chega
+ * aqui). As chaves dos CEPs encontrados ficam também num índice ordenado
+ * ({@link #keys()}), mantido em sincronia com inserções, invalidações e
+ * despejos, para consultas por prefixo e faixa.
+ * <p>
+ * {@code bairro}, {@code localidade} e {@code uf} se repetem entre milhares
+ * de CEPs; ao entrar no cache cada um é trocado por uma instância canônica
+ * ({@link Interner} fraco), de modo que milhões de entradas compartilham
+ * algumas dezenas de milhares de strings.
+ * <p>
+ * Quem guarda algo derivado de uma entrada (ex. {@link SerializedCepCache})
+ * pode se registrar em {@link #onRemoval} para descartá-lo junto com ela.
+ */
+@Component
+@Slf4j
+public class CepCache {
+
+    private static final Interner<String> STRINGS = Interner.newWeakInterner();
+
+    private final boolean enabled;
+    private final Ticker ticker;
+    private final long ttlNanos;
+
+    private final Cache<Integer, CachedCep> cache;
+    private final SortedIntSet keys = new SortedIntSet();
+    private final List<RemovalListener> removalListeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public CepCache(AppProperties props) {
+        this(props, Ticker.systemTicker());
+    }
+
+    CepCache(AppProperties props, Ticker ticker) {
+        AppProperties.Cache config = props.getCache();
+        this.enabled = config.isEnabled();
+        this.ticker = ticker;
+        this.ttlNanos = config.getTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfter(new CepExpiry(config.getStaleTtl().toNanos(), config.getNegativeTtl().toNanos()))
+                .ticker(ticker)
+                .evictionListener((Integer key, CachedCep value, RemovalCause cause) -> {
+                    keys.remove(key);
+                    notifyRemoved(key, key);
+                })
+                .build();
+    }
+
+    /**
+     * Retorna a entrada em cache para o CEP, ou {@code null} em caso de miss
+     * ou de resposta stale.
+     */
+    public CachedCep get(int key) {
+        CachedCep cached = getAllowStale(key);
+        return cached == null || isStale(cached) ? null : cached;
+    }
+
+    /**
+     * Como {@link #get(int)}, mas inclui respostas stale; use
+     * {@link #isStale(CachedCep)} para distingui-las.
+     */
+    public CachedCep getAllowStale(int key) {
+        if (!enabled) {
+            return null;
+        }
+        return cache.getIfPresent(key);
+    }
+
+    public boolean isStale(CachedCep cached) {
+        return !cached.isNegative() && ticker.read() - cached.freshUntilNanos() >= 0;
+    }
+
+    /**
+     * Como {@link #get(int)}, mas sem contar como acesso para a política de
+     * despejo: varreduras de faixa não devem promover CEPs que ninguém consulta.
+     */
+    public CachedCep peek(int key) {
+        if (!enabled) {
+            return null;
+        }
+        return cache.policy().getIfPresentQuietly(key);
+    }
+
+    /**
+     * Guarda a resposta com {@code bairro}, {@code localidade} e {@code uf}
+     * trocados pelas instâncias canônicas (no próprio objeto).
+     */
+    public void putFound(int key, CepResponse response) {
+        putFound(key, response, Duration.ZERO);
+    }
+
+    /**
+     * Como {@link #putFound(int, CepResponse)}, para uma resposta obtida da
+     * API externa há {@code age} (ex. promovida do {@link PersistentCepCache}):
+     * fica fresca só pelo que resta do {@code ttl}, ou já entra stale.
+     *
+     * @return a entrada, guardada ou não (cache desabilitado)
+     */
+    public CachedCep putFound(int key, CepResponse response, Duration age) {
+        CachedCep cached = new CachedCep(response, ticker.read() + ttlNanos - age.toNanos());
+        if (enabled) {
+            deduplicate(response);
+            cache.put(key, cached);
+            keys.add(key);
+        }
+        return cached;
+    }
+
+    public void putNotFound(int key) {
+        if (enabled) {
+            cache.put(key, CachedCep.NOT_FOUND);
+            keys.remove(key);
+            notifyRemoved(key, key);
+        }
+    }
+
+    public void invalidate(int key) {
+        cache.invalidate(key);
+        keys.remove(key);
+        notifyRemoved(key, key);
+    }
+
+    /**
+     * Remove as entradas (encontradas e negativas) com chave entre {@code from}
+     * e {@code to}, inclusive; a faixa inteira de {@link CepKeys} esvazia o cache.
+     *
+     * @return quantas entradas foram removidas
+     */
+    public long invalidateRange(int from, int to) {
+        notifyRemoved(from, to);
+        if (from == to) {
+            boolean present = cache.asMap().remove(from) != null;
+            keys.remove(from);
+            return present ? 1 : 0;
+        }
+        if (from <= CepKeys.MIN && to >= CepKeys.MAX) {
+            long removed = cache.estimatedSize();
+            cache.invalidateAll();
+            keys.clear();
+            return removed;
+        }
+        long[] removed = new long[1];
+        cache.asMap().keySet().removeIf(key -> {
+            if (key < from || key > to) {
+                return false;
+            }
+            keys.remove(key);
+            removed[0]++;
+            return true;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Chaves numéricas dos CEPs encontrados presentes no cache, em ordem.
+     * Pode conter por instantes uma entrada já expirada mas ainda não despejada.
+     */
+    public SortedIntSet keys() {
+        return keys;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Avisado de cada remoção (invalidação, despejo, expiração ou troca por um
+     * resultado negativo). Cada chamada acrescenta um ouvinte.
+     */
+    public void onRemoval(RemovalListener listener) {
+        removalListeners.add(listener);
+    }
+
+    private void notifyRemoved(int from, int to) {
+        for (RemovalListener listener : removalListeners) {
+            listener.removed(from, to);
+        }
+    }
+
+    /**
+     * Executa agora as expirações e despejos pendentes (normalmente feitos em segundo plano).
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private static void deduplicate(CepResponse response) {
+        response.setBairro(intern(response.getBairro()));
+        response.setLocalidade(intern(response.getLocalidade()));
+        response.setUf(intern(response.getUf()));
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : STRINGS.intern(value);
+    }
+
+    /**
+     * Respostas encontradas vivem até {@code stale-ttl} depois de deixarem de
+     * ser frescas; negativas, {@code negative-ttl}.
+     */
+    private record CepExpiry(long staleTtlNanos, long negativeTtlNanos) implements Expiry<Integer, CachedCep> {
+
+        @Override
+        public long expireAfterCreate(Integer key, CachedCep value, long currentTime) {
+            return value.isNegative() ? negativeTtlNanos
+                    : Math.max(0, value.freshUntilNanos() - currentTime + staleTtlNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(Integer key, CachedCep value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Integer key, CachedCep value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Chaves de {@code from} a {@code to}, inclusive, saíram do cache.
+     */
+    @FunctionalInterface
+    public interface RemovalListener {
+        void removed(int from, int to);
+    }
+}
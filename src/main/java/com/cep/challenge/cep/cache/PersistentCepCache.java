@@ -0,0 +1,290 @@
+package com.cep.challenge.cep.cache;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Segundo nível de cache, na tabela {@code cep_cache} do mesmo banco de
+ * {@code query_logs}: sobrevive a reinícios e é compartilhado entre
+ * instâncias. O {@code CepService} o consulta depois do {@link CepCache} e
+ * antes da API externa.
+ * <p>
+ * Só a leitura fica no caminho da requisição (uma busca pela chave primária;
+ * no caminho reativo, fora do event loop via {@link #findAsync(int)}). As
+ * respostas da API externa entram numa fila limitada e são gravadas em lotes
+ * por uma thread de fundo; com a fila cheia a gravação é descartada, o que só
+ * custa uma nova consulta à API depois.
+ * <p>
+ * O {@code cep} da resposta é devolvido como foi gravado ({@code response_cep},
+ * ex. {@code 01001-000}), igual ao servido pelo {@link CepCache}, para que JSON
+ * e ETag não dependam do nível que atendeu; a coluna {@code cep} é só a chave.
+ * Linhas sem {@code response_cep} (de antes da coluna) contam como miss.
+ * <p>
+ * Uma entrada vale {@code ttl} a partir de {@code cached_at}; a cada
+ * {@code compaction-interval} as vencidas são apagadas. A tabela vem de
+ * {@code schema-postgresql.sql}/{@code schema-h2.sql}.
+ */
+@Component
+@Slf4j
+public class PersistentCepCache implements DisposableBean, MeterBinder {
+
+    private static final String SELECT_SQL =
+            "select response_cep, logradouro, bairro, localidade, uf, cached_at from cep_cache"
+                    + " where cep = ? and cached_at > ? and response_cep is not null";
+    private static final String DELETE_SQL = "delete from cep_cache where cep = ?";
+    private static final String INSERT_SQL =
+            "insert into cep_cache (cep, response_cep, logradouro, bairro, localidade, uf, cached_at)"
+                    + " values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties.PersistentCache config;
+    private final TaskScheduler taskScheduler;
+    private final Clock clock;
+    private final BlockingQueue<Pending> queue;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @Autowired
+    public PersistentCepCache(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              AppProperties props, TaskScheduler taskScheduler) {
+        this(jdbcTemplate, transactionManager, props, taskScheduler, Clock.systemDefaultZone());
+    }
+
+    PersistentCepCache(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       AppProperties props, TaskScheduler taskScheduler, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = props.getPersistentCache();
+        this.taskScheduler = taskScheduler;
+        this.clock = clock;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+    }
+
+    @PostConstruct
+    void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "cep-cache-writer");
+        worker.setDaemon(true);
+        worker.start();
+        if (taskScheduler != null) {
+            taskScheduler.scheduleWithFixedDelay(this::compactSafely, config.getCompactionInterval());
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Resposta gravada e ainda dentro do {@code ttl}, com a idade dela, ou {@code null}.
+     */
+    public Hit find(int key) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+        LocalDateTime now = now();
+        List<Hit> found = jdbcTemplate.query(SELECT_SQL,
+                (rs, row) -> new Hit(
+                        new CepResponse(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                                rs.getString(5)),
+                        Duration.between(rs.getTimestamp(6).toLocalDateTime(), now)),
+                CepKeys.format(key), Timestamp.valueOf(now.minus(config.getTtl())));
+        if (found.isEmpty()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return found.get(0);
+    }
+
+    /**
+     * {@link #find(int)} num scheduler para chamadas bloqueantes; vazio em caso de miss.
+     */
+    public Mono<Hit> findAsync(int key) {
+        return Mono.fromCallable(() -> find(key)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Agenda a gravação da resposta; nunca bloqueia quem chama.
+     */
+    public void put(int key, CepResponse response) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (!queue.offer(new Pending(key, response, now())) && dropped.incrementAndGet() % 1_000 == 1) {
+            log.warn("⚠️  Fila do cache persistente cheia, descartando CEP {} (total descartado: {})",
+                    CepKeys.format(key), dropped.get());
+        }
+    }
+
+    /**
+     * Apaga as entradas com CEP entre {@code from} e {@code to}, inclusive;
+     * devolve quantas. Uma gravação ainda na fila pode recolocar um CEP logo depois.
+     */
+    public int invalidate(int from, int to) {
+        if (!config.isEnabled()) {
+            return 0;
+        }
+        return jdbcTemplate.update("delete from cep_cache where cep between ? and ?",
+                CepKeys.format(from), CepKeys.format(to));
+    }
+
+    /**
+     * Apaga as entradas vencidas; devolve quantas.
+     */
+    public int compact() {
+        int removed = jdbcTemplate.update("delete from cep_cache where cached_at <= ?",
+                Timestamp.valueOf(now().minus(config.getTtl())));
+        if (removed > 0) {
+            log.info("🧹 Cache persistente: {} entradas vencidas removidas", removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Grava agora o que está na fila (normalmente feito pela thread de fundo).
+     */
+    void flush() {
+        List<Pending> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        for (int from = 0; from < pending.size(); from += config.getBatchSize()) {
+            writeBatch(pending.subList(from, Math.min(from + config.getBatchSize(), pending.size())));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cep.cache.persistent.pending", queue, BlockingQueue::size)
+                .description("Respostas aguardando gravação no cache persistente")
+                .register(registry);
+        FunctionCounter.builder("cep.cache.persistent.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("cep.cache.persistent.misses", misses, AtomicLong::get).register(registry);
+        FunctionCounter.builder("cep.cache.persistent.written", written, AtomicLong::get).register(registry);
+        FunctionCounter.builder("cep.cache.persistent.dropped", dropped, AtomicLong::get).register(registry);
+        FunctionCounter.builder("cep.cache.persistent.failed", failed, AtomicLong::get).register(registry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        worker.join(config.getFlushInterval().toMillis() + 5_000);
+        flush();
+    }
+
+    private void run() {
+        long flushIntervalNanos = config.getFlushInterval().toNanos();
+        List<Pending> batch = new ArrayList<>(config.getBatchSize());
+        while (running) {
+            try {
+                Pending first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, config.getBatchSize() - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Substitui as entradas do lote numa transação (delete + insert funciona
+     * igual no Postgres e no H2); um CEP repetido no lote fica com a última resposta.
+     */
+    private void writeBatch(List<Pending> batch) {
+        Map<Integer, Pending> byKey = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            byKey.put(pending.key(), pending);
+        }
+        List<Pending> entries = new ArrayList<>(byKey.values());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(DELETE_SQL, entries, entries.size(),
+                        (ps, entry) -> ps.setString(1, CepKeys.format(entry.key())));
+                jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+                    ps.setString(1, CepKeys.format(entry.key()));
+                    ps.setString(2, entry.response().getCep());
+                    ps.setString(3, entry.response().getLogradouro());
+                    ps.setString(4, entry.response().getBairro());
+                    ps.setString(5, entry.response().getLocalidade());
+                    ps.setString(6, entry.response().getUf());
+                    ps.setTimestamp(7, Timestamp.valueOf(entry.cachedAt()));
+                });
+            });
+            written.addAndGet(entries.size());
+            log.debug("💾 {} CEPs gravados no cache persistente", entries.size());
+        } catch (RuntimeException e) {
+            failed.addAndGet(entries.size());
+            log.error("❌ Erro ao gravar {} CEPs no cache persistente: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    private void compactSafely() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            log.error("❌ Erro ao compactar o cache persistente: {}", e.getMessage());
+        }
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private record Pending(int key, CepResponse response, LocalDateTime cachedAt) {
+    }
+
+    /**
+     * @param age há quanto tempo a resposta foi gravada ({@code cached_at})
+     */
+    public record Hit(CepResponse response, Duration age) {
+    }
+}
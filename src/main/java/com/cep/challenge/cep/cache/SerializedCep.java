@@ -0,0 +1,26 @@
+package com.cep.challenge.cep.cache;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Uma {@code CepResponse} já serializada em JSON, pronta para ser escrita na
+ * resposta HTTP.
+ *
+ * @param etag ETag forte (com aspas), derivado do conteúdo de {@code json}
+ */
+public record SerializedCep(byte[] json, String etag, CacheControl cacheControl) {
+
+    /**
+     * Resposta {@code 200} com os bytes prontos; com {@code If-None-Match}
+     * igual ao ETag, o Spring MVC/WebFlux responde {@code 304} sem corpo.
+     */
+    public ResponseEntity<byte[]> toResponseEntity() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(json);
+    }
+}
@@ -0,0 +1,116 @@
+package com.cep.challenge.cep.cache;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.dto.OfflineCepResponse;
+import com.cep.challenge.cep.dto.StaleCepResponse;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * JSON e ETag de cada {@link CepResponse}, calculados uma vez e reaproveitados
+ * enquanto a resposta existir.
+ * <p>
+ * A chave é a do CEP ({@link CepKeys}) e a entrada guarda de onde veio o JSON:
+ * a instância do {@link CepCache}, que devolve a mesma a cada acerto, ou a
+ * versão da base offline ({@link OfflineCepResponse}), que monta uma nova
+ * instância a cada acerto. Uma instância diferente ou outra versão da base
+ * para o mesmo CEP substitui a entrada em vez de criar outra. As entradas saem
+ * junto com as do {@link CepCache} ({@link CepCache#onRemoval}). Uma
+ * {@link StaleCepResponse}, criada a cada consulta, é serializada sem cache.
+ * <p>
+ * O ETag é um hash do JSON, o mesmo para o mesmo conteúdo em qualquer
+ * instância da aplicação, de modo que {@code If-None-Match} funciona atrás de
+ * um balanceador ou CDN.
+ */
+@Component
+public class SerializedCepCache {
+
+    private final ObjectMapper objectMapper;
+    private final CacheControl fresh;
+    private final Cache<Integer, Entry> serialized;
+
+    public SerializedCepCache(ObjectMapper objectMapper, AppProperties props, CepCache cepCache) {
+        this.objectMapper = objectMapper;
+        Duration maxAge = props.getHttpCache().getMaxAge();
+        this.fresh = maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge).cachePublic();
+        this.serialized = Caffeine.newBuilder()
+                .maximumSize(props.getCache().getMaxSize())
+                .build();
+        cepCache.onRemoval(this::invalidate);
+    }
+
+    public SerializedCep get(CepResponse response) {
+        int key = response instanceof StaleCepResponse ? CepKeys.INVALID : CepKeys.parse(response.getCep());
+        if (key == CepKeys.INVALID) {
+            return serialize(response);
+        }
+        Entry entry = serialized.getIfPresent(key);
+        if (entry == null || !entry.serializes(response)) {
+            entry = Entry.of(response, serialize(response));
+            serialized.put(key, entry);
+        }
+        return entry.serialized();
+    }
+
+    private void invalidate(int from, int to) {
+        if (from == to) {
+            serialized.invalidate(from);
+        } else if (from <= CepKeys.MIN && to >= CepKeys.MAX) {
+            serialized.invalidateAll();
+        } else {
+            serialized.asMap().keySet().removeIf(key -> key >= from && key <= to);
+        }
+    }
+
+    private SerializedCep serialize(CepResponse response) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o CEP " + response.getCep(), e);
+        }
+        CacheControl cacheControl = response instanceof StaleCepResponse ? CacheControl.noCache() : fresh;
+        return new SerializedCep(json, etag(json), cacheControl);
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            // 128 bits bastam para distinguir versões do mesmo CEP
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param response       a instância serializada; {@code null} se veio da base offline
+     * @param datasetVersion a versão da base offline; {@code 0} se não veio dela
+     */
+    private record Entry(CepResponse response, long datasetVersion, SerializedCep serialized) {
+
+        static Entry of(CepResponse response, SerializedCep serialized) {
+            return response instanceof OfflineCepResponse offline
+                    ? new Entry(null, offline.getDatasetVersion(), serialized)
+                    : new Entry(response, 0, serialized);
+        }
+
+        boolean serializes(CepResponse candidate) {
+            return candidate instanceof OfflineCepResponse offline
+                    ? response == null && datasetVersion == offline.getDatasetVersion()
+                    : response == candidate;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.cep.challenge.cep.client;
+
+import com.cep.challenge.cep.exception.UpstreamOverloadedException;
+import com.cep.challenge.config.AppProperties;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite adaptativo de chamadas simultâneas à API externa (AIMD).
+ * <p>
+ * Cada chamada concluída é uma amostra de latência. A média móvel
+ * exponencial das amostras, com peso de cerca de {@code baseline-samples}
+ * amostras, é a referência; uma amostra acima de {@code rtt-tolerance} ×
+ * referência, um erro ou um timeout indicam fila do lado da API e o limite é multiplicado por
+ * {@code backoff-ratio}, no máximo uma vez por rodada (só chamadas iniciadas
+ * depois da última redução a repetem). Caso contrário, se as chamadas em
+ * andamento ocupavam ao menos metade do limite, ele sobe 1/limite por
+ * amostra, cerca de uma vaga por rodada; sem essa condição o limite subiria
+ * sem nunca ter sido posto à prova.
+ * <p>
+ * Sem vaga, a chamada aguarda até {@code max-wait} numa fila de até
+ * {@code max-queue} chamadas; fila cheia ou espera esgotada terminam em
+ * {@link UpstreamOverloadedException}. Os métodos são sincronizados: o custo
+ * é desprezível perto de uma chamada HTTP.
+ */
+final class AdaptiveConcurrencyLimiter {
+
+	private final boolean enabled;
+	private final int minLimit;
+	private final int maxLimit;
+	private final double backoffRatio;
+	private final double rttTolerance;
+	private final double baselineWeight;
+	private final int maxQueue;
+	private final Duration maxWait;
+	private final Duration retryAfter;
+	private final LongSupplier clock;
+	private final Scheduler timer;
+
+	private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+	private final LongAdder rejected = new LongAdder();
+	private double limit;
+	private int inFlight;
+	private int round;
+	private double baselineNanos = -1;
+
+	AdaptiveConcurrencyLimiter(AppProperties.ConcurrencyLimit config) {
+		this(config, System::nanoTime, Schedulers.parallel());
+	}
+
+	AdaptiveConcurrencyLimiter(AppProperties.ConcurrencyLimit config, LongSupplier clock, Scheduler timer) {
+		this.enabled = config.isEnabled();
+		this.minLimit = config.getMinLimit();
+		this.maxLimit = config.getMaxLimit();
+		this.backoffRatio = config.getBackoffRatio();
+		this.rttTolerance = config.getRttTolerance();
+		this.baselineWeight = 1.0 / config.getBaselineSamples();
+		this.maxQueue = config.getMaxQueue();
+		this.maxWait = config.getMaxWait();
+		this.retryAfter = config.getRetryAfter();
+		this.clock = clock;
+		this.timer = timer;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, config.getInitialLimit()));
+	}
+
+	/**
+	 * Reserva uma vaga, aguardando na fila se preciso. Toda vaga recebida
+	 * termina em {@link Permit#onSuccess}, {@link Permit#onDropped} ou
+	 * {@link Permit#onCancel}; uma vaga descartada por cancelamento é devolvida.
+	 */
+	Mono<Permit> acquire() {
+		if (!enabled) {
+			return Mono.fromSupplier(() -> new Permit(0, 0));
+		}
+		return Mono.<Permit>create(sink -> {
+					Permit permit = null;
+					Waiter waiter = null;
+					synchronized (this) {
+						if (inFlight < limit()) {
+							permit = grant();
+						} else if (waiters.size() < maxQueue && maxWait.isPositive()) {
+							waiter = new Waiter(sink);
+							waiters.add(waiter);
+						}
+					}
+					if (permit != null) {
+						sink.success(permit);
+					} else if (waiter != null) {
+						waiter.await();
+					} else {
+						reject(sink, "fila cheia");
+					}
+				})
+				.doOnDiscard(Permit.class, Permit::onCancel);
+	}
+
+	synchronized int limit() {
+		return (int) limit;
+	}
+
+	synchronized int inFlight() {
+		return inFlight;
+	}
+
+	synchronized int queued() {
+		return waiters.size();
+	}
+
+	long rejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Menos de {@code maxUtilization} do limite em uso e ninguém na fila;
+	 * sempre verdadeiro com o limite desativado.
+	 */
+	synchronized boolean hasIdleCapacity(double maxUtilization) {
+		return !enabled || (waiters.isEmpty() && inFlight < limit() * maxUtilization);
+	}
+
+	private Permit grant() {
+		inFlight++;
+		return new Permit(clock.getAsLong(), round);
+	}
+
+	private void reject(MonoSink<Permit> sink, String reason) {
+		rejected.increment();
+		sink.error(new UpstreamOverloadedException(
+				"API externa no limite de " + limit() + " chamadas simultâneas (" + reason + ")", retryAfter));
+	}
+
+	/**
+	 * Devolve a vaga de {@code permit}, ajusta o limite com a amostra (se
+	 * houver) e passa as vagas livres para quem aguarda na fila.
+	 *
+	 * @param rttNanos latência da chamada, ou {@code -1} se ela não serve de amostra
+	 */
+	private void release(Permit permit, long rttNanos, boolean dropped) {
+		List<Waiter> granted = new ArrayList<>();
+		synchronized (this) {
+			inFlight--;
+			if (dropped) {
+				decrease(permit);
+			} else if (rttNanos >= 0) {
+				double baseline = baseline(rttNanos);
+				if (rttNanos > rttTolerance * baseline) {
+					decrease(permit);
+				} else if (permit.inFlightAtStart * 2 >= limit) {
+					limit = Math.min(maxLimit, limit + 1 / limit);
+				}
+			}
+			while (inFlight < limit() && !waiters.isEmpty()) {
+				Waiter waiter = waiters.poll();
+				if (waiter.claim()) {
+					waiter.permit = grant();
+					granted.add(waiter);
+				}
+			}
+		}
+		granted.forEach(Waiter::grant);
+	}
+
+	/**
+	 * Referência anterior a {@code rttNanos}, que em seguida entra na média:
+	 * uma amostra isolada não desloca a referência com que é comparada.
+	 */
+	private double baseline(long rttNanos) {
+		double baseline = baselineNanos < 0 ? rttNanos : baselineNanos;
+		baselineNanos = baseline + baselineWeight * (rttNanos - baseline);
+		return baseline;
+	}
+
+	private void decrease(Permit permit) {
+		if (permit.round == round) {
+			limit = Math.max(minLimit, limit * backoffRatio);
+			round++;
+		}
+	}
+
+	/**
+	 * Uma vaga reservada; devolvida uma única vez, pelo primeiro método chamado.
+	 */
+	final class Permit {
+
+		private final long startNanos;
+		private final int round;
+		private final int inFlightAtStart;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Permit(long startNanos, int round) {
+			this.startNanos = startNanos;
+			this.round = round;
+			this.inFlightAtStart = inFlight;
+		}
+
+		/**
+		 * A API respondeu (inclusive "não encontrado").
+		 */
+		void onSuccess() {
+			if (enabled && released.compareAndSet(false, true)) {
+				release(this, clock.getAsLong() - startNanos, false);
+			}
+		}
+
+		/**
+		 * Erro ou timeout da API.
+		 */
+		void onDropped() {
+			if (enabled && released.compareAndSet(false, true)) {
+				release(this, -1, true);
+			}
+		}
+
+		/**
+		 * A chamada não chegou à API ou foi abandonada: devolve a vaga sem amostra.
+		 */
+		void onCancel() {
+			if (enabled && released.compareAndSet(false, true)) {
+				release(this, -1, false);
+			}
+		}
+	}
+
+	/**
+	 * Uma chamada na fila: termina uma única vez, com a vaga, por tempo
+	 * esgotado ou por cancelamento de quem aguardava.
+	 */
+	private final class Waiter {
+
+		private final MonoSink<Permit> sink;
+		private final AtomicBoolean done = new AtomicBoolean();
+		private Permit permit;
+		private volatile Disposable timeout;
+
+		Waiter(MonoSink<Permit> sink) {
+			this.sink = sink;
+		}
+
+		void await() {
+			Disposable scheduled = timer.schedule(this::expire, maxWait.toNanos(), TimeUnit.NANOSECONDS);
+			sink.onCancel(() -> {
+				scheduled.dispose();
+				if (claim()) {
+					remove(this);
+				}
+			});
+			timeout = scheduled;
+		}
+
+		boolean claim() {
+			return done.compareAndSet(false, true);
+		}
+
+		void grant() {
+			if (timeout != null) {
+				timeout.dispose();
+			}
+			sink.success(permit);
+		}
+
+		private void expire() {
+			if (claim()) {
+				remove(this);
+				reject(sink, "espera de " + maxWait.toMillis() + "ms esgotada");
+			}
+		}
+	}
+
+	private synchronized void remove(Waiter waiter) {
+		waiters.remove(waiter);
+	}
+}
@@ -1,42 +1,314 @@
 package com.cep.challenge.cep.client;
 
 import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.exception.CepNotFoundException;
+import com.cep.challenge.cep.exception.UpstreamOverloadedException;
+import com.cep.challenge.cep.exception.UpstreamUnavailableException;
+import com.cep.challenge.cep.jfr.CepStage;
+import com.cep.challenge.cep.jfr.CepStageEvent;
+import com.cep.challenge.cep.metrics.CepMetrics.Outcome;
+import com.cep.challenge.config.AppProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
-@Component
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Consulta a API externa de CEP em um ou mais provedores ({@code app.cep.upstreams}).
+ * <p>
+ * A cada consulta os provedores são ordenados pela latência média (EWMA)
+ * multiplicada pelas chamadas em andamento, e o melhor é chamado primeiro.
+ * Se ele falhar (erro ou timeout) o próximo é chamado. Com hedging
+ * habilitado o próximo também é chamado se o primeiro não responder dentro
+ * do seu percentil de latência ({@code hedge-percentile}); vale a primeira
+ * resposta e a outra chamada é cancelada. "Não encontrado" é uma resposta
+ * definitiva e não segue para outro provedor.
+ * <p>
+ * Cada provedor tem um {@link CircuitBreaker}: com o circuito aberto o
+ * provedor vai para o fim da fila e não é chamado; se nenhum aceitar a
+ * chamada a consulta falha de imediato com {@link UpstreamUnavailableException}.
+ * O estado de cada circuito é exposto em {@code cep.upstream.circuit}
+ * (0 fechado, 1 semiaberto, 2 aberto).
+ * <p>
+ * As consultas em andamento, somando todos os provedores, passam por um
+ * {@link AdaptiveConcurrencyLimiter}: quando a API externa começa a
+ * enfileirar, o limite cai e o excedente aguarda brevemente ou é recusado
+ * com {@link UpstreamOverloadedException}, em vez de aumentar a fila dela.
+ */
 @Slf4j
-public class CepClient {
+public class CepClient implements DisposableBean, MeterBinder {
+
+	private static final String DEFAULT_URI_TEMPLATE = "/cep/{cep}";
 
-	private final WebClient webClient;
+	private final List<CepUpstream> upstreams;
+	private final AppProperties.Routing routing;
+	private final AdaptiveConcurrencyLimiter limiter;
 
+	/**
+	 * Um único provedor, sem timeout, hedging nem limite de concorrência, no
+	 * template padrão {@code /cep/{cep}}.
+	 */
 	public CepClient(WebClient cepWebClient) {
-		this.webClient = cepWebClient;
+		this(List.of(new CepUpstream("default", cepWebClient, DEFAULT_URI_TEMPLATE, null, new AppProperties.Routing(),
+						new AppProperties.CircuitBreaker(), null)),
+				new AppProperties.Routing(), unlimited());
+	}
+
+	public CepClient(List<CepUpstream> upstreams, AppProperties.Routing routing,
+					 AppProperties.ConcurrencyLimit concurrencyLimit) {
+		if (upstreams.isEmpty()) {
+			throw new IllegalArgumentException("Ao menos um provedor de CEP deve ser configurado");
+		}
+		this.upstreams = List.copyOf(upstreams);
+		this.routing = routing;
+		this.limiter = new AdaptiveConcurrencyLimiter(concurrencyLimit);
 	}
 
 	public CepResponse findByCep(String cep) {
-		log.info("🔎 Buscando dados do CEP {} na API externa (Mockoon)", cep);
-		
-		try {
-			// Chama API externa do Mockoon
-			CepResponse response = webClient
+		return fetch(cep).block();
+	}
+
+	/**
+	 * Versão não bloqueante de {@link #findByCep(String)}: nenhuma thread fica
+	 * presa aguardando a API externa.
+	 */
+	public Mono<CepResponse> fetch(String cep) {
+		return Mono.usingWhen(CepStageEvent.trace(CepStage.CONCURRENCY_LIMIT, cep, limiter.acquire()),
+						permit -> attempt(ranked(), 0, cep),
+						permit -> Mono.fromRunnable(permit::onSuccess),
+						(permit, e) -> Mono.fromRunnable(() -> {
+							// sem provedor disponível a API não foi chamada: não é amostra
+							if (e instanceof UpstreamUnavailableException) {
+								permit.onCancel();
+							} else {
+								permit.onDropped();
+							}
+						}),
+						permit -> Mono.fromRunnable(permit::onCancel))
+				.doOnError(UpstreamOverloadedException.class,
+						e -> log.warn("🚦 CEP {} não consultado: {}", cep, e.getMessage()))
+				.flatMap(attempt -> attempt.notFound() != null
+						? Mono.error(attempt.notFound())
+						: Mono.just(attempt.response()));
+	}
+
+	/**
+	 * Se há folga para chamadas opcionais (como prefetch): menos de
+	 * {@code maxUtilization} do limite de concorrência em uso e ninguém na fila.
+	 */
+	public boolean hasIdleCapacity(double maxUtilization) {
+		return limiter.hasIdleCapacity(maxUtilization);
+	}
+
+	public List<CepUpstream> upstreams() {
+		return upstreams;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (CepUpstream upstream : upstreams) {
+			Gauge.builder("cep.upstream.circuit", upstream.breaker(), breaker -> breaker.state().ordinal())
+					.description("Estado do circuit breaker do provedor (0 fechado, 1 semiaberto, 2 aberto)")
+					.tag("upstream", upstream.name())
+					.register(registry);
+		}
+		Gauge.builder("cep.upstream.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+				.description("Limite atual de consultas simultâneas à API externa")
+				.register(registry);
+		Gauge.builder("cep.upstream.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+				.description("Consultas à API externa em andamento")
+				.register(registry);
+		Gauge.builder("cep.upstream.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::queued)
+				.description("Consultas aguardando vaga no limite de concorrência")
+				.register(registry);
+		FunctionCounter.builder("cep.upstream.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::rejected)
+				.description("Consultas recusadas pelo limite de concorrência (503)")
+				.register(registry);
+	}
+
+	@Override
+	public void destroy() {
+		upstreams.forEach(CepUpstream::dispose);
+	}
+
+	private static AppProperties.ConcurrencyLimit unlimited() {
+		AppProperties.ConcurrencyLimit concurrencyLimit = new AppProperties.ConcurrencyLimit();
+		concurrencyLimit.setEnabled(false);
+		return concurrencyLimit;
+	}
+
+	/**
+	 * Chama {@code ranked[index]} e, se preciso, os seguintes: em sequência
+	 * quando ele falha e, com hedging, também quando ele demora.
+	 */
+	private Mono<Attempt> attempt(CepUpstream[] ranked, int index, String cep) {
+		Mono<Attempt> primary = call(ranked[index], cep);
+		if (index + 1 == ranked.length) {
+			return primary;
+		}
+
+		Mono<Attempt> next = Mono.defer(() -> attempt(ranked, index + 1, cep));
+		if (!routing.isHedgingEnabled()) {
+			// circuito aberto no seguinte não esconde a falha real deste provedor
+			return primary.onErrorResume(e -> {
+				log.warn("↪️  Provedor {} falhou para CEP {}, tentando {}", ranked[index].name(), cep, ranked[index + 1].name());
+				return next.onErrorMap(UpstreamUnavailableException.class, unavailable -> e);
+			});
+		}
+
+		Duration delay = hedgeDelay(ranked[index]);
+		Sinks.Empty<Void> primaryFailed = Sinks.empty();
+		Mono<Attempt> hedge = Mono.firstWithSignal(Mono.delay(delay).then(), primaryFailed.asMono())
+				.then(Mono.defer(() -> {
+					log.info("🏁 Hedge do CEP {}: {} sem resposta em {}ms, chamando {}",
+							cep, ranked[index].name(), delay.toMillis(), ranked[index + 1].name());
+					return next;
+				}));
+		return Mono.firstWithValue(primary.doOnError(e -> primaryFailed.tryEmitEmpty()), hedge)
+				.onErrorMap(NoSuchElementException.class, CepClient::firstFailure);
+	}
+
+	private Mono<Attempt> call(CepUpstream upstream, String cep) {
+		return Mono.defer(() -> {
+			log.info("🔎 Buscando dados do CEP {} na API externa ({})", cep, upstream.name());
+
+			CircuitBreaker breaker = upstream.breaker();
+			if (!breaker.tryAcquire()) {
+				log.warn("⛔ Circuito aberto para {}: CEP {} não consultado", upstream.name(), cep);
+				return Mono.error(new UpstreamUnavailableException(
+						"API externa indisponível: circuito aberto para " + upstream.name()));
+			}
+
+			LatencyTracker tracker = upstream.tracker();
+			CepStageEvent event = CepStageEvent.start(CepStage.UPSTREAM_CALL, cep);
+			event.upstream(upstream.name());
+			tracker.start();
+			long start = System.nanoTime();
+
+			Mono<CepResponse> request = upstream.webClient()
 					.get()
-					.uri("/cep/{cep}", cep)
+					.uri(upstream.uriTemplate(), cep)
 					.retrieve()
-					.bodyToMono(CepResponse.class)
-					.block();
-			
-			log.info("📋 Dados encontrados para CEP {}: {} - {}", 
-					cep, response.getLogradouro(), response.getLocalidade());
-			
-			return response;
-			
-		} catch (Exception e) {
-			log.error("❌ Erro ao buscar CEP {} na API externa: {}", cep, e.getMessage());
-			throw new RuntimeException("Erro ao consultar CEP na API externa", e);
+					.bodyToMono(CepResponse.class);
+			if (upstream.timeout() != null) {
+				request = request.timeout(upstream.timeout());
+			}
+
+			return request
+					.switchIfEmpty(Mono.error(() -> new CepNotFoundException(
+							"Erro ao consultar CEP na API externa: CEP " + cep + " não encontrado")))
+					.doOnNext(response -> log.info("📋 Dados encontrados para CEP {}: {} - {}",
+							cep, response.getLogradouro(), response.getLocalidade()))
+					.onErrorMap(e -> translate(upstream, cep, e))
+					.map(Attempt::found)
+					.onErrorResume(CepNotFoundException.class, e -> Mono.just(Attempt.notFound(e)))
+					.doOnSuccess(attempt -> {
+						long elapsed = System.nanoTime() - start;
+						tracker.success(elapsed);
+						breaker.onSuccess(elapsed);
+						event.end(attempt.notFound() != null ? Outcome.NOT_FOUND : Outcome.SUCCESS);
+					})
+					.doOnError(e -> {
+						tracker.failure(System.nanoTime() - start);
+						breaker.onFailure();
+						event.end(Outcome.ERROR);
+					})
+					.doOnCancel(() -> {
+						tracker.cancel();
+						breaker.onCancel();
+						event.cancel();
+					});
+		});
+	}
+
+	/**
+	 * Provedores do menor para o maior custo, com os custos lidos uma única
+	 * vez (eles mudam enquanto outras consultas terminam). Provedores com o
+	 * circuito aberto ficam por último.
+	 */
+	private CepUpstream[] ranked() {
+		CepUpstream[] ranked = upstreams.toArray(new CepUpstream[0]);
+		if (ranked.length == 1) {
+			return ranked;
 		}
+		double[] scores = new double[ranked.length];
+		for (int i = 0; i < ranked.length; i++) {
+			scores[i] = ranked[i].breaker().isCallPermitted() ? ranked[i].tracker().score() : Double.POSITIVE_INFINITY;
+		}
+		for (int i = 1; i < ranked.length; i++) {
+			for (int j = i; j > 0 && scores[j] < scores[j - 1]; j--) {
+				double score = scores[j];
+				scores[j] = scores[j - 1];
+				scores[j - 1] = score;
+				CepUpstream upstream = ranked[j];
+				ranked[j] = ranked[j - 1];
+				ranked[j - 1] = upstream;
+			}
+		}
+		return ranked;
 	}
-}
 
+	private Duration hedgeDelay(CepUpstream upstream) {
+		LatencyTracker tracker = upstream.tracker();
+		if (tracker.sampleCount() < routing.getHedgeMinSamples()) {
+			return routing.getHedgeMaxDelay();
+		}
+		long nanos = tracker.percentileNanos(routing.getHedgePercentile());
+		long clamped = Math.max(routing.getHedgeMinDelay().toNanos(), Math.min(nanos, routing.getHedgeMaxDelay().toNanos()));
+		return Duration.ofNanos(clamped);
+	}
 
+	/**
+	 * Primeira falha real; {@link UpstreamUnavailableException} só se nenhum
+	 * provedor chegou a ser chamado.
+	 */
+	private static Throwable firstFailure(NoSuchElementException allFailed) {
+		Throwable unavailable = null;
+		for (Throwable suppressed : allFailed.getSuppressed()) {
+			if (suppressed instanceof UpstreamUnavailableException) {
+				unavailable = unavailable != null ? unavailable : suppressed;
+			} else if (suppressed instanceof RuntimeException) {
+				return suppressed;
+			}
+		}
+		return unavailable != null ? unavailable : new RuntimeException("Erro ao consultar CEP na API externa", allFailed);
+	}
+
+	private Throwable translate(CepUpstream upstream, String cep, Throwable e) {
+		if (e instanceof CepNotFoundException) {
+			log.warn("🚫 CEP {} não encontrado na API externa ({})", cep, upstream.name());
+			return e;
+		}
+		if (e instanceof WebClientResponseException.NotFound || e instanceof WebClientResponseException.BadRequest) {
+			log.warn("🚫 CEP {} não encontrado ou inválido na API externa ({}): {}", cep, upstream.name(), e.getMessage());
+			return new CepNotFoundException("Erro ao consultar CEP na API externa: CEP " + cep + " não encontrado", e);
+		}
+		log.error("❌ Erro ao buscar CEP {} na API externa ({}): {}", cep, upstream.name(), e.getMessage());
+		return new RuntimeException("Erro ao consultar CEP na API externa", e);
+	}
+
+	/**
+	 * Resultado de um provedor: "não encontrado" é tratado como resposta (não
+	 * como falha) para não disparar a chamada a outro provedor.
+	 */
+	private record Attempt(CepResponse response, CepNotFoundException notFound) {
+
+		static Attempt found(CepResponse response) {
+			return new Attempt(response, null);
+		}
+
+		static Attempt notFound(CepNotFoundException notFound) {
+			return new Attempt(null, notFound);
+		}
+	}
+}
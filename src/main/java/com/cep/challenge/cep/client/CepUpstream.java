@@ -0,0 +1,69 @@
+package com.cep.challenge.cep.client;
+
+import com.cep.challenge.config.AppProperties;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Um provedor de CEP usado pelo {@link CepClient}: o {@link WebClient} com
+ * pool e timeouts próprios, o template da URL, a latência observada e o
+ * circuit breaker.
+ */
+public final class CepUpstream {
+
+	private final String name;
+	private final WebClient webClient;
+	private final String uriTemplate;
+	private final Duration timeout;
+	private final ConnectionProvider connectionProvider;
+	private final LatencyTracker tracker;
+	private final CircuitBreaker breaker;
+
+	/**
+	 * @param timeout            tempo máximo da chamada inteira ({@code null} = sem limite)
+	 * @param connectionProvider pool liberado no desligamento ({@code null} se não houver)
+	 */
+	public CepUpstream(String name, WebClient webClient, String uriTemplate, Duration timeout,
+					   AppProperties.Routing routing, AppProperties.CircuitBreaker circuitBreaker,
+					   ConnectionProvider connectionProvider) {
+		this.name = name;
+		this.webClient = webClient;
+		this.uriTemplate = uriTemplate;
+		this.timeout = timeout;
+		this.connectionProvider = connectionProvider;
+		this.tracker = new LatencyTracker(routing.getEwmaAlpha(), routing.getHedgeMaxDelay().toNanos());
+		this.breaker = new CircuitBreaker(circuitBreaker);
+	}
+
+	public String name() {
+		return name;
+	}
+
+	WebClient webClient() {
+		return webClient;
+	}
+
+	String uriTemplate() {
+		return uriTemplate;
+	}
+
+	Duration timeout() {
+		return timeout;
+	}
+
+	LatencyTracker tracker() {
+		return tracker;
+	}
+
+	CircuitBreaker breaker() {
+		return breaker;
+	}
+
+	void dispose() {
+		if (connectionProvider != null) {
+			connectionProvider.dispose();
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package com.cep.challenge.cep.client;
+
+import com.cep.challenge.config.AppProperties;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker de um provedor, avaliado sobre as últimas
+ * {@code window-size} chamadas:
+ * <ul>
+ *   <li>{@code CLOSED}: chamadas liberadas; abre quando, com ao menos
+ *       {@code minimum-calls} na janela, a fração de falhas (erros, timeouts e
+ *       chamadas mais lentas que {@code slow-call-threshold}) atinge o limite;</li>
+ *   <li>{@code OPEN}: chamadas recusadas de imediato durante {@code open-duration};</li>
+ *   <li>{@code HALF_OPEN}: libera {@code half-open-calls} chamadas de teste;
+ *       se todas derem certo o circuito fecha, na primeira falha reabre.</li>
+ * </ul>
+ * "Não encontrado" é uma resposta válida e conta como sucesso. Os métodos são
+ * sincronizados: o custo é desprezível perto de uma chamada HTTP.
+ */
+final class CircuitBreaker {
+
+	enum State {
+		CLOSED, HALF_OPEN, OPEN
+	}
+
+	private final boolean enabled;
+	private final int minimumCalls;
+	private final double failureRateThreshold;
+	private final long slowCallNanos;
+	private final long openNanos;
+	private final int halfOpenCalls;
+	private final LongSupplier clock;
+
+	private final boolean[] window;
+	private int next;
+	private int calls;
+	private int failures;
+
+	private State state = State.CLOSED;
+	private long openedAt;
+	private int halfOpenPermits;
+	private int halfOpenSuccesses;
+
+	CircuitBreaker(AppProperties.CircuitBreaker config) {
+		this(config, System::nanoTime);
+	}
+
+	CircuitBreaker(AppProperties.CircuitBreaker config, LongSupplier clock) {
+		this.enabled = config.isEnabled();
+		this.minimumCalls = config.getMinimumCalls();
+		this.failureRateThreshold = config.getFailureRateThreshold();
+		this.slowCallNanos = config.getSlowCallThreshold().toNanos();
+		this.openNanos = config.getOpenDuration().toNanos();
+		this.halfOpenCalls = config.getHalfOpenCalls();
+		this.clock = clock;
+		this.window = new boolean[config.getWindowSize()];
+	}
+
+	/**
+	 * Reserva uma chamada. {@code false} significa circuito aberto: a chamada
+	 * não deve ser feita. Toda reserva aceita termina em {@link #onSuccess},
+	 * {@link #onFailure} ou {@link #onCancel}.
+	 */
+	synchronized boolean tryAcquire() {
+		if (!enabled) {
+			return true;
+		}
+		if (state == State.OPEN) {
+			if (clock.getAsLong() - openedAt < openNanos) {
+				return false;
+			}
+			state = State.HALF_OPEN;
+			halfOpenPermits = halfOpenCalls;
+			halfOpenSuccesses = 0;
+		}
+		if (state == State.HALF_OPEN) {
+			if (halfOpenPermits == 0) {
+				return false;
+			}
+			halfOpenPermits--;
+		}
+		return true;
+	}
+
+	/**
+	 * Se uma chamada seria liberada agora, sem reservá-la (usado para ordenar provedores).
+	 */
+	synchronized boolean isCallPermitted() {
+		return switch (state) {
+			case CLOSED -> true;
+			case HALF_OPEN -> halfOpenPermits > 0;
+			case OPEN -> clock.getAsLong() - openedAt >= openNanos;
+		};
+	}
+
+	synchronized void onSuccess(long nanos) {
+		record(nanos >= slowCallNanos);
+	}
+
+	synchronized void onFailure() {
+		record(true);
+	}
+
+	/**
+	 * Chamada abandonada (ex. perdeu para o hedge): não conta como resultado,
+	 * mas devolve a vaga de teste do estado semiaberto.
+	 */
+	synchronized void onCancel() {
+		if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls) {
+			halfOpenPermits++;
+		}
+	}
+
+	synchronized State state() {
+		return state;
+	}
+
+	private void record(boolean failure) {
+		if (!enabled) {
+			return;
+		}
+		switch (state) {
+			case HALF_OPEN -> {
+				if (failure) {
+					open();
+				} else if (++halfOpenSuccesses >= halfOpenCalls) {
+					close();
+				}
+			}
+			case CLOSED -> {
+				if (calls == window.length) {
+					if (window[next]) {
+						failures--;
+					}
+				} else {
+					calls++;
+				}
+				window[next] = failure;
+				if (failure) {
+					failures++;
+				}
+				next = (next + 1) % window.length;
+				if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+					open();
+				}
+			}
+			case OPEN -> {
+				// resultado atrasado de uma chamada feita antes de abrir
+			}
+		}
+	}
+
+	private void open() {
+		state = State.OPEN;
+		openedAt = clock.getAsLong();
+	}
+
+	private void close() {
+		state = State.CLOSED;
+		next = 0;
+		calls = 0;
+		failures = 0;
+	}
+}
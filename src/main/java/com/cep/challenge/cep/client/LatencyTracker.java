@@ -0,0 +1,126 @@
+package com.cep.challenge.cep.client;
+
+import com.cep.challenge.cep.util.LogLinearBuckets;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latência observada de um provedor, atualizada sem locks a cada resposta:
+ * <ul>
+ *   <li>média móvel exponencial (EWMA), usada no roteamento junto com as
+ *       chamadas em andamento;</li>
+ *   <li>histograma log-linear (4 faixas por potência de 2, erro de até 25%)
+ *       cujas contagens caem pela metade a cada {@value #DECAY_EVERY} amostras,
+ *       usado para o percentil que dispara o hedge.</li>
+ * </ul>
+ * Leituras concorrentes podem ver um estado levemente defasado, o que basta
+ * para uma heurística de roteamento.
+ */
+final class LatencyTracker {
+
+	private static final int BUCKETS = 248;
+	private static final int DECAY_EVERY = 1_024;
+
+	private final double alpha;
+	private final long failurePenaltyNanos;
+	private final AtomicLong ewmaBits = new AtomicLong(Double.doubleToLongBits(0));
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong samples = new AtomicLong();
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	LatencyTracker(double alpha, long failurePenaltyNanos) {
+		this.alpha = alpha;
+		this.failurePenaltyNanos = failurePenaltyNanos;
+	}
+
+	void start() {
+		inFlight.incrementAndGet();
+	}
+
+	/**
+	 * Chamada abandonada (ex. perdeu para o hedge): não vira amostra, pois a
+	 * latência real é desconhecida.
+	 */
+	void cancel() {
+		inFlight.decrementAndGet();
+	}
+
+	void success(long nanos) {
+		inFlight.decrementAndGet();
+		updateEwma(nanos);
+		counts.incrementAndGet(bucketOf(nanos));
+		if (samples.incrementAndGet() % DECAY_EVERY == 0) {
+			for (int i = 0; i < BUCKETS; i++) {
+				counts.set(i, counts.get(i) >> 1);
+			}
+		}
+	}
+
+	/**
+	 * Falhas rápidas (ex. 503 imediato) não podem tornar o provedor atraente:
+	 * entram na EWMA com pelo menos a penalidade configurada.
+	 */
+	void failure(long nanos) {
+		inFlight.decrementAndGet();
+		updateEwma(Math.max(nanos, failurePenaltyNanos));
+	}
+
+	/**
+	 * Menor é melhor. Um provedor ainda sem amostras tem custo zero e é
+	 * experimentado primeiro.
+	 */
+	double score() {
+		return Double.longBitsToDouble(ewmaBits.get()) * (inFlight.get() + 1);
+	}
+
+	long sampleCount() {
+		return samples.get();
+	}
+
+	int inFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Limite superior da faixa do histograma que contém o percentil {@code p}
+	 * (0 sem amostras).
+	 */
+	long percentileNanos(double p) {
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			total += counts.get(i);
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long target = (long) Math.ceil(p * total);
+		long cumulative = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			cumulative += counts.get(i);
+			if (cumulative >= target) {
+				return upperBound(i);
+			}
+		}
+		return upperBound(BUCKETS - 1);
+	}
+
+	private void updateEwma(long nanos) {
+		long current;
+		long next;
+		do {
+			current = ewmaBits.get();
+			double ewma = Double.longBitsToDouble(current);
+			next = Double.doubleToLongBits(ewma == 0 ? nanos : ewma + alpha * (nanos - ewma));
+		} while (!ewmaBits.compareAndSet(current, next));
+	}
+
+	static int bucketOf(long nanos) {
+		return Math.min(LogLinearBuckets.indexOf(nanos), BUCKETS - 1);
+	}
+
+	static long upperBound(int bucket) {
+		return LogLinearBuckets.upperBound(bucket);
+	}
+}
@@ -0,0 +1,42 @@
+package com.cep.challenge.cep.controller;
+
+import com.cep.challenge.cep.dto.CacheInvalidationResponse;
+import com.cep.challenge.cep.invalidation.CacheInvalidationBus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Invalidação dos caches de CEP em todas as instâncias: um CEP
+ * ({@code ?cep=01001-000}), um prefixo ({@code ?prefix=0100}) ou tudo
+ * ({@code ?all=true}). Responde {@code 202}: as outras instâncias aplicam a
+ * invalidação quando a recebem. Atende tanto a pilha servlet quanto a reativa.
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheAdminController {
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @DeleteMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<CacheInvalidationResponse> invalidate(@RequestParam(required = false) String cep,
+                                                      @RequestParam(required = false) String prefix,
+                                                      @RequestParam(defaultValue = "false") boolean all) {
+        log.info("🧽 Recebida invalidação de cache - cep: {}, prefix: {}, all: {}", cep, prefix, all);
+
+        // apaga de cep_cache e publica pelo transporte: fora do event loop
+        return Mono.fromCallable(() -> cacheInvalidationBus.invalidate(cep, prefix, all))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
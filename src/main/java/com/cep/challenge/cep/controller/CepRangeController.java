@@ -0,0 +1,50 @@
+package com.cep.challenge.cep.controller;
+
+import com.cep.challenge.cep.dto.CepPage;
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.service.CepRangeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Consultas por prefixo ({@code ?prefix=0100}) e faixa
+ * ({@code ?from=01000-000&to=01099-999}) sobre os CEPs já conhecidos.
+ * Atende tanto a pilha servlet quanto a reativa.
+ */
+@RestController
+@RequestMapping("/api/ceps")
+@RequiredArgsConstructor
+@Slf4j
+public class CepRangeController {
+
+    private final CepRangeService cepRangeService;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public CepPage listCeps(@RequestParam(required = false) String prefix,
+                            @RequestParam(required = false) String from,
+                            @RequestParam(required = false) String to,
+                            @RequestParam(required = false) String after,
+                            @RequestParam(required = false) Integer limit) {
+        log.info("🧭 Recebida consulta de faixa - prefix: {}, from: {}, to: {}, after: {}", prefix, from, to, after);
+
+        return cepRangeService.page(cepRangeService.resolve(prefix, from, to), after, limit);
+    }
+
+    /**
+     * A faixa inteira em NDJSON, sem paginação, emitida conforme o cliente lê.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CepResponse> streamCeps(@RequestParam(required = false) String prefix,
+                                        @RequestParam(required = false) String from,
+                                        @RequestParam(required = false) String to) {
+        log.info("🧭 Recebida consulta de faixa (NDJSON) - prefix: {}, from: {}, to: {}", prefix, from, to);
+
+        return cepRangeService.stream(cepRangeService.resolve(prefix, from, to));
+    }
+}
@@ -0,0 +1,33 @@
+package com.cep.challenge.cep.controller;
+
+import com.cep.challenge.cep.dto.CepStatsResponse;
+import com.cep.challenge.cep.stats.CepStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Estatísticas das consultas recentes ({@code ?window=15m&top=20}), servidas
+ * da memória sem consultar {@code query_logs}. Atende tanto a pilha servlet
+ * quanto a reativa.
+ */
+@RestController
+@RequestMapping("/api/ceps")
+@RequiredArgsConstructor
+@Slf4j
+public class CepStatsController {
+
+    private final CepStats cepStats;
+
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CepStatsResponse getStats(@RequestParam(required = false) String window,
+                                     @RequestParam(required = false) Integer top) {
+        log.info("📊 Recebida requisição de estatísticas (janela {}, top {})", window, top);
+
+        return cepStats.snapshot(window, top);
+    }
+}
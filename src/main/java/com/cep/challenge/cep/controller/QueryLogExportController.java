@@ -0,0 +1,101 @@
+package com.cep.challenge.cep.controller;
+
+import com.cep.challenge.cep.export.QueryLogExporter;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Exporta {@code query_logs} de um período
+ * ({@code ?from=2026-03-01T00:00&to=2026-03-02T00:00&format=csv}) escrevendo
+ * direto na resposta, sem montar o resultado na memória. Com
+ * {@code Accept-Encoding: gzip} a saída é comprimida enquanto é escrita.
+ * <p>
+ * A escrita ocupa a thread da requisição até o fim, sem o timeout das
+ * respostas assíncronas; no perfil {@code virtual-threads} essa thread é virtual.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/query-logs")
+@RequiredArgsConstructor
+@Slf4j
+public class QueryLogExportController {
+
+    private final QueryLogExporter exporter;
+
+    @GetMapping("/export")
+    public void export(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                       @RequestParam(required = false) String format,
+                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                       HttpServletResponse response) throws IOException {
+        log.info("📤 Recebida requisição de exportação de query_logs - from: {}, to: {}, format: {}", from, to, format);
+
+        QueryLogExporter.Request request = exporter.request(from, to, format, acceptsGzip(acceptEncoding));
+        response.setContentType(request.format().mediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(request.format().fileName()).build().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (request.gzip()) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        exporter.export(request, response.getOutputStream());
+    }
+
+    /**
+     * {@code gzip} aceito em {@code Accept-Encoding}: listado com {@code q > 0},
+     * ou coberto por {@code *} com {@code q > 0} quando não listado. {@code gzip;q=0}
+     * recusa, e outras codificações (ex. {@code x-gzip}) não contam.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip")) {
+                gzip = quality(parts);
+            } else if (coding.equals("*")) {
+                wildcard = quality(parts);
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    /**
+     * O {@code q} de uma codificação (1 se ausente, 0 se malformado).
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
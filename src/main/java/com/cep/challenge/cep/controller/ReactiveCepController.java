@@ -0,0 +1,82 @@
+package com.cep.challenge.cep.controller;
+
+import com.cep.challenge.cep.cache.SerializedCepCache;
+import com.cep.challenge.cep.dto.CepBatchItem;
+import com.cep.challenge.cep.dto.CepBatchRequest;
+import com.cep.challenge.cep.dto.CepBatchResponse;
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.jfr.CepStage;
+import com.cep.challenge.cep.jfr.CepStageEvent;
+import com.cep.challenge.cep.service.CepService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Equivalente reativo do {@link CepController}, ativo quando a aplicação sobe
+ * como WebFlux ({@code spring.main.web-application-type=reactive}, perfil {@code reactive}).
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/ceps")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveCepController {
+
+    private final CepService cepService;
+    private final SerializedCepCache serializedCepCache;
+
+    @GetMapping("/{cep}")
+    public Mono<ResponseEntity<byte[]>> getCep(@PathVariable String cep) {
+        log.info("🔍 Recebida requisição reativa para buscar CEP: {}", cep);
+
+        return CepStageEvent.trace(CepStage.REQUEST, cep, cepService.getCepReactive(cep))
+                .doOnNext(response -> log.info("✅ CEP {} encontrado: {} - {}, {}",
+                        cep, response.getLogradouro(), response.getBairro(), response.getLocalidade()))
+                .map(response -> serializedCepCache.get(response).toResponseEntity());
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<byte[]>> searchCep(@RequestParam String cep) {
+        log.info("🔍 Recebida requisição reativa de busca por CEP via query param: {}", cep);
+
+        return CepStageEvent.trace(CepStage.REQUEST, cep, cepService.getCepReactive(cep))
+                .doOnNext(response -> log.info("✅ CEP {} encontrado via search: {} - {}, {}",
+                        cep, response.getLogradouro(), response.getBairro(), response.getLocalidade()))
+                .map(response -> serializedCepCache.get(response).toResponseEntity());
+    }
+
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<CepBatchResponse> getCeps(@RequestBody CepBatchRequest request) {
+        log.info("📦 Recebida requisição reativa de lote com {} CEPs", sizeOf(request));
+
+        return cepService.getCeps(request.getCeps(), true)
+                .collectList()
+                .map(CepBatchResponse::new);
+    }
+
+    /**
+     * Mesmo lote em NDJSON: cada item é enviado assim que termina.
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CepBatchItem> streamCeps(@RequestBody CepBatchRequest request) {
+        log.info("📦 Recebida requisição reativa de lote (NDJSON) com {} CEPs", sizeOf(request));
+
+        return cepService.getCeps(request.getCeps(), false);
+    }
+
+    private static int sizeOf(CepBatchRequest request) {
+        return request.getCeps() == null ? 0 : request.getCeps().size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.cep.challenge.cep.controller;
+
+import com.cep.challenge.cep.export.QueryLogExporter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Equivalente reativo do {@link QueryLogExportController}. O cursor JDBC é
+ * bloqueante, então a escrita roda numa thread virtual própria por exportação
+ * e cada buffer só é produzido quando o cliente pede mais dados.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/query-logs")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveQueryLogExportController {
+
+    private static final DataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+    private static final Executor EXPORT_THREADS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("query-log-export-", 0).factory());
+
+    private final QueryLogExporter exporter;
+
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.info("📤 Recebida requisição reativa de exportação de query_logs - from: {}, to: {}, format: {}", from, to, format);
+
+        QueryLogExporter.Request request = exporter.request(from, to, format,
+                QueryLogExportController.acceptsGzip(acceptEncoding));
+        Flux<DataBuffer> body = Flux.from(DataBufferUtils.outputStreamPublisher(out -> {
+            try {
+                exporter.export(request, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, BUFFERS, EXPORT_THREADS));
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(request.format().mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(request.format().fileName()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (request.gzip()) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
+}
@@ -0,0 +1,26 @@
+package com.cep.challenge.cep.controller;
+
+import com.cep.challenge.cep.exception.UpstreamOverloadedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * {@code 503} com {@code Retry-After} para consultas recusadas pelo limite de
+ * concorrência da API externa, nas duas pilhas (MVC e WebFlux): só o
+ * {@code @ResponseStatus} da exceção não permite definir cabeçalhos.
+ */
+@RestControllerAdvice
+public class UpstreamOverloadedHandler {
+
+    @ExceptionHandler(UpstreamOverloadedException.class)
+    public ResponseEntity<ProblemDetail> handle(UpstreamOverloadedException e) {
+        long seconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+}
@@ -7,8 +7,16 @@ import lombok.AllArgsConstructor;
 
 import java.time.LocalDateTime;
 
+/**
+ * Log de uma consulta. No Postgres a tabela é particionada por dia em
+ * {@code query_time} ({@code schema-postgresql.sql}), por isso a chave
+ * primária física é {@code (id, query_time)}.
+ */
 @Entity
-@Table(name = "query_logs")
+@Table(name = "query_logs", indexes = {
+        @Index(name = "idx_query_logs_query_time", columnList = "query_time"),
+        @Index(name = "idx_query_logs_cep_query_time", columnList = "cep, query_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,4 +37,11 @@ public class QueryLog {
     
     @Column(name = "success")
     private Boolean success;
+    
+    @Column(name = "cache_hit")
+    private Boolean cacheHit;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source", length = 16)
+    private QuerySource source;
 }
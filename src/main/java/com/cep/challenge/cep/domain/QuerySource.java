@@ -0,0 +1,19 @@
+package com.cep.challenge.cep.domain;
+
+/**
+ * Caminho que atendeu uma consulta de CEP, registrado em {@link QueryLog}.
+ */
+public enum QuerySource {
+    /** API externa, via {@code CepClient}. */
+    UPSTREAM,
+    /** Cache em memória (inclusive cache negativo). */
+    CACHE,
+    /** Cache persistente (tabela {@code cep_cache}), após um miss no cache em memória. */
+    PERSISTENT_CACHE,
+    /** Base offline de CEPs mapeada em memória. */
+    OFFLINE,
+    /** Resposta do cache já vencida, servida enquanto é atualizada em segundo plano. */
+    STALE,
+    /** Recusada sem chamar a API externa: circuit breaker aberto em todos os provedores. */
+    SHORT_CIRCUIT
+}
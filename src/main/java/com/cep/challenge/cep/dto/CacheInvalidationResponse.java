@@ -0,0 +1,25 @@
+package com.cep.challenge.cep.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Resultado de {@code DELETE /api/admin/cache}. As contagens são desta
+ * instância; as demais recebem a faixa pelo transporte de invalidação.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationResponse {
+	private String from;
+	private String to;
+	/** Entradas removidas do cache em memória desta instância. */
+	private long localRemoved;
+	/** Linhas removidas de {@code cep_cache}. */
+	private long persistentRemoved;
+	/** Se a invalidação foi publicada para as outras instâncias. */
+	private boolean propagated;
+}
@@ -0,0 +1,40 @@
+package com.cep.challenge.cep.dto;
+
+import com.cep.challenge.cep.exception.CepNotFoundException;
+import com.cep.challenge.cep.exception.InvalidCepException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Resultado de um CEP dentro de uma consulta em lote.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CepBatchItem {
+
+	public enum Status {
+		FOUND,
+		NOT_FOUND,
+		INVALID,
+		ERROR
+	}
+
+	private String cep;
+	private Status status;
+	private CepResponse data;
+	private String error;
+
+	public static CepBatchItem found(String cep, CepResponse data) {
+		return new CepBatchItem(cep, Status.FOUND, data, null);
+	}
+
+	public static CepBatchItem failed(String cep, Throwable error) {
+		Status status = error instanceof CepNotFoundException ? Status.NOT_FOUND
+				: error instanceof InvalidCepException ? Status.INVALID : Status.ERROR;
+		return new CepBatchItem(cep, status, null, error.getMessage());
+	}
+}
@@ -0,0 +1,16 @@
+package com.cep.challenge.cep.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CepBatchRequest {
+	private List<String> ceps;
+}
@@ -0,0 +1,21 @@
+package com.cep.challenge.cep.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Página de uma consulta por prefixo ou faixa. {@code next} é o cursor para
+ * o parâmetro {@code after} da próxima página, ou {@code null} na última.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CepPage {
+	private List<CepResponse> items;
+	private String next;
+}
@@ -0,0 +1,62 @@
+package com.cep.challenge.cep.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estatísticas das consultas em uma janela ({@code GET /api/ceps/stats}).
+ * {@code from} é alinhado ao início da faixa de tempo mais antiga incluída.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CepStatsResponse {
+	private String window;
+	private Instant from;
+	private Instant to;
+	private long total;
+	private long success;
+	private long notFound;
+	private long errors;
+	private double successRatio;
+	/** Consultas por origem ({@code cache}, {@code upstream}, ...). */
+	private Map<String, Long> sources;
+	private Latency latencyMs;
+	private List<TopCep> topCeps;
+
+	/**
+	 * Percentis em milissegundos, com erro de até 25% para cima.
+	 */
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Latency {
+		private double p50;
+		private double p90;
+		private double p95;
+		private double p99;
+		private double max;
+	}
+
+	/**
+	 * {@code count} soma as faixas de tempo em que o CEP estava entre os
+	 * monitorados; até {@code maxError} dessa soma pode ser excesso.
+	 */
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class TopCep {
+		private String cep;
+		private long count;
+		private long maxError;
+	}
+}
@@ -0,0 +1,24 @@
+package com.cep.challenge.cep.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * {@link CepResponse} montada a partir da base offline. Cada acerto cria uma
+ * nova instância; {@code datasetVersion} identifica a base de onde veio, para
+ * que o JSON já calculado para o mesmo CEP e a mesma base seja reaproveitado.
+ */
+public class OfflineCepResponse extends CepResponse {
+
+	private final long datasetVersion;
+
+	public OfflineCepResponse(long datasetVersion, String cep, String logradouro, String bairro,
+			String localidade, String uf) {
+		super(cep, logradouro, bairro, localidade, uf);
+		this.datasetVersion = datasetVersion;
+	}
+
+	@JsonIgnore
+	public long getDatasetVersion() {
+		return datasetVersion;
+	}
+}
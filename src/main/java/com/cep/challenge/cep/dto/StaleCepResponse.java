@@ -0,0 +1,17 @@
+package com.cep.challenge.cep.dto;
+
+/**
+ * {@link CepResponse} servida do cache após o {@code ttl}, enquanto a API
+ * externa é consultada em segundo plano. Serializada com {@code "stale": true}.
+ */
+public class StaleCepResponse extends CepResponse {
+
+	public StaleCepResponse(CepResponse response) {
+		super(response.getCep(), response.getLogradouro(), response.getBairro(),
+				response.getLocalidade(), response.getUf());
+	}
+
+	public boolean isStale() {
+		return true;
+	}
+}
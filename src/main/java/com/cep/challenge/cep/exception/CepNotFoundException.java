@@ -0,0 +1,20 @@
+package com.cep.challenge.cep.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * CEP inexistente ou inválido segundo a API externa. Diferente de uma falha
+ * de comunicação, este resultado pode ser guardado no cache negativo.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class CepNotFoundException extends RuntimeException {
+
+    public CepNotFoundException(String message) {
+        super(message);
+    }
+
+    public CepNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
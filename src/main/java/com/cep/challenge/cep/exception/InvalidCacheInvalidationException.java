@@ -0,0 +1,15 @@
+package com.cep.challenge.cep.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Parâmetros inválidos em {@code DELETE /api/admin/cache}.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCacheInvalidationException extends RuntimeException {
+
+    public InvalidCacheInvalidationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.cep.challenge.cep.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Texto que não é um CEP (8 dígitos, com ou sem "-" e "."); recusado antes
+ * de qualquer consulta ao cache, ao banco ou à API externa.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCepException extends RuntimeException {
+
+    public InvalidCepException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.cep.challenge.cep.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Formato ou período inválidos em {@code GET /api/query-logs/export}.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidExportQueryException extends RuntimeException {
+
+    public InvalidExportQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.cep.challenge.cep.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Janela ou tamanho do top-K inválidos em {@code GET /api/ceps/stats}.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidStatsQueryException extends RuntimeException {
+
+    public InvalidStatsQueryException(String message) {
+        super(message);
+    }
+}
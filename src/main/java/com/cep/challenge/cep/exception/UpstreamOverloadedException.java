@@ -0,0 +1,22 @@
+package com.cep.challenge.cep.exception;
+
+import java.time.Duration;
+
+/**
+ * A API externa está no limite de chamadas simultâneas
+ * ({@code app.cep.concurrency-limit}) e a consulta não conseguiu vaga a
+ * tempo. Respondida com {@code 503} e {@code Retry-After}.
+ */
+public class UpstreamOverloadedException extends UpstreamUnavailableException {
+
+    private final Duration retryAfter;
+
+    public UpstreamOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,243 @@
+package com.cep.challenge.cep.export;
+
+import com.cep.challenge.cep.domain.QueryLog;
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.exception.InvalidExportQueryException;
+import com.cep.challenge.config.AppProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escreve {@code query_logs} de um período direto num {@link OutputStream},
+ * em NDJSON ou CSV, opcionalmente comprimido com gzip.
+ * <p>
+ * As linhas vêm de um cursor somente-leitura e de mão única
+ * ({@link JdbcTemplate#queryForStream}) com {@code fetch-size} linhas por ida
+ * ao banco, dentro de uma transação para que o driver do Postgres use um
+ * cursor no servidor em vez de trazer o resultado inteiro. Cada linha é
+ * escrita e descartada antes da próxima: a memória usada não depende de
+ * quantas linhas o período tem. As linhas saem na ordem em que o banco as lê,
+ * sem {@code order by}, para que a primeira chegue ao cliente sem esperar uma
+ * ordenação do período inteiro.
+ */
+@Component
+@Slf4j
+public class QueryLogExporter {
+
+    private static final String SELECT_SQL =
+            "select id, cep, query_time, response_time_ms, success, cache_hit, source from query_logs";
+    private static final String CSV_HEADER = "id,cep,query_time,response_time_ms,success,cache_hit,source";
+
+    private static final RowMapper<QueryLog> ROW_MAPPER = (rs, rowNum) -> {
+        String source = rs.getString("source");
+        return new QueryLog(
+                rs.getLong("id"),
+                rs.getString("cep"),
+                rs.getObject("query_time", LocalDateTime.class),
+                rs.getObject("response_time_ms", Long.class),
+                rs.getObject("success", Boolean.class),
+                rs.getObject("cache_hit", Boolean.class),
+                source == null ? null : QuerySource.valueOf(source));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter jsonWriter;
+
+    public QueryLogExporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper, AppProperties props) {
+        // cópia com fetch size próprio, sem mudar o JdbcTemplate compartilhado
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(props.getExport().getFetchSize());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jsonWriter = objectMapper.writerFor(QueryLog.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Valida os parâmetros antes de qualquer byte ser escrito, para que um
+     * erro ainda possa virar {@code 400}.
+     *
+     * @param from início do período (inclusivo), {@code null} = sem limite
+     * @param to   fim do período (exclusivo), {@code null} = sem limite
+     */
+    public Request request(LocalDateTime from, LocalDateTime to, String format, boolean gzip) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidExportQueryException("from deve ser anterior a to");
+        }
+        return new Request(from, to, Format.parse(format), gzip);
+    }
+
+    /**
+     * Escreve o período em {@code out} e devolve quantas linhas foram
+     * escritas. {@code out} não é fechado; o gzip, se houver, é finalizado.
+     */
+    public long export(Request request, OutputStream out) throws IOException {
+        long startTime = System.nanoTime();
+        OutputStream target = request.gzip() ? new GZIPOutputStream(nonClosing(out), 8192) : nonClosing(out);
+        long rows;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 16 * 1024)) {
+            rows = request.format() == Format.CSV ? writeCsv(request, writer) : writeNdjson(request, writer);
+        }
+        log.info("📤 Exportação de query_logs ({}, {} a {}): {} linhas em {} ms", request.format(),
+                request.from(), request.to(), rows, (System.nanoTime() - startTime) / 1_000_000);
+        return rows;
+    }
+
+    private long writeNdjson(Request request, Writer writer) throws IOException {
+        try (JsonGenerator generator = jsonWriter.createGenerator(writer)) {
+            generator.setRootValueSeparator(null);
+            return forEachRow(request, row -> {
+                jsonWriter.writeValue(generator, row);
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    private long writeCsv(Request request, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        return forEachRow(request, row -> {
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(csv(row.getCep()));
+            writer.write(',');
+            writer.write(row.getQueryTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            writer.write(',');
+            writer.write(csv(row.getResponseTimeMs()));
+            writer.write(',');
+            writer.write(csv(row.getSuccess()));
+            writer.write(',');
+            writer.write(csv(row.getCacheHit()));
+            writer.write(',');
+            writer.write(csv(row.getSource()));
+            writer.write('\n');
+        });
+    }
+
+    private long forEachRow(Request request, RowWriter rowWriter) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>(2);
+        if (request.from() != null) {
+            sql.append(" where query_time >= ?");
+            args.add(request.from());
+        }
+        if (request.to() != null) {
+            sql.append(args.isEmpty() ? " where" : " and").append(" query_time < ?");
+            args.add(request.to());
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                long count = 0;
+                try (Stream<QueryLog> rows = jdbcTemplate.queryForStream(sql.toString(), ROW_MAPPER, args.toArray())) {
+                    for (QueryLog row : (Iterable<QueryLog>) rows::iterator) {
+                        rowWriter.write(row);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            // normalmente o cliente desconectou; a transação já foi desfeita e o cursor fechado
+            throw e.getCause();
+        }
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+        }
+        return text;
+    }
+
+    private static OutputStream nonClosing(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(QueryLog row) throws IOException;
+    }
+
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String fileName() {
+            return "query-logs." + extension;
+        }
+
+        static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidExportQueryException("Formato inválido: " + value + " (use ndjson ou csv)");
+            }
+        }
+    }
+
+    public record Request(LocalDateTime from, LocalDateTime to, Format format, boolean gzip) {
+    }
+}
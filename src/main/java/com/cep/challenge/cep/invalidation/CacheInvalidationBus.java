@@ -0,0 +1,164 @@
+package com.cep.challenge.cep.invalidation;
+
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.cache.PersistentCepCache;
+import com.cep.challenge.cep.dto.CacheInvalidationResponse;
+import com.cep.challenge.cep.exception.InvalidCacheInvalidationException;
+import com.cep.challenge.cep.service.CepRangeService;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invalidação dos caches de CEP em todas as instâncias.
+ * <p>
+ * Quem invalida apaga a faixa de {@code cep_cache} (compartilhado), depois do
+ * próprio {@link CepCache}, e publica a faixa pelo
+ * {@link InvalidationTransport} de {@code app.cep.invalidation.transport}; as
+ * outras instâncias, ao receber, limpam só o cache em memória (e, com ele, o
+ * JSON pronto do {@code SerializedCepCache}, inclusive o da base offline).
+ * Nessa ordem, nenhuma instância recarrega da tabela o que acabou de ser
+ * invalidado. Com {@code none} só a instância que recebeu a requisição é
+ * afetada. A troca da base offline também invalida a faixa inteira por aqui.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus implements DisposableBean, MeterBinder {
+
+    private final CepCache cepCache;
+    private final PersistentCepCache persistentCache;
+    private final InvalidationTransport transport;
+    private final String instanceId;
+
+    private final AtomicLong local = new AtomicLong();
+    private final AtomicLong remote = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Autowired
+    public CacheInvalidationBus(CepCache cepCache, PersistentCepCache persistentCache, JdbcTemplate jdbcTemplate,
+                                TaskScheduler taskScheduler, AppProperties props) {
+        this(cepCache, persistentCache, transport(props.getInvalidation(), jdbcTemplate, taskScheduler),
+                UUID.randomUUID().toString());
+    }
+
+    /**
+     * @param transport {@code null} = sem propagação
+     */
+    CacheInvalidationBus(CepCache cepCache, PersistentCepCache persistentCache, InvalidationTransport transport,
+                         String instanceId) {
+        this.cepCache = cepCache;
+        this.persistentCache = persistentCache;
+        this.transport = transport;
+        this.instanceId = instanceId;
+    }
+
+    private static InvalidationTransport transport(AppProperties.Invalidation config, JdbcTemplate jdbcTemplate,
+                                                   TaskScheduler taskScheduler) {
+        return switch (config.getTransport()) {
+            case NONE -> null;
+            case JDBC -> new JdbcInvalidationTransport(jdbcTemplate, taskScheduler, config);
+            case MULTICAST -> new MulticastInvalidationTransport(config);
+        };
+    }
+
+    @PostConstruct
+    void start() {
+        if (transport != null) {
+            transport.start(this::onMessage);
+            log.info("📡 Invalidações de cache via {} (instância {})", transport.getClass().getSimpleName(), instanceId);
+        }
+    }
+
+    /**
+     * Resolve exatamente um entre {@code cep}, {@code prefix} e {@code all} e invalida a faixa.
+     */
+    public CacheInvalidationResponse invalidate(String cep, String prefix, boolean all) {
+        int given = (cep != null ? 1 : 0) + (prefix != null ? 1 : 0) + (all ? 1 : 0);
+        if (given != 1) {
+            throw new InvalidCacheInvalidationException("Informe exatamente um entre cep, prefix e all=true");
+        }
+        if (all) {
+            return invalidate(CepKeys.MIN, CepKeys.MAX);
+        }
+        if (prefix != null) {
+            CepRangeService.KeyRange range = CepRangeService.prefixRange(prefix);
+            return invalidate(range.from(), range.to());
+        }
+        int key = CepKeys.parse(cep);
+        if (key == CepKeys.INVALID) {
+            throw new InvalidCacheInvalidationException("CEP inválido: " + cep);
+        }
+        return invalidate(key, key);
+    }
+
+    /**
+     * Invalida as chaves de {@code from} a {@code to} (inclusivo) aqui e, pelo
+     * transporte, nas outras instâncias. Uma falha ao publicar não desfaz a
+     * invalidação local: é registrada e informada em {@code propagated}.
+     */
+    public CacheInvalidationResponse invalidate(int from, int to) {
+        long persistentRemoved = persistentCache.invalidate(from, to);
+        long localRemoved = cepCache.invalidateRange(from, to);
+        local.incrementAndGet();
+
+        boolean propagated = false;
+        if (transport != null) {
+            try {
+                transport.publish(new Invalidation(from, to, instanceId));
+                propagated = true;
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                log.error("❌ Erro ao publicar invalidação de {} a {}: {}",
+                        CepKeys.format(from), CepKeys.format(to), e.getMessage());
+            }
+        }
+        log.info("🧽 Cache invalidado de {} a {}: {} em memória, {} persistidos",
+                CepKeys.format(from), CepKeys.format(to), localRemoved, persistentRemoved);
+        return new CacheInvalidationResponse(CepKeys.format(from), CepKeys.format(to),
+                localRemoved, persistentRemoved, propagated);
+    }
+
+    private void onMessage(Invalidation invalidation) {
+        if (instanceId.equals(invalidation.origin())) {
+            return;
+        }
+        long removed = cepCache.invalidateRange(invalidation.from(), invalidation.to());
+        remote.incrementAndGet();
+        log.debug("🧽 Invalidação de {} recebida, de {} a {}: {} em memória", invalidation.origin(),
+                CepKeys.format(invalidation.from()), CepKeys.format(invalidation.to()), removed);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cep.cache.invalidations", local, AtomicLong::get)
+                .description("Invalidações de cache aplicadas nesta instância, por origem")
+                .tag("origin", "local")
+                .register(registry);
+        FunctionCounter.builder("cep.cache.invalidations", remote, AtomicLong::get)
+                .description("Invalidações de cache aplicadas nesta instância, por origem")
+                .tag("origin", "remote")
+                .register(registry);
+        FunctionCounter.builder("cep.cache.invalidations.publish.failed", failed, AtomicLong::get)
+                .description("Invalidações que não puderam ser publicadas para as outras instâncias")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        if (transport != null) {
+            transport.close();
+        }
+    }
+}
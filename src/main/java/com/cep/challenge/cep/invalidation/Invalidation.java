@@ -0,0 +1,31 @@
+package com.cep.challenge.cep.invalidation;
+
+import com.cep.challenge.cep.util.CepKeys;
+
+/**
+ * Uma faixa de chaves ({@link CepKeys}, inclusiva) a remover dos caches,
+ * publicada pela instância {@code origin}.
+ */
+public record Invalidation(int from, int to, String origin) {
+
+    public boolean isAll() {
+        return from <= CepKeys.MIN && to >= CepKeys.MAX;
+    }
+
+    /**
+     * Formato de texto usado pelos transportes sem colunas: {@code from,to,origin}.
+     */
+    String encode() {
+        return from + "," + to + "," + origin;
+    }
+
+    static Invalidation decode(String text) {
+        int first = text.indexOf(',');
+        int second = text.indexOf(',', first + 1);
+        if (first < 0 || second < 0) {
+            throw new IllegalArgumentException("Invalidação malformada: " + text);
+        }
+        return new Invalidation(Integer.parseInt(text, 0, first, 10),
+                Integer.parseInt(text, first + 1, second, 10), text.substring(second + 1));
+    }
+}
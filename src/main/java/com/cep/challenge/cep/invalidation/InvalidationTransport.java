@@ -0,0 +1,20 @@
+package com.cep.challenge.cep.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Leva as invalidações de uma instância às demais. Entrega ao menos uma vez,
+ * sem ordem garantida; as próprias publicações também podem voltar ao
+ * {@code listener}, cabe ao {@link CacheInvalidationBus} ignorá-las.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Começa a receber; {@code listener} é chamado fora da thread de quem publica.
+     */
+    void start(Consumer<Invalidation> listener);
+
+    void publish(Invalidation invalidation);
+
+    void close();
+}
@@ -0,0 +1,138 @@
+package com.cep.challenge.cep.invalidation;
+
+import com.cep.challenge.config.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * Invalidações pela tabela {@code cache_invalidations}, no mesmo banco de
+ * {@code query_logs}: publicar é um {@code insert}; cada instância lê as
+ * linhas novas a cada {@code poll-interval}, que é o atraso máximo de
+ * propagação.
+ * <p>
+ * Ids de identidade podem ser confirmados fora de ordem, então a leitura não
+ * é por {@code id > último}: cada leitura volta {@code poll-overlap} antes do
+ * maior {@code created_at} já visto (hora do banco, não de cada instância) e
+ * descarta os ids já entregues. Uma linha confirmada mais de
+ * {@code poll-overlap} depois do seu {@code created_at} não é vista. Linhas
+ * mais antigas que {@code retention} são apagadas. A tabela vem de
+ * {@code schema-postgresql.sql}/{@code schema-h2.sql}.
+ */
+@Slf4j
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String INSERT_SQL =
+            "insert into cache_invalidations (range_from, range_to, origin) values (?, ?, ?)";
+    private static final String SELECT_SQL =
+            "select id, range_from, range_to, origin, created_at from cache_invalidations where created_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskScheduler taskScheduler;
+    private final Duration pollInterval;
+    private final Duration overlap;
+    private final Duration retention;
+    private final long cleanupIntervalNanos;
+
+    /** Ids já entregues dentro da janela de sobreposição; só a leitura os acessa. */
+    private final Map<Long, LocalDateTime> seen = new HashMap<>();
+    private LocalDateTime watermark;
+    private long lastCleanupNanos;
+
+    private volatile Consumer<Invalidation> listener;
+    private ScheduledFuture<?> task;
+
+    public JdbcInvalidationTransport(JdbcTemplate jdbcTemplate, TaskScheduler taskScheduler,
+                                     AppProperties.Invalidation config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskScheduler = taskScheduler;
+        this.pollInterval = config.getPollInterval();
+        this.overlap = config.getPollOverlap();
+        this.retention = config.getRetention();
+        this.cleanupIntervalNanos = Math.max(retention.toNanos() / 10, pollInterval.toNanos());
+    }
+
+    @Override
+    public synchronized void start(Consumer<Invalidation> listener) {
+        // o que já estava na tabela foi publicado antes desta instância existir
+        read(false);
+        lastCleanupNanos = System.nanoTime();
+        this.listener = listener;
+        task = taskScheduler.scheduleWithFixedDelay(this::pollSafely, pollInterval);
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        jdbcTemplate.update(INSERT_SQL, invalidation.from(), invalidation.to(), invalidation.origin());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Uma leitura da tabela (normalmente feita pelo agendador); devolve quantas invalidações novas.
+     */
+    synchronized int poll() {
+        int delivered = read(true);
+        if (System.nanoTime() - lastCleanupNanos >= cleanupIntervalNanos) {
+            lastCleanupNanos = System.nanoTime();
+            int removed = jdbcTemplate.update("delete from cache_invalidations where created_at < ?",
+                    Timestamp.valueOf(watermark.minus(retention)));
+            if (removed > 0) {
+                log.info("🧹 {} invalidações antigas removidas de cache_invalidations", removed);
+            }
+        }
+        return delivered;
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("⚠️  Erro ao ler cache_invalidations: {}", e.getMessage());
+        }
+    }
+
+    private int read(boolean deliver) {
+        LocalDateTime since = watermark == null ? EPOCH : watermark.minus(overlap);
+        List<Row> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Row(rs.getLong("id"),
+                new Invalidation(rs.getInt("range_from"), rs.getInt("range_to"), rs.getString("origin")),
+                rs.getObject("created_at", LocalDateTime.class)), Timestamp.valueOf(since));
+
+        int delivered = 0;
+        for (Row row : rows) {
+            if (seen.putIfAbsent(row.id(), row.createdAt()) != null) {
+                continue;
+            }
+            if (watermark == null || row.createdAt().isAfter(watermark)) {
+                watermark = row.createdAt();
+            }
+            if (deliver) {
+                listener.accept(row.invalidation());
+                delivered++;
+            }
+        }
+        if (watermark != null) {
+            LocalDateTime horizon = watermark.minus(overlap);
+            seen.values().removeIf(createdAt -> createdAt.isBefore(horizon));
+        }
+        return delivered;
+    }
+
+    private record Row(long id, Invalidation invalidation, LocalDateTime createdAt) {
+    }
+}
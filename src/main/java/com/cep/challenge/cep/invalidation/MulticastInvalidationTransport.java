@@ -0,0 +1,101 @@
+package com.cep.challenge.cep.invalidation;
+
+import com.cep.challenge.config.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Invalidações por UDP multicast ({@code multicast-group:multicast-port}),
+ * por padrão na interface de loopback e com TTL 0: serve a várias instâncias
+ * na mesma máquina, como em testes, sem banco. Não há confirmação nem
+ * reenvio; um datagrama perdido é uma invalidação perdida, então não é o
+ * transporte para produção.
+ */
+@Slf4j
+public class MulticastInvalidationTransport implements InvalidationTransport {
+
+    private static final int MAX_MESSAGE = 512;
+
+    private final InetSocketAddress group;
+    private final String interfaceName;
+    private final int ttl;
+
+    private volatile MulticastSocket socket;
+    private Thread receiver;
+
+    public MulticastInvalidationTransport(AppProperties.Invalidation config) {
+        this.group = new InetSocketAddress(config.getMulticastGroup(), config.getMulticastPort());
+        this.interfaceName = config.getMulticastInterface();
+        this.ttl = config.getMulticastTtl();
+    }
+
+    @Override
+    public synchronized void start(Consumer<Invalidation> listener) {
+        try {
+            NetworkInterface networkInterface = interfaceName == null
+                    ? NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress())
+                    : NetworkInterface.getByName(interfaceName);
+            if (networkInterface == null) {
+                throw new SocketException("Interface de rede não encontrada: " + interfaceName);
+            }
+            MulticastSocket multicastSocket = new MulticastSocket(group.getPort());
+            multicastSocket.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+            multicastSocket.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+            multicastSocket.setTimeToLive(ttl);
+            multicastSocket.joinGroup(group, networkInterface);
+            socket = multicastSocket;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível entrar no grupo " + group, e);
+        }
+        receiver = new Thread(() -> receive(listener), "cache-invalidation-multicast");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        byte[] message = invalidation.encode().getBytes(StandardCharsets.UTF_8);
+        try {
+            socket.send(new DatagramPacket(message, message.length, group));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (socket != null) {
+            // desbloqueia o receive da thread receptora
+            socket.close();
+        }
+    }
+
+    private void receive(Consumer<Invalidation> listener) {
+        byte[] buffer = new byte[MAX_MESSAGE];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                listener.accept(Invalidation.decode(
+                        new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("⚠️  Erro ao receber invalidação por multicast: {}", e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.warn("⚠️  Invalidação por multicast descartada: {}", e.getMessage());
+            }
+        }
+    }
+}
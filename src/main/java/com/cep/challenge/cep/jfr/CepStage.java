@@ -0,0 +1,30 @@
+package com.cep.challenge.cep.jfr;
+
+import java.util.Locale;
+
+/**
+ * Estágios de uma consulta de CEP gravados como {@link CepStageEvent}.
+ */
+public enum CepStage {
+
+    /** Requisição HTTP de um CEP, do controller até a resposta. */
+    REQUEST,
+    /** Consulta completa no {@code CepService}, até o log ser entregue ao writer. */
+    LOOKUP,
+    /** Leitura do cache em memória. */
+    CACHE,
+    /** Leitura da base offline. */
+    OFFLINE,
+    /** Leitura da tabela {@code cep_cache}. */
+    PERSISTENT_CACHE,
+    /** Espera pela API externa, incluindo quem aguarda a chamada de outra requisição. */
+    UPSTREAM,
+    /** Espera por vaga no limite de concorrência da API externa. */
+    CONCURRENCY_LIMIT,
+    /** Uma chamada a um provedor; com fallback ou hedging há mais de uma por consulta. */
+    UPSTREAM_CALL,
+    /** Entrega do log da consulta ao writer. */
+    QUERY_LOG;
+
+    final String tag = name().toLowerCase(Locale.ROOT);
+}
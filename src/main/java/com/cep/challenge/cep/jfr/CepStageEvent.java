@@ -0,0 +1,127 @@
+package com.cep.challenge.cep.jfr;
+
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.metrics.CepMetrics.Outcome;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * Evento do JDK Flight Recorder com a duração de um {@link CepStage} de uma
+ * consulta. Fora de uma gravação {@link #start} devolve sempre a mesma
+ * instância inerte: nada é alocado nem gravado, e quem precisa da duração
+ * mede com o próprio {@code System.nanoTime()}.
+ * <p>
+ * {@code outcome} é {@code success}, {@code not_found}, {@code error} ou
+ * {@code cancelled}; no estágio {@code cache} é o resultado do cache
+ * ({@code hit}, {@code stale_hit}, {@code negative_hit}, {@code miss}).
+ * {@code source} (caminho que atendeu a consulta) vem em {@code lookup} e
+ * {@code query_log}; {@code upstream} (provedor) em {@code upstream_call}.
+ * Para ler a gravação, ver {@link JfrStageReport}.
+ */
+@Name(CepStageEvent.NAME)
+@Label("CEP Lookup Stage")
+@Category({"CEP Challenge", "Lookup"})
+@Description("Duração de um estágio da consulta de um CEP")
+@StackTrace(false)
+public final class CepStageEvent extends Event {
+
+    public static final String NAME = "com.cep.challenge.CepStage";
+
+    static final String CANCELLED = "cancelled";
+
+    /**
+     * Nunca começa: serve para saber se o evento está habilitado sem criar um
+     * por consulta e é o que {@link #start} devolve fora de uma gravação.
+     */
+    private static final CepStageEvent DISABLED = new CepStageEvent();
+
+    @Label("CEP")
+    String cep;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Source")
+    @Description("Caminho que atendeu a consulta")
+    String source;
+
+    @Label("Upstream")
+    @Description("Provedor chamado")
+    String upstream;
+
+    private transient boolean started;
+
+    /**
+     * Começa a medir {@code stage}; sem gravação devolve a instância inerte
+     * compartilhada, em que {@link #end} e {@link #cancel} não fazem nada.
+     */
+    public static CepStageEvent start(CepStage stage, String cep) {
+        if (!DISABLED.isEnabled()) {
+            return DISABLED;
+        }
+        CepStageEvent event = new CepStageEvent();
+        event.started = true;
+        event.stage = stage.tag;
+        event.cep = cep;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Mede {@code mono} como {@code stage}, da assinatura ao término: valor é
+     * {@code success}, vazio é {@code not_found}, erro segue
+     * {@link Outcome#of(Throwable)}. Fora de uma gravação devolve o próprio
+     * {@code mono}.
+     */
+    public static <T> Mono<T> trace(CepStage stage, String cep, Mono<T> mono) {
+        if (!DISABLED.isEnabled()) {
+            return mono;
+        }
+        return Mono.defer(() -> {
+            CepStageEvent event = start(stage, cep);
+            return mono
+                    .doOnSuccess(value -> event.end(value == null ? Outcome.NOT_FOUND : Outcome.SUCCESS))
+                    .doOnError(e -> event.end(Outcome.of(e)))
+                    .doOnCancel(event::cancel);
+        });
+    }
+
+    public void upstream(String name) {
+        if (started) {
+            upstream = name;
+        }
+    }
+
+    public void end(Enum<?> outcome) {
+        end(outcome, null);
+    }
+
+    public void end(Enum<?> outcome, QuerySource source) {
+        if (started && shouldCommit()) {
+            this.outcome = tag(outcome);
+            this.source = source == null ? null : tag(source);
+            commit();
+        }
+    }
+
+    public void cancel() {
+        if (started && shouldCommit()) {
+            outcome = CANCELLED;
+            commit();
+        }
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,104 @@
+package com.cep.challenge.cep.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resumo por estágio dos {@link CepStageEvent} de uma gravação {@code .jfr}:
+ * quantidade e p50/p95/p99/máximo em milissegundos. Além da linha do
+ * estágio há uma por origem ({@code lookup[cache]}, {@code lookup[upstream]}...)
+ * e uma por provedor em {@code upstream_call}. Só usa o JDK:
+ * <pre>
+ * java -cp target/classes com.cep.challenge.cep.jfr.JfrStageReport cep.jfr
+ * </pre>
+ */
+public final class JfrStageReport {
+
+    private static final double[] PERCENTILES = {0.50, 0.95, 0.99};
+
+    public record Row(String name, int count, long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+    }
+
+    private JfrStageReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: JfrStageReport <gravacao.jfr>");
+            System.exit(2);
+        }
+        print(summarize(Path.of(args[0])), System.out);
+    }
+
+    /**
+     * Linhas na ordem de {@link CepStage}; dentro do estágio, a linha geral
+     * primeiro e depois as detalhadas em ordem alfabética.
+     */
+    public static List<Row> summarize(Path recording) throws IOException {
+        Map<String, List<Long>> durations = new TreeMap<>((a, b) -> {
+            int byStage = Integer.compare(order(a), order(b));
+            return byStage != 0 ? byStage : a.compareTo(b);
+        });
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (!CepStageEvent.NAME.equals(event.getEventType().getName())) {
+                    continue;
+                }
+                String stage = event.getString("stage");
+                long nanos = event.getDuration().toNanos();
+                durations.computeIfAbsent(stage, k -> new ArrayList<>()).add(nanos);
+                String detail = event.getString("upstream") != null ? event.getString("upstream") : event.getString("source");
+                if (detail != null) {
+                    durations.computeIfAbsent(stage + "[" + detail + "]", k -> new ArrayList<>()).add(nanos);
+                }
+            }
+        }
+
+        List<Row> rows = new ArrayList<>(durations.size());
+        durations.forEach((name, values) -> {
+            long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+            long[] p = Arrays.stream(PERCENTILES).mapToLong(q -> percentile(sorted, q)).toArray();
+            rows.add(new Row(name, sorted.length, p[0], p[1], p[2], sorted[sorted.length - 1]));
+        });
+        return rows;
+    }
+
+    public static void print(List<Row> rows, PrintStream out) {
+        out.printf("%-32s %8s %10s %10s %10s %10s%n", "stage", "count", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Row row : rows) {
+            out.printf("%-32s %8d %10.3f %10.3f %10.3f %10.3f%n", row.name(), row.count(),
+                    millis(row.p50Nanos()), millis(row.p95Nanos()), millis(row.p99Nanos()), millis(row.maxNanos()));
+        }
+    }
+
+    /** Nearest-rank. */
+    private static long percentile(long[] sorted, double q) {
+        int rank = (int) Math.ceil(q * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static int order(String name) {
+        int bracket = name.indexOf('[');
+        String stage = bracket < 0 ? name : name.substring(0, bracket);
+        for (CepStage value : CepStage.values()) {
+            if (value.tag.equals(stage)) {
+                return value.ordinal();
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.cep.challenge.cep.metrics;
+
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.exception.CepNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas do caminho de consulta, expostas pelo Actuator em
+ * {@code /actuator/prometheus}:
+ * <ul>
+ *   <li>{@code cep.lookup} (timer): consulta completa, por {@code source} e {@code outcome}</li>
+ *   <li>{@code cep.upstream} (timer): chamada à API externa, por {@code outcome}</li>
+ *   <li>{@code cep.querylog.write} (timer): entrega do log ao {@code QueryLogWriter}, por
+ *       {@code outcome} ({@code success} ou {@code error})</li>
+ *   <li>{@code cep.cache.requests} (counter): consultas ao cache, por {@code result}</li>
+ * </ul>
+ * Todos os medidores são registrados no início, uma vez por combinação de
+ * tags; no caminho da requisição só há indexação de array e {@code record}
+ * em nanossegundos, sem montar {@code Tags} nem consultar o registry.
+ */
+@Component
+public class CepMetrics {
+
+    public enum Outcome {
+        SUCCESS, NOT_FOUND, ERROR;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+
+        public static Outcome of(Throwable error) {
+            return error instanceof CepNotFoundException ? NOT_FOUND : ERROR;
+        }
+    }
+
+    public enum CacheResult {
+        HIT, STALE_HIT, NEGATIVE_HIT, MISS;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final Timer[][] lookup;
+    private final Timer[] upstream;
+    private final Timer[] queryLogWrite;
+    private final Counter[] cache;
+
+    public CepMetrics(MeterRegistry registry) {
+        QuerySource[] sources = QuerySource.values();
+        Outcome[] outcomes = Outcome.values();
+
+        lookup = new Timer[sources.length][outcomes.length];
+        upstream = new Timer[outcomes.length];
+        queryLogWrite = new Timer[outcomes.length];
+        for (Outcome outcome : outcomes) {
+            for (QuerySource source : sources) {
+                lookup[source.ordinal()][outcome.ordinal()] = Timer.builder("cep.lookup")
+                        .description("Consulta de CEP completa")
+                        .tag("source", source.name().toLowerCase(Locale.ROOT))
+                        .tag("outcome", outcome.tag)
+                        .register(registry);
+            }
+            upstream[outcome.ordinal()] = Timer.builder("cep.upstream")
+                    .description("Chamada à API externa de CEP")
+                    .tag("outcome", outcome.tag)
+                    .register(registry);
+            if (outcome != Outcome.NOT_FOUND) {
+                queryLogWrite[outcome.ordinal()] = Timer.builder("cep.querylog.write")
+                        .description("Gravação (ou enfileiramento) do log da consulta")
+                        .tag("outcome", outcome.tag)
+                        .register(registry);
+            }
+        }
+
+        CacheResult[] results = CacheResult.values();
+        cache = new Counter[results.length];
+        for (CacheResult result : results) {
+            cache[result.ordinal()] = Counter.builder("cep.cache.requests")
+                    .description("Consultas ao cache de CEPs")
+                    .tag("result", result.tag)
+                    .register(registry);
+        }
+    }
+
+    public void recordLookup(QuerySource source, Outcome outcome, long nanos) {
+        lookup[source.ordinal()][outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUpstream(Outcome outcome, long nanos) {
+        upstream[outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordQueryLogWrite(Outcome outcome, long nanos) {
+        queryLogWrite[outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCache(CacheResult result) {
+        cache[result.ordinal()].increment();
+    }
+}
@@ -0,0 +1,138 @@
+package com.cep.challenge.cep.offline;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.dto.OfflineCepResponse;
+import com.cep.challenge.cep.util.CepKeys;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base offline de CEPs lida diretamente de um arquivo mapeado em memória.
+ * <p>
+ * Formato (big-endian), gerado pelo {@link CepDatasetImporter}:
+ * <pre>
+ * cabeçalho  : magic "CEPD" | versão | quantidade n | tamanho da tabela de strings
+ * chaves     : n × int, ordenadas (CEP como int, ver {@link CepKeys})
+ * registros  : n × 4 int, deslocamentos de logradouro, bairro, localidade e uf
+ *              na tabela de strings (-1 = ausente)
+ * strings    : [u16 tamanho][bytes UTF-8], cada valor distinto gravado uma vez
+ * </pre>
+ * A busca é binária sobre as chaves e nenhum objeto é criado por entrada:
+ * o {@link CepResponse} só é montado quando o CEP é encontrado. Cada base
+ * aberta recebe uma {@link #version()} própria, levada nas respostas
+ * ({@link OfflineCepResponse}).
+ */
+public final class CepDataset {
+
+    static final int MAGIC = 0x43455044;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int FIELDS = 4;
+    static final int RECORD_BYTES = FIELDS * Integer.BYTES;
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int keysOffset;
+    private final int recordsOffset;
+    private final int stringsOffset;
+    private final long version = VERSIONS.incrementAndGet();
+
+    private CepDataset(Path file, ByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Arquivo não é uma base de CEPs válida: " + file);
+        }
+        this.size = buffer.getInt(8);
+        this.keysOffset = HEADER_BYTES;
+        this.recordsOffset = keysOffset + size * Integer.BYTES;
+        this.stringsOffset = recordsOffset + size * RECORD_BYTES;
+        if (stringsOffset + buffer.getInt(12) != buffer.limit()) {
+            throw new IllegalArgumentException("Base de CEPs truncada ou corrompida: " + file);
+        }
+    }
+
+    public static CepDataset open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CepDataset(file, mapped);
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Distingue esta base das abertas antes dela neste processo (não é a
+     * versão do formato do arquivo).
+     */
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int keyAt(int index) {
+        return buffer.getInt(keysOffset + index * Integer.BYTES);
+    }
+
+    /**
+     * Posição do primeiro CEP com chave {@code >= key} (igual a {@link #size()} se não houver).
+     */
+    public int lowerBound(int key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public CepResponse find(int key) {
+        int index = lowerBound(key);
+        if (index < size && keyAt(index) == key) {
+            return responseAt(index);
+        }
+        return null;
+    }
+
+    public CepResponse responseAt(int index) {
+        int record = recordsOffset + index * RECORD_BYTES;
+        return new OfflineCepResponse(
+                version,
+                CepKeys.format(keyAt(index)),
+                stringAt(buffer.getInt(record)),
+                stringAt(buffer.getInt(record + 4)),
+                stringAt(buffer.getInt(record + 8)),
+                stringAt(buffer.getInt(record + 12)));
+    }
+
+    private String stringAt(int offset) {
+        if (offset < 0) {
+            return null;
+        }
+        int position = stringsOffset + offset;
+        int length = Short.toUnsignedInt(buffer.getShort(position));
+        byte[] bytes = new byte[length];
+        buffer.get(position + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,247 @@
+package com.cep.challenge.cep.offline;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.util.CepKeys;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Converte um arquivo CSV ou JSON de CEPs para o formato binário lido pelo
+ * {@link CepDataset}.
+ * <p>
+ * CSV: cabeçalho com as colunas {@code cep, logradouro, bairro, localidade, uf}
+ * (em qualquer ordem), separadas por {@code ,} ou {@code ;}. JSON: array de
+ * objetos no formato do {@link CepResponse}. CEPs inválidos são ignorados e,
+ * em caso de repetição, vale a última ocorrência.
+ * <p>
+ * O arquivo de saída é escrito ao lado do destino e movido atomicamente, para
+ * que um {@link OfflineCepSource} observando o destino nunca leia um arquivo pela metade.
+ */
+@Slf4j
+public final class CepDatasetImporter {
+
+    private static final String[] COLUMNS = {"logradouro", "bairro", "localidade", "uf"};
+
+    private final ObjectMapper objectMapper;
+
+    public CepDatasetImporter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public int importFile(Path source, Path target) throws IOException {
+        Rows rows = source.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")
+                ? readJson(source)
+                : readCsv(source);
+        int written = write(rows, target);
+        log.info("📥 Base offline importada de {} para {}: {} CEPs ({} ignorados)",
+                source, target, written, rows.skipped);
+        return written;
+    }
+
+    private Rows readCsv(Path source) throws IOException {
+        Rows rows = new Rows();
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return rows;
+            }
+            char delimiter = header.indexOf(';') >= 0 ? ';' : ',';
+            List<String> names = splitCsv(stripBom(header).toLowerCase(Locale.ROOT), delimiter);
+            int cepColumn = names.indexOf("cep");
+            int[] columns = new int[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                columns[i] = names.indexOf(COLUMNS[i]);
+            }
+            if (cepColumn < 0) {
+                throw new IllegalArgumentException("CSV sem coluna 'cep': " + source);
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> values = splitCsv(line, delimiter);
+                String[] fields = new String[COLUMNS.length];
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    fields[i] = columns[i] >= 0 && columns[i] < values.size() ? values.get(columns[i]) : null;
+                }
+                rows.add(cepColumn < values.size() ? values.get(cepColumn) : null, fields);
+            }
+        }
+        return rows;
+    }
+
+    private Rows readJson(Path source) throws IOException {
+        Rows rows = new Rows();
+        try (JsonParser parser = objectMapper.getFactory().createParser(source.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON deve ser um array de CEPs: " + source);
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                CepResponse response = objectMapper.readValue(parser, CepResponse.class);
+                rows.add(response.getCep(), new String[]{
+                        response.getLogradouro(), response.getBairro(), response.getLocalidade(), response.getUf()});
+            }
+        }
+        return rows;
+    }
+
+    private int write(Rows rows, Path target) throws IOException {
+        // ordena pela chave mantendo a posição original nos 32 bits baixos: a última ocorrência vence
+        long[] order = new long[rows.size];
+        for (int i = 0; i < rows.size; i++) {
+            order[i] = ((long) rows.keys[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] keys = new int[rows.size];
+        int[] rowIndexes = new int[rows.size];
+        int count = 0;
+        for (long packed : order) {
+            int key = (int) (packed >>> 32);
+            int row = (int) packed;
+            if (count > 0 && keys[count - 1] == key) {
+                rowIndexes[count - 1] = row;
+            } else {
+                keys[count] = key;
+                rowIndexes[count] = row;
+                count++;
+            }
+        }
+
+        int[] stringOffsets = new int[rows.strings.size()];
+        int poolBytes = 0;
+        List<byte[]> encoded = new ArrayList<>(rows.strings.size());
+        for (int i = 0; i < rows.strings.size(); i++) {
+            byte[] bytes = rows.strings.get(i).getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                bytes = Arrays.copyOf(bytes, 0xFFFF);
+            }
+            encoded.add(bytes);
+            stringOffsets[i] = poolBytes;
+            poolBytes += Short.BYTES + bytes.length;
+        }
+
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(CepDataset.MAGIC);
+            out.writeInt(CepDataset.VERSION);
+            out.writeInt(count);
+            out.writeInt(poolBytes);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(keys[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                int base = rowIndexes[i] * CepDataset.FIELDS;
+                for (int field = 0; field < CepDataset.FIELDS; field++) {
+                    int stringId = rows.fields[base + field];
+                    out.writeInt(stringId < 0 ? -1 : stringOffsets[stringId]);
+                }
+            }
+            for (byte[] bytes : encoded) {
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    private static String stripBom(String header) {
+        return header.startsWith("\uFEFF") ? header.substring(1) : header;
+    }
+
+    /**
+     * Divide uma linha CSV respeitando campos entre aspas ({@code ""} escapa aspas).
+     */
+    static List<String> splitCsv(String line, char delimiter) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                values.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString().trim());
+        return values;
+    }
+
+    /**
+     * Linhas lidas em arrays paralelos; os campos de texto viram ids de uma
+     * tabela de strings sem repetição.
+     */
+    private static final class Rows {
+        private int[] keys = new int[1024];
+        private int[] fields = new int[1024 * CepDataset.FIELDS];
+        private int size;
+        private int skipped;
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        void add(String cep, String[] values) {
+            int key = CepKeys.parse(cep);
+            if (key == CepKeys.INVALID) {
+                skipped++;
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                fields = Arrays.copyOf(fields, size * 2 * CepDataset.FIELDS);
+            }
+            keys[size] = key;
+            for (int i = 0; i < CepDataset.FIELDS; i++) {
+                fields[size * CepDataset.FIELDS + i] = idOf(values[i]);
+            }
+            size++;
+        }
+
+        private int idOf(String value) {
+            if (value == null || value.isEmpty()) {
+                return -1;
+            }
+            return stringIds.computeIfAbsent(value, v -> {
+                strings.add(v);
+                return strings.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.cep.challenge.cep.offline;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.invalidation.CacheInvalidationBus;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fonte de CEPs a partir da base offline ({@code app.cep.offline.*}), consultada
+ * pelo {@code CepService} antes da API externa.
+ * <p>
+ * A base em uso fica numa {@link AtomicReference}: uma troca a quente (novo
+ * {@code dataset-file}, ou {@code import-file} mais novo que ele) abre o novo
+ * arquivo por completo e só então substitui a referência, de modo que cada
+ * consulta vê inteiramente a base antiga ou a nova. Um novo {@code dataset-file}
+ * deve ser publicado por renomeação (como faz o {@link CepDatasetImporter}),
+ * nunca sobrescrito no lugar, pois o arquivo antigo continua mapeado.
+ * Depois de uma troca a faixa inteira de CEPs é invalidada pelo
+ * {@link CacheInvalidationBus}, aqui e nas outras instâncias: nada do que foi
+ * guardado com a base antiga continua sendo servido.
+ * <p>
+ * Nada é guardado por CEP: cada acerto monta o {@link CepResponse} a partir do
+ * arquivo, e o {@code SerializedCepCache} reaproveita o JSON enquanto a
+ * {@link CepDataset#version()} for a mesma.
+ */
+@Component
+@Slf4j
+public class OfflineCepSource {
+
+    private final AppProperties.Offline config;
+    private final CepDatasetImporter importer;
+    private final TaskScheduler taskScheduler;
+    private final CacheInvalidationBus invalidationBus;
+    private final AtomicReference<Loaded> current = new AtomicReference<>();
+
+    public OfflineCepSource(AppProperties props, ObjectMapper objectMapper, TaskScheduler taskScheduler,
+                            CacheInvalidationBus invalidationBus) {
+        this.config = props.getOffline();
+        this.importer = new CepDatasetImporter(objectMapper);
+        this.taskScheduler = taskScheduler;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        reload();
+        taskScheduler.scheduleWithFixedDelay(this::reload, config.getReloadInterval());
+    }
+
+    public boolean isEnabled() {
+        return config.getMode() != AppProperties.Offline.Mode.REMOTE_ONLY;
+    }
+
+    /**
+     * Em {@code offline-only} um CEP fora da base não segue para a API externa.
+     */
+    public boolean isExclusive() {
+        return config.getMode() == AppProperties.Offline.Mode.OFFLINE_ONLY;
+    }
+
+    public CepResponse find(String cep) {
+        int key = CepKeys.parse(cep);
+        return key == CepKeys.INVALID ? null : find(key);
+    }
+
+    public CepResponse find(int key) {
+        Loaded loaded = current.get();
+        return loaded == null ? null : loaded.dataset().find(key);
+    }
+
+    /**
+     * Base em uso, ou {@code null} se nenhuma foi carregada.
+     */
+    public CepDataset dataset() {
+        Loaded loaded = current.get();
+        return loaded == null ? null : loaded.dataset();
+    }
+
+    /**
+     * Importa o {@code import-file} se ele mudou e troca a base em uso se o
+     * {@code dataset-file} mudou, invalidando os caches se havia uma base
+     * anterior. Falhas mantêm a base anterior.
+     */
+    public synchronized void reload() {
+        Path datasetFile = Path.of(config.getDatasetFile());
+        try {
+            importIfNewer(datasetFile);
+            if (!Files.exists(datasetFile)) {
+                log.warn("⚠️  Base offline {} não encontrada", datasetFile);
+                return;
+            }
+
+            FileTime modified = Files.getLastModifiedTime(datasetFile);
+            long size = Files.size(datasetFile);
+            Loaded previous = current.get();
+            if (previous != null && previous.modified().equals(modified) && previous.size() == size) {
+                return;
+            }
+
+            CepDataset dataset = CepDataset.open(datasetFile);
+            current.set(new Loaded(dataset, modified, size));
+            log.info("📚 Base offline carregada de {}: {} CEPs", datasetFile, dataset.size());
+            if (previous != null) {
+                invalidationBus.invalidate(CepKeys.MIN, CepKeys.MAX);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("❌ Erro ao carregar base offline {}: {}", datasetFile, e.getMessage());
+        }
+    }
+
+    private void importIfNewer(Path datasetFile) throws IOException {
+        if (config.getImportFile() == null || config.getImportFile().isBlank()) {
+            return;
+        }
+        Path importFile = Path.of(config.getImportFile());
+        if (!Files.exists(importFile)) {
+            return;
+        }
+        if (!Files.exists(datasetFile)
+                || Files.getLastModifiedTime(importFile).compareTo(Files.getLastModifiedTime(datasetFile)) > 0) {
+            importer.importFile(importFile, datasetFile);
+        }
+    }
+
+    private record Loaded(CepDataset dataset, FileTime modified, long size) {
+    }
+}
@@ -0,0 +1,394 @@
+package com.cep.challenge.cep.prefetch;
+
+import com.cep.challenge.cep.cache.CachedCep;
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.client.CepClient;
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.metrics.CepMetrics.Outcome;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Aprende quais CEPs costumam ser consultados logo depois de outros e diz ao
+ * {@code CepService} quais buscar antes de serem pedidos.
+ * <p>
+ * Cada consulta bem-sucedida é pareada com as até {@code recent-lookups}
+ * anteriores feitas há no máximo {@code window}. Dois padrões saem desses pares:
+ * <ul>
+ *   <li>co-consulta: por CEP, os que vieram depois dele ({@link DecayingTopK}
+ *       com {@code successors-per-source} posições, até {@code max-sources}
+ *       CEPs, esquecidos após {@code pattern-ttl} sem consulta);</li>
+ *   <li>vizinhança: a diferença numérica até o CEP anterior, quando de até
+ *       {@code adjacency-radius} (mesma rua ou setor), numa tabela única.</li>
+ * </ul>
+ * Um candidato precisa ter sido visto {@code min-support} vezes e em
+ * {@code min-confidence} das ocorrências; no máximo {@code max-candidates}
+ * por consulta. As consultas vêm de todos os clientes juntos, então os limites
+ * também servem para descartar coincidências entre clientes diferentes.
+ * <p>
+ * A thread da requisição só põe a consulta num {@link LookupBuffer} (sem lock;
+ * cheio, a amostra é descartada). O aprendizado roda numa única thread virtual
+ * de cada vez, que esvazia o buffer e publica as vizinhanças frequentes para
+ * {@link #candidates}; os padrões de co-consulta são travados por CEP de origem.
+ * <p>
+ * Só se busca com folga na API externa ({@link CepClient#hasIdleCapacity})
+ * e dentro de um orçamento: cada chamada de demanda à API credita
+ * {@code budget-ratio} e cada prefetch custa 1, devolvido se nada foi buscado.
+ * Chamadas de aquecimento e de prefetch não creditam, então os prefetches
+ * ficam abaixo de {@code budget-ratio} das chamadas de demanda, com até
+ * {@code burst} guardados.
+ */
+@Component
+@Slf4j
+public class CepPrefetcher implements MeterBinder {
+
+    private static final int[] NONE = new int[0];
+    /** Eventos até as contagens de um padrão caírem pela metade. */
+    private static final double HALF_LIFE = 256;
+    private static final int LEARNING_BUFFER = 4_096;
+    private static final Executor LEARNER = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cep-prefetch-learner-", 0).factory());
+
+    private final AppProperties.Prefetch config;
+    private final CepCache cepCache;
+    private final CepClient cepClient;
+    private final LongSupplier clock;
+    private final long windowNanos;
+    private final Executor learner;
+
+    private final LookupBuffer lookups = new LookupBuffer(LEARNING_BUFFER);
+    private final AtomicBoolean learning = new AtomicBoolean();
+
+    /** Só a thread de aprendizado acessa. */
+    private final int[] recentKeys;
+    private final long[] recentNanos;
+    private int recentNext;
+    private final DecayingTopK deltas;
+
+    private final Cache<Integer, DecayingTopK> successors;
+    /** Vizinhanças frequentes publicadas ao fim de cada rodada de aprendizado. */
+    private volatile int[] frequentDeltas = NONE;
+    /** Buscados pelo prefetch e ainda não servidos a ninguém. */
+    private final Cache<Integer, Boolean> prefetched;
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+
+    private final Object budgetLock = new Object();
+    private double tokens;
+
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong notFound = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong throttledBudget = new AtomicLong();
+    private final AtomicLong throttledBusy = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong lookupsDropped = new AtomicLong();
+
+    @Autowired
+    public CepPrefetcher(CepCache cepCache, CepClient cepClient, AppProperties props) {
+        this(cepCache, cepClient, props, System::nanoTime, LEARNER);
+    }
+
+    CepPrefetcher(CepCache cepCache, CepClient cepClient, AppProperties props, LongSupplier clock, Executor learner) {
+        this.config = props.getPrefetch();
+        this.cepCache = cepCache;
+        this.cepClient = cepClient;
+        this.clock = clock;
+        this.learner = learner;
+        this.windowNanos = config.getWindow().toNanos();
+        this.recentKeys = new int[config.getRecentLookups()];
+        this.recentNanos = new long[config.getRecentLookups()];
+        Arrays.fill(recentKeys, CepKeys.INVALID);
+        this.successors = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSources())
+                .expireAfterAccess(config.getPatternTtl())
+                .build();
+        this.deltas = new DecayingTopK(config.getSuccessorsPerSource(), HALF_LIFE);
+        this.prefetched = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSources())
+                .expireAfterWrite(props.getCache().getTtl())
+                .build();
+    }
+
+    /**
+     * Registra uma consulta concluída: conta como acerto a primeira vez que um
+     * CEP buscado pelo prefetch é servido do cache e entrega as bem-sucedidas
+     * ao aprendizado, sem esperar por ele.
+     */
+    public void record(int key, QuerySource source, Outcome outcome) {
+        if (!config.isEnabled() || key == CepKeys.INVALID) {
+            return;
+        }
+        if ((source == QuerySource.CACHE || source == QuerySource.STALE) && outcome == Outcome.SUCCESS
+                && prefetched.asMap().remove(key) != null) {
+            hits.incrementAndGet();
+        }
+        if (outcome != Outcome.SUCCESS) {
+            return;
+        }
+        if (!lookups.offer(key, clock.getAsLong())) {
+            lookupsDropped.incrementAndGet();
+            return;
+        }
+        scheduleLearning();
+    }
+
+    /**
+     * CEPs a buscar agora depois de uma consulta a {@code key}: previstos, fora
+     * do cache, sem prefetch em andamento, com folga na API e com orçamento.
+     * Cada um devolvido deve terminar em {@link #completed} ou {@link #failed}.
+     */
+    public int[] candidates(int key) {
+        if (!config.isEnabled()) {
+            return NONE;
+        }
+        int[] predicted = new int[config.getMaxCandidates()];
+        int count = 0;
+        DecayingTopK next = successors.getIfPresent(key);
+        if (next != null) {
+            synchronized (next) {
+                count = next.frequent(config.getMinSupport(), config.getMinConfidence(), predicted, 0);
+            }
+        }
+        int[] frequentDeltas = this.frequentDeltas;
+        for (int i = 0; i < frequentDeltas.length && count < predicted.length; i++) {
+            long neighbour = (long) key + frequentDeltas[i];
+            if (neighbour >= CepKeys.MIN && neighbour <= CepKeys.MAX && !contains(predicted, count, (int) neighbour)) {
+                predicted[count++] = (int) neighbour;
+            }
+        }
+
+        int[] selected = new int[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int candidate = predicted[i];
+            if (candidate == key || isCached(candidate) || pending.contains(candidate)) {
+                continue;
+            }
+            if (!cepClient.hasIdleCapacity(config.getMaxUtilization())) {
+                throttledBusy.incrementAndGet();
+                break;
+            }
+            if (!tryAcquire()) {
+                throttledBudget.incrementAndGet();
+                break;
+            }
+            if (pending.add(candidate)) {
+                selected[size++] = candidate;
+            } else {
+                refund();
+            }
+        }
+        return size == selected.length ? selected : Arrays.copyOf(selected, size);
+    }
+
+    /**
+     * @param fetched {@code false} se não havia o que buscar (já em cache ou na base offline)
+     */
+    public void completed(int key, boolean fetched) {
+        pending.remove(key);
+        if (fetched) {
+            loaded.incrementAndGet();
+            prefetched.put(key, Boolean.TRUE);
+        } else {
+            skipped.incrementAndGet();
+            refund();
+        }
+    }
+
+    public void failed(int key, Throwable error) {
+        pending.remove(key);
+        if (Outcome.of(error) == Outcome.NOT_FOUND) {
+            notFound.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+            log.debug("🔮 Prefetch do CEP {} falhou: {}", CepKeys.format(key), error.getMessage());
+        }
+    }
+
+    /**
+     * Uma chamada de demanda à API externa (não de aquecimento nem de
+     * prefetch): credita o orçamento.
+     */
+    public void onUpstreamCall() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        synchronized (budgetLock) {
+            tokens = Math.min(config.getBurst(), tokens + config.getBudgetRatio());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registerRequests(registry, "loaded", loaded);
+        registerRequests(registry, "skipped", skipped);
+        registerRequests(registry, "not_found", notFound);
+        registerRequests(registry, "error", failed);
+        FunctionCounter.builder("cep.prefetch.throttled", throttledBudget, AtomicLong::get)
+                .description("Prefetches não feitos por falta de orçamento ou de folga na API externa")
+                .tag("reason", "budget")
+                .register(registry);
+        FunctionCounter.builder("cep.prefetch.throttled", throttledBusy, AtomicLong::get)
+                .description("Prefetches não feitos por falta de orçamento ou de folga na API externa")
+                .tag("reason", "busy")
+                .register(registry);
+        FunctionCounter.builder("cep.prefetch.lookups.dropped", lookupsDropped, AtomicLong::get)
+                .description("Consultas não aprendidas: buffer de aprendizado cheio")
+                .register(registry);
+        FunctionCounter.builder("cep.prefetch.hits", hits, AtomicLong::get)
+                .description("CEPs buscados pelo prefetch e depois servidos do cache")
+                .register(registry);
+        Gauge.builder("cep.prefetch.hit.ratio", this, CepPrefetcher::hitRatio)
+                .description("Fração dos CEPs buscados pelo prefetch que foram consultados depois")
+                .register(registry);
+        Gauge.builder("cep.prefetch.budget", this, CepPrefetcher::budget)
+                .description("Prefetches que o orçamento ainda permite")
+                .register(registry);
+    }
+
+    private static void registerRequests(MeterRegistry registry, String result, AtomicLong counter) {
+        FunctionCounter.builder("cep.prefetch.requests", counter, AtomicLong::get)
+                .description("Prefetches concluídos, por resultado")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private double hitRatio() {
+        long fetched = loaded.get();
+        return fetched == 0 ? 0 : (double) hits.get() / fetched;
+    }
+
+    private double budget() {
+        synchronized (budgetLock) {
+            return tokens;
+        }
+    }
+
+    private boolean tryAcquire() {
+        synchronized (budgetLock) {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+
+    private void refund() {
+        synchronized (budgetLock) {
+            tokens = Math.min(config.getBurst(), tokens + 1);
+        }
+    }
+
+    /**
+     * Sem o contador de acessos de {@link CepCache#get}: checar um candidato
+     * não é uma consulta e não deve segurar o CEP no cache.
+     */
+    private boolean isCached(int key) {
+        CachedCep cached = cepCache.peek(key);
+        return cached != null && !cepCache.isStale(cached);
+    }
+
+    private void scheduleLearning() {
+        if (!learning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            learner.execute(this::learn);
+        } catch (RejectedExecutionException e) {
+            learning.set(false);
+        }
+    }
+
+    /**
+     * Esvazia o buffer e publica as vizinhanças frequentes. Quem deixou uma
+     * consulta no buffer enquanto esta rodada terminava é visto pela
+     * verificação depois de {@code learning} voltar a {@code false}.
+     */
+    private void learn() {
+        do {
+            if (lookups.drain(lookup -> learn(lookup.key(), lookup.nanos())) > 0) {
+                int[] frequent = new int[config.getMaxCandidates()];
+                int count = deltas.frequent(config.getMinSupport(), config.getMinConfidence(), frequent, 0);
+                frequentDeltas = count == frequent.length ? frequent : Arrays.copyOf(frequent, count);
+            }
+            learning.set(false);
+        } while (lookups.hasReady() && learning.compareAndSet(false, true));
+    }
+
+    private void learn(int key, long now) {
+        int[] previous = remember(key, now);
+        DecayingTopK own = successors.get(key, k -> new DecayingTopK(config.getSuccessorsPerSource(), HALF_LIFE));
+        synchronized (own) {
+            own.observe();
+        }
+        if (previous.length == 0) {
+            return;
+        }
+        deltas.observe();
+        int[] seenDeltas = new int[previous.length];
+        int deltaCount = 0;
+        for (int prev : previous) {
+            DecayingTopK next = successors.getIfPresent(prev);
+            if (next != null) {
+                synchronized (next) {
+                    next.add(key);
+                }
+            }
+            int delta = key - prev;
+            if (Math.abs(delta) <= config.getAdjacencyRadius() && !contains(seenDeltas, deltaCount, delta)) {
+                seenDeltas[deltaCount++] = delta;
+                deltas.add(delta);
+            }
+        }
+    }
+
+    /**
+     * Guarda {@code key} entre as consultas recentes e devolve as anteriores
+     * ainda dentro da janela, distintas e diferentes de {@code key}.
+     */
+    private int[] remember(int key, long now) {
+        int[] previous = new int[recentKeys.length];
+        int count = 0;
+        for (int i = 0; i < recentKeys.length; i++) {
+            int prev = recentKeys[i];
+            if (prev != CepKeys.INVALID && prev != key && now - recentNanos[i] <= windowNanos
+                    && !contains(previous, count, prev)) {
+                previous[count++] = prev;
+            }
+        }
+        recentKeys[recentNext] = key;
+        recentNanos[recentNext] = now;
+        recentNext = (recentNext + 1) % recentKeys.length;
+        return count == previous.length ? previous : Arrays.copyOf(previous, count);
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
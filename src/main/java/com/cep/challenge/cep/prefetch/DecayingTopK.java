@@ -0,0 +1,93 @@
+package com.cep.challenge.cep.prefetch;
+
+/**
+ * As chaves mais frequentes que seguem um evento, com no máximo
+ * {@code capacity} chaves monitoradas: {@link #observe()} conta o evento e
+ * {@link #add(int)} uma chave que veio depois dele, então
+ * {@code count / total} estima a chance de a chave vir em seguida. Com a
+ * tabela cheia, uma chave nova ocupa o lugar da de menor contagem. Quando o
+ * total passa de {@code maxTotal} todas as contagens caem pela metade, de modo
+ * que padrões antigos perdem peso para os recentes.
+ * <p>
+ * Não é thread-safe; arrays primitivos e busca linear (a capacidade é pequena).
+ */
+final class DecayingTopK {
+
+    private final int[] keys;
+    private final double[] counts;
+    private final double maxTotal;
+    private int size;
+    private double total;
+
+    DecayingTopK(int capacity, double maxTotal) {
+        this.keys = new int[capacity];
+        this.counts = new double[capacity];
+        this.maxTotal = maxTotal;
+    }
+
+    void observe() {
+        total++;
+        if (total > maxTotal) {
+            total /= 2;
+            for (int i = 0; i < size; i++) {
+                counts[i] /= 2;
+            }
+        }
+    }
+
+    void add(int key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                counts[i] = Math.min(counts[i] + 1, total);
+                return;
+            }
+        }
+        int slot = size;
+        if (size < keys.length) {
+            size++;
+        } else {
+            slot = 0;
+            for (int i = 1; i < size; i++) {
+                if (counts[i] < counts[slot]) {
+                    slot = i;
+                }
+            }
+        }
+        keys[slot] = key;
+        counts[slot] = 1;
+    }
+
+    /**
+     * Copia para {@code out}, a partir de {@code from}, as chaves vistas ao
+     * menos {@code minSupport} vezes e em ao menos {@code minConfidence} dos
+     * eventos, da mais frequente para a menos, sem passar do fim de {@code out}.
+     *
+     * @return a próxima posição livre de {@code out}
+     */
+    int frequent(double minSupport, double minConfidence, int[] out, int from) {
+        if (size == 0 || from >= out.length) {
+            return from;
+        }
+        double threshold = Math.max(minSupport, minConfidence * total);
+        boolean[] taken = new boolean[size];
+        int next = from;
+        while (next < out.length) {
+            int best = -1;
+            for (int i = 0; i < size; i++) {
+                if (!taken[i] && counts[i] >= threshold && (best < 0 || counts[i] > counts[best])) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            taken[best] = true;
+            out[next++] = keys[best];
+        }
+        return next;
+    }
+
+    double total() {
+        return total;
+    }
+}
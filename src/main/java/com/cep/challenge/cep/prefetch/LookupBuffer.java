@@ -0,0 +1,87 @@
+package com.cep.challenge.cep.prefetch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Buffer circular limitado entre as threads de requisição e o aprendizado do
+ * {@link CepPrefetcher}: vários produtores sem lock (um CAS para reservar a
+ * posição) e um único consumidor por vez. Cheio, ou com a posição disputada
+ * além de algumas tentativas, a consulta é descartada: o prefetch só perde
+ * uma amostra, e quem consulta nunca espera.
+ */
+final class LookupBuffer {
+
+    private static final int OFFER_ATTEMPTS = 3;
+
+    private final AtomicReferenceArray<Lookup> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /** Só o consumidor escreve; os produtores leem para saber se há espaço. */
+    private volatile long head;
+
+    /**
+     * @param capacity potência de 2
+     */
+    LookupBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity deve ser potência de 2: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return {@code false} se a consulta foi descartada
+     */
+    boolean offer(int key, long nanos) {
+        for (int attempt = 0; attempt < OFFER_ATTEMPTS; attempt++) {
+            long position = tail.get();
+            if (position - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(position, position + 1)) {
+                slots.lazySet((int) (position & mask), new Lookup(key, nanos));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Entrega as consultas em ordem de chegada; para na primeira posição
+     * reservada cujo produtor ainda não escreveu. Só um consumidor por vez.
+     */
+    int drain(Consumer<Lookup> consumer) {
+        int drained = 0;
+        long position = head;
+        while (position != tail.get()) {
+            int index = (int) (position & mask);
+            Lookup lookup = slots.get(index);
+            if (lookup == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            head = ++position;
+            consumer.accept(lookup);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Se a próxima consulta já foi escrita (uma posição só reservada não conta:
+     * o produtor ainda vai avisar depois de escrever).
+     */
+    boolean hasReady() {
+        return slots.get((int) (head & mask)) != null;
+    }
+
+    int size() {
+        return (int) (tail.get() - head);
+    }
+
+    record Lookup(int key, long nanos) {
+    }
+}
@@ -1,9 +1,26 @@
 package com.cep.challenge.cep.repository;
 
 import com.cep.challenge.cep.domain.QueryLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface QueryLogRepository extends JpaRepository<QueryLog, Long> {
-}
+import java.time.LocalDateTime;
+import java.util.List;
 
+public interface QueryLogRepository extends JpaRepository<QueryLog, Long> {
 
+    /**
+     * CEPs consultados com sucesso desde {@code since}, do mais para o menos
+     * frequente; o tamanho da página limita quantos. SQL nativo: a única
+     * consulta JPQL do repositório fazia o Spring Data e o Hibernate
+     * carregarem os parsers de HQL na subida (cerca de 1,4 s num núcleo).
+     */
+    @Query(nativeQuery = true, value = """
+            select cep from query_logs
+            where query_time >= :since and success = true
+            group by cep
+            order by count(*) desc, cep""")
+    List<String> findTopCeps(@Param("since") LocalDateTime since, Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package com.cep.challenge.cep.repository;
+
+import com.cep.challenge.cep.domain.QueryLog;
+
+import java.util.List;
+
+/**
+ * Destino dos logs de consulta gerados pelo {@code CepService}.
+ * A implementação é escolhida por {@code app.cep.query-log.mode}.
+ */
+public interface QueryLogWriter {
+
+    void write(QueryLog entry);
+
+    default void writeAll(List<QueryLog> entries) {
+        entries.forEach(this::write);
+    }
+}
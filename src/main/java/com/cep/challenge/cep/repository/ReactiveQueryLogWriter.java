@@ -0,0 +1,70 @@
+package com.cep.challenge.cep.repository;
+
+import com.cep.challenge.cep.domain.QueryLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Usado pelo caminho reativo: repassa o log ao {@link QueryLogWriter}
+ * configurado num scheduler limitado, para que um INSERT (ou uma fila cheia
+ * em modo {@code block}) nunca ocupe a thread do event loop.
+ */
+@Slf4j
+public class ReactiveQueryLogWriter implements DisposableBean {
+
+    private final QueryLogWriter delegate;
+    private final Scheduler scheduler;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ReactiveQueryLogWriter(QueryLogWriter delegate, int threads, int queueCapacity) {
+        this(delegate, Schedulers.newBoundedElastic(threads, queueCapacity, "query-log-reactive"));
+    }
+
+    public ReactiveQueryLogWriter(QueryLogWriter delegate, Scheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    public void write(QueryLog entry) {
+        offload(List.of(entry), () -> delegate.write(entry));
+    }
+
+    public void writeAll(List<QueryLog> entries) {
+        if (!entries.isEmpty()) {
+            offload(entries, () -> delegate.writeAll(entries));
+        }
+    }
+
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    private void offload(List<QueryLog> entries, Runnable write) {
+        try {
+            scheduler.schedule(() -> {
+                try {
+                    write.run();
+                } catch (RuntimeException e) {
+                    log.error("❌ Erro ao gravar {} log(s), CEP {}: {}", entries.size(), entries.get(0).getCep(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (rejected.addAndGet(entries.size()) % 1_000 < entries.size()) {
+                log.warn("⚠️  Scheduler de logs saturado, descartando {} log(s) (total descartado: {})",
+                        entries.size(), rejected.get());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.disposeGracefully().block(Duration.ofSeconds(10));
+    }
+}
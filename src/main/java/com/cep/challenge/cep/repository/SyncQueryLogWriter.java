@@ -0,0 +1,26 @@
+package com.cep.challenge.cep.repository;
+
+import com.cep.challenge.cep.domain.QueryLog;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Grava o log na thread da requisição via JPA: o log está no banco quando a
+ * consulta retorna.
+ */
+@RequiredArgsConstructor
+public class SyncQueryLogWriter implements QueryLogWriter {
+
+    private final QueryLogRepository queryLogRepository;
+
+    @Override
+    public void write(QueryLog entry) {
+        queryLogRepository.save(entry);
+    }
+
+    @Override
+    public void writeAll(List<QueryLog> entries) {
+        queryLogRepository.saveAll(entries);
+    }
+}
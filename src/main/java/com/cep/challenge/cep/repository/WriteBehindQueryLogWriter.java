@@ -0,0 +1,235 @@
+package com.cep.challenge.cep.repository;
+
+import com.cep.challenge.cep.domain.QueryLog;
+import com.cep.challenge.config.AppProperties.QueryLogSettings;
+import com.cep.challenge.config.AppProperties.QueryLogSettings.OverflowPolicy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enfileira os logs numa fila limitada e grava em lotes ({@code batchUpdate})
+ * numa thread de fundo, tirando o INSERT do caminho da requisição.
+ * <p>
+ * Um lote é gravado quando atinge {@code batch-size} ou quando o primeiro
+ * item do lote espera mais que {@code flush-interval}. Com a fila cheia vale a
+ * {@link OverflowPolicy} configurada. No desligamento da aplicação a fila
+ * para de aceitar logs (os seguintes são gravados na thread de quem chama) e
+ * só então é esvaziada, antes de o DataSource ser fechado.
+ * <p>
+ * Como {@link MeterBinder} publica o tamanho da fila, os contadores e o
+ * tempo de cada lote no banco ({@code cep.querylog.batch}).
+ */
+@Slf4j
+public class WriteBehindQueryLogWriter implements QueryLogWriter, DisposableBean, MeterBinder {
+
+    static final String INSERT_SQL =
+            "insert into query_logs (cep, query_time, response_time_ms, success, cache_hit, source) values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<QueryLog> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long offerTimeoutNanos;
+    private final Thread worker;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    private volatile boolean running = true;
+    private volatile Timer batchTimer;
+
+    public WriteBehindQueryLogWriter(JdbcTemplate jdbcTemplate, QueryLogSettings settings) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.batchSize = settings.getBatchSize();
+        this.flushIntervalNanos = settings.getFlushInterval().toNanos();
+        this.overflowPolicy = settings.getOverflowPolicy();
+        this.offerTimeoutNanos = settings.getOfferTimeout().toNanos();
+        this.worker = new Thread(this::run, "query-log-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void write(QueryLog entry) {
+        if (!running) {
+            insertBatch(List.of(entry));
+            return;
+        }
+        if (queue.offer(entry)) {
+            writeIfStopped(entry);
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case CALLER_RUNS -> insertBatch(List.of(entry));
+            case BLOCK -> offerOrDrop(entry);
+            case DROP -> drop(entry);
+        }
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+
+    public long writtenCount() {
+        return written.get();
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cep.querylog.pending", queue, BlockingQueue::size)
+                .description("Logs aguardando gravação na fila do write-behind")
+                .register(registry);
+        FunctionCounter.builder("cep.querylog.written", written, AtomicLong::get).register(registry);
+        FunctionCounter.builder("cep.querylog.dropped", dropped, AtomicLong::get).register(registry);
+        FunctionCounter.builder("cep.querylog.failed", failed, AtomicLong::get).register(registry);
+        batchTimer = Timer.builder("cep.querylog.batch")
+                .description("Gravação de um lote de logs no banco")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5_000);
+
+        List<QueryLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            insertBatch(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        log.info("💾 Fila de logs esvaziada no desligamento - gravados: {}, descartados: {}, falhas: {}",
+                written.get(), dropped.get(), failed.get());
+    }
+
+    private void offerOrDrop(QueryLog entry) {
+        try {
+            if (queue.offer(entry, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                writeIfStopped(entry);
+            } else {
+                drop(entry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop(entry);
+        }
+    }
+
+    /**
+     * O desligamento pode ter começado entre o teste de {@code running} e o
+     * offer, com a fila já esvaziada pelo {@link #destroy()}. Como ele
+     * desliga {@code running} antes de esvaziar, basta reler: o item é gravado
+     * por quem o tirar da fila, aqui ou no {@code destroy}.
+     */
+    private void writeIfStopped(QueryLog entry) {
+        if (!running && queue.remove(entry)) {
+            insertBatch(List.of(entry));
+        }
+    }
+
+    private void drop(QueryLog entry) {
+        if (dropped.incrementAndGet() % 1_000 == 1) {
+            log.warn("⚠️  Fila de logs cheia, descartando log do CEP {} (total descartado: {})",
+                    entry.getCep(), dropped.get());
+        }
+    }
+
+    private void run() {
+        List<QueryLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                QueryLog first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, System.nanoTime() + flushIntervalNanos);
+                insertBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<QueryLog> batch, long deadline) throws InterruptedException {
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            QueryLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    void insertBatch(List<QueryLog> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                ps.setString(1, entry.getCep());
+                ps.setTimestamp(2, Timestamp.valueOf(entry.getQueryTime()));
+                setNullable(ps, 3, entry.getResponseTimeMs(), Types.BIGINT);
+                setNullable(ps, 4, entry.getSuccess(), Types.BOOLEAN);
+                setNullable(ps, 5, entry.getCacheHit(), Types.BOOLEAN);
+                setNullable(ps, 6, entry.getSource() == null ? null : entry.getSource().name(), Types.VARCHAR);
+            });
+            written.addAndGet(batch.size());
+            recordBatch(start);
+            log.debug("💾 Lote de {} logs gravado no banco", batch.size());
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            recordBatch(start);
+            log.error("❌ Erro ao gravar lote de {} logs: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void recordBatch(long startNanos) {
+        Timer timer = batchTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType);
+        } else {
+            ps.setObject(index, value, sqlType);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.cep.challenge.cep.retention;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Caminho para bancos sem particionamento (H2 nos testes e no perfil
+ * {@code local}): a tabela é única e um dia é só uma faixa de
+ * {@code query_time}. A retenção é um único {@code DELETE} em bloco apoiado
+ * no índice de {@code query_time}; o resultado é o mesmo das partições,
+ * com o custo de apagar linha a linha dentro do banco.
+ */
+@RequiredArgsConstructor
+public class DeleteQueryLogPartitions implements QueryLogPartitions {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void create(LocalDate from, LocalDate to) {
+        // nada a preparar: a tabela única já aceita qualquer dia
+    }
+
+    @Override
+    public long dropBefore(LocalDate day) {
+        return jdbcTemplate.update("delete from query_logs where query_time < ?", day.atStartOfDay());
+    }
+}
@@ -0,0 +1,70 @@
+package com.cep.challenge.cep.retention;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Partições diárias reais ({@code query_logs_pYYYYMMDD}), via as funções
+ * criadas por {@code schema-postgresql.sql}. Remover um dia é um
+ * {@code DROP TABLE} da partição: sem varrer linhas nem gerar trabalho para o vacuum.
+ * <p>
+ * Antes de criar a janela, separa a partição DEFAULT: linhas gravadas fora
+ * das partições existentes (job atrasado, relógio diferente) ganham a
+ * partição do seu dia e passam a seguir a mesma retenção.
+ * <p>
+ * Entre instâncias, a retenção é exclusiva por um advisory lock de sessão
+ * ({@code pg_try_advisory_lock}) numa conexão separada, mantida só durante a
+ * execução; quem não consegue o lock pula a rodada em vez de esperar. Se a
+ * instância cair, a sessão fecha e o lock é liberado pelo próprio Postgres.
+ */
+@RequiredArgsConstructor
+public class PostgresQueryLogPartitions implements QueryLogPartitions {
+
+    static final String LOCK_KEY = "hashtext('query_logs_retention')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void create(LocalDate from, LocalDate to) {
+        jdbcTemplate.queryForObject("select query_logs_split_default()", Integer.class);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            jdbcTemplate.query("select query_logs_create_partition(?)", rs -> { }, day);
+        }
+    }
+
+    @Override
+    public long dropBefore(LocalDate day) {
+        Integer dropped = jdbcTemplate.queryForObject("select query_logs_drop_partitions(?)", Integer.class, day);
+        return dropped == null ? 0 : dropped;
+    }
+
+    @Override
+    public <T> Optional<T> runExclusively(Supplier<T> retention) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<T>>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable(retention.get());
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+        });
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select " + function + "(" + LOCK_KEY + ")")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.cep.challenge.cep.retention;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Armazenamento de {@code query_logs} organizado por dia: os dias são criados
+ * antes de receber logs e removidos inteiros quando saem da retenção, em vez
+ * de linha a linha.
+ */
+public interface QueryLogPartitions {
+
+    /**
+     * Garante o armazenamento dos dias de {@code from} a {@code to}, inclusive.
+     */
+    void create(LocalDate from, LocalDate to);
+
+    /**
+     * Remove os logs de todos os dias anteriores a {@code day}.
+     *
+     * @return partições removidas (ou linhas, quando não há partições)
+     */
+    long dropBefore(LocalDate day);
+
+    /**
+     * Executa {@code retention} se nenhuma outra instância estiver executando a
+     * retenção no mesmo banco. Por padrão não há o que travar: um banco sem
+     * partições (H2) é de uma instância só, e o job já é {@code synchronized}.
+     *
+     * @return vazio se outra instância segura a retenção (nada foi executado)
+     */
+    default <T> Optional<T> runExclusively(Supplier<T> retention) {
+        return Optional.ofNullable(retention.get());
+    }
+}
@@ -0,0 +1,216 @@
+package com.cep.challenge.cep.retention;
+
+import com.cep.challenge.config.AppProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Mantém {@code query_logs} sob controle, a cada {@code app.cep.retention.interval}:
+ * <ol>
+ *   <li>cria com antecedência o armazenamento dos próximos dias ({@link QueryLogPartitions});</li>
+ *   <li>consolida cada hora completa em {@code query_log_rollup_hourly} e cada
+ *       dia completo em {@code query_log_rollup_daily} (por CEP: total, sucessos,
+ *       latência mínima, média e máxima);</li>
+ *   <li>remove os logs brutos mais antigos que {@code raw} por dia inteiro, e
+ *       as consolidações mais antigas que {@code hourly}/{@code daily}.</li>
+ * </ol>
+ * O ponto até onde cada consolidação já foi feita fica em
+ * {@code query_log_rollup_state}; refazer uma hora ou um dia substitui as
+ * linhas anteriores, então uma execução interrompida pode ser repetida.
+ * As tabelas vêm de {@code schema-postgresql.sql}/{@code schema-h2.sql}.
+ * <p>
+ * Com várias instâncias no mesmo banco só uma executa por vez
+ * ({@link QueryLogPartitions#runExclusively}); as outras pulam a rodada.
+ */
+@Component
+@Slf4j
+public class QueryLogRetentionJob {
+
+    static final String HOURLY = "hourly";
+    static final String DAILY = "daily";
+
+    private static final String ROLL_HOUR = """
+            insert into query_log_rollup_hourly
+                (bucket_start, cep, total, success, latency_min_ms, latency_avg_ms, latency_max_ms)
+            select ?, cep, count(*), sum(case when success then 1 else 0 end),
+                   min(response_time_ms), avg(cast(response_time_ms as double precision)), max(response_time_ms)
+            from query_logs
+            where query_time >= ? and query_time < ?
+            group by cep""";
+
+    private static final String ROLL_DAY = """
+            insert into query_log_rollup_daily
+                (bucket_start, cep, total, success, latency_min_ms, latency_avg_ms, latency_max_ms)
+            select ?, cep, sum(total), sum(success),
+                   min(latency_min_ms), sum(latency_avg_ms * total) / sum(total), max(latency_max_ms)
+            from query_log_rollup_hourly
+            where bucket_start >= ? and bucket_start < ?
+            group by cep""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final QueryLogPartitions partitions;
+    private final AppProperties.Retention config;
+    private final TaskScheduler taskScheduler;
+    private final Clock clock;
+
+    @Autowired
+    public QueryLogRetentionJob(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                QueryLogPartitions partitions, AppProperties props, TaskScheduler taskScheduler) {
+        this(jdbcTemplate, transactionManager, partitions, props, taskScheduler, Clock.systemDefaultZone());
+    }
+
+    QueryLogRetentionJob(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         QueryLogPartitions partitions, AppProperties props, TaskScheduler taskScheduler, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitions = partitions;
+        this.config = props.getRetention();
+        this.taskScheduler = taskScheduler;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        taskScheduler.scheduleWithFixedDelay(this::runSafely, config.getInterval());
+    }
+
+    /**
+     * Uma execução completa; devolve o que foi feito, ou {@link Summary#SKIPPED}
+     * se outra instância já está executando a retenção.
+     */
+    public synchronized Summary run() {
+        return partitions.runExclusively(this::runLocked).orElseGet(() -> {
+            log.info("🔒 Retenção de query_logs em execução em outra instância, rodada pulada");
+            return Summary.SKIPPED;
+        });
+    }
+
+    private Summary runLocked() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDate today = now.toLocalDate();
+        partitions.create(today, today.plusDays(config.getPremakeDays()));
+
+        LocalDateTime rawCutoff = today.minusDays(config.getRaw().toDays()).atStartOfDay();
+        int hours = rollHours(now.minus(config.getRollupDelay()).truncatedTo(ChronoUnit.HOURS), rawCutoff);
+        int days = rollDays();
+
+        long rawDropped = partitions.dropBefore(rawCutoff.toLocalDate());
+        int rollupsDeleted = jdbcTemplate.update("delete from query_log_rollup_hourly where bucket_start < ?",
+                now.minus(config.getHourly()))
+                + jdbcTemplate.update("delete from query_log_rollup_daily where bucket_start < ?",
+                now.minus(config.getDaily()));
+
+        Summary summary = new Summary(hours, days, rawDropped, rollupsDeleted, false);
+        if (hours > 0 || days > 0 || rawDropped > 0 || rollupsDeleted > 0) {
+            log.info("🧹 Retenção de query_logs: {} horas e {} dias consolidados, {} removidos dos logs brutos, {} consolidações expiradas",
+                    hours, days, rawDropped, rollupsDeleted);
+        }
+        return summary;
+    }
+
+    private void runSafely() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("❌ Erro na retenção de query_logs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Consolida as horas completas até {@code until} (exclusivo), a partir de
+     * onde parou; horas anteriores a {@code rawCutoff} já não têm logs brutos.
+     */
+    private int rollHours(LocalDateTime until, LocalDateTime rawCutoff) {
+        LocalDateTime from = rolledUntil(HOURLY);
+        if (from == null) {
+            LocalDateTime first = jdbcTemplate.queryForObject("select min(query_time) from query_logs", LocalDateTime.class);
+            if (first == null) {
+                return 0;
+            }
+            from = first.truncatedTo(ChronoUnit.HOURS);
+        }
+        if (from.isBefore(rawCutoff)) {
+            from = rawCutoff;
+        }
+
+        int rolled = 0;
+        for (LocalDateTime hour = from; !hour.plusHours(1).isAfter(until); hour = hour.plusHours(1)) {
+            LocalDateTime start = hour;
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("delete from query_log_rollup_hourly where bucket_start = ?", start);
+                jdbcTemplate.update(ROLL_HOUR, start, start, start.plusHours(1));
+                markRolledUntil(HOURLY, start.plusHours(1));
+            });
+            rolled++;
+        }
+        return rolled;
+    }
+
+    /**
+     * Consolida os dias cujas 24 horas já estão em {@code query_log_rollup_hourly}.
+     */
+    private int rollDays() {
+        LocalDateTime hourlyUntil = rolledUntil(HOURLY);
+        if (hourlyUntil == null) {
+            return 0;
+        }
+        LocalDateTime from = rolledUntil(DAILY);
+        if (from == null) {
+            LocalDateTime first = jdbcTemplate.queryForObject("select min(bucket_start) from query_log_rollup_hourly",
+                    LocalDateTime.class);
+            if (first == null) {
+                return 0;
+            }
+            from = first.truncatedTo(ChronoUnit.DAYS);
+        }
+
+        int rolled = 0;
+        for (LocalDateTime day = from; !day.plusDays(1).isAfter(hourlyUntil); day = day.plusDays(1)) {
+            LocalDateTime start = day;
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("delete from query_log_rollup_daily where bucket_start = ?", start);
+                jdbcTemplate.update(ROLL_DAY, start, start, start.plusDays(1));
+                markRolledUntil(DAILY, start.plusDays(1));
+            });
+            rolled++;
+        }
+        return rolled;
+    }
+
+    private LocalDateTime rolledUntil(String rollup) {
+        List<LocalDateTime> until = jdbcTemplate.queryForList(
+                "select rolled_until from query_log_rollup_state where rollup = ?", LocalDateTime.class, rollup);
+        return until.isEmpty() ? null : until.get(0);
+    }
+
+    private void markRolledUntil(String rollup, LocalDateTime until) {
+        if (jdbcTemplate.update("update query_log_rollup_state set rolled_until = ? where rollup = ?", until, rollup) == 0) {
+            jdbcTemplate.update("insert into query_log_rollup_state (rollup, rolled_until) values (?, ?)", rollup, until);
+        }
+    }
+
+    /**
+     * @param rawDropped partições removidas (ou linhas, sem particionamento)
+     * @param skipped    outra instância segurava a retenção e nada foi feito
+     */
+    public record Summary(int hoursRolled, int daysRolled, long rawDropped, int rollupsDeleted, boolean skipped) {
+
+        public static final Summary SKIPPED = new Summary(0, 0, 0, 0, true);
+    }
+}
@@ -0,0 +1,226 @@
+package com.cep.challenge.cep.service;
+
+import com.cep.challenge.cep.cache.CachedCep;
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.dto.CepPage;
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.exception.InvalidRangeException;
+import com.cep.challenge.cep.offline.CepDataset;
+import com.cep.challenge.cep.offline.OfflineCepSource;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.cep.util.SortedIntSet;
+import com.cep.challenge.config.AppProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consultas por prefixo e faixa sobre os CEPs já conhecidos: os encontrados
+ * no cache (índice {@link CepCache#keys()}) e os da base offline, cujas chaves
+ * já estão ordenadas no arquivo. Nenhuma consulta vai à API externa.
+ * <p>
+ * As duas fontes são percorridas juntas, em ordem crescente e sem repetição,
+ * uma chave por vez; nada da faixa é materializado além da página pedida.
+ * Quando um CEP está nas duas fontes vale o valor do cache.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CepRangeService {
+
+    private static final int DIGITS = 8;
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+
+    private final CepCache cepCache;
+    private final OfflineCepSource offlineCepSource;
+    private final AppProperties props;
+
+    /**
+     * Converte os parâmetros da requisição numa faixa: {@code prefix} (1 a 8
+     * dígitos) ou {@code from} e {@code to} (CEPs em qualquer formato aceito
+     * por {@link CepKeys#parse(CharSequence)}), nunca os dois.
+     */
+    public KeyRange resolve(String prefix, String from, String to) {
+        if (prefix != null) {
+            if (from != null || to != null) {
+                throw new InvalidRangeException("Informe prefix ou from e to, não ambos");
+            }
+            return prefixRange(prefix);
+        }
+        if (from == null || to == null) {
+            throw new InvalidRangeException("Informe prefix ou from e to");
+        }
+        int low = parse("from", from);
+        int high = parse("to", to);
+        if (low > high) {
+            throw new InvalidRangeException("from (" + from + ") maior que to (" + to + ")");
+        }
+        return new KeyRange(low, high);
+    }
+
+    /**
+     * Uma página da faixa, começando depois do CEP {@code after} (exclusivo).
+     */
+    public CepPage page(KeyRange range, String after, Integer limit) {
+        int pageSize = pageSize(limit);
+        int start = range.from();
+        if (after != null) {
+            int cursor = parse("after", after);
+            if (cursor >= range.to()) {
+                return new CepPage(List.of(), null);
+            }
+            start = Math.max(start, cursor + 1);
+        }
+
+        RangeCursor cursor = new RangeCursor(start, range.to());
+        List<CepResponse> items = new ArrayList<>(Math.min(pageSize, 64));
+        CepResponse response;
+        while (items.size() < pageSize && (response = cursor.next()) != null) {
+            items.add(response);
+        }
+        String next = items.size() == pageSize && cursor.hasMore()
+                ? items.get(items.size() - 1).getCep()
+                : null;
+
+        log.info("🧭 Faixa {}..{}: {} CEPs na página", CepKeys.format(range.from()), CepKeys.format(range.to()), items.size());
+        return new CepPage(items, next);
+    }
+
+    /**
+     * A faixa inteira, emitida sob demanda conforme o assinante consome.
+     */
+    public Flux<CepResponse> stream(KeyRange range) {
+        return Flux.generate(
+                () -> new RangeCursor(range.from(), range.to()),
+                (cursor, sink) -> {
+                    CepResponse response = cursor.next();
+                    if (response == null) {
+                        sink.complete();
+                    } else {
+                        sink.next(response);
+                    }
+                    return cursor;
+                });
+    }
+
+    public static KeyRange prefixRange(String prefix) {
+        int length = prefix.length();
+        if (length == 0 || length > DIGITS) {
+            throw new InvalidRangeException("Prefixo deve ter de 1 a 8 dígitos: " + prefix);
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = prefix.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new InvalidRangeException("Prefixo deve ter de 1 a 8 dígitos: " + prefix);
+            }
+            value = value * 10 + (c - '0');
+        }
+        int span = POWERS_OF_TEN[DIGITS - length];
+        return new KeyRange(value * span, value * span + span - 1);
+    }
+
+    private int pageSize(Integer limit) {
+        AppProperties.Range config = props.getRange();
+        if (limit == null) {
+            return config.getDefaultLimit();
+        }
+        if (limit < 1 || limit > config.getMaxLimit()) {
+            throw new InvalidRangeException("limit deve estar entre 1 e " + config.getMaxLimit());
+        }
+        return limit;
+    }
+
+    private static int parse(String name, String cep) {
+        int key = CepKeys.parse(cep);
+        if (key == CepKeys.INVALID) {
+            throw new InvalidRangeException("CEP inválido em " + name + ": " + cep);
+        }
+        return key;
+    }
+
+    /**
+     * Faixa fechada de chaves numéricas de CEP.
+     */
+    public record KeyRange(int from, int to) {
+    }
+
+    /**
+     * Intercala as chaves do cache e da base offline dentro de {@code [from, to]}.
+     * A base usada é a carregada na criação do cursor, mesmo que seja trocada durante a leitura.
+     */
+    private final class RangeCursor {
+
+        private final int to;
+        private final SortedIntSet cacheKeys = cepCache.keys();
+        private final CepDataset dataset = offlineCepSource.dataset();
+        private int cacheKey;
+        private int datasetIndex;
+
+        RangeCursor(int from, int to) {
+            this.to = to;
+            this.cacheKey = cacheKeys.higher(from - 1);
+            this.datasetIndex = dataset == null ? 0 : dataset.lowerBound(from);
+        }
+
+        boolean hasMore() {
+            return cacheKeyInRange() || datasetKey() != SortedIntSet.NONE;
+        }
+
+        /**
+         * Próximo CEP da faixa, ou {@code null} ao final.
+         */
+        CepResponse next() {
+            while (true) {
+                int fromDataset = datasetKey();
+                int fromCache = cacheKeyInRange() ? cacheKey : SortedIntSet.NONE;
+                if (fromDataset == SortedIntSet.NONE && fromCache == SortedIntSet.NONE) {
+                    return null;
+                }
+
+                int key;
+                if (fromCache == SortedIntSet.NONE || (fromDataset != SortedIntSet.NONE && fromDataset < fromCache)) {
+                    key = fromDataset;
+                } else {
+                    key = fromCache;
+                }
+
+                CepResponse response = null;
+                if (key == fromCache) {
+                    CachedCep cached = cepCache.peek(key);
+                    if (cached != null && !cached.isNegative()) {
+                        response = cached.response();
+                    }
+                    cacheKey = cacheKeys.higher(key);
+                }
+                if (key == fromDataset) {
+                    if (response == null) {
+                        response = dataset.responseAt(datasetIndex);
+                    }
+                    datasetIndex++;
+                }
+
+                // chave do índice cujo valor acabou de expirar e ainda não foi despejado
+                if (response != null) {
+                    return response;
+                }
+            }
+        }
+
+        private boolean cacheKeyInRange() {
+            return cacheKey != SortedIntSet.NONE && cacheKey <= to;
+        }
+
+        private int datasetKey() {
+            if (dataset == null || datasetIndex >= dataset.size()) {
+                return SortedIntSet.NONE;
+            }
+            int key = dataset.keyAt(datasetIndex);
+            return key <= to ? key : SortedIntSet.NONE;
+        }
+    }
+}
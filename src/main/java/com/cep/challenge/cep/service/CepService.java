@@ -1,14 +1,46 @@
 package com.cep.challenge.cep.service;
 
+import com.cep.challenge.cep.cache.CachedCep;
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.cache.PersistentCepCache;
 import com.cep.challenge.cep.client.CepClient;
 import com.cep.challenge.cep.domain.QueryLog;
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.dto.CepBatchItem;
 import com.cep.challenge.cep.dto.CepResponse;
-import com.cep.challenge.cep.repository.QueryLogRepository;
+import com.cep.challenge.cep.dto.StaleCepResponse;
+import com.cep.challenge.cep.exception.CepNotFoundException;
+import com.cep.challenge.cep.exception.InvalidBatchException;
+import com.cep.challenge.cep.exception.InvalidCepException;
+import com.cep.challenge.cep.exception.UpstreamUnavailableException;
+import com.cep.challenge.cep.jfr.CepStage;
+import com.cep.challenge.cep.jfr.CepStageEvent;
+import com.cep.challenge.cep.metrics.CepMetrics;
+import com.cep.challenge.cep.metrics.CepMetrics.CacheResult;
+import com.cep.challenge.cep.metrics.CepMetrics.Outcome;
+import com.cep.challenge.cep.offline.OfflineCepSource;
+import com.cep.challenge.cep.prefetch.CepPrefetcher;
+import com.cep.challenge.cep.repository.QueryLogWriter;
+import com.cep.challenge.cep.repository.ReactiveQueryLogWriter;
+import com.cep.challenge.cep.stats.CepStats;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -16,43 +48,443 @@ import java.time.LocalDateTime;
 public class CepService {
 
     private final CepClient cepClient;
-    private final QueryLogRepository queryLogRepository;
+    private final QueryLogWriter queryLogWriter;
+    private final ReactiveQueryLogWriter reactiveQueryLogWriter;
+    private final CepCache cepCache;
+    private final OfflineCepSource offlineCepSource;
+    private final AppProperties props;
+    private final CepMetrics metrics;
+    private final CepStats stats;
+    private final PersistentCepCache persistentCache;
+    private final CepPrefetcher prefetcher;
+    private final SingleFlight<Integer, CepResponse> upstreamCalls = new SingleFlight<>();
 
-    public CepResponse getCep(String cep) {
+    /**
+     * @param input CEP como recebido ("01001000", "01001-000"...); inválido
+     *              gera {@link InvalidCepException} antes de qualquer consulta
+     */
+    public CepResponse getCep(String input) {
+        int key = parseKey(input);
+        String cep = CepKeys.format(key);
         log.info("🚀 Iniciando busca do CEP: {}", cep);
-        
-        long startTime = System.currentTimeMillis();
-        boolean success = true;
-        
+
+        long lookupStart = System.nanoTime();
+        CepStageEvent lookup = CepStageEvent.start(CepStage.LOOKUP, cep);
+
+        CachedCep cached = lookupCache(key, cep);
+        if (cached != null) {
+            return serveFromCache(key, cep, cached, lookup, lookupStart, queryLogWriter::write);
+        }
+
+        CepResponse offline = findOffline(key, cep, lookup, lookupStart, queryLogWriter::write);
+        if (offline != null) {
+            return offline;
+        }
+
+        CepResponse persisted = findPersisted(key, cep, lookup, lookupStart, queryLogWriter::write);
+        if (persisted != null) {
+            return persisted;
+        }
+
+        CepStageEvent upstream = CepStageEvent.start(CepStage.UPSTREAM, cep);
         try {
-            log.info("📡 Chamando API externa para CEP: {}", cep);
-            CepResponse response = cepClient.findByCep(cep);
-            
-            Long responseTime = System.currentTimeMillis() - startTime;
+            CepResponse response = upstreamCalls.execute(key, () -> fetchAndCache(key, cep));
+            upstream.end(Outcome.SUCCESS);
+
+            Long responseTime = toMillis(System.nanoTime() - lookupStart);
             log.info("⏱️  Tempo de resposta da API: {}ms", responseTime);
-            
+
             // Salva log da consulta
-            QueryLog logEntry = new QueryLog(null, cep, LocalDateTime.now(), responseTime, success);
-            queryLogRepository.save(logEntry);
-            log.info("💾 Log salvo no banco de dados - CEP: {}, Tempo: {}ms, Sucesso: {}", 
-                    cep, responseTime, success);
-            
+            saveLog(queryLogWriter::write, key, cep, lookup, lookupStart, QuerySource.UPSTREAM, Outcome.SUCCESS);
+
             log.info("🎯 CEP {} processado com sucesso!", cep);
             return response;
-            
+
         } catch (Exception e) {
-            success = false;
-            Long responseTime = System.currentTimeMillis() - startTime;
-            
+            upstream.end(Outcome.of(e));
             log.error("❌ Erro ao processar CEP {}: {}", cep, e.getMessage());
-            
+
             // Salva log do erro
-            QueryLog logEntry = new QueryLog(null, cep, LocalDateTime.now(), responseTime, success);
-            queryLogRepository.save(logEntry);
-            log.info("💾 Log de erro salvo no banco - CEP: {}, Tempo: {}ms, Sucesso: {}", 
-                    cep, responseTime, success);
-            
+            saveLog(queryLogWriter::write, key, cep, lookup, lookupStart, sourceOf(e), Outcome.of(e));
+
+            throw e;
+        }
+    }
+
+    /**
+     * Mesmo fluxo de {@link #getCep(String)} sem bloquear a thread chamadora:
+     * a API externa é consultada via {@link CepClient#fetch(String)} e o log é
+     * gravado fora do event loop pelo {@link ReactiveQueryLogWriter}.
+     */
+    public Mono<CepResponse> getCepReactive(String input) {
+        return Mono.defer(() -> lookupReactive(parseKey(input), reactiveQueryLogWriter::write));
+    }
+
+    /**
+     * Resolve um lote de CEPs: remove duplicados (pela chave), responde os
+     * inválidos como {@link CepBatchItem.Status#INVALID} sem consultá-los, consulta
+     * no máximo {@code app.cep.batch.concurrency} CEPs ao mesmo tempo e grava
+     * os logs de todo o lote numa única chamada ao {@link ReactiveQueryLogWriter}.
+     *
+     * @param keepOrder {@code true} emite na ordem de entrada; {@code false}
+     *                  emite cada item assim que ele termina (streaming)
+     */
+    public Flux<CepBatchItem> getCeps(List<String> ceps, boolean keepOrder) {
+        return Flux.defer(() -> {
+            AppProperties.Batch batch = props.getBatch();
+            if (ceps == null || ceps.isEmpty()) {
+                return Flux.error(new InvalidBatchException("Informe ao menos um CEP"));
+            }
+            if (ceps.size() > batch.getMaxSize()) {
+                return Flux.error(new InvalidBatchException(
+                        "Lote com " + ceps.size() + " CEPs excede o limite de " + batch.getMaxSize()));
+            }
+
+            List<String> distinct = distinct(ceps);
+            log.info("📦 Lote recebido: {} CEPs ({} distintos)", ceps.size(), distinct.size());
+
+            Queue<QueryLog> logs = new ConcurrentLinkedQueue<>();
+            Function<String, Mono<CepBatchItem>> resolve = cep -> Mono.defer(() -> lookupReactive(parseKey(cep), logs::add))
+                    .map(response -> CepBatchItem.found(cep, response))
+                    .onErrorResume(e -> Mono.just(CepBatchItem.failed(cep, e)));
+
+            Flux<CepBatchItem> items = keepOrder
+                    ? Flux.fromIterable(distinct).flatMapSequential(resolve, batch.getConcurrency())
+                    : Flux.fromIterable(distinct).flatMap(resolve, batch.getConcurrency());
+
+            return items.doFinally(signal -> {
+                List<QueryLog> entries = List.copyOf(logs);
+                reactiveQueryLogWriter.writeAll(entries);
+                log.info("💾 {} logs do lote enviados para gravação", entries.size());
+            });
+        });
+    }
+
+    private Mono<CepResponse> lookupReactive(int key, Consumer<QueryLog> writer) {
+        return Mono.defer(() -> {
+            String cep = CepKeys.format(key);
+            log.info("🚀 Iniciando busca reativa do CEP: {}", cep);
+
+            long lookupStart = System.nanoTime();
+            CepStageEvent lookup = CepStageEvent.start(CepStage.LOOKUP, cep);
+
+            CachedCep cached = lookupCache(key, cep);
+            if (cached != null) {
+                return Mono.fromCallable(() -> serveFromCache(key, cep, cached, lookup, lookupStart, writer));
+            }
+
+            CepResponse offline = findOffline(key, cep, lookup, lookupStart, writer);
+            if (offline != null) {
+                return Mono.just(offline);
+            }
+
+            return findPersistedAsync(key, cep)
+                    .map(hit -> servePersisted(key, cep, hit, lookup, lookupStart, writer))
+                    .switchIfEmpty(Mono.defer(() -> fetchReactive(key, cep, lookup, lookupStart, writer)));
+        });
+    }
+
+    private Mono<CepResponse> fetchReactive(int key, String cep, CepStageEvent lookup, long lookupStart,
+                                            Consumer<QueryLog> writer) {
+        return CepStageEvent.trace(CepStage.UPSTREAM, cep, Mono.fromFuture(() ->
+                        upstreamCalls.executeAsync(key, () -> fetchAndCacheAsync(key, cep, true))))
+                .doOnNext(response -> {
+                    Long responseTime = toMillis(System.nanoTime() - lookupStart);
+                    log.info("⏱️  Tempo de resposta da API: {}ms", responseTime);
+                    saveLog(writer, key, cep, lookup, lookupStart, QuerySource.UPSTREAM, Outcome.SUCCESS);
+                })
+                .doOnError(e -> {
+                    log.error("❌ Erro ao processar CEP {}: {}", cep, e.getMessage());
+                    saveLog(writer, key, cep, lookup, lookupStart, sourceOf(e), Outcome.of(e));
+                });
+    }
+
+    /**
+     * Coloca o CEP no cache sem contar como consulta: não grava log, não entra
+     * em {@code cep.lookup} nem nas {@link CepStats}. Usado no aquecimento.
+     * Vem do cache persistente quando possível, senão da API externa. Emite
+     * {@code false} quando não há o que buscar (já em cache, ou atendido pela
+     * base offline), falha com {@link InvalidCepException} para um CEP
+     * inválido e com o erro da API externa.
+     */
+    public Mono<Boolean> prefetch(String input) {
+        return Mono.defer(() -> prefetch(parseKey(input)));
+    }
+
+    private Mono<Boolean> prefetch(int key) {
+        String cep = CepKeys.format(key);
+        if (cepCache.get(key) != null) {
+            return Mono.just(false);
+        }
+        if (offlineCepSource.isEnabled()
+                && (offlineCepSource.isExclusive() || offlineCepSource.find(key) != null)) {
+            return Mono.just(false);
+        }
+        // uma linha mais velha que o ttl entra stale e não conta: segue para a API
+        return findPersistedAsync(key, cep)
+                .filter(hit -> !cepCache.isStale(cepCache.putFound(key, hit.response(), hit.age())))
+                .map(PersistentCepCache.Hit::response)
+                .switchIfEmpty(Mono.fromFuture(() ->
+                        upstreamCalls.executeAsync(key, () -> fetchAndCacheAsync(key, cep, false))))
+                .thenReturn(true);
+    }
+
+    /**
+     * Busca em segundo plano os CEPs que o {@link CepPrefetcher} prevê para
+     * depois de {@code key}; quem consultou não espera por eles.
+     */
+    private void prefetchLikelyNext(int key) {
+        for (int next : prefetcher.candidates(key)) {
+            Mono.defer(() -> prefetch(next)).subscribe(
+                    fetched -> prefetcher.completed(next, fetched),
+                    error -> prefetcher.failed(next, error));
+        }
+    }
+
+    /**
+     * Um item por chave, na ordem de entrada e com o texto da primeira
+     * ocorrência; inválidos ficam como vieram (um por texto).
+     */
+    private static List<String> distinct(List<String> ceps) {
+        Map<Object, String> byKey = new LinkedHashMap<>();
+        for (String cep : ceps) {
+            if (cep != null) {
+                String trimmed = cep.trim();
+                int key = CepKeys.parse(trimmed);
+                byKey.putIfAbsent(key == CepKeys.INVALID ? trimmed : key, trimmed);
+            }
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    private static int parseKey(String input) {
+        int key = CepKeys.parse(input);
+        if (key == CepKeys.INVALID) {
+            throw new InvalidCepException("CEP inválido: " + input);
+        }
+        return key;
+    }
+
+    /**
+     * Executada uma única vez por CEP mesmo com várias requisições simultâneas
+     * (ver {@link SingleFlight}); o cache é preenchido antes de liberar quem aguarda.
+     */
+    private CepResponse fetchAndCache(int key, String cep) {
+        log.info("📡 Chamando API externa para CEP: {}", cep);
+        prefetcher.onUpstreamCall();
+        long upstreamStart = System.nanoTime();
+        try {
+            CepResponse response = cepClient.findByCep(cep);
+            metrics.recordUpstream(Outcome.SUCCESS, System.nanoTime() - upstreamStart);
+            cepCache.putFound(key, response);
+            persistentCache.put(key, response);
+            return response;
+        } catch (RuntimeException e) {
+            metrics.recordUpstream(Outcome.of(e), System.nanoTime() - upstreamStart);
+            if (e instanceof CepNotFoundException) {
+                cepCache.putNotFound(key);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param demand {@code false} no aquecimento e no prefetch, que não
+     *               creditam o orçamento do {@link CepPrefetcher}
+     */
+    private CompletableFuture<CepResponse> fetchAndCacheAsync(int key, String cep, boolean demand) {
+        log.info("📡 Chamando API externa (reativo) para CEP: {}", cep);
+        if (demand) {
+            prefetcher.onUpstreamCall();
+        }
+        long upstreamStart = System.nanoTime();
+        return cepClient.fetch(cep)
+                .doOnNext(response -> {
+                    metrics.recordUpstream(Outcome.SUCCESS, System.nanoTime() - upstreamStart);
+                    cepCache.putFound(key, response);
+                    persistentCache.put(key, response);
+                })
+                .doOnError(e -> metrics.recordUpstream(Outcome.of(e), System.nanoTime() - upstreamStart))
+                .doOnError(CepNotFoundException.class, e -> cepCache.putNotFound(key))
+                .toFuture();
+    }
+
+    private CachedCep lookupCache(int key, String cep) {
+        CepStageEvent event = CepStageEvent.start(CepStage.CACHE, cep);
+        CachedCep cached = cepCache.getAllowStale(key);
+        CacheResult result;
+        if (cached == null) {
+            result = CacheResult.MISS;
+        } else if (cached.isNegative()) {
+            result = CacheResult.NEGATIVE_HIT;
+        } else {
+            result = cepCache.isStale(cached) ? CacheResult.STALE_HIT : CacheResult.HIT;
+        }
+        metrics.recordCache(result);
+        event.end(result);
+        return cached;
+    }
+
+    private CepResponse serveFromCache(int key, String cep, CachedCep cached, CepStageEvent lookup, long lookupStart,
+                                       Consumer<QueryLog> writer) {
+        if (cached.isNegative()) {
+            log.info("🗃️  CEP {} em cache negativo", cep);
+            saveLog(writer, key, cep, lookup, lookupStart, QuerySource.CACHE, Outcome.NOT_FOUND);
+            throw new CepNotFoundException("CEP " + cep + " não encontrado (cache)");
+        }
+
+        if (cepCache.isStale(cached)) {
+            log.info("🕰️  CEP {} atendido pelo cache (stale), atualizando em segundo plano", cep);
+            refreshInBackground(key, cep);
+            saveLog(writer, key, cep, lookup, lookupStart, QuerySource.STALE, Outcome.SUCCESS);
+            return new StaleCepResponse(cached.response());
+        }
+
+        log.info("🗃️  CEP {} atendido pelo cache", cep);
+        saveLog(writer, key, cep, lookup, lookupStart, QuerySource.CACHE, Outcome.SUCCESS);
+        return cached.response();
+    }
+
+    /**
+     * Stale-while-revalidate: a consulta à API externa passa pelo mesmo
+     * {@link SingleFlight} das demais, então requisições simultâneas ao mesmo
+     * CEP stale disparam uma única atualização. Se a API falhar a resposta
+     * stale continua no cache até {@code stale-ttl}.
+     */
+    private void refreshInBackground(int key, String cep) {
+        upstreamCalls.executeAsync(key, () -> fetchAndCacheAsync(key, cep, true))
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.warn("🕰️  Falha ao atualizar CEP stale {}: {}", cep, error.getMessage());
+                    }
+                });
+    }
+
+    private static QuerySource sourceOf(Throwable error) {
+        return error instanceof UpstreamUnavailableException ? QuerySource.SHORT_CIRCUIT : QuerySource.UPSTREAM;
+    }
+
+    /**
+     * Consulta a base offline quando habilitada. Retorna {@code null} para
+     * seguir para a API externa; em {@code offline-only} um CEP ausente da
+     * base termina aqui como não encontrado.
+     */
+    private CepResponse findOffline(int key, String cep, CepStageEvent lookup, long lookupStart,
+                                    Consumer<QueryLog> writer) {
+        if (!offlineCepSource.isEnabled()) {
+            return null;
+        }
+
+        CepStageEvent event = CepStageEvent.start(CepStage.OFFLINE, cep);
+        CepResponse response = offlineCepSource.find(key);
+        event.end(response != null ? Outcome.SUCCESS : Outcome.NOT_FOUND);
+        if (response != null) {
+            log.info("📚 CEP {} atendido pela base offline", cep);
+            saveLog(writer, key, cep, lookup, lookupStart, QuerySource.OFFLINE, Outcome.SUCCESS);
+            return response;
+        }
+
+        if (offlineCepSource.isExclusive()) {
+            log.info("📚 CEP {} não está na base offline (modo offline-only)", cep);
+            saveLog(writer, key, cep, lookup, lookupStart, QuerySource.OFFLINE, Outcome.NOT_FOUND);
+            throw new CepNotFoundException("CEP " + cep + " não encontrado na base offline");
+        }
+        return null;
+    }
+
+    /**
+     * Consulta o cache persistente depois de um miss no cache em memória e
+     * promove o que encontrar para ele. Retorna {@code null} para seguir para
+     * a API externa; uma falha no banco também segue, sem falhar a consulta.
+     */
+    private CepResponse findPersisted(int key, String cep, CepStageEvent lookup, long lookupStart,
+                                      Consumer<QueryLog> writer) {
+        if (!persistentCache.isEnabled()) {
+            return null;
+        }
+        CepStageEvent event = CepStageEvent.start(CepStage.PERSISTENT_CACHE, cep);
+        PersistentCepCache.Hit hit;
+        try {
+            hit = persistentCache.find(key);
+            event.end(hit != null ? Outcome.SUCCESS : Outcome.NOT_FOUND);
+        } catch (RuntimeException e) {
+            event.end(Outcome.ERROR);
+            log.warn("⚠️  Erro ao consultar o cache persistente para o CEP {}: {}", cep, e.getMessage());
+            return null;
+        }
+        return hit == null ? null : servePersisted(key, cep, hit, lookup, lookupStart, writer);
+    }
+
+    private Mono<PersistentCepCache.Hit> findPersistedAsync(int key, String cep) {
+        if (!persistentCache.isEnabled()) {
+            return Mono.empty();
+        }
+        return CepStageEvent.trace(CepStage.PERSISTENT_CACHE, cep, persistentCache.findAsync(key))
+                .onErrorResume(e -> {
+                    log.warn("⚠️  Erro ao consultar o cache persistente para o CEP {}: {}", cep, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Promove a resposta para o cache em memória com a idade que ela tem
+     * ({@code cached_at}), não com um {@code ttl} novo: mais velha que o
+     * {@code ttl} ela entra stale, é servida como tal e atualizada em segundo plano.
+     */
+    private CepResponse servePersisted(int key, String cep, PersistentCepCache.Hit hit, CepStageEvent lookup,
+                                       long lookupStart, Consumer<QueryLog> writer) {
+        CachedCep cached = cepCache.putFound(key, hit.response(), hit.age());
+        saveLog(writer, key, cep, lookup, lookupStart, QuerySource.PERSISTENT_CACHE, Outcome.SUCCESS);
+        if (cepCache.isStale(cached)) {
+            log.info("🗄️  CEP {} atendido pelo cache persistente (stale), atualizando em segundo plano", cep);
+            refreshInBackground(key, cep);
+            return new StaleCepResponse(hit.response());
+        }
+        log.info("🗄️  CEP {} atendido pelo cache persistente", cep);
+        return hit.response();
+    }
+
+    /**
+     * Arredonda para cima: qualquer consulta que levou tempo aparece com pelo menos 1ms.
+     */
+    private static long toMillis(long nanos) {
+        return (nanos + 999_999) / 1_000_000;
+    }
+
+    /**
+     * Fecha a consulta: registra o tempo total em {@code cep.lookup} e nas
+     * {@link CepStats} (e o {@link CepStageEvent} de {@code lookup}),
+     * alimenta o {@link CepPrefetcher} (e dispara os prefetches previstos) e
+     * entrega o log ao writer, medindo a entrega em {@code cep.querylog.write}.
+     */
+    private void saveLog(Consumer<QueryLog> writer, int key, String cep, CepStageEvent lookup, long lookupStart,
+                         QuerySource source, Outcome outcome) {
+        long elapsed = System.nanoTime() - lookupStart;
+        lookup.end(outcome, source);
+        metrics.recordLookup(source, outcome, elapsed);
+        stats.record(key, source, outcome, elapsed);
+        prefetcher.record(key, source, outcome);
+        if (outcome == Outcome.SUCCESS) {
+            prefetchLikelyNext(key);
+        }
+
+        Long responseTime = toMillis(elapsed);
+        boolean success = outcome == Outcome.SUCCESS;
+        QueryLog logEntry = new QueryLog(null, cep, LocalDateTime.now(), responseTime, success,
+                source == QuerySource.CACHE || source == QuerySource.STALE || source == QuerySource.PERSISTENT_CACHE,
+                source);
+        long writeStart = System.nanoTime();
+        CepStageEvent write = CepStageEvent.start(CepStage.QUERY_LOG, cep);
+        try {
+            writer.accept(logEntry);
+            metrics.recordQueryLogWrite(Outcome.SUCCESS, System.nanoTime() - writeStart);
+            write.end(Outcome.SUCCESS, source);
+        } catch (RuntimeException e) {
+            metrics.recordQueryLogWrite(Outcome.ERROR, System.nanoTime() - writeStart);
+            write.end(Outcome.ERROR, source);
             throw e;
         }
+        log.info("💾 Log registrado - CEP: {}, Tempo: {}ms, Sucesso: {}, Origem: {}",
+                cep, responseTime, success, source);
     }
 }
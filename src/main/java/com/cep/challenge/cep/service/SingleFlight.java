@@ -0,0 +1,98 @@
+package com.cep.challenge.cep.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesce chamadas concorrentes para a mesma chave: a primeira thread executa
+ * a chamada e as demais aguardam e recebem o mesmo resultado (ou a mesma falha).
+ * <p>
+ * A entrada da tabela de chamadas em andamento é removida logo após o
+ * resultado ser publicado, mesmo em caso de erro.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = call.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Variante assíncrona: quem chega enquanto a chamada está em andamento
+     * recebe uma cópia do mesmo future, de modo que cancelar a própria espera
+     * não cancela a chamada compartilhada.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return existing.copy();
+        }
+
+        CompletableFuture<V> started;
+        try {
+            started = call.get();
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            inFlight.remove(key, mine);
+            throw e;
+        }
+
+        started.whenComplete((value, error) -> {
+            if (error != null) {
+                mine.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            } else {
+                mine.complete(value);
+            }
+            inFlight.remove(key, mine);
+        });
+        return mine.copy();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Chamadores parados à espera da chamada em andamento para {@code key}
+     * (estimativa, para testes e diagnóstico).
+     */
+    int waiting(K key) {
+        CompletableFuture<V> future = inFlight.get(key);
+        return future == null ? 0 : future.getNumberOfDependents();
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
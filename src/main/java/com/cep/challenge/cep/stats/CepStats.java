@@ -0,0 +1,274 @@
+package com.cep.challenge.cep.stats;
+
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.dto.CepStatsResponse;
+import com.cep.challenge.cep.exception.InvalidStatsQueryException;
+import com.cep.challenge.cep.metrics.CepMetrics.Outcome;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.cep.util.LogLinearBuckets;
+import com.cep.challenge.config.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Estatísticas das consultas em janelas deslizantes, mantidas em memória a
+ * partir do {@code CepService} para que painéis não precisem agregar
+ * {@code query_logs}.
+ * <p>
+ * O tempo é dividido em faixas de {@code bucket-duration} guardadas num anel
+ * com {@code retention / bucket-duration} posições; uma posição é reutilizada
+ * quando sua faixa sai da retenção. Cada faixa acumula contagens por
+ * resultado e por origem, um histograma log-linear de latência e um top-K
+ * aproximado ({@link SpaceSaving}). Uma consulta soma as faixas da janela:
+ * o custo depende só da configuração, não do volume de consultas.
+ */
+@Component
+@Slf4j
+public class CepStats {
+
+    private static final int LATENCY_BUCKETS = 128;
+
+    private final boolean enabled;
+    private final long bucketMillis;
+    private final Duration retention;
+    private final Duration defaultWindow;
+    private final int topKCapacity;
+    private final int defaultTop;
+    private final LongSupplier clock;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    @Autowired
+    public CepStats(AppProperties props) {
+        this(props, System::currentTimeMillis);
+    }
+
+    CepStats(AppProperties props, LongSupplier clock) {
+        AppProperties.Stats config = props.getStats();
+        this.enabled = config.isEnabled();
+        this.bucketMillis = config.getBucketDuration().toMillis();
+        this.retention = config.getRetention();
+        this.defaultWindow = config.getDefaultWindow();
+        this.topKCapacity = config.getTopKCapacity();
+        this.defaultTop = config.getDefaultTop();
+        this.clock = clock;
+        this.ring = new AtomicReferenceArray<>((int) Math.ceilDiv(retention.toMillis(), bucketMillis));
+    }
+
+    /**
+     * Registra uma consulta concluída. Chamado no caminho da requisição: uma
+     * trava curta por faixa, sem alocação depois que a faixa existe.
+     */
+    public void record(int key, QuerySource source, Outcome outcome, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        long epoch = clock.getAsLong() / bucketMillis;
+        bucketFor(epoch).record(epoch, key, source, outcome, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * @param window duração como {@code 15m}, {@code 1h} ou {@code PT1H}
+     *               ({@code null} = {@code default-window}), até {@code retention}
+     * @param top    quantos CEPs no ranking ({@code null} = {@code default-top}),
+     *               até {@code top-k-capacity}
+     */
+    public CepStatsResponse snapshot(String window, Integer top) {
+        Duration duration = parseWindow(window);
+        int topSize = top != null ? top : defaultTop;
+        if (topSize < 1 || topSize > topKCapacity) {
+            throw new InvalidStatsQueryException("top deve estar entre 1 e " + topKCapacity);
+        }
+
+        long now = clock.getAsLong();
+        long toEpoch = now / bucketMillis;
+        long fromEpoch = toEpoch - Math.min(Math.ceilDiv(duration.toMillis(), bucketMillis), ring.length()) + 1;
+
+        Totals totals = new Totals();
+        for (long epoch = fromEpoch; epoch <= toEpoch; epoch++) {
+            Bucket bucket = ring.get(slot(epoch));
+            if (bucket != null) {
+                bucket.mergeInto(epoch, totals);
+            }
+        }
+        return totals.toResponse(duration, Instant.ofEpochMilli(fromEpoch * bucketMillis), Instant.ofEpochMilli(now), topSize);
+    }
+
+    private Duration parseWindow(String window) {
+        if (window == null || window.isBlank()) {
+            return defaultWindow;
+        }
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window.trim());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidStatsQueryException("Janela inválida: " + window);
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(retention) > 0) {
+            throw new InvalidStatsQueryException("A janela deve ser positiva e de no máximo " + retention);
+        }
+        return duration;
+    }
+
+    private Bucket bucketFor(long epoch) {
+        int slot = slot(epoch);
+        Bucket bucket = ring.get(slot);
+        if (bucket == null) {
+            ring.compareAndSet(slot, null, new Bucket(topKCapacity));
+            bucket = ring.get(slot);
+        }
+        return bucket;
+    }
+
+    private int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) ring.length());
+    }
+
+    /**
+     * Uma posição do anel; {@code epoch} diz qual faixa de tempo ela guarda no momento.
+     */
+    private static final class Bucket {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] outcomes = new long[Outcome.values().length];
+        private final long[] sources = new long[QuerySource.values().length];
+        private final long[] latency = new long[LATENCY_BUCKETS];
+        private final SpaceSaving topCeps;
+        private long epoch = Long.MIN_VALUE;
+        private long maxMicros;
+
+        Bucket(int topKCapacity) {
+            this.topCeps = new SpaceSaving(topKCapacity);
+        }
+
+        void record(long epoch, int key, QuerySource source, Outcome outcome, long micros) {
+            lock.lock();
+            try {
+                if (this.epoch != epoch) {
+                    if (epoch < this.epoch) {
+                        // consulta que terminou enquanto a posição já passava para a faixa seguinte
+                        return;
+                    }
+                    reset(epoch);
+                }
+                outcomes[outcome.ordinal()]++;
+                sources[source.ordinal()]++;
+                latency[Math.min(LogLinearBuckets.indexOf(micros), LATENCY_BUCKETS - 1)]++;
+                maxMicros = Math.max(maxMicros, micros);
+                if (key != CepKeys.INVALID) {
+                    topCeps.add(key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void mergeInto(long epoch, Totals totals) {
+            lock.lock();
+            try {
+                if (this.epoch != epoch) {
+                    return;
+                }
+                for (int i = 0; i < outcomes.length; i++) {
+                    totals.outcomes[i] += outcomes[i];
+                }
+                for (int i = 0; i < sources.length; i++) {
+                    totals.sources[i] += sources[i];
+                }
+                for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                    totals.latency[i] += latency[i];
+                }
+                totals.maxMicros = Math.max(totals.maxMicros, maxMicros);
+                for (int i = 0; i < topCeps.size(); i++) {
+                    long[] entry = totals.topCeps.computeIfAbsent(topCeps.key(i), key -> new long[2]);
+                    entry[0] += topCeps.count(i);
+                    entry[1] += topCeps.error(i);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void reset(long epoch) {
+            this.epoch = epoch;
+            Arrays.fill(outcomes, 0);
+            Arrays.fill(sources, 0);
+            Arrays.fill(latency, 0);
+            maxMicros = 0;
+            topCeps.clear();
+        }
+    }
+
+    /**
+     * Soma das faixas de uma janela; {@code topCeps} guarda {contagem, erro} por chave.
+     */
+    private static final class Totals {
+
+        final long[] outcomes = new long[Outcome.values().length];
+        final long[] sources = new long[QuerySource.values().length];
+        final long[] latency = new long[LATENCY_BUCKETS];
+        final Map<Integer, long[]> topCeps = new HashMap<>();
+        long maxMicros;
+
+        CepStatsResponse toResponse(Duration window, Instant from, Instant to, int topSize) {
+            long success = outcomes[Outcome.SUCCESS.ordinal()];
+            long notFound = outcomes[Outcome.NOT_FOUND.ordinal()];
+            long errors = outcomes[Outcome.ERROR.ordinal()];
+            long total = success + notFound + errors;
+
+            Map<String, Long> bySource = new LinkedHashMap<>();
+            for (QuerySource source : QuerySource.values()) {
+                bySource.put(source.name().toLowerCase(Locale.ROOT), sources[source.ordinal()]);
+            }
+
+            CepStatsResponse.Latency latencyMs = new CepStatsResponse.Latency(
+                    percentileMillis(0.50, total), percentileMillis(0.90, total),
+                    percentileMillis(0.95, total), percentileMillis(0.99, total), maxMicros / 1000.0);
+
+            List<CepStatsResponse.TopCep> top = new ArrayList<>(topSize);
+            topCeps.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<Integer, long[]> entry) -> entry.getValue()[0]).reversed()
+                            .thenComparing(Map.Entry::getKey))
+                    .limit(topSize)
+                    .forEach(entry -> top.add(new CepStatsResponse.TopCep(
+                            CepKeys.format(entry.getKey()), entry.getValue()[0], entry.getValue()[1])));
+
+            return new CepStatsResponse(window.toString(), from, to, total, success, notFound, errors,
+                    total == 0 ? 0 : (double) success / total, bySource, latencyMs, top);
+        }
+
+        /**
+         * Limite superior da faixa do percentil, sem passar do máximo observado.
+         */
+        private double percentileMillis(double p, long total) {
+            if (total == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(p * total);
+            long cumulative = 0;
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                cumulative += latency[i];
+                if (cumulative >= target) {
+                    return Math.min(LogLinearBuckets.upperBound(i), maxMicros) / 1000.0;
+                }
+            }
+            return maxMicros / 1000.0;
+        }
+    }
+}
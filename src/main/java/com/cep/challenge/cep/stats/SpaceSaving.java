@@ -0,0 +1,71 @@
+package com.cep.challenge.cep.stats;
+
+/**
+ * Top-K aproximado (algoritmo Space-Saving) sobre chaves {@code int}, com no
+ * máximo {@code capacity} chaves monitoradas. Quando uma chave nova chega com
+ * a tabela cheia ela ocupa o lugar da de menor contagem, herdando essa
+ * contagem como erro: {@link #count(int)} nunca subestima a frequência real e
+ * a superestima em no máximo {@link #error(int)}. Chaves com frequência acima
+ * de {@code total / capacity} estão sempre presentes.
+ * <p>
+ * Não é thread-safe; arrays primitivos e busca linear, sem alocação por chamada
+ * (a capacidade é pequena).
+ */
+final class SpaceSaving {
+
+    private final int[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private int size;
+
+    SpaceSaving(int capacity) {
+        this.keys = new int[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+    }
+
+    void add(int key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                counts[i]++;
+                return;
+            }
+        }
+        if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = 1;
+            errors[size] = 0;
+            size++;
+            return;
+        }
+        int min = 0;
+        for (int i = 1; i < size; i++) {
+            if (counts[i] < counts[min]) {
+                min = i;
+            }
+        }
+        keys[min] = key;
+        errors[min] = counts[min];
+        counts[min]++;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int key(int index) {
+        return keys[index];
+    }
+
+    long count(int index) {
+        return counts[index];
+    }
+
+    long error(int index) {
+        return errors[index];
+    }
+}
@@ -0,0 +1,75 @@
+package com.cep.challenge.cep.util;
+
+/**
+ * Conversão entre o CEP textual e sua chave numérica: os 8 dígitos do CEP
+ * como {@code int} (ex. "01001-000" → 1001000). A ordem numérica das chaves é
+ * a mesma ordem hierárquica dos CEPs (região → sub-região → setor).
+ */
+public final class CepKeys {
+
+    public static final int INVALID = -1;
+    public static final int MIN = 0;
+    public static final int MAX = 99_999_999;
+
+    private CepKeys() {
+    }
+
+    /**
+     * Aceita "01001000", "01001-000" e "01.001-000", com espaços nas pontas.
+     * Não usa regex nem aloca objetos.
+     *
+     * @return a chave, ou {@link #INVALID} se o texto não for um CEP
+     */
+    public static int parse(CharSequence cep) {
+        if (cep == null) {
+            return INVALID;
+        }
+        int start = 0;
+        int end = cep.length();
+        while (start < end && Character.isWhitespace(cep.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(cep.charAt(end - 1))) {
+            end--;
+        }
+
+        int key = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = cep.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits == 8) {
+                    return INVALID;
+                }
+                key = key * 10 + (c - '0');
+                digits++;
+            } else if (c == '-' && digits == 5) {
+                if (i + 1 >= end || cep.charAt(i + 1) == '-') {
+                    return INVALID;
+                }
+            } else if (c == '.' && digits == 2) {
+                if (i + 1 >= end || cep.charAt(i + 1) == '.') {
+                    return INVALID;
+                }
+            } else {
+                return INVALID;
+            }
+        }
+        return digits == 8 ? key : INVALID;
+    }
+
+    /**
+     * Formata a chave como 8 dígitos, sem separadores (ex. 1001000 → "01001000").
+     */
+    public static String format(int key) {
+        if (key < MIN || key > MAX) {
+            throw new IllegalArgumentException("Chave de CEP inválida: " + key);
+        }
+        char[] chars = new char[8];
+        for (int i = 7; i >= 0; i--) {
+            chars[i] = (char) ('0' + key % 10);
+            key /= 10;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,37 @@
+package com.cep.challenge.cep.util;
+
+/**
+ * Faixas log-lineares para histogramas de latência: 4 faixas por potência de
+ * 2, então o limite superior de uma faixa fica no máximo 25% acima de
+ * qualquer valor dentro dela. Valores 0 a 3 têm faixa própria.
+ */
+public final class LogLinearBuckets {
+
+    private LogLinearBuckets() {
+    }
+
+    /**
+     * Faixa do valor (negativos contam como 0). Quem guarda as contagens em
+     * um array de tamanho fixo limita o resultado ao último índice.
+     */
+    public static int indexOf(long value) {
+        if (value < 4) {
+            return (int) Math.max(value, 0);
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        return 4 * (msb - 1) + (int) ((value >>> (msb - 2)) & 3);
+    }
+
+    /**
+     * Maior valor contido na faixa.
+     */
+    public static long upperBound(int index) {
+        if (index < 4) {
+            return index;
+        }
+        int msb = index / 4 + 1;
+        int sub = index % 4;
+        long width = 1L << (msb - 2);
+        return ((4L + sub) << (msb - 2)) + width - 1;
+    }
+}
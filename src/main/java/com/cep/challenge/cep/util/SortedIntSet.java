@@ -0,0 +1,131 @@
+package com.cep.challenge.cep.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto ordenado de {@code int} para índices lidos com muito mais
+ * frequência do que alterados.
+ * <p>
+ * As leituras usam um array primitivo ordenado e imutável, publicado por
+ * cópia, sem lock. Inserções e remoções só anotam a última operação de cada
+ * valor num mapa de pendências (O(1), sem lock global; um valor que já está
+ * no estado pedido nem isso) e são aplicadas em lote na leitura seguinte, ou
+ * por quem escreve quando as pendências passam de um oitavo do tamanho: uma
+ * cópia O(n + p log p) para p alterações, em vez de um deslocamento O(n) por
+ * alteração.
+ */
+public class SortedIntSet {
+
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private static final int MIN_PENDING_TO_MERGE = 1_024;
+
+    /** Valor → {@code true} para inserir, {@code false} para remover. */
+    private final ConcurrentHashMap<Integer, Boolean> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock mergeLock = new ReentrantLock();
+    private volatile int[] values = new int[0];
+
+    public void add(int value) {
+        change(value, Boolean.TRUE);
+    }
+
+    public void remove(int value) {
+        change(value, Boolean.FALSE);
+    }
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(current(), value) >= 0;
+    }
+
+    /**
+     * Menor valor estritamente maior que {@code value}, ou {@link #NONE}.
+     */
+    public int higher(int value) {
+        int[] sorted = current();
+        int index = Arrays.binarySearch(sorted, value);
+        int next = index >= 0 ? index + 1 : -index - 1;
+        return next < sorted.length ? sorted[next] : NONE;
+    }
+
+    public int size() {
+        return current().length;
+    }
+
+    public void clear() {
+        mergeLock.lock();
+        try {
+            pending.clear();
+            values = new int[0];
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    private void change(int value, Boolean present) {
+        if (!pending.containsKey(value) && (Arrays.binarySearch(values, value) >= 0) == present) {
+            return;
+        }
+        pending.put(value, present);
+        if (pending.size() >= Math.max(MIN_PENDING_TO_MERGE, values.length / 8) && mergeLock.tryLock()) {
+            try {
+                merge();
+            } finally {
+                mergeLock.unlock();
+            }
+        }
+    }
+
+    private int[] current() {
+        if (!pending.isEmpty()) {
+            mergeLock.lock();
+            try {
+                merge();
+            } finally {
+                mergeLock.unlock();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Aplica as pendências vistas agora. Cada uma só sai do mapa se não mudou
+     * desde então; uma operação mais nova fica para o próximo lote.
+     */
+    private void merge() {
+        List<Map.Entry<Integer, Boolean>> changes = new ArrayList<>(pending.entrySet());
+        if (changes.isEmpty()) {
+            return;
+        }
+        changes.sort(Map.Entry.comparingByKey());
+
+        int[] current = values;
+        int[] merged = new int[current.length + changes.size()];
+        int size = 0;
+        int i = 0;
+        for (Map.Entry<Integer, Boolean> change : changes) {
+            int value = change.getKey();
+            while (i < current.length && current[i] < value) {
+                merged[size++] = current[i++];
+            }
+            if (i < current.length && current[i] == value) {
+                i++;
+            }
+            if (change.getValue()) {
+                merged[size++] = value;
+            }
+        }
+        while (i < current.length) {
+            merged[size++] = current[i++];
+        }
+        values = size == merged.length ? merged : Arrays.copyOf(merged, size);
+
+        for (Map.Entry<Integer, Boolean> change : changes) {
+            pending.remove(change.getKey(), change.getValue());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.cep.challenge.cep.warmup;
+
+import com.cep.challenge.cep.metrics.CepMetrics.Outcome;
+import com.cep.challenge.cep.repository.QueryLogRepository;
+import com.cep.challenge.cep.service.CepService;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aquece o cache (e as conexões com a API externa) na subida com os CEPs mais
+ * consultados, lidos de {@code query_logs} ou de um arquivo
+ * ({@code app.cep.warm-up.*}).
+ * <p>
+ * Os CEPs passam por {@link CepService#prefetch(String)} com no máximo
+ * {@code concurrency} chamadas simultâneas e {@code rate-per-second} inícios
+ * por segundo, por até {@code timeout}. Como {@link ApplicationRunner}, com
+ * {@code wait-for-readiness} o aquecimento roda antes do
+ * {@code ApplicationReadyEvent}, então {@code /actuator/health/readiness} só
+ * fica UP ao final; sem ele, roda numa thread própria e a aplicação fica
+ * pronta imediatamente.
+ * <p>
+ * Métricas: {@code cep.warmup.ceps} (counter, por {@code result}),
+ * {@code cep.warmup.progress} (fração dos CEPs já resolvidos) e
+ * {@code cep.warmup.duration} (tempo decorrido, ou total ao terminar).
+ */
+@Component
+@Slf4j
+public class CacheWarmUp implements ApplicationRunner {
+
+    public enum Result {
+        LOADED, CACHED, NOT_FOUND, ERROR;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final CepService cepService;
+    private final QueryLogRepository queryLogRepository;
+    private final AppProperties.WarmUp config;
+    private final Counter[] results;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger done = new AtomicInteger();
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    public CacheWarmUp(CepService cepService, QueryLogRepository queryLogRepository, AppProperties props,
+                       MeterRegistry registry) {
+        this.cepService = cepService;
+        this.queryLogRepository = queryLogRepository;
+        this.config = props.getWarmUp();
+
+        Result[] values = Result.values();
+        results = new Counter[values.length];
+        for (Result result : values) {
+            results[result.ordinal()] = Counter.builder("cep.warmup.ceps")
+                    .description("CEPs processados no aquecimento do cache")
+                    .tag("result", result.tag)
+                    .register(registry);
+        }
+        Gauge.builder("cep.warmup.progress", this, CacheWarmUp::progress)
+                .description("Fração dos CEPs do aquecimento já resolvidos")
+                .strongReference(true)
+                .register(registry);
+        TimeGauge.builder("cep.warmup.duration", this, TimeUnit.NANOSECONDS, CacheWarmUp::elapsedNanos)
+                .description("Duração do aquecimento do cache")
+                .strongReference(true)
+                .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (config.isWaitForReadiness()) {
+            warmUp();
+        } else {
+            Thread thread = new Thread(this::warmUp, "cep-warm-up");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Um aquecimento completo; devolve quantos CEPs terminaram em cada resultado.
+     */
+    public Summary warmUp() {
+        startNanos = System.nanoTime();
+        endNanos = 0;
+        done.set(0);
+        long[] counts = new long[Result.values().length];
+        try {
+            List<String> ceps = loadCeps();
+            total.set(ceps.size());
+            if (ceps.isEmpty()) {
+                log.info("🔥 Aquecimento do cache: nenhum CEP para carregar ({})", config.getSource());
+                return Summary.of(0, counts, Duration.ZERO);
+            }
+            log.info("🔥 Aquecendo cache com {} CEPs ({}, concorrência {}, {}/s)",
+                    ceps.size(), config.getSource(), config.getConcurrency(), config.getRatePerSecond());
+
+            Flux<String> paced = config.getRatePerSecond() > 0
+                    ? Flux.fromIterable(ceps).delayElements(Duration.ofNanos(1_000_000_000L / config.getRatePerSecond()))
+                    : Flux.fromIterable(ceps);
+            paced.flatMap(cep -> cepService.prefetch(cep)
+                                    .map(loaded -> loaded ? Result.LOADED : Result.CACHED)
+                                    .onErrorResume(e -> Mono.just(Outcome.of(e) == Outcome.NOT_FOUND
+                                            ? Result.NOT_FOUND : Result.ERROR)),
+                            config.getConcurrency())
+                    .take(config.getTimeout())
+                    .doOnNext(result -> {
+                        synchronized (counts) {
+                            counts[result.ordinal()]++;
+                        }
+                        results[result.ordinal()].increment();
+                        done.incrementAndGet();
+                    })
+                    .blockLast();
+        } catch (RuntimeException e) {
+            log.error("❌ Erro no aquecimento do cache: {}", e.getMessage());
+        } finally {
+            endNanos = System.nanoTime();
+        }
+
+        Summary summary = Summary.of(total.get(), counts, Duration.ofNanos(endNanos - startNanos));
+        if (summary.completed() < summary.total()) {
+            log.warn("🔥 Aquecimento interrompido após {}: {} de {} CEPs", config.getTimeout(),
+                    summary.completed(), summary.total());
+        }
+        log.info("🔥 Aquecimento do cache concluído em {}ms: {} carregados, {} já em cache, {} não encontrados, {} erros",
+                summary.duration().toMillis(), summary.loaded(), summary.cached(), summary.notFound(), summary.errors());
+        return summary;
+    }
+
+    private List<String> loadCeps() {
+        if (config.getSource() == AppProperties.WarmUp.Source.FILE) {
+            return readSnapshot(Path.of(config.getSnapshotFile()));
+        }
+        LocalDateTime since = LocalDateTime.now().minus(config.getLookback());
+        return queryLogRepository.findTopCeps(since, PageRequest.of(0, config.getTopN()));
+    }
+
+    /**
+     * Um CEP por linha; linhas vazias e iniciadas por {@code #} são ignoradas,
+     * assim como CEPs inválidos e repetições.
+     */
+    private List<String> readSnapshot(Path file) {
+        if (!Files.exists(file)) {
+            log.warn("⚠️  Arquivo de aquecimento {} não encontrado", file);
+            return List.of();
+        }
+        Set<String> ceps = new LinkedHashSet<>();
+        try {
+            for (String line : Files.readAllLines(file)) {
+                int key = CepKeys.parse(line);
+                if (key != CepKeys.INVALID) {
+                    ceps.add(CepKeys.format(key));
+                    if (ceps.size() == config.getTopN()) {
+                        break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("❌ Erro ao ler arquivo de aquecimento {}: {}", file, e.getMessage());
+            return List.of();
+        }
+        return new ArrayList<>(ceps);
+    }
+
+    private double progress() {
+        int size = total.get();
+        if (size == 0) {
+            return endNanos != 0 ? 1 : 0;
+        }
+        return (double) done.get() / size;
+    }
+
+    private double elapsedNanos() {
+        long start = startNanos;
+        if (start == 0) {
+            return 0;
+        }
+        long end = endNanos;
+        return (end != 0 ? end : System.nanoTime()) - start;
+    }
+
+    public record Summary(int total, long loaded, long cached, long notFound, long errors, Duration duration) {
+
+        static Summary of(int total, long[] counts, Duration duration) {
+            return new Summary(total, counts[Result.LOADED.ordinal()], counts[Result.CACHED.ordinal()],
+                    counts[Result.NOT_FOUND.ordinal()], counts[Result.ERROR.ordinal()], duration);
+        }
+
+        public long completed() {
+            return loaded + cached + notFound + errors;
+        }
+    }
+}
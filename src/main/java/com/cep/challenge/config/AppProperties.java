@@ -2,9 +2,30 @@ package com.cep.challenge.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @ConfigurationProperties(prefix = "app.cep")
 public class AppProperties {
 	private String baseUrl;
+	private List<Upstream> upstreams = new ArrayList<>();
+	private Routing routing = new Routing();
+	private CircuitBreaker circuitBreaker = new CircuitBreaker();
+	private ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+	private Cache cache = new Cache();
+	private PersistentCache persistentCache = new PersistentCache();
+	private QueryLogSettings queryLog = new QueryLogSettings();
+	private Batch batch = new Batch();
+	private Offline offline = new Offline();
+	private Range range = new Range();
+	private Stats stats = new Stats();
+	private Retention retention = new Retention();
+	private WarmUp warmUp = new WarmUp();
+	private Export export = new Export();
+	private HttpCache httpCache = new HttpCache();
+	private Invalidation invalidation = new Invalidation();
+	private Prefetch prefetch = new Prefetch();
 
 	public String getBaseUrl() {
 		return baseUrl;
@@ -13,6 +34,1260 @@ public class AppProperties {
 	public void setBaseUrl(String baseUrl) {
 		this.baseUrl = baseUrl;
 	}
-}
 
+	public List<Upstream> getUpstreams() {
+		return upstreams;
+	}
+
+	public void setUpstreams(List<Upstream> upstreams) {
+		this.upstreams = upstreams;
+	}
+
+	public Routing getRouting() {
+		return routing;
+	}
+
+	public void setRouting(Routing routing) {
+		this.routing = routing;
+	}
+
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	public ConcurrencyLimit getConcurrencyLimit() {
+		return concurrencyLimit;
+	}
+
+	public void setConcurrencyLimit(ConcurrencyLimit concurrencyLimit) {
+		this.concurrencyLimit = concurrencyLimit;
+	}
+
+	public Cache getCache() {
+		return cache;
+	}
+
+	public void setCache(Cache cache) {
+		this.cache = cache;
+	}
+
+	public PersistentCache getPersistentCache() {
+		return persistentCache;
+	}
+
+	public void setPersistentCache(PersistentCache persistentCache) {
+		this.persistentCache = persistentCache;
+	}
+
+	public QueryLogSettings getQueryLog() {
+		return queryLog;
+	}
+
+	public void setQueryLog(QueryLogSettings queryLog) {
+		this.queryLog = queryLog;
+	}
+
+	public Batch getBatch() {
+		return batch;
+	}
+
+	public void setBatch(Batch batch) {
+		this.batch = batch;
+	}
+
+	public Offline getOffline() {
+		return offline;
+	}
+
+	public void setOffline(Offline offline) {
+		this.offline = offline;
+	}
+
+	public Range getRange() {
+		return range;
+	}
+
+	public void setRange(Range range) {
+		this.range = range;
+	}
+
+	public Stats getStats() {
+		return stats;
+	}
+
+	public void setStats(Stats stats) {
+		this.stats = stats;
+	}
+
+	public Retention getRetention() {
+		return retention;
+	}
+
+	public void setRetention(Retention retention) {
+		this.retention = retention;
+	}
+
+	public WarmUp getWarmUp() {
+		return warmUp;
+	}
+
+	public void setWarmUp(WarmUp warmUp) {
+		this.warmUp = warmUp;
+	}
+
+	public Export getExport() {
+		return export;
+	}
+
+	public void setExport(Export export) {
+		this.export = export;
+	}
+
+	public HttpCache getHttpCache() {
+		return httpCache;
+	}
+
+	public void setHttpCache(HttpCache httpCache) {
+		this.httpCache = httpCache;
+	}
+
+	public Invalidation getInvalidation() {
+		return invalidation;
+	}
+
+	public void setInvalidation(Invalidation invalidation) {
+		this.invalidation = invalidation;
+	}
+
+	public Prefetch getPrefetch() {
+		return prefetch;
+	}
+
+	public void setPrefetch(Prefetch prefetch) {
+		this.prefetch = prefetch;
+	}
+
+	/**
+	 * Cache em memória dos CEPs consultados ({@code app.cep.cache.*}).
+	 */
+	public static class Cache {
+		private boolean enabled = true;
+		private Duration ttl = Duration.ofHours(24);
+		private Duration negativeTtl = Duration.ofMinutes(5);
+		/**
+		 * Por quanto tempo após {@code ttl} uma resposta ainda pode ser servida
+		 * como "stale" enquanto é atualizada em segundo plano (0 desliga).
+		 */
+		private Duration staleTtl = Duration.ofDays(7);
+		private long maxSize = 100_000;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getTtl() {
+			return ttl;
+		}
+
+		public void setTtl(Duration ttl) {
+			this.ttl = ttl;
+		}
+
+		public Duration getNegativeTtl() {
+			return negativeTtl;
+		}
+
+		public void setNegativeTtl(Duration negativeTtl) {
+			this.negativeTtl = negativeTtl;
+		}
+
+		public Duration getStaleTtl() {
+			return staleTtl;
+		}
+
+		public void setStaleTtl(Duration staleTtl) {
+			this.staleTtl = staleTtl;
+		}
+
+		public long getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(long maxSize) {
+			this.maxSize = maxSize;
+		}
+	}
+
+	/**
+	 * Persistência dos logs de consulta ({@code app.cep.query-log.*}).
+	 */
+	public static class QueryLogSettings {
+
+		public enum Mode {
+			/** Grava cada log na thread da requisição (durabilidade estrita). */
+			SYNC,
+			/** Enfileira os logs e grava em lotes numa thread de fundo. */
+			WRITE_BEHIND
+		}
+
+		public enum OverflowPolicy {
+			/** Descarta o log quando a fila está cheia. */
+			DROP,
+			/** Aguarda até {@code offer-timeout} por espaço na fila e então descarta. */
+			BLOCK,
+			/** Grava o log na própria thread da requisição. */
+			CALLER_RUNS
+		}
+
+		private Mode mode = Mode.SYNC;
+		private int queueCapacity = 10_000;
+		private int batchSize = 500;
+		private Duration flushInterval = Duration.ofMillis(200);
+		private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+		private Duration offerTimeout = Duration.ofMillis(50);
+		private int offloadThreads = 4;
+		private int offloadQueueCapacity = 10_000;
+
+		public Mode getMode() {
+			return mode;
+		}
+
+		public void setMode(Mode mode) {
+			this.mode = mode;
+		}
+
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+		public int getBatchSize() {
+			return batchSize;
+		}
+
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+
+		public Duration getFlushInterval() {
+			return flushInterval;
+		}
+
+		public void setFlushInterval(Duration flushInterval) {
+			this.flushInterval = flushInterval;
+		}
+
+		public OverflowPolicy getOverflowPolicy() {
+			return overflowPolicy;
+		}
+
+		public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+			this.overflowPolicy = overflowPolicy;
+		}
+
+		public Duration getOfferTimeout() {
+			return offerTimeout;
+		}
+
+		public void setOfferTimeout(Duration offerTimeout) {
+			this.offerTimeout = offerTimeout;
+		}
+
+		public int getOffloadThreads() {
+			return offloadThreads;
+		}
+
+		public void setOffloadThreads(int offloadThreads) {
+			this.offloadThreads = offloadThreads;
+		}
+
+		public int getOffloadQueueCapacity() {
+			return offloadQueueCapacity;
+		}
+
+		public void setOffloadQueueCapacity(int offloadQueueCapacity) {
+			this.offloadQueueCapacity = offloadQueueCapacity;
+		}
+	}
+
+	/**
+	 * Consulta em lote ({@code app.cep.batch.*}).
+	 */
+	public static class Batch {
+		private int maxSize = 1_000;
+		private int concurrency = 16;
+
+		public int getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public int getConcurrency() {
+			return concurrency;
+		}
+
+		public void setConcurrency(int concurrency) {
+			this.concurrency = concurrency;
+		}
+	}
+
+	/**
+	 * Base offline de CEPs ({@code app.cep.offline.*}).
+	 */
+	public static class Offline {
+
+		public enum Mode {
+			/** Somente a API externa (base offline desligada). */
+			REMOTE_ONLY,
+			/** Base offline primeiro; CEPs ausentes seguem para a API externa. */
+			OFFLINE_THEN_REMOTE,
+			/** Somente a base offline; CEPs ausentes são "não encontrado". */
+			OFFLINE_ONLY
+		}
+
+		private Mode mode = Mode.REMOTE_ONLY;
+		/** Arquivo binário lido via mmap. */
+		private String datasetFile = "data/ceps.dat";
+		/** CSV/JSON convertido para {@code dataset-file} quando for mais novo que ele. */
+		private String importFile;
+		/** Intervalo de verificação de um novo arquivo para troca a quente. */
+		private Duration reloadInterval = Duration.ofSeconds(30);
+
+		public Mode getMode() {
+			return mode;
+		}
+
+		public void setMode(Mode mode) {
+			this.mode = mode;
+		}
+
+		public String getDatasetFile() {
+			return datasetFile;
+		}
+
+		public void setDatasetFile(String datasetFile) {
+			this.datasetFile = datasetFile;
+		}
+
+		public String getImportFile() {
+			return importFile;
+		}
+
+		public void setImportFile(String importFile) {
+			this.importFile = importFile;
+		}
+
+		public Duration getReloadInterval() {
+			return reloadInterval;
+		}
+
+		public void setReloadInterval(Duration reloadInterval) {
+			this.reloadInterval = reloadInterval;
+		}
+	}
+
+	/**
+	 * Consultas por prefixo e faixa ({@code app.cep.range.*}).
+	 */
+	public static class Range {
+		private int defaultLimit = 100;
+		private int maxLimit = 1_000;
+
+		public int getDefaultLimit() {
+			return defaultLimit;
+		}
+
+		public void setDefaultLimit(int defaultLimit) {
+			this.defaultLimit = defaultLimit;
+		}
+
+		public int getMaxLimit() {
+			return maxLimit;
+		}
+
+		public void setMaxLimit(int maxLimit) {
+			this.maxLimit = maxLimit;
+		}
+	}
+
+	/**
+	 * Um provedor de CEP ({@code app.cep.upstreams[*]}). Sem nenhum configurado,
+	 * usa-se um único provedor em {@code base-url} com o template padrão.
+	 */
+	public static class Upstream {
+		private String name;
+		private String baseUrl;
+		/** Caminho relativo a {@code base-url}; {@code {cep}} é substituído pelo CEP. */
+		private String uriTemplate = "/cep/{cep}";
+		private Duration connectTimeout = Duration.ofSeconds(1);
+		/** Tempo máximo até a resposta completa. */
+		private Duration readTimeout = Duration.ofSeconds(3);
+		private int maxConnections = 100;
+		/** Espera máxima por uma conexão livre do pool. */
+		private Duration pendingAcquireTimeout = Duration.ofMillis(500);
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getBaseUrl() {
+			return baseUrl;
+		}
+
+		public void setBaseUrl(String baseUrl) {
+			this.baseUrl = baseUrl;
+		}
+
+		public String getUriTemplate() {
+			return uriTemplate;
+		}
+
+		public void setUriTemplate(String uriTemplate) {
+			this.uriTemplate = uriTemplate;
+		}
+
+		public Duration getConnectTimeout() {
+			return connectTimeout;
+		}
+
+		public void setConnectTimeout(Duration connectTimeout) {
+			this.connectTimeout = connectTimeout;
+		}
+
+		public Duration getReadTimeout() {
+			return readTimeout;
+		}
+
+		public void setReadTimeout(Duration readTimeout) {
+			this.readTimeout = readTimeout;
+		}
+
+		public int getMaxConnections() {
+			return maxConnections;
+		}
+
+		public void setMaxConnections(int maxConnections) {
+			this.maxConnections = maxConnections;
+		}
+
+		public Duration getPendingAcquireTimeout() {
+			return pendingAcquireTimeout;
+		}
+
+		public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+			this.pendingAcquireTimeout = pendingAcquireTimeout;
+		}
+	}
+
+	/**
+	 * Escolha entre os provedores e hedging ({@code app.cep.routing.*}).
+	 */
+	public static class Routing {
+		/** Peso da amostra mais recente na média móvel (EWMA) de latência. */
+		private double ewmaAlpha = 0.2;
+		/** Dispara uma segunda chamada a outro provedor se a primeira demorar. */
+		private boolean hedgingEnabled = false;
+		/** Percentil de latência do provedor usado como espera antes do hedge. */
+		private double hedgePercentile = 0.95;
+		private Duration hedgeMinDelay = Duration.ofMillis(10);
+		/** Espera usada também enquanto o provedor tem poucas amostras. */
+		private Duration hedgeMaxDelay = Duration.ofSeconds(1);
+		private int hedgeMinSamples = 20;
+
+		public double getEwmaAlpha() {
+			return ewmaAlpha;
+		}
+
+		public void setEwmaAlpha(double ewmaAlpha) {
+			this.ewmaAlpha = ewmaAlpha;
+		}
+
+		public boolean isHedgingEnabled() {
+			return hedgingEnabled;
+		}
+
+		public void setHedgingEnabled(boolean hedgingEnabled) {
+			this.hedgingEnabled = hedgingEnabled;
+		}
+
+		public double getHedgePercentile() {
+			return hedgePercentile;
+		}
+
+		public void setHedgePercentile(double hedgePercentile) {
+			this.hedgePercentile = hedgePercentile;
+		}
+
+		public Duration getHedgeMinDelay() {
+			return hedgeMinDelay;
+		}
+
+		public void setHedgeMinDelay(Duration hedgeMinDelay) {
+			this.hedgeMinDelay = hedgeMinDelay;
+		}
+
+		public Duration getHedgeMaxDelay() {
+			return hedgeMaxDelay;
+		}
+
+		public void setHedgeMaxDelay(Duration hedgeMaxDelay) {
+			this.hedgeMaxDelay = hedgeMaxDelay;
+		}
+
+		public int getHedgeMinSamples() {
+			return hedgeMinSamples;
+		}
+
+		public void setHedgeMinSamples(int hedgeMinSamples) {
+			this.hedgeMinSamples = hedgeMinSamples;
+		}
+	}
+
+	/**
+	 * Circuit breaker de cada provedor ({@code app.cep.circuit-breaker.*}).
+	 */
+	public static class CircuitBreaker {
+		private boolean enabled = true;
+		/** Quantidade de chamadas recentes avaliadas. */
+		private int windowSize = 20;
+		/** Mínimo de chamadas na janela antes de o circuito poder abrir. */
+		private int minimumCalls = 10;
+		/** Fração de falhas (erros, timeouts e chamadas lentas) que abre o circuito. */
+		private double failureRateThreshold = 0.5;
+		/** Chamadas acima deste tempo contam como falha, mesmo com resposta. */
+		private Duration slowCallThreshold = Duration.ofSeconds(2);
+		/** Tempo aberto antes de liberar chamadas de teste. */
+		private Duration openDuration = Duration.ofSeconds(10);
+		/** Chamadas de teste no estado semiaberto; todas precisam dar certo para fechar. */
+		private int halfOpenCalls = 3;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
 
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getWindowSize() {
+			return windowSize;
+		}
+
+		public void setWindowSize(int windowSize) {
+			this.windowSize = windowSize;
+		}
+
+		public int getMinimumCalls() {
+			return minimumCalls;
+		}
+
+		public void setMinimumCalls(int minimumCalls) {
+			this.minimumCalls = minimumCalls;
+		}
+
+		public double getFailureRateThreshold() {
+			return failureRateThreshold;
+		}
+
+		public void setFailureRateThreshold(double failureRateThreshold) {
+			this.failureRateThreshold = failureRateThreshold;
+		}
+
+		public Duration getSlowCallThreshold() {
+			return slowCallThreshold;
+		}
+
+		public void setSlowCallThreshold(Duration slowCallThreshold) {
+			this.slowCallThreshold = slowCallThreshold;
+		}
+
+		public Duration getOpenDuration() {
+			return openDuration;
+		}
+
+		public void setOpenDuration(Duration openDuration) {
+			this.openDuration = openDuration;
+		}
+
+		public int getHalfOpenCalls() {
+			return halfOpenCalls;
+		}
+
+		public void setHalfOpenCalls(int halfOpenCalls) {
+			this.halfOpenCalls = halfOpenCalls;
+		}
+	}
+
+	/**
+	 * Limite adaptativo de chamadas simultâneas à API externa ({@code app.cep.concurrency-limit.*}).
+	 */
+	public static class ConcurrencyLimit {
+		private boolean enabled = true;
+		private int initialLimit = 20;
+		private int minLimit = 2;
+		private int maxLimit = 200;
+		/** Fator aplicado ao limite quando a API dá sinal de fila (latência alta, erro ou timeout). */
+		private double backoffRatio = 0.9;
+		/** Latência acima deste múltiplo da referência (média móvel das latências) é sinal de fila. */
+		private double rttTolerance = 2.0;
+		/** Peso da média de referência, em amostras: quanto maior, mais devagar ela acompanha a API. */
+		private int baselineSamples = 100;
+		/** Consultas que podem aguardar uma vaga; além disso são recusadas de imediato. */
+		private int maxQueue = 100;
+		/** Espera máxima por uma vaga antes de recusar com 503. */
+		private Duration maxWait = Duration.ofMillis(100);
+		/** Valor do cabeçalho {@code Retry-After} das consultas recusadas. */
+		private Duration retryAfter = Duration.ofSeconds(1);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getInitialLimit() {
+			return initialLimit;
+		}
+
+		public void setInitialLimit(int initialLimit) {
+			this.initialLimit = initialLimit;
+		}
+
+		public int getMinLimit() {
+			return minLimit;
+		}
+
+		public void setMinLimit(int minLimit) {
+			this.minLimit = minLimit;
+		}
+
+		public int getMaxLimit() {
+			return maxLimit;
+		}
+
+		public void setMaxLimit(int maxLimit) {
+			this.maxLimit = maxLimit;
+		}
+
+		public double getBackoffRatio() {
+			return backoffRatio;
+		}
+
+		public void setBackoffRatio(double backoffRatio) {
+			this.backoffRatio = backoffRatio;
+		}
+
+		public double getRttTolerance() {
+			return rttTolerance;
+		}
+
+		public void setRttTolerance(double rttTolerance) {
+			this.rttTolerance = rttTolerance;
+		}
+
+		public int getBaselineSamples() {
+			return baselineSamples;
+		}
+
+		public void setBaselineSamples(int baselineSamples) {
+			this.baselineSamples = baselineSamples;
+		}
+
+		public int getMaxQueue() {
+			return maxQueue;
+		}
+
+		public void setMaxQueue(int maxQueue) {
+			this.maxQueue = maxQueue;
+		}
+
+		public Duration getMaxWait() {
+			return maxWait;
+		}
+
+		public void setMaxWait(Duration maxWait) {
+			this.maxWait = maxWait;
+		}
+
+		public Duration getRetryAfter() {
+			return retryAfter;
+		}
+
+		public void setRetryAfter(Duration retryAfter) {
+			this.retryAfter = retryAfter;
+		}
+	}
+
+	/**
+	 * Estatísticas em memória das consultas ({@code GET /api/ceps/stats}).
+	 */
+	public static class Stats {
+		private boolean enabled = true;
+		/** Resolução das janelas: cada faixa de tempo acumula suas próprias contagens. */
+		private Duration bucketDuration = Duration.ofMinutes(1);
+		/** Maior janela consultável; define quantas faixas ficam em memória. */
+		private Duration retention = Duration.ofHours(24);
+		private Duration defaultWindow = Duration.ofHours(1);
+		/** CEPs monitorados por faixa para o top-K (Space-Saving). */
+		private int topKCapacity = 64;
+		private int defaultTop = 10;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getBucketDuration() {
+			return bucketDuration;
+		}
+
+		public void setBucketDuration(Duration bucketDuration) {
+			this.bucketDuration = bucketDuration;
+		}
+
+		public Duration getRetention() {
+			return retention;
+		}
+
+		public void setRetention(Duration retention) {
+			this.retention = retention;
+		}
+
+		public Duration getDefaultWindow() {
+			return defaultWindow;
+		}
+
+		public void setDefaultWindow(Duration defaultWindow) {
+			this.defaultWindow = defaultWindow;
+		}
+
+		public int getTopKCapacity() {
+			return topKCapacity;
+		}
+
+		public void setTopKCapacity(int topKCapacity) {
+			this.topKCapacity = topKCapacity;
+		}
+
+		public int getDefaultTop() {
+			return defaultTop;
+		}
+
+		public void setDefaultTop(int defaultTop) {
+			this.defaultTop = defaultTop;
+		}
+	}
+
+	/**
+	 * Consolidação e retenção de {@code query_logs} ({@code app.cep.retention.*}).
+	 */
+	public static class Retention {
+		private boolean enabled = true;
+		/** Intervalo entre execuções do job (partições, consolidação e retenção). */
+		private Duration interval = Duration.ofMinutes(5);
+		/** Espera após o fim de uma hora antes de consolidá-la (logs gravados em lote chegam depois). */
+		private Duration rollupDelay = Duration.ofMinutes(5);
+		/** Partições diárias criadas com antecedência (Postgres). */
+		private int premakeDays = 3;
+		/** Por quanto tempo os logs brutos são mantidos. */
+		private Duration raw = Duration.ofDays(30);
+		private Duration hourly = Duration.ofDays(90);
+		private Duration daily = Duration.ofDays(730);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getInterval() {
+			return interval;
+		}
+
+		public void setInterval(Duration interval) {
+			this.interval = interval;
+		}
+
+		public Duration getRollupDelay() {
+			return rollupDelay;
+		}
+
+		public void setRollupDelay(Duration rollupDelay) {
+			this.rollupDelay = rollupDelay;
+		}
+
+		public int getPremakeDays() {
+			return premakeDays;
+		}
+
+		public void setPremakeDays(int premakeDays) {
+			this.premakeDays = premakeDays;
+		}
+
+		public Duration getRaw() {
+			return raw;
+		}
+
+		public void setRaw(Duration raw) {
+			this.raw = raw;
+		}
+
+		public Duration getHourly() {
+			return hourly;
+		}
+
+		public void setHourly(Duration hourly) {
+			this.hourly = hourly;
+		}
+
+		public Duration getDaily() {
+			return daily;
+		}
+
+		public void setDaily(Duration daily) {
+			this.daily = daily;
+		}
+	}
+
+	/**
+	 * Aquecimento do cache na subida ({@code app.cep.warm-up.*}).
+	 */
+	public static class WarmUp {
+
+		public enum Source {
+			/** CEPs mais consultados em {@code query_logs} nos últimos {@code lookback}. */
+			QUERY_LOGS,
+			/** Um CEP por linha em {@code snapshot-file}, do mais para o menos consultado. */
+			FILE
+		}
+
+		private boolean enabled = true;
+		private Source source = Source.QUERY_LOGS;
+		private String snapshotFile = "data/warm-up-ceps.txt";
+		private int topN = 1_000;
+		private Duration lookback = Duration.ofDays(7);
+		/** Chamadas simultâneas à API externa durante o aquecimento. */
+		private int concurrency = 8;
+		/** Máximo de CEPs iniciados por segundo (0 = sem limite). */
+		private int ratePerSecond = 50;
+		/** Depois disso o aquecimento é interrompido e a aplicação segue. */
+		private Duration timeout = Duration.ofMinutes(2);
+		/** {@code true}: a aplicação só fica pronta (readiness) depois do aquecimento. */
+		private boolean waitForReadiness = false;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Source getSource() {
+			return source;
+		}
+
+		public void setSource(Source source) {
+			this.source = source;
+		}
+
+		public String getSnapshotFile() {
+			return snapshotFile;
+		}
+
+		public void setSnapshotFile(String snapshotFile) {
+			this.snapshotFile = snapshotFile;
+		}
+
+		public int getTopN() {
+			return topN;
+		}
+
+		public void setTopN(int topN) {
+			this.topN = topN;
+		}
+
+		public Duration getLookback() {
+			return lookback;
+		}
+
+		public void setLookback(Duration lookback) {
+			this.lookback = lookback;
+		}
+
+		public int getConcurrency() {
+			return concurrency;
+		}
+
+		public void setConcurrency(int concurrency) {
+			this.concurrency = concurrency;
+		}
+
+		public int getRatePerSecond() {
+			return ratePerSecond;
+		}
+
+		public void setRatePerSecond(int ratePerSecond) {
+			this.ratePerSecond = ratePerSecond;
+		}
+
+		public Duration getTimeout() {
+			return timeout;
+		}
+
+		public void setTimeout(Duration timeout) {
+			this.timeout = timeout;
+		}
+
+		public boolean isWaitForReadiness() {
+			return waitForReadiness;
+		}
+
+		public void setWaitForReadiness(boolean waitForReadiness) {
+			this.waitForReadiness = waitForReadiness;
+		}
+	}
+
+	/**
+	 * Segundo nível de cache, na tabela {@code cep_cache} ({@code app.cep.persistent-cache.*}).
+	 */
+	public static class PersistentCache {
+		private boolean enabled = true;
+		/** Validade de uma resposta gravada, contada a partir da consulta à API externa. */
+		private Duration ttl = Duration.ofDays(30);
+		/** Intervalo entre remoções das entradas vencidas. */
+		private Duration compactionInterval = Duration.ofHours(1);
+		/** Gravações pendentes; com a fila cheia a gravação é descartada. */
+		private int queueCapacity = 10_000;
+		private int batchSize = 200;
+		private Duration flushInterval = Duration.ofMillis(500);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getTtl() {
+			return ttl;
+		}
+
+		public void setTtl(Duration ttl) {
+			this.ttl = ttl;
+		}
+
+		public Duration getCompactionInterval() {
+			return compactionInterval;
+		}
+
+		public void setCompactionInterval(Duration compactionInterval) {
+			this.compactionInterval = compactionInterval;
+		}
+
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+		public int getBatchSize() {
+			return batchSize;
+		}
+
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+
+		public Duration getFlushInterval() {
+			return flushInterval;
+		}
+
+		public void setFlushInterval(Duration flushInterval) {
+			this.flushInterval = flushInterval;
+		}
+	}
+
+	/**
+	 * Exportação de {@code query_logs} em {@code GET /api/query-logs/export}
+	 * ({@code app.cep.export.*}).
+	 */
+	public static class Export {
+		/** Linhas trazidas do banco por vez; o cursor nunca guarda mais que isso na memória. */
+		private int fetchSize = 1_000;
+
+		public int getFetchSize() {
+			return fetchSize;
+		}
+
+		public void setFetchSize(int fetchSize) {
+			this.fetchSize = fetchSize;
+		}
+	}
+
+	/**
+	 * Cabeçalhos de cache HTTP de {@code GET /api/ceps/{cep}} ({@code app.cep.http-cache.*}).
+	 */
+	public static class HttpCache {
+		/** {@code Cache-Control: max-age} das respostas atuais; 0 = {@code no-cache}. Respostas stale são sempre {@code no-cache}. */
+		private Duration maxAge = Duration.ofHours(1);
+
+		public Duration getMaxAge() {
+			return maxAge;
+		}
+
+		public void setMaxAge(Duration maxAge) {
+			this.maxAge = maxAge;
+		}
+	}
+
+	/**
+	 * Propagação de invalidações do cache entre instâncias ({@code app.cep.invalidation.*}).
+	 */
+	public static class Invalidation {
+		/** Como as invalidações chegam às outras instâncias; {@code none} = só a instância local. */
+		private Transport transport = Transport.NONE;
+		/** {@code jdbc}: intervalo entre leituras de {@code cache_invalidations}; é o atraso máximo de propagação. */
+		private Duration pollInterval = Duration.ofSeconds(1);
+		/** {@code jdbc}: cada leitura volta este tempo para pegar inserções confirmadas fora de ordem. */
+		private Duration pollOverlap = Duration.ofSeconds(5);
+		/** {@code jdbc}: invalidações mais antigas são apagadas da tabela. */
+		private Duration retention = Duration.ofHours(1);
+		private String multicastGroup = "239.255.42.99";
+		private int multicastPort = 4446;
+		/** {@code multicast}: interface de rede; {@code null} = loopback (instâncias na mesma máquina). */
+		private String multicastInterface = null;
+		/** {@code multicast}: 0 mantém os pacotes na própria máquina. */
+		private int multicastTtl = 0;
+
+		public Transport getTransport() {
+			return transport;
+		}
+
+		public void setTransport(Transport transport) {
+			this.transport = transport;
+		}
+
+		public Duration getPollInterval() {
+			return pollInterval;
+		}
+
+		public void setPollInterval(Duration pollInterval) {
+			this.pollInterval = pollInterval;
+		}
+
+		public Duration getPollOverlap() {
+			return pollOverlap;
+		}
+
+		public void setPollOverlap(Duration pollOverlap) {
+			this.pollOverlap = pollOverlap;
+		}
+
+		public Duration getRetention() {
+			return retention;
+		}
+
+		public void setRetention(Duration retention) {
+			this.retention = retention;
+		}
+
+		public String getMulticastGroup() {
+			return multicastGroup;
+		}
+
+		public void setMulticastGroup(String multicastGroup) {
+			this.multicastGroup = multicastGroup;
+		}
+
+		public int getMulticastPort() {
+			return multicastPort;
+		}
+
+		public void setMulticastPort(int multicastPort) {
+			this.multicastPort = multicastPort;
+		}
+
+		public String getMulticastInterface() {
+			return multicastInterface;
+		}
+
+		public void setMulticastInterface(String multicastInterface) {
+			this.multicastInterface = multicastInterface;
+		}
+
+		public int getMulticastTtl() {
+			return multicastTtl;
+		}
+
+		public void setMulticastTtl(int multicastTtl) {
+			this.multicastTtl = multicastTtl;
+		}
+
+		public enum Transport {
+			NONE, JDBC, MULTICAST
+		}
+	}
+
+	/**
+	 * Prefetch dos CEPs que costumam ser consultados em seguida ({@code app.cep.prefetch.*}).
+	 */
+	public static class Prefetch {
+		private boolean enabled = true;
+		/** Prefetches à API externa por consulta de demanda: teto como fração do QPS da API. */
+		private double budgetRatio = 0.1;
+		/** Prefetches acumulados no máximo quando a demanda cai. */
+		private int burst = 20;
+		/** Só busca com menos desta fração do limite de concorrência em uso e ninguém na fila. */
+		private double maxUtilization = 0.5;
+		/** Consultas com até este intervalo entre si contam como pedidas juntas. */
+		private Duration window = Duration.ofSeconds(5);
+		/** Consultas anteriores com que cada nova consulta é pareada. */
+		private int recentLookups = 8;
+		/** Maior distância numérica entre CEPs vizinhos (mesma rua ou setor). */
+		private int adjacencyRadius = 20;
+		/** CEPs buscados no máximo a cada consulta. */
+		private int maxCandidates = 3;
+		/** Vezes que um par precisa ter sido visto para virar previsão. */
+		private int minSupport = 3;
+		/** Fração mínima das vezes em que o CEP seguinte veio depois do atual. */
+		private double minConfidence = 0.3;
+		/** CEPs com sucessores aprendidos mantidos em memória. */
+		private int maxSources = 50000;
+		private int successorsPerSource = 8;
+		/** Sucessores de um CEP não consultado neste tempo são esquecidos. */
+		private Duration patternTtl = Duration.ofHours(1);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public double getBudgetRatio() {
+			return budgetRatio;
+		}
+
+		public void setBudgetRatio(double budgetRatio) {
+			this.budgetRatio = budgetRatio;
+		}
+
+		public int getBurst() {
+			return burst;
+		}
+
+		public void setBurst(int burst) {
+			this.burst = burst;
+		}
+
+		public double getMaxUtilization() {
+			return maxUtilization;
+		}
+
+		public void setMaxUtilization(double maxUtilization) {
+			this.maxUtilization = maxUtilization;
+		}
+
+		public Duration getWindow() {
+			return window;
+		}
+
+		public void setWindow(Duration window) {
+			this.window = window;
+		}
+
+		public int getRecentLookups() {
+			return recentLookups;
+		}
+
+		public void setRecentLookups(int recentLookups) {
+			this.recentLookups = recentLookups;
+		}
+
+		public int getAdjacencyRadius() {
+			return adjacencyRadius;
+		}
+
+		public void setAdjacencyRadius(int adjacencyRadius) {
+			this.adjacencyRadius = adjacencyRadius;
+		}
+
+		public int getMaxCandidates() {
+			return maxCandidates;
+		}
+
+		public void setMaxCandidates(int maxCandidates) {
+			this.maxCandidates = maxCandidates;
+		}
+
+		public int getMinSupport() {
+			return minSupport;
+		}
+
+		public void setMinSupport(int minSupport) {
+			this.minSupport = minSupport;
+		}
+
+		public double getMinConfidence() {
+			return minConfidence;
+		}
+
+		public void setMinConfidence(double minConfidence) {
+			this.minConfidence = minConfidence;
+		}
+
+		public int getMaxSources() {
+			return maxSources;
+		}
+
+		public void setMaxSources(int maxSources) {
+			this.maxSources = maxSources;
+		}
+
+		public int getSuccessorsPerSource() {
+			return successorsPerSource;
+		}
+
+		public void setSuccessorsPerSource(int successorsPerSource) {
+			this.successorsPerSource = successorsPerSource;
+		}
+
+		public Duration getPatternTtl() {
+			return patternTtl;
+		}
+
+		public void setPatternTtl(Duration patternTtl) {
+			this.patternTtl = patternTtl;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.cep.challenge.config;
+
+import com.cep.challenge.cep.cache.PersistentCepCache;
+import com.cep.challenge.cep.invalidation.CacheInvalidationBus;
+import com.cep.challenge.cep.offline.OfflineCepSource;
+import com.cep.challenge.cep.retention.QueryLogRetentionJob;
+import com.cep.challenge.cep.warmup.CacheWarmUp;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+/**
+ * Com {@code spring.main.lazy-initialization=true} (perfil {@code fast-startup})
+ * só sobem de imediato os beans que precisam existir sem uma requisição:
+ * o warm-up, os jobs agendados (retenção, escrita e compactação do cache
+ * persistente, recarga do dataset offline) e o barramento de invalidação,
+ * que escuta as outras instâncias. Todo o resto, inclusive o caminho da
+ * consulta, é criado no primeiro uso.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+	static final Set<Class<?>> EAGER = Set.of(
+			CacheWarmUp.class,
+			QueryLogRetentionJob.class,
+			PersistentCepCache.class,
+			OfflineCepSource.class,
+			CacheInvalidationBus.class);
+
+	@Bean
+	static LazyInitializationExcludeFilter backgroundBeansEager() {
+		return (beanName, beanDefinition, beanType) -> EAGER.contains(beanType);
+	}
+}
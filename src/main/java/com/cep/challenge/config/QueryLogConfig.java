@@ -0,0 +1,50 @@
+package com.cep.challenge.config;
+
+import com.cep.challenge.cep.repository.QueryLogRepository;
+import com.cep.challenge.cep.repository.ReactiveQueryLogWriter;
+import com.cep.challenge.cep.repository.QueryLogWriter;
+import com.cep.challenge.cep.repository.SyncQueryLogWriter;
+import com.cep.challenge.cep.repository.WriteBehindQueryLogWriter;
+import com.cep.challenge.cep.retention.DeleteQueryLogPartitions;
+import com.cep.challenge.cep.retention.PostgresQueryLogPartitions;
+import com.cep.challenge.cep.retention.QueryLogPartitions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class QueryLogConfig {
+
+	@Bean
+	@ConditionalOnProperty(prefix = "app.cep.query-log", name = "mode", havingValue = "sync", matchIfMissing = true)
+	public QueryLogWriter syncQueryLogWriter(QueryLogRepository queryLogRepository) {
+		return new SyncQueryLogWriter(queryLogRepository);
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "app.cep.query-log", name = "mode", havingValue = "write-behind")
+	public QueryLogWriter writeBehindQueryLogWriter(JdbcTemplate jdbcTemplate, AppProperties props) {
+		return new WriteBehindQueryLogWriter(jdbcTemplate, props.getQueryLog());
+	}
+
+	@Bean
+	public ReactiveQueryLogWriter reactiveQueryLogWriter(QueryLogWriter queryLogWriter, AppProperties props) {
+		return new ReactiveQueryLogWriter(queryLogWriter,
+				props.getQueryLog().getOffloadThreads(), props.getQueryLog().getOffloadQueueCapacity());
+	}
+
+	/**
+	 * Partições diárias no Postgres ({@code schema-postgresql.sql}); nos demais
+	 * bancos (H2) a retenção apaga por faixa de {@code query_time}.
+	 */
+	@Bean
+	public QueryLogPartitions queryLogPartitions(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties) {
+		if (DatabaseDriver.fromJdbcUrl(dataSourceProperties.determineUrl()) == DatabaseDriver.POSTGRESQL) {
+			return new PostgresQueryLogPartitions(jdbcTemplate);
+		}
+		return new DeleteQueryLogPartitions(jdbcTemplate);
+	}
+}
@@ -1,20 +1,55 @@
 package com.cep.challenge.config;
 
+import com.cep.challenge.cep.client.CepClient;
+import com.cep.challenge.cep.client.CepUpstream;
+import io.netty.channel.ChannelOption;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @EnableConfigurationProperties(AppProperties.class)
 public class WebClientConfig {
 
+	/**
+	 * Um {@link WebClient} por provedor de {@code app.cep.upstreams}, cada um com
+	 * pool de conexões e timeouts próprios. Sem provedores configurados usa-se
+	 * {@code app.cep.base-url} com os valores padrão.
+	 */
 	@Bean
-	public WebClient cepWebClient(AppProperties props) {
-		return WebClient.builder()
-				.baseUrl(props.getBaseUrl())
-				.build();
+	public CepClient cepClient(AppProperties props) {
+		List<AppProperties.Upstream> configured = props.getUpstreams();
+		if (configured.isEmpty()) {
+			AppProperties.Upstream single = new AppProperties.Upstream();
+			single.setName("default");
+			single.setBaseUrl(props.getBaseUrl());
+			configured = List.of(single);
+		}
+
+		List<CepUpstream> upstreams = new ArrayList<>(configured.size());
+		for (AppProperties.Upstream upstream : configured) {
+			String name = upstream.getName() != null ? upstream.getName() : upstream.getBaseUrl();
+			ConnectionProvider pool = ConnectionProvider.builder("cep-" + name)
+					.maxConnections(upstream.getMaxConnections())
+					.pendingAcquireTimeout(upstream.getPendingAcquireTimeout())
+					.build();
+			HttpClient httpClient = HttpClient.create(pool)
+					.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) upstream.getConnectTimeout().toMillis())
+					.responseTimeout(upstream.getReadTimeout());
+			WebClient webClient = WebClient.builder()
+					.baseUrl(upstream.getBaseUrl())
+					.clientConnector(new ReactorClientHttpConnector(httpClient))
+					.build();
+			upstreams.add(new CepUpstream(name, webClient, upstream.getUriTemplate(), upstream.getReadTimeout(),
+					props.getRouting(), props.getCircuitBreaker(), pool));
+		}
+		return new CepClient(upstreams, props.getRouting(), props.getConcurrencyLimit());
 	}
 }
-
-
@@ -0,0 +1,60 @@
+-- Tabelas sem entidade JPA (H2: perfil local e testes).
+--
+-- Executado a cada subida (spring.sql.init, modo embedded), antes do
+-- Hibernate; tudo aqui é idempotente. As mesmas tabelas, para o Postgres,
+-- estão em schema-postgresql.sql.
+
+-- Consolidações de query_logs feitas por QueryLogRetentionJob.
+CREATE TABLE IF NOT EXISTS query_log_rollup_hourly (
+    bucket_start   timestamp        NOT NULL,
+    cep            varchar(255)     NOT NULL,
+    total          bigint           NOT NULL,
+    success        bigint           NOT NULL,
+    latency_min_ms bigint,
+    latency_avg_ms double precision,
+    latency_max_ms bigint,
+    PRIMARY KEY (bucket_start, cep)
+);
+
+CREATE TABLE IF NOT EXISTS query_log_rollup_daily (
+    bucket_start   timestamp        NOT NULL,
+    cep            varchar(255)     NOT NULL,
+    total          bigint           NOT NULL,
+    success        bigint           NOT NULL,
+    latency_min_ms bigint,
+    latency_avg_ms double precision,
+    latency_max_ms bigint,
+    PRIMARY KEY (bucket_start, cep)
+);
+
+CREATE TABLE IF NOT EXISTS query_log_rollup_state (
+    rollup       varchar(16) PRIMARY KEY,
+    rolled_until timestamp   NOT NULL
+);
+
+-- Cache persistente de CEPs (PersistentCepCache). cep é a chave (8 dígitos,
+-- para apagar faixas); response_cep é o CEP como a resposta o trouxe.
+CREATE TABLE IF NOT EXISTS cep_cache (
+    cep          varchar(8)   PRIMARY KEY,
+    response_cep varchar(9),
+    logradouro   varchar(255),
+    bairro       varchar(255),
+    localidade   varchar(255),
+    uf           varchar(255),
+    cached_at    timestamp    NOT NULL
+);
+
+ALTER TABLE cep_cache ADD COLUMN IF NOT EXISTS response_cep varchar(9);
+
+CREATE INDEX IF NOT EXISTS idx_cep_cache_cached_at ON cep_cache (cached_at);
+
+-- Invalidações de cache entre instâncias (JdbcInvalidationTransport).
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id         bigint      GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    range_from integer     NOT NULL,
+    range_to   integer     NOT NULL,
+    origin     varchar(64) NOT NULL,
+    created_at timestamp   DEFAULT current_timestamp NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS cache_invalidations_created_at ON cache_invalidations (created_at);
@@ -0,0 +1,187 @@
+-- query_logs particionada por dia em query_time (Postgres), e as tabelas
+-- sem entidade JPA ao final.
+--
+-- Executado a cada subida no perfil dev (spring.sql.init.mode=always), antes
+-- do Hibernate, como um único comando: os blocos $$ contêm ';'. Tudo aqui é
+-- idempotente. Uma query_logs comum criada antes pelo Hibernate é migrada
+-- uma única vez: renomeada, copiada para a tabela particionada e removida.
+--
+-- query_logs_default (DEFAULT) recebe o que não tem partição diária: job de
+-- retenção parado ou atrasado, relógio ou fuso da JVM diferente do banco.
+-- Sem ela esses INSERTs falhariam. O job tira as linhas de lá e as move para
+-- a partição do dia (query_logs_split_default).
+--
+-- Índices: a partição diária já restringe consultas por período; dentro dela
+-- query_time usa BRIN (dados chegam em ordem de tempo, o índice fica com
+-- poucos KB) e (cep, query_time) usa btree para consultas por CEP.
+-- Os nomes são os mesmos de @Table(indexes) em QueryLog.
+
+CREATE SEQUENCE IF NOT EXISTS query_logs_id_seq_partitioned;
+
+-- Cria a partição do dia. Linhas do dia que já estão na DEFAULT impediriam a
+-- criação; elas saem de lá antes e entram na partição nova, na mesma transação.
+CREATE OR REPLACE FUNCTION query_logs_create_partition(day date) RETURNS void AS $$
+DECLARE
+    partition_name text := 'query_logs_p' || to_char(day, 'YYYYMMDD');
+    moved integer := 0;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    IF to_regclass('query_logs_default') IS NOT NULL THEN
+        CREATE TEMP TABLE query_logs_moving (LIKE query_logs);
+        WITH rows_of_day AS (
+            DELETE FROM query_logs_default
+            WHERE query_time >= day::timestamp AND query_time < (day + 1)::timestamp
+            RETURNING *
+        )
+        INSERT INTO query_logs_moving SELECT * FROM rows_of_day;
+        GET DIAGNOSTICS moved = ROW_COUNT;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF query_logs FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, day::timestamp, (day + 1)::timestamp);
+    IF to_regclass('pg_temp.query_logs_moving') IS NOT NULL THEN
+        IF moved > 0 THEN
+            INSERT INTO query_logs SELECT * FROM query_logs_moving;
+        END IF;
+        DROP TABLE query_logs_moving;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Cria as partições dos dias que estão na DEFAULT, movendo as linhas para
+-- elas; devolve quantos dias foram separados.
+CREATE OR REPLACE FUNCTION query_logs_split_default() RETURNS integer AS $$
+DECLARE
+    day date;
+    split integer := 0;
+BEGIN
+    FOR day IN SELECT DISTINCT query_time::date FROM query_logs_default ORDER BY 1 LOOP
+        PERFORM query_logs_create_partition(day);
+        split := split + 1;
+    END LOOP;
+    RETURN split;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Remove as partições de dias anteriores a "before"; devolve quantas removeu.
+CREATE OR REPLACE FUNCTION query_logs_drop_partitions(before date) RETURNS integer AS $$
+DECLARE
+    partition record;
+    dropped integer := 0;
+BEGIN
+    FOR partition IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'query_logs'::regclass
+          AND c.relname ~ '^query_logs_p[0-9]{8}$'
+          AND to_date(substring(c.relname FROM 13), 'YYYYMMDD') < before
+    LOOP
+        EXECUTE format('DROP TABLE %I', partition.relname);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    legacy boolean;
+    first_day date := current_date - 1;
+    day date;
+BEGIN
+    SELECT relkind = 'r' INTO legacy FROM pg_class WHERE oid = to_regclass('query_logs');
+
+    IF legacy THEN
+        ALTER TABLE query_logs RENAME TO query_logs_legacy;
+        ALTER TABLE query_logs_legacy RENAME CONSTRAINT query_logs_pkey TO query_logs_legacy_pkey;
+        ALTER INDEX IF EXISTS idx_query_logs_query_time RENAME TO idx_query_logs_legacy_query_time;
+        ALTER INDEX IF EXISTS idx_query_logs_cep_query_time RENAME TO idx_query_logs_legacy_cep_query_time;
+        SELECT least(first_day, coalesce(min(query_time)::date, first_day)) INTO first_day FROM query_logs_legacy;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS query_logs (
+        id               bigint       NOT NULL DEFAULT nextval('query_logs_id_seq_partitioned'),
+        cep              varchar(255) NOT NULL,
+        query_time       timestamp(6) NOT NULL,
+        response_time_ms bigint,
+        success          boolean,
+        cache_hit        boolean,
+        source           varchar(16),
+        CONSTRAINT query_logs_pkey PRIMARY KEY (id, query_time)
+    ) PARTITION BY RANGE (query_time);
+
+    CREATE INDEX IF NOT EXISTS idx_query_logs_query_time ON query_logs USING brin (query_time);
+    CREATE INDEX IF NOT EXISTS idx_query_logs_cep_query_time ON query_logs (cep, query_time);
+
+    CREATE TABLE IF NOT EXISTS query_logs_default PARTITION OF query_logs DEFAULT;
+
+    FOR day IN SELECT generate_series(first_day, current_date + 3, interval '1 day')::date LOOP
+        PERFORM query_logs_create_partition(day);
+    END LOOP;
+
+    IF legacy THEN
+        INSERT INTO query_logs (id, cep, query_time, response_time_ms, success, cache_hit, source)
+        SELECT id, cep, query_time, response_time_ms, success, cache_hit, source FROM query_logs_legacy;
+        PERFORM setval('query_logs_id_seq_partitioned', coalesce((SELECT max(id) FROM query_logs), 0) + 1, false);
+        DROP TABLE query_logs_legacy;
+    END IF;
+END;
+$$;
+
+-- Consolidações de query_logs feitas por QueryLogRetentionJob
+-- (equivalente H2 em schema-h2.sql).
+CREATE TABLE IF NOT EXISTS query_log_rollup_hourly (
+    bucket_start   timestamp        NOT NULL,
+    cep            varchar(255)     NOT NULL,
+    total          bigint           NOT NULL,
+    success        bigint           NOT NULL,
+    latency_min_ms bigint,
+    latency_avg_ms double precision,
+    latency_max_ms bigint,
+    PRIMARY KEY (bucket_start, cep)
+);
+
+CREATE TABLE IF NOT EXISTS query_log_rollup_daily (
+    bucket_start   timestamp        NOT NULL,
+    cep            varchar(255)     NOT NULL,
+    total          bigint           NOT NULL,
+    success        bigint           NOT NULL,
+    latency_min_ms bigint,
+    latency_avg_ms double precision,
+    latency_max_ms bigint,
+    PRIMARY KEY (bucket_start, cep)
+);
+
+CREATE TABLE IF NOT EXISTS query_log_rollup_state (
+    rollup       varchar(16) PRIMARY KEY,
+    rolled_until timestamp   NOT NULL
+);
+
+-- Cache persistente de CEPs (PersistentCepCache). cep é a chave (8 dígitos,
+-- para apagar faixas); response_cep é o CEP como a resposta o trouxe.
+CREATE TABLE IF NOT EXISTS cep_cache (
+    cep          varchar(8)   PRIMARY KEY,
+    response_cep varchar(9),
+    logradouro   varchar(255),
+    bairro       varchar(255),
+    localidade   varchar(255),
+    uf           varchar(255),
+    cached_at    timestamp    NOT NULL
+);
+
+ALTER TABLE cep_cache ADD COLUMN IF NOT EXISTS response_cep varchar(9);
+
+CREATE INDEX IF NOT EXISTS idx_cep_cache_cached_at ON cep_cache (cached_at);
+
+-- Invalidações de cache entre instâncias (JdbcInvalidationTransport).
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id         bigint      GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    range_from integer     NOT NULL,
+    range_to   integer     NOT NULL,
+    origin     varchar(64) NOT NULL,
+    created_at timestamp   DEFAULT current_timestamp NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS cache_invalidations_created_at ON cache_invalidations (created_at);
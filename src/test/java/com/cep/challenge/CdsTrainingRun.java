@@ -0,0 +1,35 @@
+package com.cep.challenge;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Execução de treino do arquivo AppCDS do perfil Maven {@code fast-startup}:
+ * sobe o jar com {@code -XX:ArchiveClassesAtExit}, faz a primeira consulta
+ * contra a API externa falsa e para a aplicação. Assim o arquivo cobre também
+ * o que só carrega na primeira requisição (Tomcat, MVC, Jackson, cliente
+ * HTTP, gravação do log), e não apenas a criação do contexto.
+ * <p>
+ * Argumentos: jar, arquivo CDS a gerar e perfis do Spring.
+ */
+public final class CdsTrainingRun {
+
+    private CdsTrainingRun() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String jar = args[0];
+        Path archive = Path.of(args[1]);
+        String profiles = args[2];
+
+        Files.deleteIfExists(archive);
+        try (FastStartupApp app = FastStartupApp.start(jar, List.of("-XX:ArchiveClassesAtExit=" + archive), profiles,
+                Path.of(jar).resolveSibling("cds-training.log"))) {
+            app.awaitFirstLookup();
+        }
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("arquivo CDS não gerado: " + archive);
+        }
+    }
+}
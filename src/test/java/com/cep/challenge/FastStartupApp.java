@@ -0,0 +1,138 @@
+package com.cep.challenge;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * O jar do perfil Maven {@code fast-startup} num processo separado, contra
+ * uma API externa falsa. Usado pelo {@link StartupTimeIT} e pelo treino do
+ * arquivo CDS ({@link CdsTrainingRun}), que assim passam pelo mesmo caminho:
+ * subida até a primeira consulta bem-sucedida.
+ */
+final class FastStartupApp implements AutoCloseable {
+
+    private static final Duration GIVE_UP = Duration.ofMinutes(2);
+
+    private final HttpServer upstream;
+    private final HttpRequest lookup;
+    private final long startNanos;
+    private final Process process;
+
+    private FastStartupApp(String jar, List<String> jvmOptions, String profiles, Path log) throws IOException {
+        upstream = startUpstream();
+        int port = freePort();
+        lookup = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/ceps/01001000"))
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        startNanos = System.nanoTime();
+        try {
+            process = new ProcessBuilder(command(jar, jvmOptions, profiles, port))
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+        } catch (IOException e) {
+            upstream.stop(0);
+            throw e;
+        }
+    }
+
+    /**
+     * @param jvmOptions opções da JVM além de {@code -Dspring.aot.enabled=true}
+     * @param log        arquivo com a saída da aplicação
+     */
+    static FastStartupApp start(String jar, List<String> jvmOptions, String profiles, Path log) throws IOException {
+        return new FastStartupApp(jar, jvmOptions, profiles, log);
+    }
+
+    /**
+     * Consulta um CEP até receber {@code 200}; falha se a aplicação terminar
+     * ou não responder em {@link #GIVE_UP}.
+     */
+    FirstLookup awaitFirstLookup() throws IOException, InterruptedException {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpResponse<String> response = null;
+        while (response == null || response.statusCode() != 200) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("aplicação terminou antes de responder (saída " + process.exitValue() + ")");
+            }
+            if (System.nanoTime() - startNanos > GIVE_UP.toNanos()) {
+                throw new IllegalStateException("sem resposta em " + GIVE_UP);
+            }
+            try {
+                response = http.send(lookup, HttpResponse.BodyHandlers.ofString());
+            } catch (ConnectException e) {
+                Thread.sleep(5);
+            }
+        }
+        return new FirstLookup(response, Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Para a aplicação com SIGTERM, que termina a JVM normalmente (e grava o
+     * {@code -XX:ArchiveClassesAtExit}, se houver).
+     */
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+        upstream.stop(0);
+    }
+
+    private List<String> command(String jar, List<String> jvmOptions, String profiles, int port) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-Dspring.aot.enabled=true");
+        command.add("-jar");
+        command.add(jar);
+        command.add("--spring.profiles.active=" + profiles);
+        command.add("--server.port=" + port);
+        command.add("--app.cep.upstreams[0].name=stub");
+        command.add("--app.cep.upstreams[0].base-url=http://127.0.0.1:" + upstream.getAddress().getPort());
+        command.add("--app.cep.upstreams[0].uri-template=/ws/{cep}/json");
+        return command;
+    }
+
+    private static HttpServer startUpstream() throws IOException {
+        byte[] body = """
+                {"cep":"01001-000","logradouro":"Praça da Sé","bairro":"Sé","localidade":"São Paulo","uf":"SP"}"""
+                .getBytes(StandardCharsets.UTF_8);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 16);
+        server.createContext("/ws/", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * @param elapsed da criação do processo até a resposta {@code 200}
+     */
+    record FirstLookup(HttpResponse<String> response, Duration elapsed) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.cep.challenge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tempo até a primeira consulta bem-sucedida de uma instância nova: sobe o
+ * jar do perfil Maven {@code fast-startup} (AOT + arquivo CDS) num processo
+ * separado, contra uma API externa falsa, e consulta um CEP até receber
+ * {@code 200}. Falha se isso levar mais que {@code startup.budget}.
+ * <p>
+ * Roda com {@code mvn -Pfast-startup verify}, que define {@code startup.*};
+ * sem elas (ex. na IDE) o teste é ignorado.
+ */
+@Slf4j
+class StartupTimeIT {
+
+    private FastStartupApp app;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    @Test
+    void firstLookup_ShouldSucceedWithinStartupBudget() throws Exception {
+        // Given
+        String jar = System.getProperty("startup.jar");
+        assumeTrue(jar != null && Files.exists(Path.of(jar)), "jar do perfil fast-startup não encontrado");
+        Duration budget = DurationStyle.detectAndParse(System.getProperty("startup.budget", "9500ms"));
+        String archive = System.getProperty("startup.archive");
+        List<String> jvmOptions = archive != null && Files.exists(Path.of(archive))
+                ? List.of("-XX:SharedArchiveFile=" + archive)
+                : List.of();
+
+        // When
+        app = FastStartupApp.start(jar, jvmOptions, System.getProperty("startup.profiles", "local,fast-startup"),
+                Path.of(jar).resolveSibling("startup-it.log"));
+        FastStartupApp.FirstLookup first = app.awaitFirstLookup();
+        log.info("⏱️  Primeira consulta bem-sucedida em {} ms (orçamento {} ms)",
+                first.elapsed().toMillis(), budget.toMillis());
+
+        // Then
+        assertThat(first.response().body()).contains("\"logradouro\":\"Praça da Sé\"");
+        assertThat(first.elapsed()).isLessThanOrEqualTo(budget);
+    }
+}
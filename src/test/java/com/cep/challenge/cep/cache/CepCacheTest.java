@@ -0,0 +1,235 @@
+package com.cep.challenge.cep.cache;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CepCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private AppProperties props;
+
+    private CepCache cepCache;
+
+    @BeforeEach
+    void setUp() {
+        props = new AppProperties();
+        props.getCache().setTtl(Duration.ofMinutes(10));
+        props.getCache().setNegativeTtl(Duration.ofMinutes(1));
+        props.getCache().setStaleTtl(Duration.ZERO);
+        cepCache = new CepCache(props, nanos::get);
+    }
+
+    @Test
+    void get_WithFormattedCep_ShouldShareEntryWithDigitsOnlyCep() {
+        // Given
+        CepResponse response = new CepResponse("01001-000", "Praça da Sé", "Sé", "São Paulo", "SP");
+        cepCache.putFound(key("01001000"), response);
+
+        // When
+        CachedCep cached = cepCache.get(key("01001-000"));
+
+        // Then
+        assertThat(cached).isNotNull();
+        assertThat(cached.isNegative()).isFalse();
+        assertThat(cached.response()).isSameAs(response);
+    }
+
+    @Test
+    void putFound_ShouldShareRepeatedFieldsBetweenEntries() {
+        // Given
+        CepResponse first = new CepResponse("01001000", "Praça da Sé", "Sé", "São Paulo", "SP");
+        CepResponse second = new CepResponse("01002000", "Rua Direita", new String("Sé"),
+                new String("São Paulo"), new String("SP"));
+
+        // When
+        cepCache.putFound(key("01001000"), first);
+        cepCache.putFound(key("01002000"), second);
+
+        // Then
+        CepResponse cached = cepCache.get(key("01002000")).response();
+        assertThat(cached).isSameAs(second);
+        assertThat(cached.getBairro()).isSameAs(first.getBairro());
+        assertThat(cached.getLocalidade()).isSameAs(first.getLocalidade());
+        assertThat(cached.getUf()).isSameAs(first.getUf());
+    }
+
+    @Test
+    void invalidateRange_ShouldRemoveFoundAndNegativeEntriesInRange() {
+        // Given
+        cepCache.putFound(key("01001000"), new CepResponse());
+        cepCache.putNotFound(key("01002000"));
+        cepCache.putFound(key("01100000"), new CepResponse());
+
+        // When
+        long removed = cepCache.invalidateRange(key("01000000"), key("01099999"));
+
+        // Then
+        assertThat(removed).isEqualTo(2);
+        assertThat(cepCache.get(key("01001000"))).isNull();
+        assertThat(cepCache.get(key("01002000"))).isNull();
+        assertThat(cepCache.get(key("01100000"))).isNotNull();
+        assertThat(cepCache.keys().contains(key("01001000"))).isFalse();
+        assertThat(cepCache.keys().size()).isEqualTo(1);
+    }
+
+    @Test
+    void onRemoval_WithSeveralListeners_ShouldNotifyAll() {
+        // Given
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        cepCache.onRemoval((from, to) -> first.add(from + "-" + to));
+        cepCache.onRemoval((from, to) -> second.add(from + "-" + to));
+        cepCache.putFound(key("01001000"), new CepResponse());
+
+        // When
+        cepCache.invalidate(key("01001000"));
+        cepCache.invalidateRange(key("01000000"), key("01099999"));
+
+        // Then
+        assertThat(first).containsExactly("1001000-1001000", "1000000-1099999");
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void get_AfterTtl_ShouldExpireEntry() {
+        // Given
+        cepCache.putFound(key("01001000"), new CepResponse());
+
+        // When
+        nanos.addAndGet(Duration.ofMinutes(9).toNanos());
+        CachedCep beforeTtl = cepCache.get(key("01001000"));
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        CachedCep afterTtl = cepCache.get(key("01001000"));
+
+        // Then
+        assertThat(beforeTtl).isNotNull();
+        assertThat(afterTtl).isNull();
+    }
+
+    @Test
+    void putFound_WithAge_ShouldOnlyKeepTheRestOfTtlAndStaleTtl() {
+        // Given
+        props.getCache().setStaleTtl(Duration.ofMinutes(30));
+        CepCache staleCache = new CepCache(props, nanos::get);
+
+        // When
+        staleCache.putFound(key("01001000"), new CepResponse(), Duration.ofMinutes(8));
+        CachedCep old = staleCache.putFound(key("20040020"), new CepResponse(), Duration.ofMinutes(15));
+        nanos.addAndGet(Duration.ofMinutes(3).toNanos());
+        CachedCep afterRestOfTtl = staleCache.get(key("01001000"));
+        nanos.addAndGet(Duration.ofMinutes(23).toNanos());
+        CachedCep afterStaleTtl = staleCache.getAllowStale(key("20040020"));
+
+        // Then
+        assertThat(staleCache.isStale(old)).isTrue();
+        assertThat(afterRestOfTtl).isNull();
+        assertThat(staleCache.getAllowStale(key("01001000"))).isNotNull();
+        assertThat(afterStaleTtl).isNull();
+    }
+
+    @Test
+    void getAllowStale_AfterTtl_ShouldKeepEntryUntilStaleTtl() {
+        // Given
+        props.getCache().setStaleTtl(Duration.ofMinutes(30));
+        CepCache staleCache = new CepCache(props, nanos::get);
+        staleCache.putFound(key("01001000"), new CepResponse());
+
+        // When
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+        CachedCep fresh = staleCache.get(key("01001000"));
+        CachedCep stale = staleCache.getAllowStale(key("01001000"));
+        nanos.addAndGet(Duration.ofMinutes(30).toNanos());
+        CachedCep expired = staleCache.getAllowStale(key("01001000"));
+
+        // Then
+        assertThat(fresh).isNull();
+        assertThat(stale).isNotNull();
+        assertThat(staleCache.isStale(stale)).isTrue();
+        assertThat(expired).isNull();
+    }
+
+    @Test
+    void putFound_OverStaleEntry_ShouldMakeItFreshAgain() {
+        // Given
+        props.getCache().setStaleTtl(Duration.ofMinutes(30));
+        CepCache staleCache = new CepCache(props, nanos::get);
+        staleCache.putFound(key("01001000"), new CepResponse());
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        // When
+        staleCache.putFound(key("01001000"), new CepResponse());
+        CachedCep refreshed = staleCache.getAllowStale(key("01001000"));
+
+        // Then
+        assertThat(staleCache.isStale(refreshed)).isFalse();
+        assertThat(staleCache.get(key("01001000"))).isSameAs(refreshed);
+    }
+
+    @Test
+    void get_NegativeEntry_ShouldUseShorterTtl() {
+        // Given
+        cepCache.putNotFound(key("99999999"));
+
+        // When
+        CachedCep fresh = cepCache.get(key("99999999"));
+        nanos.addAndGet(Duration.ofSeconds(61).toNanos());
+        CachedCep expired = cepCache.get(key("99999999"));
+
+        // Then
+        assertThat(fresh).isNotNull();
+        assertThat(fresh.isNegative()).isTrue();
+        assertThat(expired).isNull();
+    }
+
+    @Test
+    void get_WhenDisabled_ShouldAlwaysMiss() {
+        // Given
+        props.getCache().setEnabled(false);
+        CepCache disabled = new CepCache(props, nanos::get);
+
+        // When
+        disabled.putFound(key("01001000"), new CepResponse());
+
+        // Then
+        assertThat(disabled.get(key("01001000"))).isNull();
+    }
+
+    @Test
+    void keys_ShouldTrackFoundEntriesThroughPutInvalidateAndExpiry() {
+        // Given
+        cepCache.putFound(key("01310-100"), new CepResponse());
+        cepCache.putFound(key("01001000"), new CepResponse());
+        cepCache.putFound(key("20040020"), new CepResponse());
+        cepCache.putNotFound(key("99999999"));
+
+        // When
+        cepCache.invalidate(key("20040-020"));
+        int afterInvalidate = cepCache.keys().size();
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+        cepCache.putFound(key("01310100"), new CepResponse());
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+        cepCache.cleanUp();
+
+        // Then
+        assertThat(afterInvalidate).isEqualTo(2);
+        assertThat(cepCache.keys().contains(1_001_000)).isFalse();
+        assertThat(cepCache.keys().contains(1_310_100)).isTrue();
+        assertThat(cepCache.keys().contains(99_999_999)).isFalse();
+        assertThat(cepCache.keys().size()).isEqualTo(1);
+    }
+
+    private static int key(String cep) {
+        return CepKeys.parse(cep);
+    }
+}
@@ -0,0 +1,156 @@
+package com.cep.challenge.cep.cache;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PersistentCepCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T12:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private AppProperties props;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from cep_cache");
+        props = new AppProperties();
+        props.getPersistentCache().setTtl(Duration.ofDays(30));
+    }
+
+    @Test
+    void put_ShouldPersistResponseAcrossInstances() {
+        // Given
+        PersistentCepCache cache = cacheAt(NOW);
+
+        // When
+        cache.put(CepKeys.parse("01001-000"), response("01001-000", "Praça da Sé"));
+        cache.flush();
+        PersistentCepCache.Hit hit = cacheAt(NOW.plusSeconds(60)).find(CepKeys.parse("01001000"));
+
+        // Then
+        assertThat(hit).isNotNull();
+        assertThat(hit.age()).isEqualTo(Duration.ofSeconds(60));
+        CepResponse found = hit.response();
+        assertThat(found.getCep()).isEqualTo("01001-000");
+        assertThat(found.getLogradouro()).isEqualTo("Praça da Sé");
+        assertThat(found.getUf()).isEqualTo("SP");
+    }
+
+    @Test
+    void find_RowWithoutResponseCep_ShouldMiss() {
+        // Given
+        jdbcTemplate.update("insert into cep_cache (cep, logradouro, cached_at) values (?, ?, ?)",
+                "01001000", "Praça da Sé", Timestamp.valueOf(LocalDateTime.ofInstant(NOW, ZoneOffset.UTC)));
+
+        // When
+        PersistentCepCache.Hit found = cacheAt(NOW.plusSeconds(60)).find(CepKeys.parse("01001000"));
+
+        // Then
+        assertThat(found).isNull();
+    }
+
+    @Test
+    void put_WithSameCep_ShouldKeepLatestResponse() {
+        // Given
+        PersistentCepCache cache = cacheAt(NOW);
+        cache.put(CepKeys.parse("01001000"), response("01001000", "Praça da Sé"));
+        cache.flush();
+
+        // When
+        cache.put(CepKeys.parse("01001000"), response("01001000", "Praça da Sé (lado ímpar)"));
+        cache.put(CepKeys.parse("01001000"), response("01001000", "Praça da Sé (lado par)"));
+        cache.flush();
+
+        // Then
+        assertThat(cache.find(CepKeys.parse("01001000")).response().getLogradouro()).isEqualTo("Praça da Sé (lado par)");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from cep_cache", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void find_AfterTtl_ShouldMissAndCompactShouldRemoveEntry() {
+        // Given
+        PersistentCepCache writer = cacheAt(NOW);
+        writer.put(CepKeys.parse("01001000"), response("01001000", "Praça da Sé"));
+        writer.put(CepKeys.parse("20040020"), response("20040020", "Rua Primeiro de Março"));
+        writer.flush();
+        PersistentCepCache later = cacheAt(NOW.plus(Duration.ofDays(31)));
+
+        // When
+        PersistentCepCache.Hit expired = later.find(CepKeys.parse("01001000"));
+        int removed = later.compact();
+
+        // Then
+        assertThat(expired).isNull();
+        assertThat(removed).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from cep_cache", Long.class)).isZero();
+    }
+
+    @Test
+    void invalidate_ShouldDeleteOnlyEntriesInRange() {
+        // Given
+        PersistentCepCache cache = cacheAt(NOW);
+        cache.put(CepKeys.parse("01001000"), response("01001000", "Praça da Sé"));
+        cache.put(CepKeys.parse("01099999"), response("01099999", "Rua Teste"));
+        cache.put(CepKeys.parse("20040020"), response("20040020", "Rua Primeiro de Março"));
+        cache.flush();
+
+        // When
+        int removed = cache.invalidate(CepKeys.parse("01000000"), CepKeys.parse("01099999"));
+
+        // Then
+        assertThat(removed).isEqualTo(2);
+        assertThat(cache.find(CepKeys.parse("01001000"))).isNull();
+        assertThat(cache.find(CepKeys.parse("20040020"))).isNotNull();
+    }
+
+    @Test
+    void put_WhenDisabled_ShouldNotTouchDatabase() {
+        // Given
+        props.getPersistentCache().setEnabled(false);
+        PersistentCepCache cache = cacheAt(NOW);
+
+        // When
+        cache.put(CepKeys.parse("01001000"), response("01001000", "Praça da Sé"));
+        cache.flush();
+
+        // Then
+        assertThat(cache.find(CepKeys.parse("01001000"))).isNull();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from cep_cache", Long.class)).isZero();
+    }
+
+    /**
+     * Sem a thread de fundo: as gravações acontecem em {@code flush()}.
+     */
+    private PersistentCepCache cacheAt(Instant now) {
+        return new PersistentCepCache(jdbcTemplate, transactionManager, props, null, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static CepResponse response(String cep, String logradouro) {
+        return new CepResponse(cep, logradouro, "Sé", "São Paulo", "SP");
+    }
+}
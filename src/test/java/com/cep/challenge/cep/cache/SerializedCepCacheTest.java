@@ -0,0 +1,122 @@
+package com.cep.challenge.cep.cache;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.dto.OfflineCepResponse;
+import com.cep.challenge.cep.dto.StaleCepResponse;
+import com.cep.challenge.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializedCepCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CepCache cepCache = new CepCache(new AppProperties());
+    private final SerializedCepCache cache = new SerializedCepCache(objectMapper, new AppProperties(), cepCache);
+
+    @Test
+    void get_WithSameInstance_ShouldReuseSerializedBytes() throws Exception {
+        // Given
+        CepResponse response = new CepResponse("01001000", "Praça da Sé", "Sé", "São Paulo", "SP");
+
+        // When
+        SerializedCep first = cache.get(response);
+        SerializedCep second = cache.get(response);
+
+        // Then
+        assertThat(second.json()).isSameAs(first.json());
+        assertThat(objectMapper.readValue(first.json(), CepResponse.class).getLogradouro()).isEqualTo("Praça da Sé");
+    }
+
+    @Test
+    void get_WithNewInstanceForSameCep_ShouldReplaceSerializedBytes() {
+        // Given
+        CepResponse before = new CepResponse("01001000", "Praça da Sé", "Sé", "São Paulo", "SP");
+        CepResponse refreshed = new CepResponse("01001-000", "Praça da Sé - lado ímpar", "Sé", "São Paulo", "SP");
+        SerializedCep first = cache.get(before);
+
+        // When
+        SerializedCep second = cache.get(refreshed);
+        SerializedCep third = cache.get(refreshed);
+
+        // Then
+        assertThat(second.etag()).isNotEqualTo(first.etag());
+        assertThat(third.json()).isSameAs(second.json());
+    }
+
+    @Test
+    void get_WithOfflineResponses_ShouldReuseSerializedBytesWithinDatasetVersion() {
+        // Given
+        SerializedCep first = cache.get(new OfflineCepResponse(1, "01001000", "Praça da Sé", "Sé", "São Paulo", "SP"));
+
+        // When
+        SerializedCep sameVersion = cache.get(
+                new OfflineCepResponse(1, "01001000", "Praça da Sé", "Sé", "São Paulo", "SP"));
+        SerializedCep nextVersion = cache.get(
+                new OfflineCepResponse(2, "01001000", "Praça da Sé - lado ímpar", "Sé", "São Paulo", "SP"));
+
+        // Then
+        assertThat(sameVersion.json()).isSameAs(first.json());
+        assertThat(nextVersion.etag()).isNotEqualTo(first.etag());
+        assertThat(new String(first.json())).doesNotContain("datasetVersion");
+    }
+
+    @Test
+    void get_AfterCepCacheDropsTheCep_ShouldSerializeAgain() {
+        // Given
+        CepResponse response = new CepResponse("01001000", "Praça da Sé", "Sé", "São Paulo", "SP");
+        CepResponse other = new CepResponse("20040020", "Rua Primeiro de Março", "Centro", "Rio de Janeiro", "RJ");
+        cepCache.putFound(1_001_000, response);
+        cepCache.putFound(20_040_020, other);
+        SerializedCep first = cache.get(response);
+        SerializedCep otherFirst = cache.get(other);
+
+        // When
+        cepCache.invalidate(1_001_000);
+        SerializedCep afterInvalidate = cache.get(response);
+        cepCache.invalidateRange(20_000_000, 20_999_999);
+        SerializedCep afterRange = cache.get(other);
+
+        // Then
+        assertThat(afterInvalidate.json()).isNotSameAs(first.json()).isEqualTo(first.json());
+        assertThat(afterRange.json()).isNotSameAs(otherFirst.json());
+    }
+
+    @Test
+    void get_ShouldDeriveEtagFromContent() {
+        // Given
+        CepResponse response = new CepResponse("01001000", "Praça da Sé", "Sé", "São Paulo", "SP");
+        CepResponse sameContent = new CepResponse("01001000", "Praça da Sé", "Sé", "São Paulo", "SP");
+        CepResponse changed = new CepResponse("01001000", "Praça da Sé - lado ímpar", "Sé", "São Paulo", "SP");
+
+        // When
+        String etag = cache.get(response).etag();
+
+        // Then
+        assertThat(etag).matches("\"[A-Za-z0-9_-]{22}\"");
+        assertThat(cache.get(sameContent).etag()).isEqualTo(etag);
+        assertThat(cache.get(changed).etag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void get_ShouldUseConfiguredMaxAgeAndNoCacheForStaleResponses() {
+        // Given
+        AppProperties props = new AppProperties();
+        props.getHttpCache().setMaxAge(Duration.ofMinutes(5));
+        SerializedCepCache configured = new SerializedCepCache(objectMapper, props, new CepCache(props));
+        CepResponse response = new CepResponse("01001000", "Praça da Sé", "Sé", "São Paulo", "SP");
+
+        // When
+        SerializedCep fresh = configured.get(response);
+        SerializedCep stale = configured.get(new StaleCepResponse(response));
+
+        // Then
+        assertThat(fresh.cacheControl().getHeaderValue()).isEqualTo("max-age=300, public");
+        assertThat(stale.cacheControl().getHeaderValue()).isEqualTo(CacheControl.noCache().getHeaderValue());
+        assertThat(stale.etag()).isNotEqualTo(fresh.etag());
+    }
+}
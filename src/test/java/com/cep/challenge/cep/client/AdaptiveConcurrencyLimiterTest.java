@@ -0,0 +1,157 @@
+package com.cep.challenge.cep.client;
+
+import com.cep.challenge.cep.exception.UpstreamOverloadedException;
+import com.cep.challenge.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private AppProperties.ConcurrencyLimit config;
+
+    @BeforeEach
+    void setUp() {
+        config = new AppProperties.ConcurrencyLimit();
+        config.setInitialLimit(4);
+        config.setMinLimit(1);
+        config.setMaxLimit(10);
+        config.setBackoffRatio(0.5);
+        config.setRttTolerance(2.0);
+        config.setMaxQueue(1);
+        config.setMaxWait(Duration.ofSeconds(5));
+        config.setRetryAfter(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void acquire_WhenAtLimit_ShouldQueueUntilAPermitIsReleased() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter();
+        List<AdaptiveConcurrencyLimiter.Permit> permits = acquire(limiter, 4);
+
+        // When
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> queued = limiter.acquire().toFuture();
+        boolean waitedForPermit = !queued.isDone() && limiter.queued() == 1;
+        permits.get(0).onCancel();
+
+        // Then
+        assertThat(waitedForPermit).isTrue();
+        assertThat(queued).isCompleted();
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.inFlight()).isEqualTo(4);
+    }
+
+    @Test
+    void acquire_WhenQueueIsFull_ShouldRejectWithRetryAfter() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter();
+        List<AdaptiveConcurrencyLimiter.Permit> permits = acquire(limiter, 4);
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> queued = limiter.acquire().toFuture();
+
+        // When & Then
+        assertThatThrownBy(() -> limiter.acquire().block())
+                .isInstanceOf(UpstreamOverloadedException.class)
+                .satisfies(e -> assertThat(((UpstreamOverloadedException) e).getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+        assertThat(limiter.rejected()).isEqualTo(1);
+        // a consulta da fila não foi afetada pela recusa e sai dela com a próxima vaga
+        assertThat(queued).isNotDone();
+        permits.get(0).onCancel();
+        assertThat(queued).isCompleted();
+        assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    void acquire_WhenWaitExpires_ShouldRejectAndLeaveTheQueue() {
+        // Given
+        config.setMaxWait(Duration.ofMillis(20));
+        AdaptiveConcurrencyLimiter limiter = limiter();
+        acquire(limiter, 4);
+
+        // When & Then
+        assertThatThrownBy(() -> limiter.acquire().block(Duration.ofSeconds(5)))
+                .isInstanceOf(UpstreamOverloadedException.class);
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.rejected()).isEqualTo(1);
+        assertThat(limiter.inFlight()).isEqualTo(4);
+    }
+
+    @Test
+    void onSuccess_WithLatencyNearBaselineAndBusyLimit_ShouldGrowAboutOnePermitPerRound() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter();
+
+        // When
+        for (int round = 0; round < 2; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = acquire(limiter, limiter.limit());
+            nanos.addAndGet(Duration.ofMillis(10).toNanos());
+            permits.forEach(AdaptiveConcurrencyLimiter.Permit::onSuccess);
+        }
+
+        // Then
+        assertThat(limiter.limit()).isEqualTo(5);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void onSuccess_WithLatencyAboveTolerance_ShouldShrinkLimitOncePerRound() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter();
+        succeed(limiter, Duration.ofMillis(10));
+        List<AdaptiveConcurrencyLimiter.Permit> slow = acquire(limiter, 4);
+
+        // When
+        nanos.addAndGet(Duration.ofMillis(50).toNanos());
+        slow.forEach(AdaptiveConcurrencyLimiter.Permit::onSuccess);
+        int afterFirstRound = limiter.limit();
+        List<AdaptiveConcurrencyLimiter.Permit> nextRound = acquire(limiter, 1);
+        nextRound.get(0).onDropped();
+
+        // Then
+        assertThat(afterFirstRound).isEqualTo(2);
+        assertThat(limiter.limit()).isEqualTo(1);
+    }
+
+    @Test
+    void onCancel_ShouldReleaseOnlyOnce() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter();
+        AdaptiveConcurrencyLimiter.Permit permit = acquire(limiter, 1).get(0);
+
+        // When
+        permit.onCancel();
+        permit.onDropped();
+
+        // Then
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter() {
+        return new AdaptiveConcurrencyLimiter(config, nanos::get, Schedulers.parallel());
+    }
+
+    private void succeed(AdaptiveConcurrencyLimiter limiter, Duration latency) {
+        AdaptiveConcurrencyLimiter.Permit permit = acquire(limiter, 1).get(0);
+        nanos.addAndGet(latency.toNanos());
+        permit.onSuccess();
+    }
+
+    private static List<AdaptiveConcurrencyLimiter.Permit> acquire(AdaptiveConcurrencyLimiter limiter, int count) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.acquire().block(Duration.ofSeconds(1)));
+        }
+        return permits;
+    }
+}
@@ -0,0 +1,220 @@
+package com.cep.challenge.cep.client;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.exception.CepNotFoundException;
+import com.cep.challenge.cep.exception.UpstreamUnavailableException;
+import com.cep.challenge.config.AppProperties;
+import com.cep.challenge.config.WebClientConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link CepClient} com vários provedores, montado pelo {@link WebClientConfig}
+ * contra servidores HTTP locais que simulam provedores lentos ou com falha.
+ */
+class CepClientRoutingTest {
+
+    private final List<StubUpstream> stubs = new ArrayList<>();
+
+    private AppProperties props;
+
+    private CepClient cepClient;
+
+    @BeforeEach
+    void setUp() {
+        props = new AppProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (cepClient != null) {
+            cepClient.destroy();
+        }
+        stubs.forEach(StubUpstream::stop);
+    }
+
+    @Test
+    void findByCep_WhenPrimaryFails_ShouldFallBackUsingEachUpstreamUriTemplate() throws Exception {
+        // Given
+        StubUpstream primary = stub("primary", "/cep/", 503, 0);
+        StubUpstream fallback = stub("fallback", "/ws/", 200, 0);
+        cepClient = client(primary.upstream("/cep/{cep}"), fallback.upstream("/ws/{cep}/json"));
+
+        // When
+        CepResponse response = cepClient.findByCep("01001000");
+
+        // Then
+        assertThat(response.getLogradouro()).isEqualTo("fallback");
+        assertThat(primary.paths).containsExactly("/cep/01001000");
+        assertThat(fallback.paths).containsExactly("/ws/01001000/json");
+    }
+
+    @Test
+    void findByCep_WhenPrimaryExceedsReadTimeout_ShouldFallBack() throws Exception {
+        // Given
+        StubUpstream primary = stub("primary", "/cep/", 200, 2_000);
+        StubUpstream fallback = stub("fallback", "/cep/", 200, 0);
+        AppProperties.Upstream slow = primary.upstream("/cep/{cep}");
+        slow.setReadTimeout(Duration.ofMillis(200));
+        cepClient = client(slow, fallback.upstream("/cep/{cep}"));
+
+        // When
+        long start = System.nanoTime();
+        CepResponse response = cepClient.findByCep("01001000");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(response.getLogradouro()).isEqualTo("fallback");
+        assertThat(elapsedMillis).isLessThan(1_500);
+    }
+
+    @Test
+    void fetch_WhenPrimaryIsSlowAndHedgingEnabled_ShouldReturnFirstResponse() throws Exception {
+        // Given
+        props.getRouting().setHedgingEnabled(true);
+        props.getRouting().setHedgeMaxDelay(Duration.ofMillis(50));
+        StubUpstream primary = stub("primary", "/cep/", 200, 2_000);
+        StubUpstream fallback = stub("fallback", "/cep/", 200, 0);
+        cepClient = client(primary.upstream("/cep/{cep}"), fallback.upstream("/cep/{cep}"));
+
+        // When
+        long start = System.nanoTime();
+        CepResponse response = cepClient.fetch("01001000").block();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(response.getLogradouro()).isEqualTo("fallback");
+        assertThat(elapsedMillis).isLessThan(1_500);
+        assertThat(primary.paths).hasSize(1);
+        assertThat(fallback.paths).hasSize(1);
+    }
+
+    @Test
+    void findByCep_WithUpstreamsOfDifferentLatency_ShouldPreferFasterOne() throws Exception {
+        // Given
+        StubUpstream slow = stub("slow", "/cep/", 200, 60);
+        StubUpstream fast = stub("fast", "/cep/", 200, 0);
+        cepClient = client(slow.upstream("/cep/{cep}"), fast.upstream("/cep/{cep}"));
+
+        // When
+        for (int i = 0; i < 30; i++) {
+            cepClient.findByCep(String.format("0100%04d", i));
+        }
+
+        // Then
+        assertThat(fast.paths.size()).isGreaterThanOrEqualTo(25);
+        assertThat(slow.paths.size()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void findByCep_WhenPrimaryAnswersNotFound_ShouldNotCallFallback() throws Exception {
+        // Given
+        StubUpstream primary = stub("primary", "/cep/", 404, 0);
+        StubUpstream fallback = stub("fallback", "/cep/", 200, 0);
+        cepClient = client(primary.upstream("/cep/{cep}"), fallback.upstream("/cep/{cep}"));
+
+        // When & Then
+        assertThatThrownBy(() -> cepClient.findByCep("99999999")).isInstanceOf(CepNotFoundException.class);
+        assertThat(fallback.paths).isEmpty();
+    }
+
+    @Test
+    void findByCep_WhenEveryCircuitIsOpen_ShouldFailFastWithoutCallingUpstreams() throws Exception {
+        // Given
+        props.getCircuitBreaker().setWindowSize(2);
+        props.getCircuitBreaker().setMinimumCalls(2);
+        StubUpstream primary = stub("primary", "/cep/", 503, 0);
+        StubUpstream fallback = stub("fallback", "/cep/", 503, 0);
+        cepClient = client(primary.upstream("/cep/{cep}"), fallback.upstream("/cep/{cep}"));
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> cepClient.findByCep("01001000"))
+                    .isNotInstanceOf(UpstreamUnavailableException.class);
+        }
+
+        // When & Then
+        assertThatThrownBy(() -> cepClient.findByCep("01001000")).isInstanceOf(UpstreamUnavailableException.class);
+        assertThat(primary.paths).hasSize(2);
+        assertThat(fallback.paths).hasSize(2);
+    }
+
+    private CepClient client(AppProperties.Upstream... upstreams) {
+        props.setUpstreams(List.of(upstreams));
+        return new WebClientConfig().cepClient(props);
+    }
+
+    private StubUpstream stub(String name, String prefix, int status, long delayMillis) throws IOException {
+        StubUpstream stub = new StubUpstream(name, prefix, status, delayMillis);
+        stubs.add(stub);
+        return stub;
+    }
+
+    /**
+     * Provedor falso: responde {@code status} após {@code delayMillis}, com o
+     * próprio nome no campo {@code logradouro}.
+     */
+    private static final class StubUpstream {
+
+        private final String name;
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final List<String> paths = new CopyOnWriteArrayList<>();
+
+        StubUpstream(String name, String prefix, int status, long delayMillis) throws IOException {
+            this.name = name;
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext(prefix, exchange -> {
+                String path = exchange.getRequestURI().getPath();
+                paths.add(path);
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = status == 200
+                        ? ("{\"cep\": \"" + path.replaceAll("\\D", "") + "\", \"logradouro\": \"" + name + "\"}")
+                                .getBytes(StandardCharsets.UTF_8)
+                        : new byte[0];
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                try {
+                    exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                } catch (IOException e) {
+                    // cliente já cancelou (hedge ou timeout)
+                }
+            });
+            server.setExecutor(executor);
+            server.start();
+        }
+
+        AppProperties.Upstream upstream(String uriTemplate) {
+            AppProperties.Upstream upstream = new AppProperties.Upstream();
+            upstream.setName(name);
+            upstream.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+            upstream.setUriTemplate(uriTemplate);
+            return upstream;
+        }
+
+        void stop() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
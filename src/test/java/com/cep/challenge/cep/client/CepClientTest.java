@@ -1,10 +1,10 @@
 package com.cep.challenge.cep.client;
 
 import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.exception.CepNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -32,13 +32,14 @@ class CepClientTest {
     @Mock
     private WebClient.ResponseSpec responseSpec;
 
-    @InjectMocks
     private CepClient cepClient;
 
     private CepResponse expectedResponse;
 
     @BeforeEach
     void setUp() {
+        cepClient = new CepClient(webClient);
+
         expectedResponse = new CepResponse();
         expectedResponse.setCep("01001000");
         expectedResponse.setLogradouro("Praça da Sé");
@@ -123,6 +124,37 @@ class CepClientTest {
                 .hasMessageContaining("Erro ao consultar CEP na API externa");
     }
 
+    @Test
+    void fetch_WhenApiReturnsNotFound_ShouldEmitCepNotFoundException() {
+        // Given
+        String cep = "99999999";
+        WebClientResponseException exception = WebClientResponseException.create(404, "Not Found", null, null, null);
+
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri("/cep/{cep}", cep)).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(CepResponse.class)).thenReturn(Mono.error(exception));
+
+        // When & Then
+        assertThatThrownBy(() -> cepClient.fetch(cep).block())
+                .isInstanceOf(CepNotFoundException.class)
+                .hasCause(exception);
+    }
+
+    @Test
+    void fetch_WhenApiReturnsEmptyBody_ShouldEmitCepNotFoundException() {
+        // Given
+        String cep = "88888888";
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri("/cep/{cep}", cep)).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(CepResponse.class)).thenReturn(Mono.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> cepClient.fetch(cep).block())
+                .isInstanceOf(CepNotFoundException.class);
+    }
+
     private void setupWebClientMocks(CepResponse response) {
         when(webClient.get()).thenReturn(requestHeadersUriSpec);
         when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
@@ -0,0 +1,138 @@
+package com.cep.challenge.cep.client;
+
+import com.cep.challenge.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private AppProperties.CircuitBreaker config;
+
+    @BeforeEach
+    void setUp() {
+        config = new AppProperties.CircuitBreaker();
+        config.setWindowSize(10);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(0.5);
+        config.setSlowCallThreshold(Duration.ofSeconds(1));
+        config.setOpenDuration(Duration.ofSeconds(10));
+        config.setHalfOpenCalls(2);
+    }
+
+    @Test
+    void tryAcquire_AfterFailureRateReachesThreshold_ShouldRejectCalls() {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(config, nanos::get);
+
+        // When
+        succeed(breaker, Duration.ofMillis(10));
+        fail(breaker);
+        succeed(breaker, Duration.ofMillis(10));
+        CircuitBreaker.State belowMinimum = breaker.state();
+        succeed(breaker, Duration.ofSeconds(2));
+
+        // Then
+        assertThat(belowMinimum).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.isCallPermitted()).isFalse();
+    }
+
+    @Test
+    void tryAcquire_AfterOpenDuration_ShouldCloseOnlyWhenAllTrialCallsSucceed() {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(config, nanos::get);
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+
+        // When
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        boolean first = breaker.tryAcquire();
+        boolean second = breaker.tryAcquire();
+        boolean third = breaker.tryAcquire();
+        breaker.onSuccess(Duration.ofMillis(10).toNanos());
+        CircuitBreaker.State afterOneTrial = breaker.state();
+        breaker.onSuccess(Duration.ofMillis(10).toNanos());
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(afterOneTrial).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void onFailure_InHalfOpen_ShouldReopenForAnotherOpenDuration() {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(config, nanos::get);
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // When
+        fail(breaker);
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        // Then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void onCancel_InHalfOpen_ShouldReleaseTrialPermit() {
+        // Given
+        config.setHalfOpenCalls(1);
+        CircuitBreaker breaker = new CircuitBreaker(config, nanos::get);
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // When
+        breaker.tryAcquire();
+        boolean whileTrialRuns = breaker.tryAcquire();
+        breaker.onCancel();
+        boolean afterCancel = breaker.tryAcquire();
+
+        // Then
+        assertThat(whileTrialRuns).isFalse();
+        assertThat(afterCancel).isTrue();
+    }
+
+    @Test
+    void tryAcquire_WhenDisabled_ShouldAlwaysAllow() {
+        // Given
+        config.setEnabled(false);
+        CircuitBreaker breaker = new CircuitBreaker(config, nanos::get);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            fail(breaker);
+        }
+
+        // Then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private static void succeed(CircuitBreaker breaker, Duration latency) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess(latency.toNanos());
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+    }
+}
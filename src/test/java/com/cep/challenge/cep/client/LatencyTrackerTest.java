@@ -0,0 +1,60 @@
+package com.cep.challenge.cep.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyTrackerTest {
+
+    @Test
+    void percentileNanos_ShouldStayWithinBucketResolution() {
+        // Given
+        LatencyTracker tracker = new LatencyTracker(0.2, 0);
+
+        // When
+        for (int i = 1; i <= 100; i++) {
+            tracker.start();
+            tracker.success(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        // Then
+        long p95 = tracker.percentileNanos(0.95);
+        assertThat(p95).isBetween(TimeUnit.MILLISECONDS.toNanos(95), TimeUnit.MILLISECONDS.toNanos(95) * 5 / 4);
+        assertThat(tracker.sampleCount()).isEqualTo(100);
+        assertThat(tracker.inFlight()).isZero();
+    }
+
+    @Test
+    void score_ShouldPenalizeFastFailuresAndInFlightCalls() {
+        // Given
+        LatencyTracker healthy = new LatencyTracker(0.5, TimeUnit.SECONDS.toNanos(1));
+        LatencyTracker failing = new LatencyTracker(0.5, TimeUnit.SECONDS.toNanos(1));
+        healthy.start();
+        healthy.success(TimeUnit.MILLISECONDS.toNanos(50));
+        failing.start();
+        failing.failure(TimeUnit.MILLISECONDS.toNanos(1));
+
+        // When
+        double idle = healthy.score();
+        healthy.start();
+        double busy = healthy.score();
+
+        // Then
+        assertThat(failing.score()).isGreaterThan(idle);
+        assertThat(busy).isCloseTo(idle * 2, within(1.0));
+    }
+
+    @Test
+    void bucketOf_ShouldBeConsistentWithUpperBound() {
+        for (long nanos : new long[]{0, 1, 3, 4, 7, 8, 9, 1_000, 1_000_000, 123_456_789, Long.MAX_VALUE / 2}) {
+            int bucket = LatencyTracker.bucketOf(nanos);
+            assertThat(LatencyTracker.upperBound(bucket)).isGreaterThanOrEqualTo(nanos);
+            if (bucket > 0) {
+                assertThat(LatencyTracker.upperBound(bucket - 1)).isLessThan(nanos);
+            }
+        }
+    }
+}
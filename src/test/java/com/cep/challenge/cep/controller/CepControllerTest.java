@@ -1,21 +1,41 @@
 package com.cep.challenge.cep.controller;
 
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.cache.SerializedCepCache;
+import com.cep.challenge.cep.dto.CepBatchItem;
 import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.dto.StaleCepResponse;
+import com.cep.challenge.cep.exception.CepNotFoundException;
+import com.cep.challenge.cep.exception.InvalidCepException;
+import com.cep.challenge.cep.exception.UpstreamOverloadedException;
 import com.cep.challenge.cep.service.CepService;
+import com.cep.challenge.config.AppProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CepController.class)
+@Import({SerializedCepCache.class, CepCache.class, AppProperties.class})
 class CepControllerTest {
 
     @Autowired
@@ -88,6 +108,65 @@ class CepControllerTest {
                 .andExpect(jsonPath("$.uf").value("MG"));
     }
 
+    @Test
+    void getCep_ShouldReturnStrongEtagAndCacheControl() throws Exception {
+        // Given
+        String cep = "01001000";
+        when(cepService.getCep(cep)).thenReturn(createCepResponse(cep, "Praça da Sé", "Sé", "São Paulo", "SP"));
+
+        // When
+        MvcResult first = mockMvc.perform(get("/api/ceps/{cep}", cep)).andReturn();
+        MvcResult second = mockMvc.perform(get("/api/ceps/{cep}", cep)).andReturn();
+
+        // Then
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+        assertThat(second.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(first.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=3600, public");
+    }
+
+    @Test
+    void getCep_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutBody() throws Exception {
+        // Given
+        String cep = "01001000";
+        when(cepService.getCep(cep)).thenReturn(createCepResponse(cep, "Praça da Sé", "Sé", "São Paulo", "SP"));
+        String etag = mockMvc.perform(get("/api/ceps/{cep}", cep)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        mockMvc.perform(get("/api/ceps/{cep}", cep).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getCep_WithStaleResponse_ShouldNotBeCacheable() throws Exception {
+        // Given
+        String cep = "01001000";
+        when(cepService.getCep(cep)).thenReturn(
+                new StaleCepResponse(createCepResponse(cep, "Praça da Sé", "Sé", "São Paulo", "SP")));
+
+        // When & Then
+        mockMvc.perform(get("/api/ceps/{cep}", cep))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.stale").value(true));
+    }
+
+    @Test
+    void getCep_WhenUpstreamIsOverloaded_ShouldReturnServiceUnavailableWithRetryAfter() throws Exception {
+        // Given
+        String cep = "01001000";
+        when(cepService.getCep(cep)).thenThrow(
+                new UpstreamOverloadedException("API externa no limite", Duration.ofMillis(1500)));
+
+        // When & Then
+        mockMvc.perform(get("/api/ceps/{cep}", cep))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.detail").value("API externa no limite"));
+    }
+
     @Test
     void searchCep_WithMissingCepParam_ShouldReturnBadRequest() throws Exception {
         // When & Then
@@ -96,6 +175,75 @@ class CepControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getCep_WithInvalidCep_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(cepService.getCep("abc")).thenThrow(new InvalidCepException("CEP inválido: abc"));
+
+        // When & Then
+        mockMvc.perform(get("/api/ceps/{cep}", "abc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCep_WhenCepDoesNotExist_ShouldReturnNotFound() throws Exception {
+        // Given
+        when(cepService.getCep("99999999")).thenThrow(new CepNotFoundException("CEP 99999999 não encontrado (cache)"));
+
+        // When & Then
+        mockMvc.perform(get("/api/ceps/{cep}", "99999999"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getCeps_WithJsonAccept_ShouldReturnAllItems() throws Exception {
+        // Given
+        List<String> ceps = List.of("01001000", "99999999");
+        when(cepService.getCeps(eq(ceps), eq(true))).thenReturn(Flux.just(
+                CepBatchItem.found("01001000", createCepResponse("01001000", "Praça da Sé", "Sé", "São Paulo", "SP")),
+                new CepBatchItem("99999999", CepBatchItem.Status.NOT_FOUND, null, "CEP não encontrado")));
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/ceps/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ceps\": [\"01001000\", \"99999999\"]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.results[0].cep").value("01001000"))
+                .andExpect(jsonPath("$.results[0].status").value("FOUND"))
+                .andExpect(jsonPath("$.results[0].data.logradouro").value("Praça da Sé"))
+                .andExpect(jsonPath("$.results[1].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    void getCeps_WithNdjsonAccept_ShouldStreamItems() throws Exception {
+        // Given
+        List<String> ceps = List.of("01001000", "20040020");
+        when(cepService.getCeps(eq(ceps), eq(false))).thenReturn(Flux.just(
+                CepBatchItem.found("20040020", createCepResponse("20040020", "Rua Primeiro de Março", "Centro", "Rio de Janeiro", "RJ")),
+                CepBatchItem.found("01001000", createCepResponse("01001000", "Praça da Sé", "Sé", "São Paulo", "SP"))));
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/ceps/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content("{\"ceps\": [\"01001000\", \"20040020\"]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+
+        // Then
+        String[] lines = result.getResponse().getContentAsString().trim().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], CepBatchItem.class).getCep()).isEqualTo("20040020");
+        assertThat(objectMapper.readValue(lines[1], CepBatchItem.class).getCep()).isEqualTo("01001000");
+    }
 
     private CepResponse createCepResponse(String cep, String logradouro, String bairro, String localidade, String uf) {
         CepResponse response = new CepResponse();
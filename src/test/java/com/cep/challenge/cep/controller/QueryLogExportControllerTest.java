@@ -0,0 +1,83 @@
+package com.cep.challenge.cep.controller;
+
+import com.cep.challenge.cep.exception.InvalidExportQueryException;
+import com.cep.challenge.cep.export.QueryLogExporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(QueryLogExportController.class)
+class QueryLogExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private QueryLogExporter exporter;
+
+    @Test
+    void export_WithGzipAccepted_ShouldStreamCompressedCsvAttachment() throws Exception {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2026, 3, 1, 0, 0);
+        QueryLogExporter.Request request = new QueryLogExporter.Request(from, null, QueryLogExporter.Format.CSV, true);
+        when(exporter.request(eq(from), isNull(), eq("csv"), eq(true))).thenReturn(request);
+        when(exporter.export(eq(request), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("gz".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // When & Then
+        mockMvc.perform(get("/api/query-logs/export")
+                        .param("from", "2026-03-01T00:00:00")
+                        .param("format", "csv")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"query-logs.csv\""))
+                .andExpect(content().string("gz"));
+    }
+
+    @Test
+    void export_WithInvalidFormat_ShouldReturnBadRequestWithoutExporting() throws Exception {
+        // Given
+        when(exporter.request(any(), any(), eq("xml"), eq(false)))
+                .thenThrow(new InvalidExportQueryException("Formato inválido: xml"));
+
+        // When & Then
+        mockMvc.perform(get("/api/query-logs/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+        verify(exporter, never()).export(any(), any());
+    }
+
+    @Test
+    void acceptsGzip_ShouldParseCodingsAndHonourZeroQuality() {
+        // When & Then
+        assertThat(QueryLogExportController.acceptsGzip("gzip, deflate")).isTrue();
+        assertThat(QueryLogExportController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(QueryLogExportController.acceptsGzip("br, *")).isTrue();
+        assertThat(QueryLogExportController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(QueryLogExportController.acceptsGzip("gzip; q=0.0, *")).isFalse();
+        assertThat(QueryLogExportController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(QueryLogExportController.acceptsGzip("x-gzip")).isFalse();
+        assertThat(QueryLogExportController.acceptsGzip("identity")).isFalse();
+        assertThat(QueryLogExportController.acceptsGzip(null)).isFalse();
+    }
+}
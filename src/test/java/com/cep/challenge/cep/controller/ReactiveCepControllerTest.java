@@ -0,0 +1,106 @@
+package com.cep.challenge.cep.controller;
+
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.cache.SerializedCepCache;
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.exception.CepNotFoundException;
+import com.cep.challenge.cep.service.CepService;
+import com.cep.challenge.config.AppProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveCepController.class)
+@Import({SerializedCepCache.class, CepCache.class, AppProperties.class})
+class ReactiveCepControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private CepService cepService;
+
+    @Test
+    void getCep_WithValidCep_ShouldReturnCepResponse() {
+        // Given
+        String cep = "01001000";
+        when(cepService.getCepReactive(cep))
+                .thenReturn(Mono.just(new CepResponse(cep, "Praça da Sé", "Sé", "São Paulo", "SP")));
+
+        // When & Then
+        webTestClient.get().uri("/api/ceps/{cep}", cep)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.cep").isEqualTo(cep)
+                .jsonPath("$.logradouro").isEqualTo("Praça da Sé")
+                .jsonPath("$.localidade").isEqualTo("São Paulo");
+    }
+
+    @Test
+    void searchCep_WithValidCep_ShouldReturnCepResponse() {
+        // Given
+        String cep = "20040020";
+        when(cepService.getCepReactive(cep))
+                .thenReturn(Mono.just(new CepResponse(cep, "Rua Primeiro de Março", "Centro", "Rio de Janeiro", "RJ")));
+
+        // When & Then
+        webTestClient.get().uri(uriBuilder -> uriBuilder.path("/api/ceps/search").queryParam("cep", cep).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.cep").isEqualTo(cep)
+                .jsonPath("$.uf").isEqualTo("RJ");
+    }
+
+    @Test
+    void getCep_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutBody() {
+        // Given
+        String cep = "01001000";
+        when(cepService.getCepReactive(cep))
+                .thenReturn(Mono.just(new CepResponse(cep, "Praça da Sé", "Sé", "São Paulo", "SP")));
+        String etag = webTestClient.get().uri("/api/ceps/{cep}", cep)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=3600, public")
+                .returnResult(byte[].class)
+                .getResponseHeaders().getETag();
+        assertThat(etag).isNotBlank();
+
+        // When & Then
+        webTestClient.get().uri("/api/ceps/{cep}", cep)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getCep_WhenCepDoesNotExist_ShouldReturnNotFound() {
+        // Given
+        when(cepService.getCepReactive("99999999"))
+                .thenReturn(Mono.error(new CepNotFoundException("CEP 99999999 não encontrado (cache)")));
+
+        // When & Then
+        webTestClient.get().uri("/api/ceps/{cep}", "99999999")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void searchCep_WithMissingCepParam_ShouldReturnBadRequest() {
+        webTestClient.get().uri("/api/ceps/search")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,145 @@
+package com.cep.challenge.cep.export;
+
+import com.cep.challenge.cep.domain.QueryLog;
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.exception.InvalidExportQueryException;
+import com.cep.challenge.cep.repository.QueryLogRepository;
+import com.cep.challenge.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryLogExporterTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 3, 10, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QueryLogRepository queryLogRepository;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private QueryLogExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        queryLogRepository.deleteAll();
+        AppProperties props = new AppProperties();
+        props.getExport().setFetchSize(2);
+        exporter = new QueryLogExporter(jdbcTemplate, transactionManager, objectMapper, props);
+    }
+
+    @Test
+    void export_Ndjson_ShouldWriteOneLinePerRowInPeriodAcrossFetches() throws IOException {
+        // Given
+        save("01001000", DAY.minusMinutes(1), QuerySource.UPSTREAM);
+        for (int i = 0; i < 5; i++) {
+            save("0100100" + i, DAY.plusHours(i), QuerySource.CACHE);
+        }
+        save("20040020", DAY.plusDays(1), QuerySource.UPSTREAM);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exporter.export(exporter.request(DAY, DAY.plusDays(1), "ndjson", false), out);
+
+        // Then
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(rows).isEqualTo(5);
+        assertThat(body).endsWith("\n");
+        List<QueryLog> exported = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            exported.add(objectMapper.readValue(line, QueryLog.class));
+        }
+        assertThat(exported).extracting(QueryLog::getCep)
+                .containsExactlyInAnyOrder("01001000", "01001001", "01001002", "01001003", "01001004");
+        assertThat(exported).allSatisfy(log -> {
+            assertThat(log.getSource()).isEqualTo(QuerySource.CACHE);
+            assertThat(log.getQueryTime()).isBetween(DAY, DAY.plusHours(4));
+        });
+    }
+
+    @Test
+    void export_Csv_ShouldWriteHeaderAndQuoteFieldsThatNeedIt() throws IOException {
+        // Given
+        save("01001000", DAY.plusSeconds(5), QuerySource.UPSTREAM);
+        save("01,\"x\"", DAY.plusSeconds(6), null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exporter.export(exporter.request(null, null, "CSV", false), out);
+
+        // Then
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.get(0)).isEqualTo("id,cep,query_time,response_time_ms,success,cache_hit,source");
+        assertThat(lines.subList(1, lines.size()))
+                .extracting(line -> line.substring(line.indexOf(',') + 1))
+                .containsExactlyInAnyOrder(
+                        "01001000,2026-03-10T00:00:05,12,true,false,UPSTREAM",
+                        "\"01,\"\"x\"\"\",2026-03-10T00:00:06,12,true,false,");
+    }
+
+    @Test
+    void export_WithGzip_ShouldCompressWithoutClosingTheTarget() throws IOException {
+        // Given
+        save("01001000", DAY, QuerySource.UPSTREAM);
+        ClosableOutput out = new ClosableOutput();
+
+        // When
+        exporter.export(exporter.request(null, null, null, true), out);
+
+        // Then
+        assertThat(out.closed).isFalse();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(objectMapper.readValue(body.trim(), QueryLog.class).getCep()).isEqualTo("01001000");
+        }
+    }
+
+    @Test
+    void request_WithUnknownFormatOrEmptyPeriod_ShouldFail() {
+        assertThatThrownBy(() -> exporter.request(null, null, "xml", false))
+                .isInstanceOf(InvalidExportQueryException.class);
+        assertThatThrownBy(() -> exporter.request(DAY, DAY, "csv", false))
+                .isInstanceOf(InvalidExportQueryException.class);
+    }
+
+    private void save(String cep, LocalDateTime queryTime, QuerySource source) {
+        queryLogRepository.save(new QueryLog(null, cep, queryTime, 12L, true, false, source));
+    }
+
+    private static final class ClosableOutput extends ByteArrayOutputStream {
+
+        boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
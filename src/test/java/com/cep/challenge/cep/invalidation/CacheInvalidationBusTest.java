@@ -0,0 +1,201 @@
+package com.cep.challenge.cep.invalidation;
+
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.cache.PersistentCepCache;
+import com.cep.challenge.cep.cache.SerializedCep;
+import com.cep.challenge.cep.cache.SerializedCepCache;
+import com.cep.challenge.cep.dto.CacheInvalidationResponse;
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.dto.OfflineCepResponse;
+import com.cep.challenge.cep.exception.InvalidCacheInvalidationException;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Três instâncias na mesma JVM, cada uma com seu cache em memória, seu
+ * agendador e seu {@link JdbcInvalidationTransport}, sobre o mesmo banco.
+ */
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheInvalidationBusTest {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+    /** Atraso máximo aceito: algumas leituras, com folga para uma máquina lenta. */
+    private static final Duration MAX_DELAY = Duration.ofSeconds(2);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private AppProperties props;
+    private final List<Instance> instances = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from cache_invalidations");
+        props = new AppProperties();
+        props.getPersistentCache().setEnabled(false);
+        props.getInvalidation().setPollInterval(POLL_INTERVAL);
+        for (int i = 0; i < 3; i++) {
+            instances.add(new Instance("instance-" + i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        instances.forEach(Instance::stop);
+    }
+
+    @Test
+    void invalidate_WithCep_ShouldReachEveryInstanceWithinBoundedDelay() {
+        // Given
+        instances.forEach(instance -> instance.put("01001000", "20040020"));
+
+        // When
+        CacheInvalidationResponse response = instances.get(0).bus.invalidate("01001-000", null, false);
+
+        // Then
+        assertThat(response.isPropagated()).isTrue();
+        assertThat(response.getLocalRemoved()).isEqualTo(1);
+        assertThat(instances.get(0).contains("01001000")).isFalse();
+        await().atMost(MAX_DELAY).pollInterval(Duration.ofMillis(10)).untilAsserted(() ->
+                assertThat(instances).noneMatch(instance -> instance.contains("01001000")));
+        assertThat(instances).allMatch(instance -> instance.contains("20040020"));
+    }
+
+    @Test
+    void invalidate_WithPrefixAndAll_ShouldApplySameRangeEverywhere() {
+        // Given
+        instances.forEach(instance -> instance.put("01001000", "01099999", "20040020"));
+
+        // When
+        instances.get(1).bus.invalidate(null, "010", false);
+
+        // Then
+        await().atMost(MAX_DELAY).untilAsserted(() -> assertThat(instances).allSatisfy(instance -> {
+            assertThat(instance.contains("01001000")).isFalse();
+            assertThat(instance.contains("01099999")).isFalse();
+            assertThat(instance.contains("20040020")).isTrue();
+        }));
+
+        // When
+        instances.get(2).bus.invalidate(null, null, true);
+
+        // Then
+        await().atMost(MAX_DELAY).untilAsserted(() ->
+                assertThat(instances).allMatch(instance -> instance.cepCache.size() == 0));
+    }
+
+    @Test
+    void invalidate_ShouldDropSerializedResponsesOnEveryInstance() {
+        // Given
+        instances.forEach(instance -> instance.put("01001000"));
+        OfflineCepResponse offline = new OfflineCepResponse(1, "20040020", "Rua Primeiro de Março", "Centro",
+                "Rio de Janeiro", "RJ");
+        Instance receiver = instances.get(1);
+        CepResponse response = receiver.cepCache.get(CepKeys.parse("01001000")).response();
+        SerializedCep before = receiver.serializedCache.get(response);
+        SerializedCep offlineBefore = receiver.serializedCache.get(offline);
+
+        // When
+        instances.get(0).bus.invalidate(null, null, true);
+
+        // Then
+        await().atMost(MAX_DELAY).until(() -> receiver.remoteInvalidations() == 1);
+        assertThat(receiver.serializedCache.get(response).json()).isNotSameAs(before.json());
+        assertThat(receiver.serializedCache.get(offline).json()).isNotSameAs(offlineBefore.json());
+    }
+
+    @Test
+    void start_ShouldNotReplayInvalidationsPublishedBeforeInstanceExisted() {
+        // Given
+        instances.get(0).bus.invalidate(null, null, true);
+        Instance late = new Instance("late");
+        instances.add(late);
+        late.put("01001000");
+
+        // When
+        instances.get(1).bus.invalidate("20040020", null, false);
+
+        // Then
+        await().atMost(MAX_DELAY).until(() -> late.remoteInvalidations() == 1);
+        assertThat(late.contains("01001000")).isTrue();
+    }
+
+    @Test
+    void invalidate_WithoutExactlyOneTarget_ShouldRejectRequest() {
+        // Given
+        CacheInvalidationBus bus = instances.get(0).bus;
+
+        // When / Then
+        assertThatThrownBy(() -> bus.invalidate(null, null, false))
+                .isInstanceOf(InvalidCacheInvalidationException.class);
+        assertThatThrownBy(() -> bus.invalidate("01001000", "010", false))
+                .isInstanceOf(InvalidCacheInvalidationException.class);
+        assertThatThrownBy(() -> bus.invalidate("0100100", null, false))
+                .isInstanceOf(InvalidCacheInvalidationException.class);
+    }
+
+    /**
+     * Uma "instância" da aplicação: cache em memória e barramento próprios.
+     */
+    private final class Instance {
+
+        final CepCache cepCache = new CepCache(props);
+        final SerializedCepCache serializedCache = new SerializedCepCache(new ObjectMapper(), props, cepCache);
+        final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        final CacheInvalidationBus bus;
+
+        Instance(String id) {
+            scheduler.setThreadNamePrefix(id + "-");
+            scheduler.initialize();
+            PersistentCepCache persistentCache = new PersistentCepCache(jdbcTemplate, transactionManager, props, null);
+            bus = new CacheInvalidationBus(cepCache, persistentCache,
+                    new JdbcInvalidationTransport(jdbcTemplate, scheduler, props.getInvalidation()), id);
+            bus.start();
+        }
+
+        void put(String... ceps) {
+            for (String cep : ceps) {
+                cepCache.putFound(CepKeys.parse(cep), new CepResponse(cep, "Logradouro", "Sé", "São Paulo", "SP"));
+            }
+        }
+
+        boolean contains(String cep) {
+            return cepCache.get(CepKeys.parse(cep)) != null;
+        }
+
+        double remoteInvalidations() {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            bus.bindTo(registry);
+            return registry.get("cep.cache.invalidations").tag("origin", "remote").functionCounter().count();
+        }
+
+        void stop() {
+            bus.destroy();
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.cep.challenge.cep.invalidation;
+
+import com.cep.challenge.config.AppProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Três transportes no mesmo grupo e porta, na loopback desta máquina.
+ */
+class MulticastInvalidationTransportTest {
+
+    private final List<MulticastInvalidationTransport> transports = new ArrayList<>();
+    private final List<List<Invalidation>> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        AppProperties.Invalidation config = new AppProperties().getInvalidation();
+        // porta própria por execução, para não receber de uma aplicação rodando na máquina
+        config.setMulticastPort(ThreadLocalRandom.current().nextInt(20_000, 40_000));
+        for (int i = 0; i < 3; i++) {
+            List<Invalidation> inbox = new CopyOnWriteArrayList<>();
+            MulticastInvalidationTransport transport = new MulticastInvalidationTransport(config);
+            transport.start(inbox::add);
+            transports.add(transport);
+            received.add(inbox);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        transports.forEach(MulticastInvalidationTransport::close);
+    }
+
+    @Test
+    void publish_ShouldReachEveryTransportOnTheGroupWithinBoundedDelay() {
+        // Given
+        Invalidation invalidation = new Invalidation(1_000_000, 1_099_999, "instance-0");
+
+        // When
+        transports.get(0).publish(invalidation);
+
+        // Then
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() ->
+                assertThat(received).allSatisfy(inbox -> assertThat(inbox).containsExactly(invalidation)));
+    }
+
+    @Test
+    void decode_ShouldReadWhatEncodeWrote() {
+        // Given
+        Invalidation invalidation = new Invalidation(0, 99_999_999, "a,b");
+
+        // When
+        Invalidation decoded = Invalidation.decode(invalidation.encode());
+
+        // Then
+        assertThat(decoded).isEqualTo(invalidation);
+        assertThat(decoded.isAll()).isTrue();
+    }
+}
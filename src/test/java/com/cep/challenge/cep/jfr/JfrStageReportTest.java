@@ -0,0 +1,73 @@
+package com.cep.challenge.cep.jfr;
+
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.metrics.CepMetrics.Outcome;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JfrStageReportTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void summarize_ShouldBreakDownLatencyPerStageAndSource() throws IOException {
+        // Given
+        Path file = dir.resolve("cep.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CepStageEvent.NAME);
+            recording.start();
+            CepStageEvent.start(CepStage.LOOKUP, "01001000").end(Outcome.SUCCESS, QuerySource.CACHE);
+            CepStageEvent.start(CepStage.LOOKUP, "01001000").end(Outcome.SUCCESS, QuerySource.CACHE);
+            CepStageEvent.start(CepStage.LOOKUP, "20040020").end(Outcome.NOT_FOUND, QuerySource.UPSTREAM);
+            CepStageEvent call = CepStageEvent.start(CepStage.UPSTREAM_CALL, "20040020");
+            call.upstream("viacep");
+            call.end(Outcome.NOT_FOUND);
+            CepStageEvent.trace(CepStage.REQUEST, "01001000", Mono.just("ok")).block();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // When
+        List<JfrStageReport.Row> rows = JfrStageReport.summarize(file);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JfrStageReport.print(rows, new PrintStream(out, true, StandardCharsets.UTF_8));
+
+        // Then
+        assertThat(rows).extracting(JfrStageReport.Row::name).containsExactly(
+                "request", "lookup", "lookup[cache]", "lookup[upstream]", "upstream_call", "upstream_call[viacep]");
+        assertThat(rows).extracting(JfrStageReport.Row::count).containsExactly(1, 3, 2, 1, 1, 1);
+        assertThat(rows).allSatisfy(row -> assertThat(row.p50Nanos())
+                .isLessThanOrEqualTo(row.p95Nanos())
+                .isLessThanOrEqualTo(row.p99Nanos())
+                .isLessThanOrEqualTo(row.maxNanos()));
+        assertThat(out.toString(StandardCharsets.UTF_8)).startsWith("stage").contains("lookup[cache]");
+    }
+
+    @Test
+    void start_WhenNotRecording_ShouldNotAllocateEvents() {
+        // Given
+        Mono<String> mono = Mono.just("ok");
+
+        // When
+        CepStageEvent event = CepStageEvent.start(CepStage.LOOKUP, "01001000");
+        event.end(Outcome.SUCCESS, QuerySource.CACHE);
+
+        // Then
+        assertThat(CepStageEvent.start(CepStage.CACHE, "01310100")).isSameAs(event);
+        assertThat(event.stage).isNull();
+        assertThat(event.outcome).isNull();
+        assertThat(CepStageEvent.trace(CepStage.REQUEST, "01001000", mono)).isSameAs(mono);
+    }
+}
@@ -0,0 +1,156 @@
+package com.cep.challenge.cep.offline;
+
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.dto.OfflineCepResponse;
+import com.cep.challenge.cep.invalidation.CacheInvalidationBus;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class OfflineCepSourceTest {
+
+    @TempDir
+    Path dir;
+
+    private AppProperties props;
+
+    private final CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+
+    @BeforeEach
+    void setUp() {
+        props = new AppProperties();
+        props.getOffline().setMode(AppProperties.Offline.Mode.OFFLINE_THEN_REMOTE);
+        props.getOffline().setDatasetFile(dir.resolve("ceps.dat").toString());
+    }
+
+    @Test
+    void find_AfterCsvImport_ShouldServeEntriesFromMappedFile() throws Exception {
+        // Given
+        Path csv = dir.resolve("ceps.csv");
+        Files.writeString(csv, """
+                cep;logradouro;bairro;localidade;uf
+                20040-020;Rua Primeiro de Março;Centro;Rio de Janeiro;RJ
+                01001-000;"Praça da Sé";Sé;São Paulo;SP
+                invalido;Rua X;Bairro;Cidade;SP
+                01310-100;Avenida Paulista;Bela Vista;São Paulo;SP
+                """, StandardCharsets.UTF_8);
+        props.getOffline().setImportFile(csv.toString());
+        OfflineCepSource source = newSource();
+
+        // When
+        source.reload();
+
+        // Then
+        CepResponse response = source.find("01001000");
+        assertThat(response).isNotNull();
+        assertThat(response.getCep()).isEqualTo("01001000");
+        assertThat(response.getLogradouro()).isEqualTo("Praça da Sé");
+        assertThat(response.getBairro()).isEqualTo("Sé");
+        assertThat(response.getLocalidade()).isEqualTo("São Paulo");
+        assertThat(response.getUf()).isEqualTo("SP");
+        assertThat(source.find("01310-100").getLogradouro()).isEqualTo("Avenida Paulista");
+        assertThat(source.find("99999999")).isNull();
+        assertThat(source.find("lixo")).isNull();
+
+        CepDataset dataset = source.dataset();
+        assertThat(dataset.size()).isEqualTo(3);
+        assertThat(dataset.keyAt(0)).isEqualTo(1_001_000);
+        assertThat(dataset.keyAt(2)).isEqualTo(20_040_020);
+    }
+
+    @Test
+    void find_AfterReload_ShouldTagResponsesWithNewDatasetVersion() throws Exception {
+        // Given
+        Path json = dir.resolve("ceps.json");
+        Files.writeString(json, """
+                [{"cep": "01001-000", "logradouro": "Praça da Sé", "bairro": "Sé", "localidade": "São Paulo", "uf": "SP"}]
+                """, StandardCharsets.UTF_8);
+        props.getOffline().setImportFile(json.toString());
+        OfflineCepSource source = newSource();
+        source.reload();
+
+        // When
+        CepResponse first = source.find("01001000");
+        CepResponse second = source.find("01001-000");
+        Files.writeString(json, """
+                [{"cep": "01001-000", "logradouro": "Praça da Sé - lado ímpar", "bairro": "Sé", "localidade": "São Paulo", "uf": "SP"}]
+                """, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(json, FileTime.from(Instant.now().plusSeconds(60)));
+        source.reload();
+        CepResponse reloaded = source.find("01001000");
+
+        // Then
+        assertThat(((OfflineCepResponse) second).getDatasetVersion())
+                .isEqualTo(((OfflineCepResponse) first).getDatasetVersion());
+        assertThat(((OfflineCepResponse) reloaded).getDatasetVersion())
+                .isGreaterThan(((OfflineCepResponse) first).getDatasetVersion());
+        assertThat(reloaded.getLogradouro()).isEqualTo("Praça da Sé - lado ímpar");
+    }
+
+    @Test
+    void reload_WithNewerImportFile_ShouldSwapDatasetAtomically() throws Exception {
+        // Given
+        Path json = dir.resolve("ceps.json");
+        Files.writeString(json, """
+                [{"cep": "01001-000", "logradouro": "Praça da Sé", "bairro": "Sé", "localidade": "São Paulo", "uf": "SP"}]
+                """, StandardCharsets.UTF_8);
+        props.getOffline().setImportFile(json.toString());
+        OfflineCepSource source = newSource();
+        source.reload();
+        CepDataset before = source.dataset();
+        verify(invalidationBus, never()).invalidate(CepKeys.MIN, CepKeys.MAX);
+
+        // When
+        Files.writeString(json, """
+                [{"cep": "01001-000", "logradouro": "Praça da Sé", "bairro": "Sé", "localidade": "São Paulo", "uf": "SP"},
+                 {"cep": "30112-000", "logradouro": "Rua da Bahia", "bairro": "Centro", "localidade": "Belo Horizonte", "uf": "MG"}]
+                """, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(json, FileTime.from(Instant.now().plusSeconds(60)));
+        source.reload();
+
+        // Then
+        assertThat(source.dataset()).isNotSameAs(before);
+        assertThat(before.find(30_112_000)).isNull();
+        assertThat(source.find("30112000").getLocalidade()).isEqualTo("Belo Horizonte");
+        verify(invalidationBus).invalidate(CepKeys.MIN, CepKeys.MAX);
+    }
+
+    @Test
+    void reload_WithCorruptedFile_ShouldKeepPreviousDataset() throws Exception {
+        // Given
+        Path csv = dir.resolve("ceps.csv");
+        Files.writeString(csv, "cep,logradouro\n01001000,Praça da Sé\n", StandardCharsets.UTF_8);
+        props.getOffline().setImportFile(csv.toString());
+        OfflineCepSource source = newSource();
+        source.reload();
+        props.getOffline().setImportFile(null);
+
+        // When
+        Path corrupted = Files.write(dir.resolve("corrupted.tmp"), new byte[]{1, 2, 3});
+        Files.move(corrupted, dir.resolve("ceps.dat"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        source.reload();
+
+        // Then
+        assertThat(source.find("01001000").getLogradouro()).isEqualTo("Praça da Sé");
+    }
+
+    private OfflineCepSource newSource() {
+        return new OfflineCepSource(props, new ObjectMapper(), mock(TaskScheduler.class), invalidationBus);
+    }
+}
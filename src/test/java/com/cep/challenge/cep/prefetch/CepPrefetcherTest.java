@@ -0,0 +1,158 @@
+package com.cep.challenge.cep.prefetch;
+
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.client.CepClient;
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.metrics.CepMetrics.Outcome;
+import com.cep.challenge.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CepPrefetcherTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private AppProperties props;
+    private CepCache cepCache;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        props = new AppProperties();
+        props.getPrefetch().setBudgetRatio(0.25);
+        props.getPrefetch().setBurst(100);
+        cepCache = new CepCache(props);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void candidates_WithRecurringCoRequest_ShouldPredictSuccessorUntilCached() {
+        // Given
+        CepPrefetcher prefetcher = prefetcher(new CepClient(WebClient.create()));
+        for (int i = 0; i < 3; i++) {
+            lookup(prefetcher, 1001000);
+            lookup(prefetcher, 20040020);
+        }
+        credit(prefetcher, 20);
+
+        // When
+        int[] predicted = prefetcher.candidates(1001000);
+        prefetcher.completed(20040020, false);
+        cepCache.putFound(20040020, new CepResponse());
+        int[] afterCached = prefetcher.candidates(1001000);
+
+        // Then
+        assertThat(predicted).containsExactly(20040020);
+        assertThat(afterCached).isEmpty();
+    }
+
+    @Test
+    void candidates_WithAdjacentPattern_ShouldPredictNeighbourOfNewCep() {
+        // Given
+        CepPrefetcher prefetcher = prefetcher(new CepClient(WebClient.create()));
+        for (int street = 1; street <= 3; street++) {
+            lookup(prefetcher, street * 1_000_000);
+            lookup(prefetcher, street * 1_000_000 + 1);
+        }
+        credit(prefetcher, 20);
+
+        // When
+        int[] predicted = prefetcher.candidates(5_000_000);
+
+        // Then
+        assertThat(predicted).containsExactly(5_000_001);
+    }
+
+    @Test
+    void candidates_ShouldStayWithinBudgetRatioOfUpstreamCalls() {
+        // Given
+        CepPrefetcher prefetcher = prefetcher(new CepClient(WebClient.create()));
+        for (int street = 1; street <= 3; street++) {
+            lookup(prefetcher, street * 1_000_000);
+            lookup(prefetcher, street * 1_000_000 + 1);
+        }
+        int demandCalls = 20;
+        credit(prefetcher, demandCalls);
+
+        // When
+        int issued = 0;
+        for (int street = 10; street < 60; street++) {
+            for (int next : prefetcher.candidates(street * 1_000_000)) {
+                prefetcher.completed(next, true);
+                issued++;
+            }
+        }
+
+        // Then
+        assertThat(issued).isPositive().isLessThanOrEqualTo((int) (demandCalls * 0.25));
+        assertThat(counter("cep.prefetch.throttled", "reason", "budget")).isPositive();
+    }
+
+    @Test
+    void candidates_WhenUpstreamHasNoIdleCapacity_ShouldNotPrefetch() {
+        // Given
+        CepClient cepClient = mock(CepClient.class);
+        when(cepClient.hasIdleCapacity(anyDouble())).thenReturn(false);
+        CepPrefetcher prefetcher = prefetcher(cepClient);
+        for (int i = 0; i < 3; i++) {
+            lookup(prefetcher, 1001000);
+            lookup(prefetcher, 20040020);
+        }
+        credit(prefetcher, 20);
+
+        // When
+        int[] predicted = prefetcher.candidates(1001000);
+
+        // Then
+        assertThat(predicted).isEmpty();
+        assertThat(counter("cep.prefetch.throttled", "reason", "busy")).isEqualTo(1);
+    }
+
+    @Test
+    void record_WhenPrefetchedCepIsServedFromCache_ShouldCountOneHit() {
+        // Given
+        CepPrefetcher prefetcher = prefetcher(new CepClient(WebClient.create()));
+        prefetcher.completed(1001000, true);
+        prefetcher.completed(20040020, true);
+
+        // When
+        prefetcher.record(1001000, QuerySource.CACHE, Outcome.SUCCESS);
+        prefetcher.record(1001000, QuerySource.CACHE, Outcome.SUCCESS);
+
+        // Then
+        assertThat(counter("cep.prefetch.hits")).isEqualTo(1);
+        assertThat(meterRegistry.get("cep.prefetch.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    private CepPrefetcher prefetcher(CepClient cepClient) {
+        CepPrefetcher prefetcher = new CepPrefetcher(cepCache, cepClient, props, nanos::get, Runnable::run);
+        prefetcher.bindTo(meterRegistry);
+        return prefetcher;
+    }
+
+    private void lookup(CepPrefetcher prefetcher, int key) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        prefetcher.record(key, QuerySource.UPSTREAM, Outcome.SUCCESS);
+    }
+
+    private static void credit(CepPrefetcher prefetcher, int upstreamCalls) {
+        for (int i = 0; i < upstreamCalls; i++) {
+            prefetcher.onUpstreamCall();
+        }
+    }
+
+    private double counter(String name, String... tags) {
+        return meterRegistry.get(name).tags(tags).functionCounter().count();
+    }
+}
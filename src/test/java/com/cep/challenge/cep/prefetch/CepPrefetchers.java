@@ -0,0 +1,20 @@
+package com.cep.challenge.cep.prefetch;
+
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.client.CepClient;
+import com.cep.challenge.config.AppProperties;
+
+/**
+ * {@link CepPrefetcher} para testes de outros pacotes que dependem do que foi
+ * aprendido: aprende na própria thread de {@link CepPrefetcher#record}, então
+ * os padrões já valem na consulta seguinte.
+ */
+public final class CepPrefetchers {
+
+    private CepPrefetchers() {
+    }
+
+    public static CepPrefetcher learningInline(CepCache cepCache, CepClient cepClient, AppProperties props) {
+        return new CepPrefetcher(cepCache, cepClient, props, System::nanoTime, Runnable::run);
+    }
+}
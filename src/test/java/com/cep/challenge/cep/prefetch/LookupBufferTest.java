@@ -0,0 +1,92 @@
+package com.cep.challenge.cep.prefetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LookupBufferTest {
+
+    @Test
+    void offer_WhenFull_ShouldDropAndDrainInArrivalOrder() {
+        // Given
+        LookupBuffer buffer = new LookupBuffer(4);
+        for (int key = 1; key <= 4; key++) {
+            buffer.offer(key, key * 10L);
+        }
+
+        // When
+        boolean acceptedWhenFull = buffer.offer(5, 50);
+        List<LookupBuffer.Lookup> drained = new ArrayList<>();
+        buffer.drain(drained::add);
+        boolean acceptedAfterDrain = buffer.offer(6, 60);
+
+        // Then
+        assertThat(acceptedWhenFull).isFalse();
+        assertThat(drained).extracting(LookupBuffer.Lookup::key).containsExactly(1, 2, 3, 4);
+        assertThat(drained).extracting(LookupBuffer.Lookup::nanos).containsExactly(10L, 20L, 30L, 40L);
+        assertThat(acceptedAfterDrain).isTrue();
+        assertThat(buffer.hasReady()).isTrue();
+    }
+
+    @Test
+    void drain_WhileManyThreadsOffer_ShouldDeliverEachAcceptedLookupOnce() throws Exception {
+        // Given
+        LookupBuffer buffer = new LookupBuffer(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean producing = new AtomicBoolean(true);
+        Set<Integer> drained = new HashSet<>();
+        List<Integer> duplicates = new ArrayList<>();
+
+        // When
+        List<Future<Set<Integer>>> accepted = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                accepted.add(executor.submit(() -> {
+                    Set<Integer> mine = new HashSet<>();
+                    start.await();
+                    for (int key = first; key < first + perProducer; key++) {
+                        if (buffer.offer(key, key)) {
+                            mine.add(key);
+                        }
+                    }
+                    return mine;
+                }));
+            }
+            Thread consumer = Thread.ofPlatform().start(() -> {
+                while (producing.get() || buffer.size() > 0) {
+                    buffer.drain(lookup -> {
+                        if (!drained.add(lookup.key())) {
+                            duplicates.add(lookup.key());
+                        }
+                    });
+                }
+            });
+            start.countDown();
+            Set<Integer> expected = new HashSet<>();
+            for (Future<Set<Integer>> result : accepted) {
+                expected.addAll(result.get(1, TimeUnit.MINUTES));
+            }
+            producing.set(false);
+            consumer.join(TimeUnit.MINUTES.toMillis(1));
+
+            // Then
+            assertThat(duplicates).isEmpty();
+            assertThat(drained).isEqualTo(expected);
+            assertThat(buffer.size()).isZero();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.cep.challenge.cep.repository;
+
+import com.cep.challenge.cep.domain.QueryLog;
+import com.cep.challenge.cep.domain.QuerySource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class QueryLogRepositoryTest {
+
+    @Autowired
+    private QueryLogRepository queryLogRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        queryLogRepository.deleteAll();
+    }
+
+    @Test
+    void findTopCeps_ShouldOrderByFrequencyThenCep() {
+        // Given
+        queryLogRepository.saveAll(List.of(
+                logEntry("20040020", now, true),
+                logEntry("01001000", now, true),
+                logEntry("01001000", now, true),
+                logEntry("30130010", now, true),
+                logEntry("20040020", now, true),
+                logEntry("01001000", now, true)));
+
+        // When
+        List<String> ceps = queryLogRepository.findTopCeps(now.minusHours(1), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(ceps).containsExactly("01001000", "20040020", "30130010");
+    }
+
+    @Test
+    void findTopCeps_ShouldIgnoreFailuresAndOlderQueries() {
+        // Given
+        queryLogRepository.saveAll(List.of(
+                logEntry("01001000", now, true),
+                logEntry("20040020", now, false),
+                logEntry("20040020", now, false),
+                logEntry("30130010", now.minusDays(2), true)));
+
+        // When
+        List<String> ceps = queryLogRepository.findTopCeps(now.minusDays(1), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(ceps).containsExactly("01001000");
+    }
+
+    @Test
+    void findTopCeps_ShouldReturnAtMostPageSize() {
+        // Given
+        queryLogRepository.saveAll(List.of(
+                logEntry("01001000", now, true),
+                logEntry("01001000", now, true),
+                logEntry("20040020", now, true),
+                logEntry("30130010", now, true)));
+
+        // When
+        List<String> ceps = queryLogRepository.findTopCeps(now.minusHours(1), PageRequest.of(0, 2));
+
+        // Then
+        assertThat(ceps).containsExactly("01001000", "20040020");
+    }
+
+    private static QueryLog logEntry(String cep, LocalDateTime queryTime, boolean success) {
+        return new QueryLog(null, cep, queryTime, 10L, success, false, QuerySource.UPSTREAM);
+    }
+}
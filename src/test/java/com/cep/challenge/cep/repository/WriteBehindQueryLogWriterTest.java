@@ -0,0 +1,149 @@
+package com.cep.challenge.cep.repository;
+
+import com.cep.challenge.cep.domain.QueryLog;
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.config.AppProperties.QueryLogSettings;
+import com.cep.challenge.config.AppProperties.QueryLogSettings.OverflowPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WriteBehindQueryLogWriterTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QueryLogRepository queryLogRepository;
+
+    private QueryLogSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        queryLogRepository.deleteAll();
+        settings = new QueryLogSettings();
+        settings.setMode(QueryLogSettings.Mode.WRITE_BEHIND);
+        settings.setBatchSize(50);
+        settings.setFlushInterval(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void write_WhenBatchIsFull_ShouldInsertWithoutWaitingFlushInterval() throws Exception {
+        // Given
+        WriteBehindQueryLogWriter writer = new WriteBehindQueryLogWriter(jdbcTemplate, settings);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            writer.write(logEntry("0100100" + (i % 10)));
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (writer.writtenCount() < 50 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertThat(writer.writtenCount()).isEqualTo(50);
+        assertThat(queryLogRepository.count()).isEqualTo(50);
+        writer.destroy();
+    }
+
+    @Test
+    void destroy_ShouldFlushPendingEntries() throws Exception {
+        // Given
+        WriteBehindQueryLogWriter writer = new WriteBehindQueryLogWriter(jdbcTemplate, settings);
+        for (int i = 0; i < 120; i++) {
+            writer.write(logEntry("01001000"));
+        }
+
+        // When
+        writer.destroy();
+
+        // Then
+        List<QueryLog> saved = queryLogRepository.findAll();
+        assertThat(saved).hasSize(120);
+        assertThat(saved).allSatisfy(entry -> {
+            assertThat(entry.getId()).isNotNull();
+            assertThat(entry.getCep()).isEqualTo("01001000");
+            assertThat(entry.getSuccess()).isTrue();
+            assertThat(entry.getCacheHit()).isFalse();
+            assertThat(entry.getSource()).isEqualTo(QuerySource.UPSTREAM);
+        });
+        assertThat(writer.pendingCount()).isZero();
+    }
+
+    @Test
+    void destroy_WhileRequestsAreStillWriting_ShouldNotLoseEntries() throws Exception {
+        // Given
+        WriteBehindQueryLogWriter writer = new WriteBehindQueryLogWriter(jdbcTemplate, settings);
+        int writers = 4;
+        int perWriter = 250;
+        CountDownLatch started = new CountDownLatch(writers);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        for (int w = 0; w < writers; w++) {
+            executor.submit(() -> {
+                started.countDown();
+                for (int i = 0; i < perWriter; i++) {
+                    writer.write(logEntry("01001000"));
+                }
+            });
+        }
+
+        // When
+        started.await();
+        writer.destroy();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(writer.pendingCount()).isZero();
+        assertThat(queryLogRepository.count()).isEqualTo(writers * perWriter);
+    }
+
+    @Test
+    void write_WhenQueueIsFullAndPolicyIsDrop_ShouldCountDroppedEntries() throws Exception {
+        // Given
+        JdbcTemplate slowJdbc = mock(JdbcTemplate.class);
+        when(slowJdbc.batchUpdate(anyString(), anyList(), anyInt(), any())).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return new int[0][];
+        });
+        settings.setQueueCapacity(10);
+        settings.setBatchSize(1);
+        settings.setOverflowPolicy(OverflowPolicy.DROP);
+        WriteBehindQueryLogWriter writer = new WriteBehindQueryLogWriter(slowJdbc, settings);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            writer.write(logEntry("01001000"));
+        }
+
+        // Then
+        assertThat(writer.droppedCount()).isGreaterThanOrEqualTo(100 - 10 - 1);
+    }
+
+    private QueryLog logEntry(String cep) {
+        return new QueryLog(null, cep, LocalDateTime.now(), 5L, true, false, QuerySource.UPSTREAM);
+    }
+}
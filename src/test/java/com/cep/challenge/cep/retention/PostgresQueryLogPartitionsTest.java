@@ -0,0 +1,129 @@
+package com.cep.challenge.cep.retention;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@code schema-postgresql.sql} contra um Postgres de verdade (o H2 não tem
+ * particionamento nem advisory locks), num container descartável do mesmo
+ * Postgres do {@code docker-compose.yml}. Sem Docker é pulado.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresQueryLogPartitionsTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14");
+
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private PostgresQueryLogPartitions partitions;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table if exists query_logs cascade");
+
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("schema-postgresql.sql"));
+        schema.setSeparator("^^^ END OF SCRIPT ^^^");
+        schema.execute(dataSource);
+        partitions = new PostgresQueryLogPartitions(jdbcTemplate);
+    }
+
+    @Test
+    void insert_WhenDayHasNoPartition_ShouldLandInDefaultPartition() {
+        // Given
+        LocalDate outsideWindow = LocalDate.now().plusDays(30);
+
+        // When
+        insert(outsideWindow);
+
+        // Then
+        assertThat(countRows("query_logs_default")).isEqualTo(1);
+        assertThat(countRows("query_logs")).isEqualTo(1);
+    }
+
+    @Test
+    void create_WhenDefaultHoldsRowsOfTheDay_ShouldMoveThemToTheNewPartition() {
+        // Given
+        LocalDate late = LocalDate.now().plusDays(30);
+        LocalDate skewed = LocalDate.now().minusDays(20);
+        insert(late);
+        insert(late);
+        insert(skewed);
+
+        // When
+        partitions.create(late, late);
+
+        // Then
+        assertThat(countRows("query_logs_default")).isZero();
+        assertThat(countRows(partitionOf(late))).isEqualTo(2);
+        assertThat(countRows(partitionOf(skewed))).isEqualTo(1);
+        assertThat(countRows("query_logs")).isEqualTo(3);
+    }
+
+    @Test
+    void dropBefore_ShouldRemoveSplitDaysButKeepDefaultPartition() {
+        // Given
+        LocalDate skewed = LocalDate.now().minusDays(20);
+        insert(skewed);
+        partitions.create(LocalDate.now(), LocalDate.now());
+
+        // When
+        long dropped = partitions.dropBefore(LocalDate.now().minusDays(7));
+
+        // Then
+        assertThat(dropped).isPositive();
+        assertThat(countRows("query_logs")).isZero();
+        assertThat(jdbcTemplate.queryForObject("select to_regclass('query_logs_default') is not null", Boolean.class))
+                .isTrue();
+    }
+
+    @Test
+    void runExclusively_WhenAnotherSessionHoldsTheLock_ShouldSkipUntilReleased() throws Exception {
+        // Given
+        try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+            statement.execute("select pg_advisory_lock(" + PostgresQueryLogPartitions.LOCK_KEY + ")");
+
+            // When
+            Optional<String> whileHeld = partitions.runExclusively(() -> "ran");
+            statement.execute("select pg_advisory_unlock(" + PostgresQueryLogPartitions.LOCK_KEY + ")");
+            Optional<String> afterRelease = partitions.runExclusively(() -> "ran");
+
+            // Then
+            assertThat(whileHeld).isEmpty();
+            assertThat(afterRelease).contains("ran");
+        }
+    }
+
+    private void insert(LocalDate day) {
+        jdbcTemplate.update("insert into query_logs (cep, query_time, response_time_ms, success, cache_hit, source) "
+                + "values ('01001000', ?, 10, true, false, 'UPSTREAM')", day.atTime(12, 0));
+    }
+
+    private String partitionOf(LocalDate day) {
+        return "query_logs_p" + day.format(PARTITION_DAY);
+    }
+
+    private long countRows(String table) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,176 @@
+package com.cep.challenge.cep.retention;
+
+import com.cep.challenge.cep.domain.QueryLog;
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.repository.QueryLogRepository;
+import com.cep.challenge.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Caminho sem particionamento (H2): mesma consolidação e retenção do Postgres,
+ * com a remoção de dias feita por {@link DeleteQueryLogPartitions}.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryLogRetentionJobTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 10, 12, 30);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QueryLogRepository queryLogRepository;
+
+    private AppProperties props;
+
+    @BeforeEach
+    void setUp() {
+        queryLogRepository.deleteAll();
+        for (String table : List.of("query_log_rollup_hourly", "query_log_rollup_daily", "query_log_rollup_state")) {
+            jdbcTemplate.update("delete from " + table);
+        }
+        props = new AppProperties();
+        props.getRetention().setRaw(Duration.ofDays(7));
+        props.getRetention().setRollupDelay(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void run_ShouldRollCompleteHoursPerCepWithLatencyStats() {
+        // Given
+        save("01001000", NOW.minusHours(2).withMinute(10), 10L, true);
+        save("01001000", NOW.minusHours(2).withMinute(20), 30L, false);
+        save("20040020", NOW.minusHours(2).withMinute(40), 5L, true);
+        save("01001000", NOW.withMinute(1), 7L, true);
+
+        // When
+        QueryLogRetentionJob.Summary summary = job(NOW).run();
+
+        // Then
+        assertThat(summary.hoursRolled()).isEqualTo(2);
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select * from query_log_rollup_hourly where cep = '01001000' and bucket_start = ?",
+                NOW.minusHours(2).truncatedTo(ChronoUnit.HOURS));
+        assertThat(((Number) row.get("TOTAL")).longValue()).isEqualTo(2);
+        assertThat(((Number) row.get("SUCCESS")).longValue()).isEqualTo(1);
+        assertThat(((Number) row.get("LATENCY_MIN_MS")).longValue()).isEqualTo(10);
+        assertThat(((Number) row.get("LATENCY_AVG_MS")).doubleValue()).isCloseTo(20.0, within(1e-9));
+        assertThat(((Number) row.get("LATENCY_MAX_MS")).longValue()).isEqualTo(30);
+        assertThat(countRows("query_log_rollup_hourly")).isEqualTo(2);
+    }
+
+    @Test
+    void run_WhenCalledAgain_ShouldOnlyRollNewHours() {
+        // Given
+        save("01001000", NOW.minusHours(3), 10L, true);
+        QueryLogRetentionJob.Summary first = job(NOW).run();
+
+        // When
+        save("01001000", NOW.withMinute(0), 20L, true);
+        QueryLogRetentionJob.Summary sameHour = job(NOW).run();
+        QueryLogRetentionJob.Summary nextHour = job(NOW.plusHours(1)).run();
+
+        // Then
+        assertThat(first.hoursRolled()).isEqualTo(3);
+        assertThat(sameHour.hoursRolled()).isZero();
+        assertThat(nextHour.hoursRolled()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select sum(total) from query_log_rollup_hourly", Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    void run_ShouldRollCompleteDaysFromHourlyRollups() {
+        // Given
+        LocalDateTime yesterday = NOW.minusDays(1).toLocalDate().atStartOfDay();
+        save("01001000", yesterday.plusHours(1), 10L, true);
+        save("01001000", yesterday.plusHours(5), 30L, true);
+        save("01001000", yesterday.plusHours(5).plusMinutes(1), 50L, false);
+
+        // When
+        QueryLogRetentionJob.Summary summary = job(NOW).run();
+
+        // Then
+        assertThat(summary.daysRolled()).isEqualTo(1);
+        Map<String, Object> row = jdbcTemplate.queryForMap("select * from query_log_rollup_daily where cep = '01001000'");
+        assertThat(((Number) row.get("TOTAL")).longValue()).isEqualTo(3);
+        assertThat(((Number) row.get("SUCCESS")).longValue()).isEqualTo(2);
+        assertThat(((Number) row.get("LATENCY_MIN_MS")).longValue()).isEqualTo(10);
+        assertThat(((Number) row.get("LATENCY_AVG_MS")).doubleValue()).isCloseTo(30.0, within(1e-9));
+        assertThat(((Number) row.get("LATENCY_MAX_MS")).longValue()).isEqualTo(50);
+    }
+
+    @Test
+    void run_ShouldDropRawDaysOlderThanRetention() {
+        // Given
+        save("01001000", NOW.minusDays(8), 10L, true);
+        save("01001000", NOW.minusDays(6), 10L, true);
+
+        // When
+        QueryLogRetentionJob.Summary summary = job(NOW).run();
+
+        // Then
+        assertThat(summary.rawDropped()).isEqualTo(1);
+        assertThat(queryLogRepository.findAll()).extracting(QueryLog::getQueryTime).containsExactly(NOW.minusDays(6));
+        assertThat(jdbcTemplate.queryForObject("select sum(total) from query_log_rollup_hourly", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void run_WhenAnotherInstanceHoldsTheRetention_ShouldSkipRound() {
+        // Given
+        save("01001000", NOW.minusHours(2), 10L, true);
+        save("01001000", NOW.minusDays(8), 10L, true);
+        QueryLogPartitions held = new DeleteQueryLogPartitions(jdbcTemplate) {
+            @Override
+            public <T> Optional<T> runExclusively(Supplier<T> retention) {
+                return Optional.empty();
+            }
+        };
+
+        // When
+        QueryLogRetentionJob.Summary summary = job(NOW, held).run();
+
+        // Then
+        assertThat(summary.skipped()).isTrue();
+        assertThat(queryLogRepository.count()).isEqualTo(2);
+        assertThat(countRows("query_log_rollup_hourly")).isZero();
+    }
+
+    private QueryLogRetentionJob job(LocalDateTime now) {
+        return job(now, new DeleteQueryLogPartitions(jdbcTemplate));
+    }
+
+    private QueryLogRetentionJob job(LocalDateTime now, QueryLogPartitions partitions) {
+        Clock clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        return new QueryLogRetentionJob(jdbcTemplate, transactionManager, partitions, props, null, clock);
+    }
+
+    private void save(String cep, LocalDateTime queryTime, Long responseTimeMs, boolean success) {
+        queryLogRepository.save(new QueryLog(null, cep, queryTime, responseTimeMs, success, false, QuerySource.UPSTREAM));
+    }
+
+    private long countRows(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+}
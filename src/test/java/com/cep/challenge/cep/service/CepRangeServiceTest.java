@@ -0,0 +1,131 @@
+package com.cep.challenge.cep.service;
+
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.dto.CepPage;
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.exception.InvalidRangeException;
+import com.cep.challenge.cep.invalidation.CacheInvalidationBus;
+import com.cep.challenge.cep.offline.OfflineCepSource;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class CepRangeServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private CepCache cepCache;
+
+    private CepRangeService cepRangeService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppProperties props = new AppProperties();
+        props.getOffline().setMode(AppProperties.Offline.Mode.OFFLINE_THEN_REMOTE);
+        props.getOffline().setDatasetFile(dir.resolve("ceps.dat").toString());
+        Path csv = dir.resolve("ceps.csv");
+        Files.writeString(csv, """
+                cep;logradouro;bairro;localidade;uf
+                01001-000;Praça da Sé;Sé;São Paulo;SP
+                01002-000;Rua Direita;Sé;São Paulo;SP
+                01005-000;Rua Antiga;Sé;São Paulo;SP
+                01100-000;Rua Fora da Faixa;Bom Retiro;São Paulo;SP
+                20040-020;Rua Primeiro de Março;Centro;Rio de Janeiro;RJ
+                """, StandardCharsets.UTF_8);
+        props.getOffline().setImportFile(csv.toString());
+        OfflineCepSource offlineCepSource = new OfflineCepSource(props, new ObjectMapper(), mock(TaskScheduler.class),
+                mock(CacheInvalidationBus.class));
+        offlineCepSource.reload();
+
+        cepCache = new CepCache(props);
+        cepRangeService = new CepRangeService(cepCache, offlineCepSource, props);
+    }
+
+    @Test
+    void page_WithPrefix_ShouldMergeCacheAndDatasetInOrderWithoutDuplicates() {
+        // Given
+        cepCache.putFound(CepKeys.parse("01003-000"), new CepResponse("01003000", "Rua do Cache", "Sé", "São Paulo", "SP"));
+        cepCache.putFound(CepKeys.parse("01005000"), new CepResponse("01005000", "Rua Atualizada", "Sé", "São Paulo", "SP"));
+        cepCache.putFound(CepKeys.parse("02000000"), new CepResponse("02000000", "Outra Região", "Santana", "São Paulo", "SP"));
+
+        // When
+        CepPage page = cepRangeService.page(cepRangeService.resolve("0100", null, null), null, null);
+
+        // Then
+        assertThat(page.getItems()).extracting(CepResponse::getCep)
+                .containsExactly("01001000", "01002000", "01003000", "01005000");
+        assertThat(page.getItems().get(3).getLogradouro()).isEqualTo("Rua Atualizada");
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    void page_WithLimit_ShouldReturnCursorUntilLastPage() {
+        // Given
+        CepRangeService.KeyRange range = cepRangeService.resolve(null, "01000-000", "01999-999");
+
+        // When
+        CepPage first = cepRangeService.page(range, null, 2);
+        CepPage second = cepRangeService.page(range, first.getNext(), 2);
+
+        // Then
+        assertThat(first.getItems()).extracting(CepResponse::getCep).containsExactly("01001000", "01002000");
+        assertThat(first.getNext()).isEqualTo("01002000");
+        assertThat(second.getItems()).extracting(CepResponse::getCep).containsExactly("01005000", "01100000");
+        assertThat(second.getNext()).isNull();
+    }
+
+    @Test
+    void stream_ShouldEmitWholeRangeOnDemand() {
+        // Given
+        CepRangeService.KeyRange range = cepRangeService.resolve(null, "00000000", "99999999");
+
+        // When
+        List<String> firstTwo = cepRangeService.stream(range).take(2).map(CepResponse::getCep).collectList().block();
+        List<String> all = cepRangeService.stream(range).map(CepResponse::getCep).collectList().block();
+
+        // Then
+        assertThat(firstTwo).containsExactly("01001000", "01002000");
+        assertThat(all).containsExactly("01001000", "01002000", "01005000", "01100000", "20040020");
+    }
+
+    @Test
+    void resolve_WithPrefix_ShouldCoverAllCepsStartingWithIt() {
+        // When
+        CepRangeService.KeyRange twoDigits = cepRangeService.resolve("01", null, null);
+        CepRangeService.KeyRange full = cepRangeService.resolve("01001000", null, null);
+
+        // Then
+        assertThat(twoDigits).isEqualTo(new CepRangeService.KeyRange(1_000_000, 1_999_999));
+        assertThat(full).isEqualTo(new CepRangeService.KeyRange(1_001_000, 1_001_000));
+    }
+
+    @Test
+    void resolve_WithInvalidParameters_ShouldThrowInvalidRangeException() {
+        assertThatThrownBy(() -> cepRangeService.resolve(null, null, null))
+                .isInstanceOf(InvalidRangeException.class);
+        assertThatThrownBy(() -> cepRangeService.resolve("01a", null, null))
+                .isInstanceOf(InvalidRangeException.class);
+        assertThatThrownBy(() -> cepRangeService.resolve("010010001", null, null))
+                .isInstanceOf(InvalidRangeException.class);
+        assertThatThrownBy(() -> cepRangeService.resolve(null, "02000000", "01000000"))
+                .isInstanceOf(InvalidRangeException.class);
+        assertThatThrownBy(() -> cepRangeService.resolve("01", "01000000", null))
+                .isInstanceOf(InvalidRangeException.class);
+        assertThatThrownBy(() -> cepRangeService.page(new CepRangeService.KeyRange(0, 1), null, 0))
+                .isInstanceOf(InvalidRangeException.class);
+    }
+}
@@ -1,22 +1,59 @@
 package com.cep.challenge.cep.service;
 
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.cache.PersistentCepCache;
 import com.cep.challenge.cep.client.CepClient;
 import com.cep.challenge.cep.domain.QueryLog;
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.dto.CepBatchItem;
 import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.dto.StaleCepResponse;
+import com.cep.challenge.cep.exception.CepNotFoundException;
+import com.cep.challenge.cep.exception.InvalidBatchException;
+import com.cep.challenge.cep.exception.InvalidCepException;
+import com.cep.challenge.cep.exception.UpstreamUnavailableException;
+import com.cep.challenge.cep.jfr.CepStageEvent;
+import com.cep.challenge.cep.metrics.CepMetrics;
+import com.cep.challenge.cep.offline.OfflineCepSource;
+import com.cep.challenge.cep.prefetch.CepPrefetcher;
+import com.cep.challenge.cep.prefetch.CepPrefetchers;
 import com.cep.challenge.cep.repository.QueryLogRepository;
+import com.cep.challenge.cep.repository.ReactiveQueryLogWriter;
+import com.cep.challenge.cep.stats.CepStats;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.cep.repository.SyncQueryLogWriter;
+import com.cep.challenge.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -29,13 +66,27 @@ class CepServiceTest {
     @Mock
     private QueryLogRepository queryLogRepository;
 
-    @InjectMocks
+    @Mock
+    private OfflineCepSource offlineCepSource;
+
+    @Mock
+    private PersistentCepCache persistentCache;
+
     private CepService cepService;
 
+    private CepCache cepCache;
+
     private CepResponse cepResponse;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AppProperties props = new AppProperties();
+        props.getBatch().setConcurrency(4);
+        cepService = serviceWith(props);
+
         cepResponse = new CepResponse();
         cepResponse.setCep("01001000");
         cepResponse.setLogradouro("Praça da Sé");
@@ -147,4 +198,549 @@ class CepServiceTest {
         assertThat(savedLog.getResponseTimeMs()).isNotNull();
         assertThat(savedLog.getResponseTimeMs()).isGreaterThanOrEqualTo(0);
     }
+
+    @Test
+    void getCep_WhenCepIsCached_ShouldNotCallClientAndSaveCacheHitLog() {
+        // Given
+        String cep = "01001000";
+        when(cepClient.findByCep(cep)).thenReturn(cepResponse);
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        cepService.getCep(cep);
+        CepResponse result = cepService.getCep("01001-000");
+
+        // Then
+        assertThat(result).isSameAs(cepResponse);
+        verify(cepClient, times(1)).findByCep(anyString());
+
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository, times(2)).save(logCaptor.capture());
+        assertThat(logCaptor.getAllValues()).extracting(QueryLog::getCacheHit).containsExactly(false, true);
+        assertThat(logCaptor.getAllValues()).extracting(QueryLog::getSuccess).containsExactly(true, true);
+    }
+
+    @Test
+    void getCep_WhenCepWasNotFound_ShouldServeNegativeCache() {
+        // Given
+        String cep = "99999999";
+        when(cepClient.findByCep(cep)).thenThrow(new CepNotFoundException("CEP não encontrado"));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When & Then
+        assertThatThrownBy(() -> cepService.getCep(cep)).isInstanceOf(CepNotFoundException.class);
+        assertThatThrownBy(() -> cepService.getCep(cep)).isInstanceOf(CepNotFoundException.class);
+
+        verify(cepClient, times(1)).findByCep(cep);
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository, times(2)).save(logCaptor.capture());
+        assertThat(logCaptor.getAllValues()).extracting(QueryLog::getCacheHit).containsExactly(false, true);
+        assertThat(logCaptor.getAllValues()).extracting(QueryLog::getSuccess).containsExactly(false, false);
+    }
+
+    @Test
+    void getCep_WhenClientFailsWithTransientError_ShouldNotCacheFailure() {
+        // Given
+        String cep = "01001000";
+        when(cepClient.findByCep(cep))
+                .thenThrow(new RuntimeException("API indisponível"))
+                .thenReturn(cepResponse);
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        assertThatThrownBy(() -> cepService.getCep(cep)).isInstanceOf(RuntimeException.class);
+        CepResponse result = cepService.getCep(cep);
+
+        // Then
+        assertThat(result).isSameAs(cepResponse);
+        verify(cepClient, times(2)).findByCep(cep);
+    }
+
+    @Test
+    void getCep_WithConcurrentCallersForSameCep_ShouldCallClientOnce() throws Exception {
+        // Given
+        String cep = "01001000";
+        int callers = 32;
+        CountDownLatch ready = new CountDownLatch(callers);
+        CountDownLatch release = new CountDownLatch(1);
+        when(cepClient.findByCep(anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return cepResponse;
+        });
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            // When
+            List<Future<CepResponse>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                String input = i % 2 == 0 ? cep : "01001-000";
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    return cepService.getCep(input);
+                }));
+            }
+            ready.await(5, TimeUnit.SECONDS);
+            Thread.sleep(200);
+            release.countDown();
+
+            // Then
+            for (Future<CepResponse> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(cepResponse);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(cepClient, times(1)).findByCep(anyString());
+        verify(queryLogRepository, times(callers)).save(any(QueryLog.class));
+    }
+
+    @Test
+    void getCepReactive_WithValidCep_ShouldReturnResponseAndSaveLog() {
+        // Given
+        String cep = "01001000";
+        when(cepClient.fetch(cep)).thenReturn(Mono.just(cepResponse));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        CepResponse result = cepService.getCepReactive(cep).block();
+
+        // Then
+        assertThat(result).isSameAs(cepResponse);
+        verify(cepClient, never()).findByCep(anyString());
+
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository).save(logCaptor.capture());
+        assertThat(logCaptor.getValue().getSuccess()).isTrue();
+        assertThat(logCaptor.getValue().getCacheHit()).isFalse();
+    }
+
+    @Test
+    void getCepReactive_WhenCepIsCached_ShouldNotSubscribeToClient() {
+        // Given
+        String cep = "01001000";
+        when(cepClient.findByCep(cep)).thenReturn(cepResponse);
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+        cepService.getCep(cep);
+
+        // When
+        CepResponse result = cepService.getCepReactive(cep).block();
+
+        // Then
+        assertThat(result).isSameAs(cepResponse);
+        verify(cepClient, never()).fetch(anyString());
+    }
+
+    @Test
+    void getCepReactive_WhenClientFails_ShouldSaveErrorLogAndPropagate() {
+        // Given
+        String cep = "99999999";
+        when(cepClient.fetch(cep)).thenReturn(Mono.error(new CepNotFoundException("CEP não encontrado")));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When & Then
+        assertThatThrownBy(() -> cepService.getCepReactive(cep).block())
+                .isInstanceOf(CepNotFoundException.class);
+
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository).save(logCaptor.capture());
+        assertThat(logCaptor.getValue().getSuccess()).isFalse();
+    }
+
+    @Test
+    void getCeps_WithDuplicatedCeps_ShouldResolveEachOnceAndWriteLogsInOneBatch() {
+        // Given
+        when(cepClient.fetch("01001000")).thenReturn(Mono.just(cepResponse));
+        when(cepClient.fetch("99999999")).thenReturn(Mono.error(new CepNotFoundException("CEP não encontrado")));
+
+        // When
+        List<CepBatchItem> items = cepService.getCeps(List.of("01001000", "01001-000", "99999999"), true)
+                .collectList()
+                .block();
+
+        // Then
+        assertThat(items).extracting(CepBatchItem::getCep).containsExactly("01001000", "99999999");
+        assertThat(items).extracting(CepBatchItem::getStatus)
+                .containsExactly(CepBatchItem.Status.FOUND, CepBatchItem.Status.NOT_FOUND);
+        assertThat(items.get(0).getData()).isSameAs(cepResponse);
+        verify(cepClient, times(1)).fetch("01001000");
+
+        ArgumentCaptor<Iterable<QueryLog>> logsCaptor = ArgumentCaptor.forClass(Iterable.class);
+        verify(queryLogRepository, times(1)).saveAll(logsCaptor.capture());
+        verify(queryLogRepository, never()).save(any(QueryLog.class));
+        assertThat(logsCaptor.getValue()).hasSize(2);
+    }
+
+    @Test
+    void getCeps_ShouldNotExceedConfiguredConcurrency() {
+        // Given
+        AtomicInteger inFlight = new AtomicInteger();
+        List<Integer> observed = Collections.synchronizedList(new ArrayList<>());
+        when(cepClient.fetch(anyString())).thenAnswer(invocation -> Mono.delay(Duration.ofMillis(20))
+                .doOnSubscribe(subscription -> observed.add(inFlight.incrementAndGet()))
+                .doOnNext(tick -> inFlight.decrementAndGet())
+                .map(tick -> new CepResponse(invocation.getArgument(0), null, null, null, null)));
+
+        List<String> ceps = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ceps.add(String.format("%08d", 1_000_000 + i));
+        }
+
+        // When
+        List<CepBatchItem> items = cepService.getCeps(ceps, false).collectList().block();
+
+        // Then
+        assertThat(items).hasSize(40).allMatch(item -> item.getStatus() == CepBatchItem.Status.FOUND);
+        assertThat(observed).allMatch(concurrent -> concurrent <= 4);
+    }
+
+    @Test
+    void getCep_WithInvalidCep_ShouldFailWithoutCallingClientOrSavingLog() {
+        assertThatThrownBy(() -> cepService.getCep("0100-100"))
+                .isInstanceOf(InvalidCepException.class);
+        assertThatThrownBy(() -> cepService.getCepReactive("abc").block())
+                .isInstanceOf(InvalidCepException.class);
+
+        verifyNoInteractions(cepClient, queryLogRepository, offlineCepSource, persistentCache);
+    }
+
+    @Test
+    void getCeps_WithInvalidCep_ShouldReportItAsInvalidWithoutLookingItUp() {
+        // Given
+        when(cepClient.fetch("01001000")).thenReturn(Mono.just(cepResponse));
+
+        // When
+        List<CepBatchItem> items = cepService.getCeps(List.of("01001000", " abc "), true)
+                .collectList()
+                .block();
+
+        // Then
+        assertThat(items).extracting(CepBatchItem::getCep).containsExactly("01001000", "abc");
+        assertThat(items).extracting(CepBatchItem::getStatus)
+                .containsExactly(CepBatchItem.Status.FOUND, CepBatchItem.Status.INVALID);
+        verify(cepClient, times(1)).fetch(anyString());
+    }
+
+    @Test
+    void getCeps_WithEmptyBatch_ShouldFailWithInvalidBatch() {
+        assertThatThrownBy(() -> cepService.getCeps(List.of(), true).blockLast())
+                .isInstanceOf(InvalidBatchException.class);
+    }
+
+    @Test
+    void getCep_WhenFoundInOfflineDataset_ShouldNotCallClient() {
+        // Given
+        String cep = "01001000";
+        when(offlineCepSource.isEnabled()).thenReturn(true);
+        when(offlineCepSource.find(CepKeys.parse(cep))).thenReturn(cepResponse);
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        CepResponse result = cepService.getCep(cep);
+
+        // Then
+        assertThat(result).isSameAs(cepResponse);
+        verify(cepClient, never()).findByCep(anyString());
+
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository).save(logCaptor.capture());
+        assertThat(logCaptor.getValue().getSource()).isEqualTo(QuerySource.OFFLINE);
+        assertThat(logCaptor.getValue().getSuccess()).isTrue();
+    }
+
+    @Test
+    void getCep_WhenMissingFromOfflineDatasetInOfflineOnlyMode_ShouldFailWithoutCallingClient() {
+        // Given
+        String cep = "99999999";
+        when(offlineCepSource.isEnabled()).thenReturn(true);
+        when(offlineCepSource.isExclusive()).thenReturn(true);
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When & Then
+        assertThatThrownBy(() -> cepService.getCep(cep)).isInstanceOf(CepNotFoundException.class);
+        verify(cepClient, never()).findByCep(anyString());
+    }
+
+    @Test
+    void getCep_WhenMissingFromOfflineDatasetInOfflineThenRemoteMode_ShouldCallClient() {
+        // Given
+        String cep = "01001000";
+        when(offlineCepSource.isEnabled()).thenReturn(true);
+        when(cepClient.findByCep(cep)).thenReturn(cepResponse);
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        CepResponse result = cepService.getCep(cep);
+
+        // Then
+        assertThat(result).isSameAs(cepResponse);
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository).save(logCaptor.capture());
+        assertThat(logCaptor.getValue().getSource()).isEqualTo(QuerySource.UPSTREAM);
+    }
+
+    @Test
+    void getCep_ShouldRecordLookupUpstreamAndCacheMetrics() {
+        // Given
+        String cep = "01001000";
+        when(cepClient.findByCep(cep)).thenReturn(cepResponse);
+        when(cepClient.findByCep("99999999")).thenThrow(new CepNotFoundException("CEP não encontrado"));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        cepService.getCep(cep);
+        cepService.getCep(cep);
+        assertThatThrownBy(() -> cepService.getCep("99999999")).isInstanceOf(CepNotFoundException.class);
+
+        // Then
+        assertThat(timerCount("cep.lookup", "source", "upstream", "outcome", "success")).isEqualTo(1);
+        assertThat(timerCount("cep.lookup", "source", "cache", "outcome", "success")).isEqualTo(1);
+        assertThat(timerCount("cep.lookup", "source", "upstream", "outcome", "not_found")).isEqualTo(1);
+        assertThat(timerCount("cep.upstream", "outcome", "success")).isEqualTo(1);
+        assertThat(timerCount("cep.upstream", "outcome", "not_found")).isEqualTo(1);
+        assertThat(timerCount("cep.querylog.write", "outcome", "success")).isEqualTo(3);
+        assertThat(meterRegistry.get("cep.cache.requests").tag("result", "miss").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cep.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cep.lookup").tag("source", "upstream").tag("outcome", "success")
+                .timer().totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void getCep_WhenCachedEntryIsStale_ShouldServeItAndRefreshInBackground() throws Exception {
+        // Given
+        String cep = "01001000";
+        AppProperties props = new AppProperties();
+        props.getCache().setTtl(Duration.ofMillis(1));
+        CepService staleService = serviceWith(props);
+        CepResponse updated = new CepResponse(cep, "Praça da Sé (atualizada)", "Sé", "São Paulo", "SP");
+        when(cepClient.findByCep(cep)).thenReturn(cepResponse);
+        when(cepClient.fetch(cep)).thenReturn(Mono.just(updated));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+        staleService.getCep(cep);
+        Thread.sleep(5);
+
+        // When
+        CepResponse stale = staleService.getCep(cep);
+
+        // Then
+        assertThat(stale).isInstanceOf(StaleCepResponse.class);
+        assertThat(((StaleCepResponse) stale).isStale()).isTrue();
+        assertThat(stale.getLogradouro()).isEqualTo("Praça da Sé");
+        verify(cepClient, timeout(1_000)).fetch(cep);
+
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository, times(2)).save(logCaptor.capture());
+        assertThat(logCaptor.getAllValues()).extracting(QueryLog::getSource)
+                .containsExactly(QuerySource.UPSTREAM, QuerySource.STALE);
+        assertThat(logCaptor.getAllValues()).extracting(QueryLog::getCacheHit).containsExactly(false, true);
+        assertThat(meterRegistry.get("cep.cache.requests").tag("result", "stale_hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void getCep_WhenCircuitIsOpenAndNothingCached_ShouldFailFastWithShortCircuitLog() {
+        // Given
+        String cep = "01001000";
+        when(cepClient.findByCep(cep)).thenThrow(new UpstreamUnavailableException("circuito aberto"));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When & Then
+        assertThatThrownBy(() -> cepService.getCep(cep)).isInstanceOf(UpstreamUnavailableException.class);
+
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository).save(logCaptor.capture());
+        assertThat(logCaptor.getValue().getSource()).isEqualTo(QuerySource.SHORT_CIRCUIT);
+        assertThat(logCaptor.getValue().getSuccess()).isFalse();
+        assertThat(timerCount("cep.lookup", "source", "short_circuit", "outcome", "error")).isEqualTo(1);
+    }
+
+    @Test
+    void prefetch_ShouldCacheResponseWithoutCountingAsQuery() {
+        // Given
+        String cep = "01001000";
+        when(cepClient.fetch(cep)).thenReturn(Mono.just(cepResponse));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        Boolean first = cepService.prefetch(cep).block();
+        Boolean second = cepService.prefetch("01001-000").block();
+        CepResponse result = cepService.getCep(cep);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(result).isSameAs(cepResponse);
+        verify(cepClient, times(1)).fetch(cep);
+        verify(cepClient, never()).findByCep(anyString());
+
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository, times(1)).save(logCaptor.capture());
+        assertThat(logCaptor.getValue().getSource()).isEqualTo(QuerySource.CACHE);
+        assertThat(timerCount("cep.upstream", "outcome", "success")).isEqualTo(1);
+    }
+
+    @Test
+    void prefetch_ShouldNotEarnPrefetchBudget() {
+        // Given
+        when(cepClient.fetch(anyString())).thenAnswer(invocation ->
+                Mono.just(new CepResponse(invocation.getArgument(0), "Rua Exemplo", "Sé", "São Paulo", "SP")));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        cepService.prefetch("01001000").block();
+        cepService.prefetch("20040020").block();
+        double afterWarmUp = meterRegistry.get("cep.prefetch.budget").gauge().value();
+        cepService.getCepReactive("30112000").block();
+
+        // Then
+        assertThat(afterWarmUp).isZero();
+        assertThat(meterRegistry.get("cep.prefetch.budget").gauge().value()).isPositive();
+    }
+
+    @Test
+    void getCep_WhenInPersistentCache_ShouldServeItWithoutCallingClient() {
+        // Given
+        String cep = "01001000";
+        when(persistentCache.isEnabled()).thenReturn(true);
+        when(persistentCache.find(CepKeys.parse(cep)))
+                .thenReturn(new PersistentCepCache.Hit(cepResponse, Duration.ofMinutes(5)));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        CepResponse first = cepService.getCep(cep);
+        CepResponse second = cepService.getCep(cep);
+
+        // Then
+        assertThat(first).isSameAs(cepResponse);
+        assertThat(second).isSameAs(cepResponse);
+        verify(persistentCache, times(1)).find(CepKeys.parse(cep));
+        verifyNoInteractions(cepClient);
+
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository, times(2)).save(logCaptor.capture());
+        assertThat(logCaptor.getAllValues()).extracting(QueryLog::getSource)
+                .containsExactly(QuerySource.PERSISTENT_CACHE, QuerySource.CACHE);
+        assertThat(logCaptor.getAllValues()).extracting(QueryLog::getCacheHit).containsExactly(true, true);
+    }
+
+    @Test
+    void getCep_WhenPersistedEntryIsOlderThanTtl_ShouldServeItStaleAndRefreshInBackground() {
+        // Given
+        String cep = "01001000";
+        CepResponse updated = new CepResponse(cep, "Praça da Sé (atualizada)", "Sé", "São Paulo", "SP");
+        when(persistentCache.isEnabled()).thenReturn(true);
+        when(persistentCache.find(CepKeys.parse(cep)))
+                .thenReturn(new PersistentCepCache.Hit(cepResponse, Duration.ofDays(2)));
+        when(cepClient.fetch(cep)).thenReturn(Mono.just(updated));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        CepResponse result = cepService.getCep(cep);
+
+        // Then
+        assertThat(result).isInstanceOf(StaleCepResponse.class);
+        assertThat(result.getLogradouro()).isEqualTo("Praça da Sé");
+        verify(cepClient, timeout(1_000)).fetch(cep);
+        verify(persistentCache, timeout(1_000)).put(CepKeys.parse(cep), updated);
+        assertThat(cepService.getCep(cep)).isSameAs(updated);
+    }
+
+    @Test
+    void getCepReactive_WhenPersistentCacheFails_ShouldFallBackToClientAndPersistResponse() {
+        // Given
+        String cep = "01001000";
+        when(persistentCache.isEnabled()).thenReturn(true);
+        when(persistentCache.findAsync(CepKeys.parse(cep))).thenReturn(Mono.error(new IllegalStateException("banco indisponível")));
+        when(cepClient.fetch(cep)).thenReturn(Mono.just(cepResponse));
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+
+        // When
+        CepResponse result = cepService.getCepReactive(cep).block();
+
+        // Then
+        assertThat(result).isSameAs(cepResponse);
+        verify(persistentCache).put(CepKeys.parse(cep), cepResponse);
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository).save(logCaptor.capture());
+        assertThat(logCaptor.getValue().getSource()).isEqualTo(QuerySource.UPSTREAM);
+    }
+
+    @Test
+    void getCep_AfterRecurringCoRequest_ShouldPrefetchNextCepIntoCache() {
+        // Given
+        AppProperties props = new AppProperties();
+        props.getPrefetch().setMinSupport(2);
+        props.getPrefetch().setBudgetRatio(1.0);
+        meterRegistry = new SimpleMeterRegistry();
+        cepService = serviceWith(props);
+        when(cepClient.hasIdleCapacity(anyDouble())).thenReturn(true);
+        when(cepClient.fetch(anyString())).thenAnswer(invocation ->
+                Mono.just(new CepResponse(invocation.getArgument(0), "Rua Exemplo", "Sé", "São Paulo", "SP")));
+        for (int i = 0; i < 2; i++) {
+            cepService.getCepReactive("01001000").block();
+            cepService.getCepReactive("20040020").block();
+        }
+        cepCache.invalidate(CepKeys.parse("20040020"));
+
+        // When
+        cepService.getCepReactive("01001000").block();
+        CepResponse next = cepService.getCepReactive("20040020").block();
+
+        // Then
+        assertThat(next.getCep()).isEqualTo("20040020");
+        verify(cepClient, times(2)).fetch("20040020");
+        ArgumentCaptor<QueryLog> logCaptor = ArgumentCaptor.forClass(QueryLog.class);
+        verify(queryLogRepository, times(6)).save(logCaptor.capture());
+        assertThat(logCaptor.getAllValues().get(5).getSource()).isEqualTo(QuerySource.CACHE);
+        assertThat(meterRegistry.get("cep.prefetch.requests").tag("result", "loaded").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cep.prefetch.hits").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void getCep_WhileRecordingJfr_ShouldEmitOneEventPerStage(@TempDir Path dir) throws Exception {
+        // Given
+        String cep = "01001000";
+        when(cepClient.findByCep(cep)).thenReturn(cepResponse);
+        when(queryLogRepository.save(any(QueryLog.class))).thenReturn(new QueryLog());
+        Path file = dir.resolve("cep.jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable(CepStageEvent.NAME);
+            recording.start();
+            cepService.getCep(cep);
+            cepService.getCep(cep);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(CepStageEvent.NAME))
+                .toList();
+        assertThat(events).extracting(event -> event.getString("stage")).containsExactly(
+                "cache", "upstream", "lookup", "query_log",
+                "cache", "lookup", "query_log");
+        assertThat(events).extracting(event -> event.getString("outcome")).containsExactly(
+                "miss", "success", "success", "success",
+                "hit", "success", "success");
+        assertThat(events).filteredOn(event -> event.getString("stage").equals("lookup"))
+                .extracting(event -> event.getString("source"))
+                .containsExactly("upstream", "cache");
+        assertThat(events).allMatch(event -> event.getString("cep").equals(cep));
+    }
+
+    private CepService serviceWith(AppProperties props) {
+        SyncQueryLogWriter queryLogWriter = new SyncQueryLogWriter(queryLogRepository);
+        cepCache = new CepCache(props);
+        CepPrefetcher prefetcher = CepPrefetchers.learningInline(cepCache, cepClient, props);
+        prefetcher.bindTo(meterRegistry);
+        return new CepService(cepClient, queryLogWriter,
+                new ReactiveQueryLogWriter(queryLogWriter, Schedulers.immediate()), cepCache, offlineCepSource, props,
+                new CepMetrics(meterRegistry), new CepStats(props), persistentCache, prefetcher);
+    }
+
+    private long timerCount(String name, String... tags) {
+        return meterRegistry.get(name).tags(tags).timer().count();
+    }
 }
@@ -0,0 +1,81 @@
+package com.cep.challenge.cep.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_WhenCallFails_ShouldShareFailureWithWaitingCallers() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        RuntimeException failure = new RuntimeException("API indisponível");
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("01001000", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute("01001000", () -> {
+            calls.incrementAndGet();
+            return "não deveria executar";
+        }));
+        awaitWaiting("01001000", 1);
+
+        // When
+        release.countDown();
+
+        // Then
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void execute_AfterCompletion_ShouldStartNewCall() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        singleFlight.execute("01001000", () -> "v" + calls.incrementAndGet());
+        String second = singleFlight.execute("01001000", () -> "v" + calls.incrementAndGet());
+
+        // Then
+        assertThat(second).isEqualTo("v2");
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    /**
+     * Espera o seguidor ficar parado no future do líder, sem depender de um sleep.
+     */
+    private void awaitWaiting(String key, int callers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.waiting(key) < callers) {
+            assertThat(System.nanoTime()).as("seguidor não entrou na espera").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
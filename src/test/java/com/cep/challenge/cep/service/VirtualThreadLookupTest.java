@@ -0,0 +1,202 @@
+package com.cep.challenge.cep.service;
+
+import com.cep.challenge.cep.cache.CepCache;
+import com.cep.challenge.cep.cache.PersistentCepCache;
+import com.cep.challenge.cep.client.CepClient;
+import com.cep.challenge.cep.dto.CepResponse;
+import com.cep.challenge.cep.metrics.CepMetrics;
+import com.cep.challenge.cep.offline.OfflineCepSource;
+import com.cep.challenge.cep.prefetch.CepPrefetcher;
+import com.cep.challenge.cep.repository.QueryLogRepository;
+import com.cep.challenge.cep.repository.QueryLogWriter;
+import com.cep.challenge.cep.repository.ReactiveQueryLogWriter;
+import com.cep.challenge.cep.repository.SyncQueryLogWriter;
+import com.cep.challenge.cep.stats.CepStats;
+import com.cep.challenge.config.AppProperties;
+import com.cep.challenge.config.WebClientConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compara o caminho bloqueante em threads de plataforma (pool do tamanho
+ * padrão do Tomcat) com o mesmo caminho em threads virtuais, de ponta a ponta:
+ * {@link CepClient} real ({@code block()} sobre o WebClient) contra uma API
+ * externa simulada num {@link HttpServer} que fica {@link #UPSTREAM_LATENCY}
+ * parado, e o log gravado pelo {@link SyncQueryLogWriter} via JPA.
+ */
+@Slf4j
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VirtualThreadLookupTest {
+
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+    private static final int REQUESTS = 1_000;
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(500);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicInteger nextCep = new AtomicInteger(1_000_000);
+
+    @Autowired
+    private QueryLogRepository queryLogRepository;
+
+    private HttpServer upstream;
+    private ExecutorService upstreamExecutor;
+    private CepClient cepClient;
+    private CepService cepService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        queryLogRepository.deleteAll();
+        startUpstream();
+
+        AppProperties props = new AppProperties();
+        props.getCache().setEnabled(false);
+        props.getPersistentCache().setEnabled(false);
+        // o pico medido é o das threads, não o do limite adaptativo; numa máquina
+        // lenta as 1000 chamadas passam do slow-call-threshold e abririam o circuito
+        props.getConcurrencyLimit().setEnabled(false);
+        props.getCircuitBreaker().setEnabled(false);
+        // CEPs sequenciais ensinariam vizinhos ao prefetch, com chamadas fora das threads medidas
+        props.getPrefetch().setEnabled(false);
+        AppProperties.Upstream stub = new AppProperties.Upstream();
+        stub.setName("stub");
+        stub.setBaseUrl("http://127.0.0.1:" + upstream.getAddress().getPort());
+        stub.setMaxConnections(REQUESTS);
+        stub.setReadTimeout(Duration.ofSeconds(30));
+        stub.setPendingAcquireTimeout(Duration.ofSeconds(30));
+        props.getUpstreams().add(stub);
+        cepClient = new WebClientConfig().cepClient(props);
+
+        QueryLogWriter writer = new SyncQueryLogWriter(queryLogRepository);
+        CepCache cepCache = new CepCache(props);
+        cepService = new CepService(cepClient, writer,
+                new ReactiveQueryLogWriter(writer, Schedulers.immediate()), cepCache, mock(OfflineCepSource.class), props,
+                new CepMetrics(new SimpleMeterRegistry()), new CepStats(props), new PersistentCepCache(null, null, props, null),
+                new CepPrefetcher(cepCache, cepClient, props));
+
+        // carrega as classes do caminho fora da medição (a inicialização de classe também fixa a thread)
+        runLookups(Executors.newFixedThreadPool(4), 20);
+        peakInFlight.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cepClient.destroy();
+        upstream.stop(0);
+        upstreamExecutor.shutdownNow();
+    }
+
+    @Test
+    void getCep_OnVirtualThreads_ShouldExceedPlatformPoolConcurrency() throws Exception {
+        // Given
+        runLookups(Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS), REQUESTS);
+        int platformPeak = peakInFlight.getAndSet(0);
+
+        // When
+        runLookups(Executors.newVirtualThreadPerTaskExecutor(), REQUESTS);
+        int virtualPeak = peakInFlight.get();
+
+        // Then
+        log.info("📊 {} consultas - pico na API externa com plataforma ({} threads): {} | virtuais: {}",
+                REQUESTS, TOMCAT_DEFAULT_MAX_THREADS, platformPeak, virtualPeak);
+        assertThat(platformPeak).isLessThanOrEqualTo(TOMCAT_DEFAULT_MAX_THREADS);
+        assertThat(virtualPeak).isGreaterThan(TOMCAT_DEFAULT_MAX_THREADS);
+        assertThat(queryLogRepository.count()).isEqualTo(20 + 2L * REQUESTS);
+    }
+
+    @Test
+    void getCep_OnVirtualThreads_ShouldNotPinCarrierThreads() throws Exception {
+        // Given
+        List<String> pinnedStacks = new ArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                synchronized (pinnedStacks) {
+                    pinnedStacks.add(String.valueOf(event.getStackTrace()));
+                }
+            });
+            recording.startAsync();
+
+            // When
+            runLookups(Executors.newVirtualThreadPerTaskExecutor(), REQUESTS);
+            recording.stop();
+        }
+
+        // Then
+        assertThat(pinnedStacks).isEmpty();
+    }
+
+    private void runLookups(ExecutorService executor, int requests) throws Exception {
+        try (executor) {
+            List<Future<CepResponse>> results = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                String cep = String.format("%08d", nextCep.getAndIncrement());
+                results.add(executor.submit(() -> cepService.getCep(cep)));
+            }
+            for (Future<CepResponse> result : results) {
+                assertThat(result.get(1, TimeUnit.MINUTES)).isNotNull();
+            }
+        }
+    }
+
+    /**
+     * API externa simulada: cada chamada tem uma thread (de plataforma, para
+     * não entrar no registro de pinning), então o pico medido aqui é o de
+     * chamadas simultâneas feitas pelo serviço.
+     */
+    private void startUpstream() throws IOException {
+        upstreamExecutor = Executors.newCachedThreadPool();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), REQUESTS);
+        upstream.createContext("/cep/", exchange -> {
+            int current = inFlight.incrementAndGet();
+            peakInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(UPSTREAM_LATENCY);
+                String cep = exchange.getRequestURI().getPath().replaceAll("\\D", "");
+                byte[] body = ("{\"cep\": \"" + cep + "\", \"logradouro\": \"Rua Exemplo\", \"bairro\": \"Bairro Exemplo\", "
+                        + "\"localidade\": \"Cidade Exemplo\", \"uf\": \"SP\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                // sem keep-alive: o HttpServer fecha conexões ociosas além de 200 e o
+                // pool do cliente poderia reaproveitar uma que está sendo fechada
+                exchange.getResponseHeaders().add("Connection", "close");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        upstream.setExecutor(upstreamExecutor);
+        upstream.start();
+    }
+}
@@ -0,0 +1,126 @@
+package com.cep.challenge.cep.stats;
+
+import com.cep.challenge.cep.domain.QuerySource;
+import com.cep.challenge.cep.dto.CepStatsResponse;
+import com.cep.challenge.cep.exception.InvalidStatsQueryException;
+import com.cep.challenge.cep.metrics.CepMetrics.Outcome;
+import com.cep.challenge.cep.util.CepKeys;
+import com.cep.challenge.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class CepStatsTest {
+
+    private final AtomicLong millis = new AtomicLong(Instant.parse("2026-01-01T12:00:00Z").toEpochMilli());
+
+    private CepStats cepStats;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties props = new AppProperties();
+        props.getStats().setBucketDuration(Duration.ofMinutes(1));
+        props.getStats().setRetention(Duration.ofHours(1));
+        props.getStats().setTopKCapacity(8);
+        props.getStats().setDefaultTop(3);
+        cepStats = new CepStats(props, millis::get);
+    }
+
+    @Test
+    void snapshot_ShouldAggregateOutcomesSourcesAndTopCeps() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            cepStats.record(CepKeys.parse("01001-000"), QuerySource.CACHE, Outcome.SUCCESS, millisToNanos(1));
+        }
+        for (int i = 0; i < 3; i++) {
+            cepStats.record(CepKeys.parse("20040020"), QuerySource.UPSTREAM, Outcome.SUCCESS, millisToNanos(100));
+        }
+        cepStats.record(CepKeys.parse("99999999"), QuerySource.UPSTREAM, Outcome.NOT_FOUND, millisToNanos(50));
+        cepStats.record(CepKeys.parse("01310100"), QuerySource.SHORT_CIRCUIT, Outcome.ERROR, millisToNanos(1));
+
+        // When
+        CepStatsResponse stats = cepStats.snapshot("15m", null);
+
+        // Then
+        assertThat(stats.getTotal()).isEqualTo(10);
+        assertThat(stats.getSuccess()).isEqualTo(8);
+        assertThat(stats.getNotFound()).isEqualTo(1);
+        assertThat(stats.getErrors()).isEqualTo(1);
+        assertThat(stats.getSuccessRatio()).isCloseTo(0.8, within(1e-9));
+        assertThat(stats.getSources()).containsEntry("cache", 5L).containsEntry("upstream", 4L)
+                .containsEntry("short_circuit", 1L).containsEntry("offline", 0L);
+        assertThat(stats.getTopCeps()).extracting(CepStatsResponse.TopCep::getCep)
+                .containsExactly("01001000", "20040020", "01310100");
+        assertThat(stats.getTopCeps().get(0).getCount()).isEqualTo(5);
+        assertThat(stats.getWindow()).isEqualTo("PT15M");
+    }
+
+    @Test
+    void snapshot_ShouldReportLatencyPercentilesWithinBucketResolution() {
+        // Given
+        for (int i = 1; i <= 100; i++) {
+            cepStats.record(CepKeys.parse("01001000"), QuerySource.UPSTREAM, Outcome.SUCCESS, millisToNanos(i));
+        }
+
+        // When
+        CepStatsResponse.Latency latency = cepStats.snapshot(null, null).getLatencyMs();
+
+        // Then
+        assertThat(latency.getP50()).isBetween(50.0, 50.0 * 1.25);
+        assertThat(latency.getP95()).isBetween(95.0, 95.0 * 1.25);
+        assertThat(latency.getP99()).isBetween(99.0, 100.0);
+        assertThat(latency.getMax()).isEqualTo(100.0);
+    }
+
+    @Test
+    void snapshot_ShouldOnlyIncludeBucketsInsideWindow() {
+        // Given
+        cepStats.record(CepKeys.parse("01001000"), QuerySource.CACHE, Outcome.SUCCESS, millisToNanos(1));
+        millis.addAndGet(Duration.ofMinutes(10).toMillis());
+        cepStats.record(CepKeys.parse("20040020"), QuerySource.CACHE, Outcome.SUCCESS, millisToNanos(1));
+
+        // When
+        CepStatsResponse lastFiveMinutes = cepStats.snapshot("5m", null);
+        CepStatsResponse lastHour = cepStats.snapshot("1h", null);
+
+        // Then
+        assertThat(lastFiveMinutes.getTotal()).isEqualTo(1);
+        assertThat(lastFiveMinutes.getTopCeps()).extracting(CepStatsResponse.TopCep::getCep).containsExactly("20040020");
+        assertThat(lastHour.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void record_AfterRetention_ShouldReuseRingSlotForNewBucket() {
+        // Given
+        cepStats.record(CepKeys.parse("01001000"), QuerySource.CACHE, Outcome.SUCCESS, millisToNanos(1));
+        millis.addAndGet(Duration.ofHours(1).toMillis());
+
+        // When
+        cepStats.record(CepKeys.parse("20040020"), QuerySource.CACHE, Outcome.SUCCESS, millisToNanos(1));
+        CepStatsResponse stats = cepStats.snapshot("1h", null);
+
+        // Then
+        assertThat(stats.getTotal()).isEqualTo(1);
+        assertThat(stats.getTopCeps()).extracting(CepStatsResponse.TopCep::getCep).containsExactly("20040020");
+    }
+
+    @Test
+    void snapshot_WithInvalidParameters_ShouldThrowInvalidStatsQueryException() {
+        assertThatThrownBy(() -> cepStats.snapshot("ontem", null)).isInstanceOf(InvalidStatsQueryException.class);
+        assertThatThrownBy(() -> cepStats.snapshot("2h", null)).isInstanceOf(InvalidStatsQueryException.class);
+        assertThatThrownBy(() -> cepStats.snapshot("0s", null)).isInstanceOf(InvalidStatsQueryException.class);
+        assertThatThrownBy(() -> cepStats.snapshot("1h", 9)).isInstanceOf(InvalidStatsQueryException.class);
+    }
+
+    private static long millisToNanos(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+}
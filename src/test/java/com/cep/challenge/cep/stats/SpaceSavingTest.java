@@ -0,0 +1,48 @@
+package com.cep.challenge.cep.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    @Test
+    void add_WithSkewedStream_ShouldKeepHeavyHittersWithBoundedError() {
+        // Given
+        SpaceSaving topK = new SpaceSaving(16);
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            int key = i % 4 == 0 ? 1 : i % 10 == 1 ? 2 : 1_000 + random.nextInt(5_000);
+            topK.add(key);
+        }
+
+        // Then
+        assertThat(topK.size()).isEqualTo(16);
+        long heaviest = countOf(topK, 1);
+        long second = countOf(topK, 2);
+        assertThat(heaviest).isGreaterThanOrEqualTo(2_500).isLessThanOrEqualTo(2_500 + errorOf(topK, 1));
+        assertThat(second).isGreaterThanOrEqualTo(1_000).isLessThanOrEqualTo(1_000 + errorOf(topK, 2));
+    }
+
+    private static long countOf(SpaceSaving topK, int key) {
+        for (int i = 0; i < topK.size(); i++) {
+            if (topK.key(i) == key) {
+                return topK.count(i);
+            }
+        }
+        return 0;
+    }
+
+    private static long errorOf(SpaceSaving topK, int key) {
+        for (int i = 0; i < topK.size(); i++) {
+            if (topK.key(i) == key) {
+                return topK.error(i);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.cep.challenge.cep.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CepKeysTest {
+
+    @Test
+    void parse_WithAcceptedFormats_ShouldReturnSameKey() {
+        assertThat(CepKeys.parse("01001000")).isEqualTo(1_001_000);
+        assertThat(CepKeys.parse("01001-000")).isEqualTo(1_001_000);
+        assertThat(CepKeys.parse("01.001-000")).isEqualTo(1_001_000);
+        assertThat(CepKeys.parse("  01001-000 ")).isEqualTo(1_001_000);
+        assertThat(CepKeys.parse("99999999")).isEqualTo(CepKeys.MAX);
+    }
+
+    @Test
+    void parse_WithInvalidInput_ShouldReturnInvalid() {
+        assertThat(CepKeys.parse(null)).isEqualTo(CepKeys.INVALID);
+        assertThat(CepKeys.parse("")).isEqualTo(CepKeys.INVALID);
+        assertThat(CepKeys.parse("0100100")).isEqualTo(CepKeys.INVALID);
+        assertThat(CepKeys.parse("010010000")).isEqualTo(CepKeys.INVALID);
+        assertThat(CepKeys.parse("0100-1000")).isEqualTo(CepKeys.INVALID);
+        assertThat(CepKeys.parse("01001--000")).isEqualTo(CepKeys.INVALID);
+        assertThat(CepKeys.parse("01001-")).isEqualTo(CepKeys.INVALID);
+        assertThat(CepKeys.parse("0100100a")).isEqualTo(CepKeys.INVALID);
+        assertThat(CepKeys.parse("01 001000")).isEqualTo(CepKeys.INVALID);
+    }
+
+    @Test
+    void format_ShouldPadWithZeros() {
+        assertThat(CepKeys.format(1_001_000)).isEqualTo("01001000");
+        assertThat(CepKeys.format(0)).isEqualTo("00000000");
+        assertThatThrownBy(() -> CepKeys.format(100_000_000)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
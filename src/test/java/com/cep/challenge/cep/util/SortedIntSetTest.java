@@ -0,0 +1,59 @@
+package com.cep.challenge.cep.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedIntSetTest {
+
+    @Test
+    void higher_AfterAddsAndRemoves_ShouldSeeLatestOperationPerValue() {
+        // Given
+        SortedIntSet set = new SortedIntSet();
+        set.add(30);
+        set.add(10);
+        set.add(20);
+        set.remove(20);
+        set.add(20);
+        set.remove(10);
+
+        // When / Then
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.contains(10)).isFalse();
+        assertThat(set.higher(Integer.MIN_VALUE + 1)).isEqualTo(20);
+        assertThat(set.higher(20)).isEqualTo(30);
+        assertThat(set.higher(30)).isEqualTo(SortedIntSet.NONE);
+    }
+
+    @Test
+    void add_WithManyChanges_ShouldMatchTreeSetAcrossBatchedMerges() {
+        // Given
+        SortedIntSet set = new SortedIntSet();
+        TreeSet<Integer> expected = new TreeSet<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // When
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                set.remove(value);
+                expected.remove(value);
+            } else {
+                set.add(value);
+                expected.add(value);
+            }
+        }
+
+        // Then
+        assertThat(set.size()).isEqualTo(expected.size());
+        int value = set.higher(-1);
+        for (int next : expected) {
+            assertThat(value).isEqualTo(next);
+            value = set.higher(value);
+        }
+        assertThat(value).isEqualTo(SortedIntSet.NONE);
+    }
+}
@@ -0,0 +1,151 @@
+package com.cep.challenge.cep.warmup;
+
+import com.cep.challenge.cep.exception.CepNotFoundException;
+import com.cep.challenge.cep.repository.QueryLogRepository;
+import com.cep.challenge.cep.service.CepService;
+import com.cep.challenge.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmUpTest {
+
+    @Mock
+    private CepService cepService;
+
+    @Mock
+    private QueryLogRepository queryLogRepository;
+
+    private AppProperties props;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        props = new AppProperties();
+        props.getWarmUp().setRatePerSecond(0);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void warmUp_FromQueryLogs_ShouldPrefetchTopCepsAndRecordResults() {
+        // Given
+        props.getWarmUp().setTopN(3);
+        when(queryLogRepository.findTopCeps(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of("01001000", "20040020", "99999999"));
+        when(cepService.prefetch("01001000")).thenReturn(Mono.just(true));
+        when(cepService.prefetch("20040020")).thenReturn(Mono.just(false));
+        when(cepService.prefetch("99999999")).thenReturn(Mono.error(new CepNotFoundException("não encontrado")));
+
+        // When
+        CacheWarmUp.Summary summary = warmUp().warmUp();
+
+        // Then
+        assertThat(summary.total()).isEqualTo(3);
+        assertThat(summary.loaded()).isEqualTo(1);
+        assertThat(summary.cached()).isEqualTo(1);
+        assertThat(summary.notFound()).isEqualTo(1);
+        assertThat(summary.errors()).isZero();
+        verify(queryLogRepository).findTopCeps(any(LocalDateTime.class), argThat(page -> page.getPageSize() == 3));
+        assertThat(meterRegistry.get("cep.warmup.ceps").tag("result", "loaded").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cep.warmup.progress").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void warmUp_FromSnapshotFile_ShouldSkipCommentsAndDuplicates(@TempDir Path dir) throws IOException {
+        // Given
+        Path file = dir.resolve("ceps.txt");
+        Files.writeString(file, "# mais consultados\n01001-000\n\n01001000\n20040020\n30140071\n");
+        props.getWarmUp().setSource(AppProperties.WarmUp.Source.FILE);
+        props.getWarmUp().setSnapshotFile(file.toString());
+        props.getWarmUp().setTopN(2);
+        when(cepService.prefetch(anyString())).thenReturn(Mono.just(true));
+
+        // When
+        CacheWarmUp.Summary summary = warmUp().warmUp();
+
+        // Then
+        assertThat(summary.loaded()).isEqualTo(2);
+        verify(cepService).prefetch("01001000");
+        verify(cepService).prefetch("20040020");
+        verifyNoMoreInteractions(cepService);
+        verifyNoInteractions(queryLogRepository);
+    }
+
+    @Test
+    void warmUp_ShouldLimitConcurrentPrefetches() {
+        // Given
+        props.getWarmUp().setConcurrency(3);
+        List<String> ceps = IntStream.range(0, 30).mapToObj(i -> String.format("%08d", i)).toList();
+        when(queryLogRepository.findTopCeps(any(LocalDateTime.class), any(Pageable.class))).thenReturn(ceps);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(cepService.prefetch(anyString())).thenAnswer(invocation -> Mono.delay(Duration.ofMillis(5))
+                .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                .doOnNext(tick -> inFlight.decrementAndGet())
+                .thenReturn(true));
+
+        // When
+        CacheWarmUp.Summary summary = warmUp().warmUp();
+
+        // Then
+        assertThat(summary.loaded()).isEqualTo(30);
+        assertThat(maxInFlight.get()).isEqualTo(3);
+    }
+
+    @Test
+    void warmUp_WhenTimeoutExpires_ShouldStopWithPartialProgress() {
+        // Given
+        props.getWarmUp().setRatePerSecond(100);
+        props.getWarmUp().setTimeout(Duration.ofMillis(200));
+        List<String> ceps = IntStream.range(0, 1_000).mapToObj(i -> String.format("%08d", i)).toList();
+        when(queryLogRepository.findTopCeps(any(LocalDateTime.class), any(Pageable.class))).thenReturn(ceps);
+        when(cepService.prefetch(anyString())).thenReturn(Mono.just(true));
+
+        // When
+        CacheWarmUp.Summary summary = warmUp().warmUp();
+
+        // Then
+        assertThat(summary.total()).isEqualTo(1_000);
+        assertThat(summary.completed()).isBetween(1L, 100L);
+        assertThat(summary.duration()).isLessThan(Duration.ofSeconds(5));
+        assertThat(meterRegistry.get("cep.warmup.progress").gauge().value()).isLessThan(1.0);
+    }
+
+    @Test
+    void run_WhenDisabled_ShouldNotLoadCeps() {
+        // Given
+        props.getWarmUp().setEnabled(false);
+
+        // When
+        warmUp().run(null);
+
+        // Then
+        verifyNoInteractions(queryLogRepository, cepService);
+    }
+
+    private CacheWarmUp warmUp() {
+        return new CacheWarmUp(cepService, queryLogRepository, props, meterRegistry);
+    }
+}